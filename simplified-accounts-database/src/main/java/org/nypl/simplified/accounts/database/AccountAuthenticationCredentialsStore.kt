@@ -1,25 +1,57 @@
 package org.nypl.simplified.accounts.database
 
+import com.fasterxml.jackson.databind.node.ObjectNode
 import net.jcip.annotations.GuardedBy
 import org.nypl.simplified.accounts.api.AccountAuthenticationCredentials
 import org.nypl.simplified.accounts.api.AccountAuthenticationCredentialsStoreType
 import org.nypl.simplified.accounts.api.AccountID
+import org.nypl.simplified.accounts.json.AccountAuthenticationCredentialsJSON
 import org.nypl.simplified.accounts.json.AccountAuthenticationCredentialsStoreJSON
 import org.nypl.simplified.files.FileUtilities
+import org.nypl.simplified.json.core.JSONObjectMappers
+import org.nypl.simplified.json.core.JSONParserUtilities
+import org.slf4j.LoggerFactory
 import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.util.UUID
 
 /**
- * A trivial credential store that serializes credentials to an on-disk JSON file.
+ * A credential store that serializes credentials to an on-disk JSON file.
+ *
+ * Changes to the store are appended to a journal file alongside the main file, so that
+ * updating the credentials for a single account costs a single small write. The journal is
+ * replayed when the store is opened and then compacted into the main file; it is also
+ * compacted once it has accumulated a number of entries. A journal entry that was only
+ * partially written (because the application was killed during a write) is ignored.
  */
 
 class AccountAuthenticationCredentialsStore(
   private val file: File,
   private val fileTemp: File,
-  initialCredentials: Map<AccountID, AccountAuthenticationCredentials>
+  initialCredentials: Map<AccountID, AccountAuthenticationCredentials>,
+  private val fileJournal: File = journalFileOf(file)
 ) : AccountAuthenticationCredentialsStoreType {
 
   companion object {
 
+    private val logger =
+      LoggerFactory.getLogger(AccountAuthenticationCredentialsStore::class.java)
+
+    /**
+     * The number of journal entries after which the journal is compacted into the
+     * main file.
+     */
+
+    const val COMPACT_AFTER_ENTRIES = 64
+
+    /**
+     * @return The journal file used for the store in the given file
+     */
+
+    fun journalFileOf(file: File): File =
+      File(file.parentFile, "${file.name}.journal")
+
     /**
      * Open a credential store, or create a new one if it does not exist.
      */
@@ -40,23 +72,72 @@ class AccountAuthenticationCredentialsStore(
           mapOf()
         }
 
+      val fileJournal = journalFileOf(file)
       val store =
         AccountAuthenticationCredentialsStore(
           file = file,
           fileTemp = fileTemp,
-          initialCredentials = initialCredentials
+          initialCredentials = replayJournal(fileJournal, initialCredentials),
+          fileJournal = fileJournal
         )
 
       synchronized(store.storeLock) {
-        store.writeLocked()
+        store.compactLocked()
       }
       return store
     }
+
+    private fun replayJournal(
+      fileJournal: File,
+      initialCredentials: Map<AccountID, AccountAuthenticationCredentials>
+    ): Map<AccountID, AccountAuthenticationCredentials> {
+      if (!fileJournal.isFile) {
+        return initialCredentials
+      }
+
+      val result = initialCredentials.toMutableMap()
+      val lines = fileJournal.readLines(Charsets.UTF_8)
+      for (line in lines) {
+        if (line.isBlank()) {
+          continue
+        }
+        try {
+          this.replayEntry(result, line)
+        } catch (e: Exception) {
+          this.logger.error("ignoring unreadable journal entry: ", e)
+        }
+      }
+      return result.toMap()
+    }
+
+    private fun replayEntry(
+      credentials: MutableMap<AccountID, AccountAuthenticationCredentials>,
+      line: String
+    ) {
+      val obj =
+        JSONParserUtilities.checkObject(null, JSONObjectMappers.mapper().readTree(line))
+      val accountID =
+        AccountID(UUID.fromString(JSONParserUtilities.getString(obj, "account")))
+
+      when (val operation = JSONParserUtilities.getString(obj, "operation")) {
+        "put" ->
+          credentials[accountID] =
+            AccountAuthenticationCredentialsJSON.deserializeFromJSON(
+              JSONParserUtilities.getObject(obj, "credentials")
+            )
+        "delete" ->
+          credentials.remove(accountID)
+        else ->
+          throw IOException("Unrecognized journal operation: $operation")
+      }
+    }
   }
 
   private val storeLock = Object()
   @GuardedBy("storeLock")
   private var store = initialCredentials.toMap()
+  @GuardedBy("storeLock")
+  private var journalEntries = 0
 
   override fun get(account: AccountID): AccountAuthenticationCredentials? {
     return synchronized(this.storeLock) {
@@ -76,22 +157,101 @@ class AccountAuthenticationCredentialsStore(
   ) {
     synchronized(this.storeLock) {
       this.store = this.store.plus(Pair(account, credentials))
-      this.writeLocked()
+
+      val entry = this.journalEntry("put", account)
+      entry.set<ObjectNode>(
+        "credentials",
+        AccountAuthenticationCredentialsJSON.serializeToJSON(credentials)
+      )
+      this.appendLocked(entry)
     }
   }
 
   override fun delete(account: AccountID) {
     synchronized(this.storeLock) {
       this.store = this.store.minus(account)
-      this.writeLocked()
+      this.appendLocked(this.journalEntry("delete", account))
+    }
+  }
+
+  private fun journalEntry(
+    operation: String,
+    account: AccountID
+  ): ObjectNode {
+    val entry = JSONObjectMappers.mapper().createObjectNode()
+    entry.put("operation", operation)
+    entry.put("account", account.uuid.toString())
+    return entry
+  }
+
+  /**
+   * Append an entry to the journal. If the journal cannot be written, or has accumulated
+   * enough entries, the entire store is written to the main file instead.
+   */
+
+  private fun appendLocked(entry: ObjectNode) {
+    if (this.journalEntries + 1 >= COMPACT_AFTER_ENTRIES) {
+      this.compactLocked()
+      return
+    }
+
+    try {
+      val text = JSONObjectMappers.mapper().writeValueAsString(entry) + "\n"
+      FileOutputStream(this.fileJournal, true).use { stream ->
+        stream.write(text.toByteArray(Charsets.UTF_8))
+        stream.flush()
+        stream.fd.sync()
+      }
+      this.journalEntries += 1
+    } catch (e: IOException) {
+      logger.error("could not append to credentials journal: ", e)
+      this.compactLocked()
     }
   }
 
-  private fun writeLocked() {
+  /**
+   * Write the entire store to the main file, and then truncate and delete the journal. The
+   * operation that triggered the compaction is not itself journaled, and so the journal must
+   * be emptied before any further entries are appended to it: replaying stale entries over the
+   * newly written file would undo changes, such as restoring credentials that have since been
+   * deleted. The journal is truncated before it is deleted so that an empty journal is left
+   * behind if it cannot be deleted. If the journal cannot be truncated, it is moved aside and
+   * deleted, and if that also fails, the compaction fails.
+   */
+
+  @Throws(IOException::class)
+  private fun compactLocked() {
     FileUtilities.fileWriteUTF8Atomically(
       this.file,
       this.fileTemp,
       AccountAuthenticationCredentialsStoreJSON.serializeToText(this.store)
     )
+
+    if (this.fileJournal.exists()) {
+      try {
+        FileOutputStream(this.fileJournal, false).use { stream ->
+          stream.flush()
+          stream.fd.sync()
+        }
+      } catch (e: IOException) {
+        logger.error("could not truncate credentials journal {}: ", this.fileJournal, e)
+        this.discardJournalLocked()
+      }
+      if (this.fileJournal.exists() && !this.fileJournal.delete()) {
+        logger.warn("could not delete empty credentials journal {}", this.fileJournal)
+      }
+    }
+    this.journalEntries = 0
+  }
+
+  @Throws(IOException::class)
+  private fun discardJournalLocked() {
+    val fileDiscarded = File(this.fileJournal.parentFile, "${this.fileJournal.name}.discarded")
+    if (!this.fileJournal.renameTo(fileDiscarded)) {
+      throw IOException("Could not truncate or discard the credentials journal ${this.fileJournal}")
+    }
+    if (!fileDiscarded.delete()) {
+      logger.error("could not delete discarded credentials journal {}", fileDiscarded)
+    }
   }
 }
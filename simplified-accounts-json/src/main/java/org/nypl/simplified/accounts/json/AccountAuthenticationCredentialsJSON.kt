@@ -15,6 +15,7 @@ import org.nypl.simplified.accounts.api.AccountAuthenticationCredentials
 import org.nypl.simplified.accounts.api.AccountCookie
 import org.nypl.simplified.accounts.api.AccountPassword
 import org.nypl.simplified.accounts.api.AccountUsername
+import org.nypl.simplified.json.core.JSONObjectMappers
 import org.nypl.simplified.json.core.JSONParseException
 import org.nypl.simplified.json.core.JSONParserUtilities
 import org.slf4j.LoggerFactory
@@ -50,7 +51,7 @@ object AccountAuthenticationCredentialsJSON {
   fun serializeToJSON(
     credentials: AccountAuthenticationCredentials
   ): ObjectNode {
-    val objectMapper = ObjectMapper()
+    val objectMapper = JSONObjectMappers.mapper()
     val authObject = objectMapper.createObjectNode()
     authObject.put("@version", this.currentSupportedVersion)
     authObject.put("authenticationDescription", credentials.authenticationDescription)
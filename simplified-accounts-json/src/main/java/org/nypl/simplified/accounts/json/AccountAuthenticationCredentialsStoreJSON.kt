@@ -1,10 +1,10 @@
 package org.nypl.simplified.accounts.json
 
 import com.fasterxml.jackson.databind.JsonNode
-import com.fasterxml.jackson.databind.ObjectMapper
 import com.fasterxml.jackson.databind.node.ObjectNode
 import org.nypl.simplified.accounts.api.AccountAuthenticationCredentials
 import org.nypl.simplified.accounts.api.AccountID
+import org.nypl.simplified.json.core.JSONObjectMappers
 import org.nypl.simplified.json.core.JSONParseException
 import org.nypl.simplified.json.core.JSONParserUtilities
 import org.nypl.simplified.json.core.JSONSerializerUtilities
@@ -61,7 +61,7 @@ object AccountAuthenticationCredentialsStoreJSON {
    */
 
   fun serializeToJSON(credentials: Map<AccountID, AccountAuthenticationCredentials>): ObjectNode {
-    val jom = ObjectMapper()
+    val jom = JSONObjectMappers.mapper()
 
     val obj = jom.createObjectNode()
     obj.put("@version", currentSupportedVersion)
@@ -88,7 +88,7 @@ object AccountAuthenticationCredentialsStoreJSON {
 
   @Throws(IOException::class)
   fun deserializeFromText(text: String): Map<AccountID, AccountAuthenticationCredentials> {
-    return deserializeFromJSON(ObjectMapper().readTree(text))
+    return deserializeFromJSON(JSONObjectMappers.mapper().readTree(text))
   }
 
   /**
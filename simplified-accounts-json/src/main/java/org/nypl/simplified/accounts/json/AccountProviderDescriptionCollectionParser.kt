@@ -1,12 +1,12 @@
 package org.nypl.simplified.accounts.json
 
 import com.fasterxml.jackson.databind.JsonNode
-import com.fasterxml.jackson.databind.ObjectMapper
 import com.fasterxml.jackson.databind.node.ObjectNode
 import org.nypl.drm.core.AdobeVendorID
 import org.nypl.simplified.accounts.api.AccountProviderDescriptionCollection
 import org.nypl.simplified.accounts.api.AccountProviderDescriptionCollectionParserType
 import org.nypl.simplified.accounts.api.AccountProviderDescription
+import org.nypl.simplified.json.core.JSONObjectMappers
 import org.nypl.simplified.json.core.JSONParserUtilities
 import org.nypl.simplified.links.Link
 import org.nypl.simplified.links.json.LinkParsing
@@ -30,7 +30,7 @@ class AccountProviderDescriptionCollectionParser internal constructor(
   private val logger =
     LoggerFactory.getLogger(AccountProviderDescriptionCollectionParser::class.java)
 
-  private val mapper = ObjectMapper()
+  private val mapper = JSONObjectMappers.mapper()
   private val metaParsers = AccountProviderDescriptionParsers()
   private val errors = mutableListOf<ParseError>()
   private val warnings = mutableListOf<ParseWarning>()
@@ -1,11 +1,11 @@
 package org.nypl.simplified.accounts.json
 
-import com.fasterxml.jackson.databind.ObjectMapper
 import com.fasterxml.jackson.databind.node.ArrayNode
 import com.fasterxml.jackson.databind.node.ObjectNode
 import org.nypl.simplified.accounts.api.AccountProviderDescriptionCollection
 import org.nypl.simplified.accounts.api.AccountProviderDescriptionCollectionSerializerType
 import org.nypl.simplified.accounts.api.AccountProviderDescriptionSerializersType
+import org.nypl.simplified.json.core.JSONObjectMappers
 import org.nypl.simplified.links.json.LinkSerialization
 import java.io.OutputStream
 import java.net.URI
@@ -21,7 +21,7 @@ class AccountProviderDescriptionCollectionSerializer internal constructor(
   private val serializers: AccountProviderDescriptionSerializersType
 ) : AccountProviderDescriptionCollectionSerializerType {
 
-  private val mapper = ObjectMapper()
+  private val mapper = JSONObjectMappers.mapper()
 
   override fun serialize() {
     val objectNode = this.mapper.createObjectNode()
@@ -1,9 +1,9 @@
 package org.nypl.simplified.accounts.json
 
-import com.fasterxml.jackson.databind.ObjectMapper
 import com.fasterxml.jackson.databind.node.ObjectNode
 import org.nypl.simplified.accounts.api.AccountProviderDescription
 import org.nypl.simplified.accounts.api.AccountProviderDescriptionParsersType
+import org.nypl.simplified.json.core.JSONObjectMappers
 import org.nypl.simplified.json.core.JSONParserUtilities
 import org.nypl.simplified.parser.api.ParserType
 import java.io.InputStream
@@ -36,7 +36,7 @@ class AccountProviderDescriptionParsers : AccountProviderDescriptionParsersType
   ): ParserType<AccountProviderDescription> {
     return AccountProviderDescriptionParser(
       uri = uri,
-      objectNode = { JSONParserUtilities.checkObject(null, ObjectMapper().readTree(stream)) },
+      objectNode = { JSONParserUtilities.checkObject(null, JSONObjectMappers.mapper().readTree(stream)) },
       warningsAsErrors = warningsAsErrors
     )
   }
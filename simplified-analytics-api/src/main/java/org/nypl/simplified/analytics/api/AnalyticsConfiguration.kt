@@ -2,6 +2,7 @@ package org.nypl.simplified.analytics.api
 
 import android.content.Context
 import org.librarysimplified.http.api.LSHTTPClientType
+import java.io.File
 
 /**
  * General configuration for analytics systems.
@@ -19,5 +20,12 @@ data class AnalyticsConfiguration(
    * The HTTP interface used for analytics requests, if necessary.
    */
 
-  val http: LSHTTPClientType
+  val http: LSHTTPClientType,
+
+  /**
+   * A directory in which systems may persist data, such as queues of undelivered events.
+   * Each system is expected to use a uniquely named subdirectory.
+   */
+
+  val directory: File
 )
@@ -0,0 +1,393 @@
+package org.nypl.simplified.analytics.api
+
+import org.joda.time.LocalDateTime
+import org.nypl.simplified.accounts.api.AccountAuthenticationCredentials
+import org.nypl.simplified.files.FileUtilities
+import org.slf4j.LoggerFactory
+import java.io.BufferedWriter
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.io.OutputStreamWriter
+import java.io.Writer
+import java.net.URI
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+
+/**
+ * A persistent queue of analytics events awaiting delivery.
+ *
+ * The queue is stored in an append-only file: each queued event is appended to the file as it
+ * arrives, and each delivered or dropped event is recorded by appending a removal record. The
+ * file is compacted when enough removal records accumulate, and is replayed when the queue is
+ * opened so that events survive delivery failures and process death.
+ *
+ * Events are delivered on the given executor in batches grouped by endpoint. An endpoint that
+ * fails to accept an event is retried with exponential backoff, independently of any other
+ * endpoints.
+ */
+
+class AnalyticsEventQueue private constructor(
+  private val configuration: AnalyticsEventQueueConfiguration,
+  private val executor: ScheduledExecutorService,
+  private val clock: () -> Long,
+  private val sender: (AnalyticsEventQueueEntry) -> AnalyticsEventDeliveryResult
+) : AutoCloseable {
+
+  private val logger =
+    LoggerFactory.getLogger(AnalyticsEventQueue::class.java)
+
+  private class EndpointState {
+    var failures: Int = 0
+    var retryAt: Long = 0L
+  }
+
+  private val lock = Any()
+  private val entries = LinkedHashMap<Long, AnalyticsEventQueueEntry>()
+  private val endpoints = HashMap<String, EndpointState>()
+  private var idNext = 0L
+  private var removals = 0
+  private var journal: Writer? = null
+  private var drainTask: ScheduledFuture<*>? = null
+  private var drainAt = Long.MAX_VALUE
+  private var closed = false
+
+  private val fileTmp =
+    File(this.configuration.file.parentFile, "${this.configuration.file.name}.tmp")
+
+  private fun open() {
+    synchronized(this.lock) {
+      this.configuration.file.parentFile?.mkdirs()
+      if (this.configuration.file.isFile) {
+        this.replayLocked()
+      }
+      this.compactLocked()
+      if (this.entries.isNotEmpty()) {
+        this.logger.debug("restored {} queued events", this.entries.size)
+        this.scheduleDrainLocked(this.clock.invoke())
+      }
+    }
+  }
+
+  private fun replayLocked() {
+    val lines = this.configuration.file.readLines(Charsets.UTF_8)
+    for (line in lines) {
+      try {
+        val segments = line.split(' ')
+        when (segments[0]) {
+          RECORD_ADD -> {
+            val entry =
+              AnalyticsEventQueueEntry(
+                id = segments[1].toLong(),
+                timestamp = LocalDateTime.parse(segments[2]),
+                target = URI(segments[3]),
+                credentials = null
+              )
+            this.entries[entry.id] = entry
+            this.idNext = Math.max(this.idNext, entry.id + 1)
+          }
+          RECORD_REMOVE ->
+            this.entries.remove(segments[1].toLong())
+          else ->
+            throw IllegalArgumentException("Unrecognized record type")
+        }
+      } catch (e: Exception) {
+        /*
+         * The last record may be incomplete if the process died during a write.
+         */
+
+        this.logger.warn("ignoring unparseable queue record: {}", line)
+      }
+    }
+  }
+
+  private fun compactLocked() {
+    try {
+      this.journal?.close()
+      this.journal = null
+
+      val text = StringBuilder(this.entries.size * 128)
+      for (entry in this.entries.values) {
+        text.append(recordAdd(entry))
+      }
+      FileUtilities.fileWriteUTF8Atomically(this.configuration.file, this.fileTmp, text.toString())
+      this.removals = 0
+    } catch (e: IOException) {
+      this.logger.error("could not compact queue file: ", e)
+    }
+
+    try {
+      this.journal =
+        BufferedWriter(
+          OutputStreamWriter(FileOutputStream(this.configuration.file, true), Charsets.UTF_8)
+        )
+    } catch (e: IOException) {
+      this.logger.error("could not open queue file; events will not be persisted: ", e)
+    }
+  }
+
+  private fun appendLocked(record: String) {
+    val writer = this.journal ?: return
+    try {
+      writer.write(record)
+      writer.flush()
+    } catch (e: IOException) {
+      this.logger.error("could not write to queue file: ", e)
+    }
+  }
+
+  /**
+   * @return The number of queued events
+   */
+
+  val size: Int
+    get() = synchronized(this.lock) { this.entries.size }
+
+  /**
+   * @return A snapshot of the queued events, in the order they will be delivered
+   */
+
+  fun pending(): List<AnalyticsEventQueueEntry> =
+    synchronized(this.lock) { this.entries.values.toList() }
+
+  /**
+   * Add an event to the queue.
+   *
+   * @return The queued entry, or `null` if the event was dropped
+   */
+
+  fun enqueue(
+    target: URI,
+    timestamp: LocalDateTime,
+    credentials: AccountAuthenticationCredentials?
+  ): AnalyticsEventQueueEntry? {
+    synchronized(this.lock) {
+      if (this.closed) {
+        return null
+      }
+
+      if (this.entries.size >= this.configuration.maximumSize) {
+        when (this.configuration.dropPolicy) {
+          AnalyticsEventQueueDropPolicy.DROP_NEWEST -> {
+            this.logger.warn("queue is full; dropping event for {}", target)
+            return null
+          }
+          AnalyticsEventQueueDropPolicy.DROP_OLDEST -> {
+            val oldest = this.entries.values.first()
+            this.logger.warn("queue is full; dropping event for {}", oldest.target)
+            this.removeLocked(oldest)
+          }
+        }
+      }
+
+      val entry =
+        AnalyticsEventQueueEntry(
+          id = this.idNext++,
+          target = target,
+          timestamp = timestamp,
+          credentials = credentials
+        )
+
+      this.entries[entry.id] = entry
+      this.appendLocked(recordAdd(entry))
+
+      val now = this.clock.invoke()
+      val pendingForEndpoint = this.entries.values.count { e -> e.endpoint == entry.endpoint }
+      if (pendingForEndpoint >= this.configuration.batchSize) {
+        this.scheduleDrainLocked(now)
+      } else {
+        this.scheduleDrainLocked(now + this.configuration.batchDelayMilliseconds)
+      }
+      return entry
+    }
+  }
+
+  /**
+   * Attempt to deliver all queued events as soon as possible, ignoring any backoff delays
+   * currently in effect. This is typically called when network connectivity changes.
+   */
+
+  fun flush() {
+    synchronized(this.lock) {
+      if (this.closed) {
+        return
+      }
+      for (state in this.endpoints.values) {
+        state.retryAt = 0L
+      }
+      if (this.entries.isNotEmpty()) {
+        this.scheduleDrainLocked(this.clock.invoke())
+      }
+    }
+  }
+
+  private fun scheduleDrainLocked(time: Long) {
+    if (this.closed) {
+      return
+    }
+
+    val existing = this.drainTask
+    if (existing != null) {
+      if (this.drainAt <= time) {
+        return
+      }
+      existing.cancel(false)
+    }
+
+    val delay = Math.max(0L, time - this.clock.invoke())
+    this.drainAt = time
+    this.drainTask = this.executor.schedule(Runnable { this.drain() }, delay, TimeUnit.MILLISECONDS)
+  }
+
+  private fun drain() {
+    val batches = synchronized(this.lock) {
+      this.drainTask = null
+      this.drainAt = Long.MAX_VALUE
+      this.collectBatchesLocked(this.clock.invoke())
+    }
+
+    for ((endpoint, batch) in batches) {
+      this.deliverBatch(endpoint, batch)
+    }
+
+    synchronized(this.lock) {
+      val now = this.clock.invoke()
+      var next = Long.MAX_VALUE
+      for (entry in this.entries.values) {
+        val retryAt = this.endpoints[entry.endpoint]?.retryAt ?: 0L
+        next = Math.min(next, Math.max(now, retryAt))
+      }
+      if (next != Long.MAX_VALUE) {
+        this.scheduleDrainLocked(next)
+      }
+    }
+  }
+
+  private fun collectBatchesLocked(
+    now: Long
+  ): Map<String, List<AnalyticsEventQueueEntry>> {
+    val batches = LinkedHashMap<String, MutableList<AnalyticsEventQueueEntry>>()
+    for (entry in this.entries.values) {
+      val state = this.endpoints[entry.endpoint]
+      if (state != null && state.retryAt > now) {
+        continue
+      }
+      val batch = batches.getOrPut(entry.endpoint, { mutableListOf() })
+      if (batch.size < this.configuration.batchSize) {
+        batch.add(entry)
+      }
+    }
+    return batches
+  }
+
+  private fun deliverBatch(
+    endpoint: String,
+    batch: List<AnalyticsEventQueueEntry>
+  ) {
+    this.logger.debug("delivering {} events to {}", batch.size, endpoint)
+
+    for (entry in batch) {
+      val result = try {
+        this.sender.invoke(entry)
+      } catch (e: Exception) {
+        this.logger.error("error delivering event to {}: ", entry.target, e)
+        AnalyticsEventDeliveryResult.FAILED
+      }
+
+      synchronized(this.lock) {
+        when (result) {
+          AnalyticsEventDeliveryResult.DELIVERED,
+          AnalyticsEventDeliveryResult.REJECTED -> {
+            this.removeLocked(entry)
+            this.endpoints.remove(endpoint)
+          }
+          AnalyticsEventDeliveryResult.FAILED -> {
+            val state = this.endpoints.getOrPut(endpoint, { EndpointState() })
+            state.failures += 1
+            val delay = this.backoffDelay(state.failures)
+            state.retryAt = this.clock.invoke() + delay
+            this.logger.debug(
+              "endpoint {} failed {} times; retrying in {}ms", endpoint, state.failures, delay
+            )
+          }
+        }
+      }
+
+      if (result == AnalyticsEventDeliveryResult.FAILED) {
+        return
+      }
+    }
+  }
+
+  private fun backoffDelay(failures: Int): Long {
+    var delay = this.configuration.backoffInitialMilliseconds
+    for (index in 1 until failures) {
+      delay = Math.min(delay * 2L, this.configuration.backoffMaximumMilliseconds)
+      if (delay == this.configuration.backoffMaximumMilliseconds) {
+        break
+      }
+    }
+    return delay
+  }
+
+  private fun removeLocked(entry: AnalyticsEventQueueEntry) {
+    if (this.entries.remove(entry.id) == null) {
+      return
+    }
+
+    this.appendLocked("$RECORD_REMOVE ${entry.id}\n")
+    this.removals += 1
+    if (this.removals >= this.configuration.compactionThreshold &&
+      this.removals > this.entries.size
+    ) {
+      this.compactLocked()
+    }
+  }
+
+  override fun close() {
+    synchronized(this.lock) {
+      if (this.closed) {
+        return
+      }
+      this.closed = true
+      this.drainTask?.cancel(false)
+      this.drainTask = null
+      try {
+        this.journal?.close()
+      } catch (e: IOException) {
+        this.logger.error("could not close queue file: ", e)
+      }
+      this.journal = null
+    }
+  }
+
+  companion object {
+
+    private const val RECORD_ADD = "+"
+    private const val RECORD_REMOVE = "-"
+
+    private fun recordAdd(entry: AnalyticsEventQueueEntry): String =
+      "$RECORD_ADD ${entry.id} ${entry.timestamp} ${entry.target}\n"
+
+    /**
+     * Open a queue, restoring any events persisted by a previous instance.
+     *
+     * @param configuration The queue configuration
+     * @param executor The executor used to deliver events; this must be a single-threaded executor
+     * @param clock A monotonic clock returning milliseconds
+     * @param sender A function that delivers a single event
+     */
+
+    fun open(
+      configuration: AnalyticsEventQueueConfiguration,
+      executor: ScheduledExecutorService,
+      clock: () -> Long = { System.nanoTime() / 1_000_000L },
+      sender: (AnalyticsEventQueueEntry) -> AnalyticsEventDeliveryResult
+    ): AnalyticsEventQueue {
+      val queue = AnalyticsEventQueue(configuration, executor, clock, sender)
+      queue.open()
+      return queue
+    }
+  }
+}
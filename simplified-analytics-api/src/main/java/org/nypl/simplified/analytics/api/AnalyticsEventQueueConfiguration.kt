@@ -0,0 +1,91 @@
+package org.nypl.simplified.analytics.api
+
+import java.io.File
+
+/**
+ * Configuration values for analytics event queues.
+ */
+
+data class AnalyticsEventQueueConfiguration(
+
+  /**
+   * The file used to persist the queue.
+   */
+
+  val file: File,
+
+  /**
+   * The maximum number of events that may be queued. When the queue is full, events are
+   * dropped according to [dropPolicy].
+   */
+
+  val maximumSize: Int = 1000,
+
+  /**
+   * The policy used to drop events when the queue is full.
+   */
+
+  val dropPolicy: AnalyticsEventQueueDropPolicy = AnalyticsEventQueueDropPolicy.DROP_OLDEST,
+
+  /**
+   * The maximum number of events that will be delivered to a single endpoint in one batch.
+   * An endpoint with at least this many pending events is delivered to immediately.
+   */
+
+  val batchSize: Int = 20,
+
+  /**
+   * The time in milliseconds that newly queued events are held for in order to be
+   * delivered together with any events that follow them.
+   */
+
+  val batchDelayMilliseconds: Long = 30_000L,
+
+  /**
+   * The delay in milliseconds before retrying an endpoint after its first failure. The delay
+   * doubles with each consecutive failure.
+   */
+
+  val backoffInitialMilliseconds: Long = 10_000L,
+
+  /**
+   * The maximum delay in milliseconds between retries of a failing endpoint.
+   */
+
+  val backoffMaximumMilliseconds: Long = 3_600_000L,
+
+  /**
+   * The number of removal records that may accumulate in the queue file before it is
+   * compacted.
+   */
+
+  val compactionThreshold: Int = 100
+) {
+  init {
+    require(this.maximumSize > 0) { "Maximum size must be positive" }
+    require(this.batchSize > 0) { "Batch size must be positive" }
+    require(this.backoffInitialMilliseconds > 0L) { "Initial backoff must be positive" }
+    require(this.backoffMaximumMilliseconds >= this.backoffInitialMilliseconds) {
+      "Maximum backoff must be at least the initial backoff"
+    }
+  }
+}
+
+/**
+ * The policy used to drop events when a queue is full.
+ */
+
+enum class AnalyticsEventQueueDropPolicy {
+
+  /**
+   * Drop the oldest queued event to make room for the new event.
+   */
+
+  DROP_OLDEST,
+
+  /**
+   * Drop the new event.
+   */
+
+  DROP_NEWEST
+}
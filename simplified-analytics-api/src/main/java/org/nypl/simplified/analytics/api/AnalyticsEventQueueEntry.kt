@@ -0,0 +1,71 @@
+package org.nypl.simplified.analytics.api
+
+import org.joda.time.LocalDateTime
+import org.nypl.simplified.accounts.api.AccountAuthenticationCredentials
+import java.net.URI
+
+/**
+ * An event held in an analytics event queue.
+ */
+
+data class AnalyticsEventQueueEntry(
+
+  /**
+   * The unique (per queue) ID of the entry.
+   */
+
+  val id: Long,
+
+  /**
+   * The URI to which the event will be delivered.
+   */
+
+  val target: URI,
+
+  /**
+   * The time the event occurred.
+   */
+
+  val timestamp: LocalDateTime,
+
+  /**
+   * The credentials used to deliver the event, if any. Credentials are held in memory only and
+   * are never written to the queue file, so events restored from a previous process are
+   * delivered without credentials.
+   */
+
+  val credentials: AccountAuthenticationCredentials?
+) {
+
+  /**
+   * The endpoint to which the event belongs. Events are batched and backed off per endpoint.
+   */
+
+  val endpoint: String
+    get() = "${this.target.scheme}://${this.target.rawAuthority}"
+}
+
+/**
+ * The result of attempting to deliver a queued event.
+ */
+
+enum class AnalyticsEventDeliveryResult {
+
+  /**
+   * The event was delivered and can be removed from the queue.
+   */
+
+  DELIVERED,
+
+  /**
+   * The event was rejected by the server and should not be retried.
+   */
+
+  REJECTED,
+
+  /**
+   * The event could not be delivered and should be retried later.
+   */
+
+  FAILED
+}
@@ -1,36 +1,104 @@
 package org.nypl.simplified.analytics.circulation
 
+import android.content.Context
+import android.net.ConnectivityManager
+import android.net.Network
+import android.net.NetworkCapabilities
+import android.net.NetworkRequest
 import org.librarysimplified.http.api.LSHTTPResponseStatus
 import org.nypl.simplified.accounts.api.AccountAuthenticatedHTTP
-import org.nypl.simplified.accounts.api.AccountAuthenticationCredentials
 import org.nypl.simplified.analytics.api.AnalyticsConfiguration
 import org.nypl.simplified.analytics.api.AnalyticsEvent
+import org.nypl.simplified.analytics.api.AnalyticsEventDeliveryResult
+import org.nypl.simplified.analytics.api.AnalyticsEventQueue
+import org.nypl.simplified.analytics.api.AnalyticsEventQueueConfiguration
+import org.nypl.simplified.analytics.api.AnalyticsEventQueueEntry
 import org.nypl.simplified.analytics.api.AnalyticsSystem
 import org.slf4j.LoggerFactory
-import java.net.URI
-import java.util.concurrent.ExecutorService
+import java.io.File
+import java.util.concurrent.ScheduledExecutorService
 
 /**
  * An analytics system based on Circulation Analytics.
+ *
+ * Events are written to a persistent queue and delivered in the background, so that events
+ * are not lost if the device is offline or the application is terminated before they can be
+ * delivered. The queue is opened, and all events are queued, on the given executor, so that
+ * neither creating the system nor publishing events performs any disk I/O on the caller's thread.
+ *
+ * Account credentials are never written to the queue file. Events that are restored from the
+ * queue file after the application restarts are therefore delivered without credentials, and
+ * are dropped if the server rejects them for that reason.
  */
 
 class CirculationAnalyticsSystem(
   private val configuration: AnalyticsConfiguration,
-  private val executor: ExecutorService
+  private val executor: ScheduledExecutorService
 ) : AnalyticsSystem {
 
   private val logger =
     LoggerFactory.getLogger(CirculationAnalyticsSystem::class.java)
 
-  override fun onAnalyticsEvent(event: AnalyticsEvent): Unit =
-    this.executor.execute { this.consumeEvent(event) }
+  /*
+   * The queue is only ever accessed on the executor.
+   */
 
-  private fun consumeEvent(event: AnalyticsEvent) {
+  private val queue: AnalyticsEventQueue by lazy {
+    AnalyticsEventQueue.open(
+      configuration = AnalyticsEventQueueConfiguration(
+        file = File(File(this.configuration.directory, "circulation"), "queue.txt")
+      ),
+      executor = this.executor,
+      sender = this::postEntry
+    )
+  }
+
+  init {
+    this.onExecutor { queue -> this.logger.debug("opened queue with {} events", queue.size) }
+    this.registerConnectivityCallback(this.configuration.context)
+  }
+
+  private fun onExecutor(task: (AnalyticsEventQueue) -> Unit) {
+    this.executor.execute {
+      try {
+        task.invoke(this.queue)
+      } catch (e: Exception) {
+        this.logger.error("analytics queue failure: ", e)
+      }
+    }
+  }
+
+  private fun registerConnectivityCallback(context: Context) {
+    try {
+      val connectivity =
+        context.getSystemService(Context.CONNECTIVITY_SERVICE) as ConnectivityManager?
+          ?: return
+
+      val request =
+        NetworkRequest.Builder()
+          .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+          .build()
+
+      connectivity.registerNetworkCallback(
+        request,
+        object : ConnectivityManager.NetworkCallback() {
+          override fun onAvailable(network: Network) {
+            this@CirculationAnalyticsSystem.logger.debug("network available; flushing events")
+            this@CirculationAnalyticsSystem.onExecutor { queue -> queue.flush() }
+          }
+        }
+      )
+    } catch (e: Exception) {
+      this.logger.error("could not register for connectivity changes: ", e)
+    }
+  }
+
+  override fun onAnalyticsEvent(event: AnalyticsEvent) {
     this.logger.debug("received event {}", event::class.simpleName)
     when (event) {
       is AnalyticsEvent.BookOpened -> {
         event.targetURI?.let { target ->
-          postURI(target, event.credentials)
+          this.onExecutor { queue -> queue.enqueue(target, event.timestamp, event.credentials) }
         }
         this.logger.debug("consuming 'BookOpened' event for {}", event.targetURI)
       }
@@ -40,32 +108,50 @@ class CirculationAnalyticsSystem(
     }
   }
 
-  private fun postURI(
-    target: URI,
-    credentials: AccountAuthenticationCredentials?
-  ) {
+  private fun postEntry(
+    entry: AnalyticsEventQueueEntry
+  ): AnalyticsEventDeliveryResult {
+    val target = entry.target
     val request =
       this.configuration.http.newRequest(target)
-        .setAuthorization(AccountAuthenticatedHTTP.createAuthorizationIfPresent(credentials))
+        .setAuthorization(AccountAuthenticatedHTTP.createAuthorizationIfPresent(entry.credentials))
         .build()
 
-    val response = request.execute()
-    return when (val status = response.status) {
-      is LSHTTPResponseStatus.Responded.OK ->
-        Unit
-      is LSHTTPResponseStatus.Responded.Error -> {
-        val problemReport = status.properties.problemReport
-        if (problemReport != null) {
-          this.logger.debug("status: {}", problemReport.status)
-          this.logger.debug("title:  {}", problemReport.title)
-          this.logger.debug("type:   {}", problemReport.type)
-          this.logger.debug("detail: {}", problemReport.detail)
-        } else {
-          Unit
+    return request.execute().use { response ->
+      when (val status = response.status) {
+        is LSHTTPResponseStatus.Responded.OK ->
+          AnalyticsEventDeliveryResult.DELIVERED
+        is LSHTTPResponseStatus.Responded.Error -> {
+          val problemReport = status.properties.problemReport
+          if (problemReport != null) {
+            this.logger.debug("status: {}", problemReport.status)
+            this.logger.debug("title:  {}", problemReport.title)
+            this.logger.debug("type:   {}", problemReport.type)
+            this.logger.debug("detail: {}", problemReport.detail)
+          }
+          if (entry.credentials == null && status.properties.status == 401) {
+            this.logger.warn("dropping event for {}: the event has no credentials", target)
+          }
+          this.resultForErrorCode(status.properties.status)
+        }
+        is LSHTTPResponseStatus.Failed -> {
+          this.logger.error("error sending event to {}: ", target, status.exception)
+          AnalyticsEventDeliveryResult.FAILED
         }
       }
-      is LSHTTPResponseStatus.Failed ->
-        this.logger.error("error sending event to {}: ", target, status.exception)
+    }
+  }
+
+  /*
+   * Server errors, timeouts, and rate limiting are considered transient. Any other error
+   * indicates that the server will never accept the event.
+   */
+
+  private fun resultForErrorCode(code: Int): AnalyticsEventDeliveryResult {
+    return when {
+      code >= 500 -> AnalyticsEventDeliveryResult.FAILED
+      code == 408 || code == 429 -> AnalyticsEventDeliveryResult.FAILED
+      else -> AnalyticsEventDeliveryResult.REJECTED
     }
   }
 }
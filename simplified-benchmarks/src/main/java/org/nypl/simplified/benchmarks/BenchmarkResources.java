@@ -0,0 +1,55 @@
+package org.nypl.simplified.benchmarks;
+
+import com.io7m.junreachable.UnreachableCodeException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+/**
+ * Functions to load benchmark fixtures.
+ */
+
+public final class BenchmarkResources
+{
+  private BenchmarkResources()
+  {
+    throw new UnreachableCodeException();
+  }
+
+  /**
+   * Load the named OPDS fixture from the test suite resources.
+   *
+   * @param name The fixture name
+   *
+   * @return The fixture data
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static byte[] opdsResource(
+    final String name)
+    throws IOException
+  {
+    final String path = "/org/nypl/simplified/tests/opds/" + name;
+    final URL url = BenchmarkResources.class.getResource(path);
+    if (url == null) {
+      throw new FileNotFoundException(path);
+    }
+
+    try (InputStream stream = url.openStream()) {
+      final ByteArrayOutputStream output = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[8192];
+      while (true) {
+        final int r = stream.read(buffer);
+        if (r == -1) {
+          break;
+        }
+        output.write(buffer, 0, r);
+      }
+      return output.toByteArray();
+    }
+  }
+}
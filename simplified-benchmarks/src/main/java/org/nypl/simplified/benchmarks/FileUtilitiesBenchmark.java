@@ -0,0 +1,102 @@
+package org.nypl.simplified.benchmarks;
+
+import org.nypl.simplified.files.DirectoryUtilities;
+import org.nypl.simplified.files.FileUtilities;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for atomic file writes. Every change to a book database entry, an account, or
+ * a profile is persisted with an atomic write.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class FileUtilitiesBenchmark
+{
+  @Param({"1024", "16384", "262144"})
+  public int size;
+
+  private File directory;
+  private File file;
+  private File fileTmp;
+  private byte[] bytes;
+  private String text;
+
+  /**
+   * Create a temporary directory and the data to be written.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  @Setup
+  public void setup()
+    throws IOException
+  {
+    this.directory = DirectoryUtilities.directoryCreateTemporary();
+    this.file = new File(this.directory, "data");
+    this.fileTmp = new File(this.directory, "data.tmp");
+
+    this.bytes = new byte[this.size];
+    Arrays.fill(this.bytes, (byte) 'x');
+    this.text = new String(this.bytes, "UTF-8");
+  }
+
+  /**
+   * Delete the temporary directory.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  @TearDown
+  public void tearDown()
+    throws IOException
+  {
+    DirectoryUtilities.directoryDelete(this.directory);
+  }
+
+  /**
+   * Atomically write a string.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  @Benchmark
+  public void writeUTF8Atomically()
+    throws IOException
+  {
+    FileUtilities.fileWriteUTF8Atomically(this.file, this.fileTmp, this.text);
+  }
+
+  /**
+   * Atomically write a byte array.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  @Benchmark
+  public void writeBytesAtomically()
+    throws IOException
+  {
+    FileUtilities.fileWriteBytesAtomically(this.file, this.fileTmp, this.bytes);
+  }
+}
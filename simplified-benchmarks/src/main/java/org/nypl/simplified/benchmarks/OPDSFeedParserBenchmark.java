@@ -0,0 +1,80 @@
+package org.nypl.simplified.benchmarks;
+
+import org.nypl.simplified.opds.core.OPDSAcquisitionFeed;
+import org.nypl.simplified.opds.core.OPDSAcquisitionFeedEntryParser;
+import org.nypl.simplified.opds.core.OPDSFeedParser;
+import org.nypl.simplified.opds.core.OPDSFeedParserType;
+import org.nypl.simplified.opds.core.OPDSParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for parsing OPDS feeds.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class OPDSFeedParserBenchmark
+{
+  private static final URI FEED_URI =
+    URI.create("http://www.example.com/feed.xml");
+
+  @Param({
+    "acquisition-fiction-0.xml",
+    "acquisition-groups-0.xml",
+    "acquisition-paginated-0.xml",
+    "feedbooks-20190808.xml",
+    "loans.xml"
+  })
+  public String feed;
+
+  private byte[] data;
+  private OPDSFeedParserType parser;
+
+  /**
+   * Load the feed and create a parser.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  @Setup
+  public void setup()
+    throws IOException
+  {
+    this.data = BenchmarkResources.opdsResource(this.feed);
+    this.parser = OPDSFeedParser.newParser(OPDSAcquisitionFeedEntryParser.newParser());
+  }
+
+  /**
+   * Parse the feed.
+   *
+   * @return The parsed feed
+   *
+   * @throws OPDSParseException On parse errors
+   */
+
+  @Benchmark
+  public OPDSAcquisitionFeed parse()
+    throws OPDSParseException
+  {
+    return this.parser.parse(FEED_URI, new ByteArrayInputStream(this.data));
+  }
+}
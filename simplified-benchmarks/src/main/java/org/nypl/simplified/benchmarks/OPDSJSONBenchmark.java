@@ -0,0 +1,181 @@
+package org.nypl.simplified.benchmarks;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.nypl.simplified.opds.core.OPDSAcquisitionFeed;
+import org.nypl.simplified.opds.core.OPDSAcquisitionFeedEntry;
+import org.nypl.simplified.opds.core.OPDSAcquisitionFeedEntryParser;
+import org.nypl.simplified.opds.core.OPDSFeedParser;
+import org.nypl.simplified.opds.core.OPDSJSONParser;
+import org.nypl.simplified.opds.core.OPDSJSONParserType;
+import org.nypl.simplified.opds.core.OPDSJSONSerializer;
+import org.nypl.simplified.opds.core.OPDSJSONSerializerType;
+import org.nypl.simplified.opds.core.OPDSParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the private OPDS JSON format. Individual feed entries in this format are
+ * written to, and read from, the book database for every book a user has.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class OPDSJSONBenchmark
+{
+  @Param({
+    "acquisition-fiction-0.xml",
+    "loans.xml"
+  })
+  public String feed;
+
+  private OPDSJSONParserType parser;
+  private OPDSJSONSerializerType serializer;
+  private OPDSAcquisitionFeed feedParsed;
+  private OPDSAcquisitionFeedEntry entry;
+  private byte[] feedSerialized;
+  private byte[] entrySerialized;
+
+  /**
+   * Parse the feed and serialize it, and its first entry, ahead of time.
+   *
+   * @throws Exception On errors
+   */
+
+  @Setup
+  public void setup()
+    throws Exception
+  {
+    this.parser = OPDSJSONParser.newParser();
+    this.serializer = OPDSJSONSerializer.newSerializer();
+
+    this.feedParsed =
+      OPDSFeedParser.newParser(OPDSAcquisitionFeedEntryParser.newParser())
+        .parse(
+          URI.create("http://www.example.com/feed.xml"),
+          new ByteArrayInputStream(BenchmarkResources.opdsResource(this.feed)));
+
+    this.entry = this.feedParsed.getFeedEntries().get(0);
+    this.feedSerialized = this.serializeFeed();
+    this.entrySerialized = this.serializeEntry();
+  }
+
+  /**
+   * Serialize an entire feed.
+   *
+   * @return The serialized feed
+   *
+   * @throws Exception On errors
+   */
+
+  @Benchmark
+  public byte[] serializeFeed()
+    throws Exception
+  {
+    final ObjectNode node = this.serializer.serializeFeed(this.feedParsed);
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    this.serializer.serializeToStream(node, output);
+    return output.toByteArray();
+  }
+
+  /**
+   * Serialize a single feed entry.
+   *
+   * @return The serialized entry
+   *
+   * @throws Exception On errors
+   */
+
+  @Benchmark
+  public byte[] serializeEntry()
+    throws Exception
+  {
+    final ObjectNode node = this.serializer.serializeFeedEntry(this.entry);
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    this.serializer.serializeToStream(node, output);
+    return output.toByteArray();
+  }
+
+  /**
+   * Serialize a single feed entry directly to a stream, as the book database does.
+   *
+   * @return The serialized entry
+   *
+   * @throws Exception On errors
+   */
+
+  @Benchmark
+  public byte[] serializeEntryStreaming()
+    throws Exception
+  {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    this.serializer.serializeFeedEntryToStream(this.entry, output);
+    return output.toByteArray();
+  }
+
+  /**
+   * Parse an entire feed.
+   *
+   * @return The parsed feed
+   *
+   * @throws OPDSParseException On errors
+   */
+
+  @Benchmark
+  public OPDSAcquisitionFeed parseFeed()
+    throws OPDSParseException
+  {
+    return this.parser.parseAcquisitionFeedFromStream(
+      new ByteArrayInputStream(this.feedSerialized));
+  }
+
+  /**
+   * Parse a single feed entry.
+   *
+   * @return The parsed entry
+   *
+   * @throws OPDSParseException On errors
+   */
+
+  @Benchmark
+  public OPDSAcquisitionFeedEntry parseEntry()
+    throws OPDSParseException
+  {
+    return this.parser.parseAcquisitionFeedEntryFromStream(
+      new ByteArrayInputStream(this.entrySerialized));
+  }
+
+  /**
+   * Serialize and then parse a single feed entry, as happens when a book database entry
+   * is written and later reopened.
+   *
+   * @return The parsed entry
+   *
+   * @throws Exception On errors
+   */
+
+  @Benchmark
+  public OPDSAcquisitionFeedEntry roundTripEntry()
+    throws Exception
+  {
+    return this.parser.parseAcquisitionFeedEntryFromStream(
+      new ByteArrayInputStream(this.serializeEntryStreaming()));
+  }
+}
@@ -0,0 +1,74 @@
+package org.nypl.simplified.benchmarks;
+
+import org.nypl.simplified.opds.core.OPDSAcquisitionFeedEntry;
+import org.nypl.simplified.opds.core.OPDSJSONParser;
+import org.nypl.simplified.opds.core.OPDSJSONParserType;
+import org.nypl.simplified.opds.core.OPDSParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for parsing the feed entries stored by existing book databases. This is the
+ * dominant per-book cost of opening a book database.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class OPDSJSONCompatibilityBenchmark
+{
+  @Param({
+    "compatibility-20180921-test-new-0.json",
+    "compatibility-20180921-test-new-1.json",
+    "compatibility-20180921-test-old.json"
+  })
+  public String entry;
+
+  private byte[] data;
+  private OPDSJSONParserType parser;
+
+  /**
+   * Load the entry and create a parser.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  @Setup
+  public void setup()
+    throws IOException
+  {
+    this.data = BenchmarkResources.opdsResource(this.entry);
+    this.parser = OPDSJSONParser.newParser();
+  }
+
+  /**
+   * Parse the entry.
+   *
+   * @return The parsed entry
+   *
+   * @throws OPDSParseException On parse errors
+   */
+
+  @Benchmark
+  public OPDSAcquisitionFeedEntry parse()
+    throws OPDSParseException
+  {
+    return this.parser.parseAcquisitionFeedEntryFromStream(new ByteArrayInputStream(this.data));
+  }
+}
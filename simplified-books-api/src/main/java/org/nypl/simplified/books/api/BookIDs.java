@@ -4,9 +4,8 @@ import com.io7m.jnull.NullCheck;
 import com.io7m.junreachable.UnreachableCodeException;
 
 import org.nypl.simplified.opds.core.OPDSAcquisitionFeedEntry;
-
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import org.nypl.simplified.opds.core.OPDSBookIDDeriver;
+import org.nypl.simplified.opds.core.OPDSBookIDDeriverType;
 
 /**
  * Functions to construct book IDs.
@@ -14,10 +13,27 @@ import java.security.NoSuchAlgorithmException;
 
 public final class BookIDs {
 
+  /**
+   * The deriver used when one is not explicitly provided. The cache is large enough to hold
+   * the identifiers of every entry in a few pages of several feeds, along with the books on
+   * loan to a typical user.
+   */
+
+  private static final OPDSBookIDDeriverType DEFAULT_DERIVER =
+    OPDSBookIDDeriver.create(4096);
+
   private BookIDs() {
     throw new UnreachableCodeException();
   }
 
+  /**
+   * @return The deriver used by {@link #newFromText(String)}
+   */
+
+  public static OPDSBookIDDeriverType defaultDeriver() {
+    return DEFAULT_DERIVER;
+  }
+
   /**
    * Construct a book ID derived from the hash of the given text.
    *
@@ -27,22 +43,21 @@ public final class BookIDs {
 
   public static BookID newFromText(
       final String text) {
+    return newFromText(DEFAULT_DERIVER, text);
+  }
 
-    try {
-      final MessageDigest md = MessageDigest.getInstance("SHA-256");
-      md.update(text.getBytes());
-      final byte[] dg = md.digest();
-
-      final StringBuilder b = new StringBuilder(64);
-      for (int index = 0; index < dg.length; ++index) {
-        final byte bb = dg[index];
-        b.append(String.format("%02x", bb));
-      }
-
-      return BookID.create(b.toString());
-    } catch (final NoSuchAlgorithmException e) {
-      throw new IllegalStateException(e);
-    }
+  /**
+   * Construct a book ID derived from the given text using the given deriver.
+   *
+   * @param deriver The deriver
+   * @param text The text
+   * @return A new book ID
+   */
+
+  public static BookID newFromText(
+      final OPDSBookIDDeriverType deriver,
+      final String text) {
+    return BookID.create(NullCheck.notNull(deriver, "Deriver").deriveBookID(text));
   }
 
   /**
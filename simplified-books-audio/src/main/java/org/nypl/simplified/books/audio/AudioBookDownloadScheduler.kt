@@ -0,0 +1,231 @@
+package org.nypl.simplified.books.audio
+
+import org.slf4j.LoggerFactory
+
+/**
+ * A scheduler that decides the order in which the parts of an audio book are downloaded.
+ *
+ * The part containing the playhead is downloaded first, followed by the parts immediately
+ * after it, followed by the rest of the book after the playhead, followed by the parts before
+ * the playhead. No more than a fixed number of parts are downloaded at any one time. When the
+ * playhead moves to a part that is not downloaded, and every download slot is occupied, the
+ * download furthest from the playhead is cancelled to make room for it.
+ *
+ * The scheduler does not itself perform downloads: parts are identified by their index in the
+ * spine, and the given functions are used to query, start, and cancel downloads. Completed
+ * downloads are persisted by the audio engine, so a new scheduler for a partially downloaded
+ * book simply skips the parts that are already complete. The scheduler is safe to use from
+ * multiple threads.
+ */
+
+class AudioBookDownloadScheduler(
+
+  /**
+   * The number of parts in the book.
+   */
+
+  private val partCount: Int,
+
+  /**
+   * The maximum number of parts to download at any one time.
+   */
+
+  private val maximumConcurrent: Int,
+
+  /**
+   * The number of parts after the current part that are considered urgent; a seek will cancel
+   * downloads outside of this window to make room for the current part.
+   */
+
+  private val lookahead: Int,
+
+  /**
+   * A function that returns `true` if the given part is already fully downloaded.
+   */
+
+  private val isDownloaded: (Int) -> Boolean,
+
+  /**
+   * A function that starts downloading the given part.
+   */
+
+  private val start: (Int) -> Unit,
+
+  /**
+   * A function that cancels the download of the given part.
+   */
+
+  private val cancel: (Int) -> Unit
+) {
+
+  init {
+    require(this.partCount >= 0) { "Part count must be non-negative" }
+    require(this.maximumConcurrent >= 1) { "Concurrent downloads must be at least 1" }
+    require(this.lookahead >= 0) { "Lookahead must be non-negative" }
+  }
+
+  private val logger =
+    LoggerFactory.getLogger(AudioBookDownloadScheduler::class.java)
+
+  private val active = LinkedHashSet<Int>()
+  private val failed = HashSet<Int>()
+  private var current = 0
+  private var running = false
+
+  /**
+   * The parts currently being downloaded.
+   */
+
+  val activeParts: Set<Int>
+    @Synchronized get() = this.active.toSet()
+
+  /**
+   * Start downloading parts, beginning with the given current part.
+   */
+
+  @Synchronized
+  fun start(currentPart: Int) {
+    this.running = true
+    this.current = this.clamp(currentPart)
+    this.schedule()
+  }
+
+  /**
+   * Stop scheduling downloads, and cancel any that are in progress.
+   */
+
+  @Synchronized
+  fun stop() {
+    this.running = false
+    val cancelling = this.active.toList()
+    this.active.clear()
+    cancelling.forEach(this::cancelPart)
+  }
+
+  /**
+   * Indicate that the playhead has moved to the given part. This is cheap to call when the part
+   * has not changed.
+   */
+
+  @Synchronized
+  fun onCurrentPartChanged(currentPart: Int) {
+    val clamped = this.clamp(currentPart)
+    if (clamped == this.current) {
+      return
+    }
+
+    this.logger.debug("current part changed: {} -> {}", this.current, clamped)
+    this.current = clamped
+    this.failed.remove(clamped)
+
+    if (!this.running) {
+      return
+    }
+
+    /*
+     * If the current part needs downloading and there is no room for it, make room by
+     * cancelling the download that is least urgent.
+     */
+
+    if (!this.active.contains(clamped) &&
+      !this.isDownloaded(clamped) &&
+      this.active.size >= this.maximumConcurrent
+    ) {
+      val order = this.priorityOrder()
+      val victim = this.active.maxByOrNull { part -> order.indexOf(part) }
+      if (victim != null && order.indexOf(victim) > this.lookahead) {
+        this.logger.debug("cancelling part {} in favour of part {}", victim, clamped)
+        this.active.remove(victim)
+        this.cancelPart(victim)
+      }
+    }
+
+    this.schedule()
+  }
+
+  /**
+   * Indicate that the given part has finished downloading successfully.
+   */
+
+  @Synchronized
+  fun onPartDownloaded(part: Int) {
+    this.active.remove(part)
+    this.schedule()
+  }
+
+  /**
+   * Indicate that the download of the given part has failed (or has been cancelled by something
+   * other than this scheduler). The part will not be retried unless it becomes the current part.
+   */
+
+  @Synchronized
+  fun onPartFailed(part: Int) {
+    if (this.active.remove(part)) {
+      this.failed.add(part)
+    }
+    this.schedule()
+  }
+
+  /**
+   * Retry the download of any parts that previously failed; typically called after the manifest
+   * has been refreshed.
+   */
+
+  @Synchronized
+  fun retryFailed() {
+    this.failed.clear()
+    this.schedule()
+  }
+
+  /**
+   * @return The parts of the book in the order in which they should be downloaded
+   */
+
+  @Synchronized
+  fun priorityOrder(): List<Int> {
+    val order = ArrayList<Int>(this.partCount)
+    for (part in this.current until this.partCount) {
+      order.add(part)
+    }
+    for (part in 0 until this.current) {
+      order.add(part)
+    }
+    return order
+  }
+
+  private fun schedule() {
+    if (!this.running) {
+      return
+    }
+
+    for (part in this.priorityOrder()) {
+      if (this.active.size >= this.maximumConcurrent) {
+        return
+      }
+      if (this.active.contains(part) || this.failed.contains(part) || this.isDownloaded(part)) {
+        continue
+      }
+
+      this.logger.debug("starting download of part {}", part)
+      this.active.add(part)
+      try {
+        this.start.invoke(part)
+      } catch (e: Exception) {
+        this.logger.error("could not start download of part {}: ", part, e)
+        this.active.remove(part)
+        this.failed.add(part)
+      }
+    }
+  }
+
+  private fun cancelPart(part: Int) {
+    try {
+      this.cancel.invoke(part)
+    } catch (e: Exception) {
+      this.logger.error("could not cancel download of part {}: ", part, e)
+    }
+  }
+
+  private fun clamp(part: Int): Int =
+    if (this.partCount == 0) 0 else part.coerceIn(0, this.partCount - 1)
+}
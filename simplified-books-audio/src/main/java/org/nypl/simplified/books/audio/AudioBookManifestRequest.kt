@@ -60,9 +60,9 @@ data class AudioBookManifestRequest(
   val isNetworkAvailable: () -> Boolean = { true },
 
   /**
-   * A function that will be evaluated if networking is not available. The function
-   * should return the raw bytes of a manifest. If the function returns `null`, the manifest
-   * strategy must fail.
+   * A function that will be evaluated if networking is not available, or if the strategy is
+   * asked to use the local manifest. The function should return the raw bytes of a manifest.
+   * If the function returns `null`, the manifest strategy must fail.
    */
 
   val loadFallbackData: () -> ManifestFulfilled? = { null },
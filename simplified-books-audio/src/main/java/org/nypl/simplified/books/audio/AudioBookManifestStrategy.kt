@@ -50,17 +50,26 @@ class AudioBookManifestStrategy(
     this.eventSubject
 
   override fun execute(): TaskResult<AudioBookManifestData> {
+    return if (this.request.isNetworkAvailable()) {
+      this.executeWith("Downloading manifest…", this::downloadManifest)
+    } else {
+      this.executeWith("Loading manifest…", this::loadFallbackManifest)
+    }
+  }
+
+  override fun executeLocal(): TaskResult<AudioBookManifestData> {
+    return this.executeWith("Loading manifest…", this::loadFallbackManifest)
+  }
+
+  private fun executeWith(
+    loadStep: String,
+    load: () -> PlayerResult<ManifestFulfilled, ManifestFulfillmentErrorType>
+  ): TaskResult<AudioBookManifestData> {
     val taskRecorder = TaskRecorder.create()
 
     try {
-      val downloadResult =
-        if (this.request.isNetworkAvailable()) {
-          taskRecorder.beginNewStep("Downloading manifest…")
-          this.downloadManifest()
-        } else {
-          taskRecorder.beginNewStep("Loading manifest…")
-          this.loadFallbackManifest()
-        }
+      taskRecorder.beginNewStep(loadStep)
+      val downloadResult = load.invoke()
 
       if (downloadResult is PlayerResult.Failure) {
         taskRecorder.currentStepFailed(
@@ -22,4 +22,13 @@ interface AudioBookManifestStrategyType {
    */
 
   fun execute(): TaskResult<AudioBookManifestData>
+
+  /**
+   * Execute the strategy using only the locally stored manifest (as provided by the request's
+   * fallback data), regardless of whether or not networking is available. The manifest is parsed
+   * and license checked exactly as it would be by [execute], so an expired or otherwise unusable
+   * local manifest causes the strategy to fail.
+   */
+
+  fun executeLocal(): TaskResult<AudioBookManifestData>
 }
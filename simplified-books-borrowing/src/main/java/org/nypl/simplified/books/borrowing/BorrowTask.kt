@@ -88,7 +88,7 @@ class BorrowTask private constructor(
     this.logger.warn("[{}] $message", this.bookIdBrief, *arguments)
 
   override fun execute(): TaskResult<*> {
-    this.taskRecorder = TaskRecorder.create()
+    this.taskRecorder = TaskRecorder.create("Borrow")
     this.debug("starting")
 
     return try {
@@ -98,6 +98,18 @@ interface BooksControllerType {
     account: AccountType
   ): FluentFuture<Unit>
 
+  /**
+   * Sync all books for the given account, unless the account was synced recently or is
+   * backing off after failing to sync. Callers that sync because a screen was opened, rather
+   * than because the user asked, should prefer this to [booksSync].
+   *
+   * @param account The account
+   */
+
+  fun booksSyncIfStale(
+    account: AccountType
+  ): FluentFuture<Unit>
+
   /**
    * Revoke the given book.
    *
@@ -1,6 +1,5 @@
 package org.nypl.simplified.books.controller
 
-import com.fasterxml.jackson.databind.ObjectMapper
 import com.io7m.jfunctional.Some
 import one.irradia.mime.api.MIMEType
 import org.librarysimplified.http.api.LSHTTPClientType
@@ -9,6 +8,7 @@ import org.librarysimplified.http.api.LSHTTPResponseStatus
 import org.nypl.simplified.accounts.api.AccountAuthenticatedHTTP
 import org.nypl.simplified.accounts.database.api.AccountType
 import org.nypl.simplified.feeds.api.FeedEntry
+import org.nypl.simplified.json.core.JSONObjectMappers
 import org.slf4j.LoggerFactory
 import java.net.URI
 import java.util.concurrent.Callable
@@ -96,7 +96,7 @@ class BookReportTask(
   }
 
   private fun serializeProblem(): ByteArray {
-    val mapper = ObjectMapper()
+    val mapper = JSONObjectMappers.mapper()
     val document = mapper.createObjectNode()
     document.put("type", reportType)
     val bytes = mapper.writeValueAsBytes(document)
@@ -68,7 +68,7 @@ class BookRevokeTask(
 
   private val adobeACS = "Adobe ACS"
   private val logger = LoggerFactory.getLogger(BookRevokeTask::class.java)
-  private val steps = TaskRecorder.create()
+  private val steps = TaskRecorder.create("Revoke")
   private var databaseEntryInitialized: Boolean = false
 
   private fun debug(message: String, vararg arguments: Any?) =
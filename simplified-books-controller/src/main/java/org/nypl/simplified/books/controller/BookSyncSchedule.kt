@@ -0,0 +1,185 @@
+package org.nypl.simplified.books.controller
+
+import net.jcip.annotations.GuardedBy
+import org.joda.time.Duration
+import org.joda.time.Instant
+import org.nypl.simplified.accounts.api.AccountID
+
+/**
+ * The record of when each account was last synced, and when each account should next be synced.
+ *
+ * An account that synced successfully is fresh for a fixed period, and is not synced again
+ * automatically until the period has elapsed. An account that failed to sync is retried after
+ * a delay that doubles with each consecutive failure, up to a maximum. An account that is
+ * currently syncing is never due.
+ *
+ * The schedule also records when the account provider of each account was last resolved, so
+ * that syncing can avoid fetching an authentication document that was fetched recently.
+ *
+ * The schedule is held only in memory. After the application restarts, every account is due
+ * to be synced and every account provider is resolved again on the first sync.
+ */
+
+class BookSyncSchedule(
+  private val clock: () -> Instant,
+  private val freshPeriod: Duration = DEFAULT_FRESH_PERIOD,
+  private val backoffInitial: Duration = DEFAULT_BACKOFF_INITIAL,
+  private val backoffMaximum: Duration = DEFAULT_BACKOFF_MAXIMUM,
+  private val providerValidPeriod: Duration = DEFAULT_PROVIDER_VALID_PERIOD
+) {
+
+  companion object {
+
+    /**
+     * The default period for which a successful sync is considered fresh.
+     */
+
+    val DEFAULT_FRESH_PERIOD: Duration =
+      Duration.standardMinutes(15L)
+
+    /**
+     * The default delay before retrying after a first failure.
+     */
+
+    val DEFAULT_BACKOFF_INITIAL: Duration =
+      Duration.standardMinutes(1L)
+
+    /**
+     * The default maximum delay before retrying after repeated failures.
+     */
+
+    val DEFAULT_BACKOFF_MAXIMUM: Duration =
+      Duration.standardHours(4L)
+
+    /**
+     * The default period for which a resolved account provider is considered valid.
+     */
+
+    val DEFAULT_PROVIDER_VALID_PERIOD: Duration =
+      Duration.standardHours(1L)
+  }
+
+  private data class AccountState(
+    val syncing: Boolean,
+    val lastSucceeded: Instant?,
+    val failures: Int,
+    val retryAfter: Instant?,
+    val providerResolved: Instant?
+  )
+
+  private val stateLock = Any()
+
+  @GuardedBy("stateLock")
+  private val states = mutableMapOf<AccountID, AccountState>()
+
+  private fun stateOf(account: AccountID): AccountState =
+    this.states[account] ?: AccountState(false, null, 0, null, null)
+
+  /**
+   * @return `true` if the given account should be synced now
+   */
+
+  fun isDue(account: AccountID): Boolean {
+    val now = this.clock.invoke()
+    synchronized(this.stateLock) {
+      val state = this.stateOf(account)
+      if (state.syncing) {
+        return false
+      }
+      val retryAfter = state.retryAfter
+      if (retryAfter != null && now.isBefore(retryAfter)) {
+        return false
+      }
+      val lastSucceeded = state.lastSucceeded
+      if (lastSucceeded != null && now.isBefore(lastSucceeded.plus(this.freshPeriod))) {
+        return false
+      }
+      return true
+    }
+  }
+
+  /**
+   * Record that the given account has started syncing.
+   */
+
+  fun syncStarted(account: AccountID) {
+    synchronized(this.stateLock) {
+      this.states[account] = this.stateOf(account).copy(syncing = true)
+    }
+  }
+
+  /**
+   * Record that the given account synced successfully.
+   */
+
+  fun syncSucceeded(account: AccountID) {
+    val now = this.clock.invoke()
+    synchronized(this.stateLock) {
+      this.states[account] =
+        this.stateOf(account).copy(
+          syncing = false,
+          lastSucceeded = now,
+          failures = 0,
+          retryAfter = null
+        )
+    }
+  }
+
+  /**
+   * Record that the given account failed to sync.
+   *
+   * @return The delay before the account should be synced again
+   */
+
+  fun syncFailed(account: AccountID): Duration {
+    val now = this.clock.invoke()
+    synchronized(this.stateLock) {
+      val state = this.stateOf(account)
+      val failures = state.failures + 1
+      val delay = this.backoffFor(failures)
+      this.states[account] =
+        state.copy(syncing = false, failures = failures, retryAfter = now.plus(delay))
+      return delay
+    }
+  }
+
+  private fun backoffFor(failures: Int): Duration {
+    val shift = Math.min(failures - 1, 30)
+    val millis = this.backoffInitial.millis.toDouble() * Math.pow(2.0, shift.toDouble())
+    return Duration.millis(Math.min(millis, this.backoffMaximum.millis.toDouble()).toLong())
+  }
+
+  /**
+   * Record that the account provider of the given account was resolved.
+   */
+
+  fun providerResolved(account: AccountID) {
+    val now = this.clock.invoke()
+    synchronized(this.stateLock) {
+      this.states[account] = this.stateOf(account).copy(providerResolved = now)
+    }
+  }
+
+  /**
+   * @return `true` if the account provider of the given account was resolved recently enough
+   *   that it does not need to be resolved again
+   */
+
+  fun isProviderValid(account: AccountID): Boolean {
+    val now = this.clock.invoke()
+    synchronized(this.stateLock) {
+      val resolved = this.stateOf(account).providerResolved ?: return false
+      return now.isBefore(resolved.plus(this.providerValidPeriod))
+    }
+  }
+
+  /**
+   * Forget everything about the given account. This is called when the account is deleted.
+   */
+
+  fun forget(account: AccountID) {
+    synchronized(this.stateLock) {
+      this.states.remove(account)
+    }
+  }
+}
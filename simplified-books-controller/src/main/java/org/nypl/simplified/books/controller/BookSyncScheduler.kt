@@ -0,0 +1,119 @@
+package org.nypl.simplified.books.controller
+
+import com.google.common.util.concurrent.FluentFuture
+import org.joda.time.Duration
+import org.nypl.simplified.accounts.api.AccountID
+import org.nypl.simplified.accounts.database.api.AccountType
+import org.slf4j.LoggerFactory
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+
+/**
+ * A scheduler that periodically syncs the accounts that are due to be synced.
+ *
+ * Each check asks the [BookSyncSchedule] which accounts are due, and starts the syncs for those
+ * accounts at staggered intervals so that a profile with many accounts does not contact all of
+ * its servers at once. Accounts that synced recently, or that are backing off after failures,
+ * are skipped until they are due again.
+ */
+
+class BookSyncScheduler(
+  private val schedule: BookSyncSchedule,
+  private val executor: ScheduledExecutorService,
+  private val accounts: () -> Collection<AccountType>,
+  private val sync: (AccountType) -> FluentFuture<Unit>,
+  private val checkPeriod: Duration = DEFAULT_CHECK_PERIOD,
+  private val stagger: Duration = DEFAULT_STAGGER
+) : AutoCloseable {
+
+  companion object {
+
+    /**
+     * The default period between checks for accounts that are due to be synced.
+     */
+
+    val DEFAULT_CHECK_PERIOD: Duration =
+      Duration.standardMinutes(5L)
+
+    /**
+     * The default interval between the starts of syncs of consecutive accounts.
+     */
+
+    val DEFAULT_STAGGER: Duration =
+      Duration.standardSeconds(10L)
+  }
+
+  private val logger =
+    LoggerFactory.getLogger(BookSyncScheduler::class.java)
+
+  @Volatile
+  private var checks: ScheduledFuture<*>? = null
+
+  /**
+   * Start checking periodically. The first check happens after one period has elapsed;
+   * accounts are expected to be synced when a profile is selected.
+   */
+
+  @Synchronized
+  fun start() {
+    if (this.checks != null) {
+      return
+    }
+    this.logger.debug("starting periodic sync checks every {}", this.checkPeriod)
+    this.checks =
+      this.executor.scheduleWithFixedDelay(
+        { this.check() },
+        this.checkPeriod.millis,
+        this.checkPeriod.millis,
+        TimeUnit.MILLISECONDS
+      )
+  }
+
+  /**
+   * Check for accounts that are due to be synced, and schedule syncs for them.
+   *
+   * @return The accounts for which syncs were scheduled
+   */
+
+  fun check(): List<AccountID> {
+    val due = try {
+      this.accounts.invoke().filter { account -> this.schedule.isDue(account.id) }
+    } catch (e: Exception) {
+      this.logger.error("could not determine accounts to sync: ", e)
+      return listOf()
+    }
+
+    due.forEachIndexed { index, account ->
+      this.executor.schedule(
+        { this.syncIfDue(account) },
+        this.stagger.millis * index,
+        TimeUnit.MILLISECONDS
+      )
+    }
+    return due.map(AccountType::id)
+  }
+
+  /*
+   * The account may have been synced by some other means between the check and the start of
+   * the staggered sync, so it is checked again.
+   */
+
+  private fun syncIfDue(account: AccountType) {
+    if (!this.schedule.isDue(account.id)) {
+      return
+    }
+    try {
+      this.logger.debug("scheduled sync of account {}", account.id)
+      this.sync.invoke(account)
+    } catch (e: Exception) {
+      this.logger.error("could not start sync of account {}: ", account.id, e)
+    }
+  }
+
+  @Synchronized
+  override fun close() {
+    this.checks?.cancel(false)
+    this.checks = null
+  }
+}
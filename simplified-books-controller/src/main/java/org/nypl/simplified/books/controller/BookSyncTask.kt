@@ -24,6 +24,7 @@ import org.nypl.simplified.opds.core.OPDSAvailabilityRevoked
 import org.nypl.simplified.opds.core.OPDSFeedParserType
 import org.nypl.simplified.opds.core.OPDSParseException
 import org.nypl.simplified.taskrecorder.api.TaskResult
+import org.nypl.simplified.taskrecorder.api.TaskTraces
 import org.slf4j.LoggerFactory
 import java.io.ByteArrayInputStream
 import java.io.IOException
@@ -38,7 +39,8 @@ class BookSyncTask(
   private val accountRegistry: AccountProviderRegistryType,
   private val bookRegistry: BookRegistryType,
   private val http: LSHTTPClientType,
-  private val feedParser: OPDSFeedParserType
+  private val feedParser: OPDSFeedParserType,
+  private val schedule: BookSyncSchedule
 ) : Callable<Unit> {
 
   private val logger = LoggerFactory.getLogger(BookSyncTask::class.java)
@@ -47,7 +49,9 @@ class BookSyncTask(
   override fun call() {
     try {
       this.logger.debug("syncing account {}", this.account.id)
-      return this.execute()
+      return TaskTraces.span("Sync books", category = "task") {
+        this.execute()
+      }
     } finally {
       this.logger.debug("finished syncing account {}", this.account.id)
     }
@@ -55,7 +59,9 @@ class BookSyncTask(
 
   @Throws(Exception::class)
   private fun execute() {
-    val provider = this.updateAccountProvider()
+    val provider = TaskTraces.span("Update account provider") {
+      this.updateAccountProvider()
+    }
 
     val providerAuth = provider.authentication
     if (providerAuth == AccountProviderAuthenticationDescription.Anonymous) {
@@ -80,7 +86,9 @@ class BookSyncTask(
         .setAuthorization(AccountAuthenticatedHTTP.createAuthorization(credentials))
         .build()
 
-    val response = request.execute()
+    val response = TaskTraces.span("Fetch loans") {
+      request.execute()
+    }
     return when (val status = response.status) {
       is LSHTTPResponseStatus.Responded.OK ->
         this.onHTTPOK(status.bodyStream ?: ByteArrayInputStream(ByteArray(0)), provider)
@@ -104,6 +112,19 @@ class BookSyncTask(
       this.logger.debug("found account description for {} in registry", oldProvider.id)
     }
 
+    /*
+     * Resolving the account provider fetches the authentication document. If the provider was
+     * resolved recently, and the registry doesn't know of anything newer, then the provider
+     * is reused as it is.
+     */
+
+    if (this.schedule.isProviderValid(this.account.id) &&
+      !newDescription.updated.isAfter(oldProvider.updated)
+    ) {
+      this.logger.debug("account provider was resolved recently; not resolving it again")
+      return oldProvider
+    }
+
     val newProviderResult =
       this.accountRegistry.resolve(
         { accountProvider, message ->
@@ -116,6 +137,7 @@ class BookSyncTask(
       is TaskResult.Success -> {
         this.logger.debug("successfully resolved the account provider")
         this.account.setAccountProvider(newProviderResult.result)
+        this.schedule.providerResolved(this.account.id)
         newProviderResult.result
       }
       is TaskResult.Failure -> {
@@ -140,8 +162,12 @@ class BookSyncTask(
     stream: InputStream,
     provider: AccountProviderType
   ) {
-    val feed = this.feedParser.parse(provider.loansURI, stream)
-    this.updateAnnotations(feed)
+    val feed = TaskTraces.span("Parse loans") {
+      this.feedParser.parse(provider.loansURI, stream)
+    }
+    TaskTraces.span("Update annotations") {
+      this.updateAnnotations(feed)
+    }
 
     /*
      * Obtain the set of books that are on disk already. If any
@@ -28,6 +28,7 @@ import org.nypl.simplified.accounts.registry.api.AccountProviderRegistryType
 import org.nypl.simplified.analytics.api.AnalyticsType
 import org.nypl.simplified.books.api.BookID
 import org.nypl.simplified.books.api.BookIDs
+import org.nypl.simplified.books.book_registry.BookRegistryIndex
 import org.nypl.simplified.books.book_registry.BookRegistryType
 import org.nypl.simplified.books.book_registry.BookStatus
 import org.nypl.simplified.books.book_registry.BookWithStatus
@@ -76,6 +77,7 @@ import java.util.SortedMap
 import java.util.concurrent.Callable
 import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.ExecutorService
+import java.util.concurrent.ScheduledExecutorService
 
 /**
  * The default controller implementation.
@@ -86,7 +88,8 @@ class Controller private constructor(
   private val accountEvents: Subject<AccountEvent>,
   private val profileEvents: Subject<ProfileEvent>,
   private val services: ServiceDirectoryType,
-  private val taskExecutor: ListeningExecutorService
+  private val taskExecutor: ListeningExecutorService,
+  syncExecutor: ScheduledExecutorService?
 ) : BooksControllerType, ProfilesControllerType {
 
   private val borrows: ConcurrentHashMap<BookID, BorrowTask>
@@ -108,6 +111,8 @@ class Controller private constructor(
     this.services.requireService(AuthenticationDocumentParsersType::class.java)
   private val bookRegistry =
     this.services.requireService(BookRegistryType::class.java)
+  private val bookRegistryIndex =
+    BookRegistryIndex.create(this.bookRegistry)
   private val feedLoader =
     this.services.requireService(FeedLoaderType::class.java)
   private val feedParser =
@@ -132,6 +137,19 @@ class Controller private constructor(
   private val temporaryDirectory =
     File(this.cacheDirectory, "tmp")
 
+  private val syncSchedule =
+    BookSyncSchedule(clock = { Instant.now() })
+
+  private val syncScheduler =
+    syncExecutor?.let { executor ->
+      BookSyncScheduler(
+        schedule = this.syncSchedule,
+        executor = executor,
+        accounts = this::syncableAccounts,
+        sync = this::booksSyncIfStale
+      )
+    }
+
   private val accountRegistrySubscription: Disposable
   private val accountSubscription: Disposable
   private val profileSelectionSubscription: Disposable
@@ -202,11 +220,13 @@ class Controller private constructor(
       this.profiles.currentProfileUnsafe()
         .accounts()
         .values
-        .forEach { this.booksSync(it) }
+        .forEach { this.booksSyncIfStale(it) }
     } catch (e: Exception) {
       this.logger.error("failed to trigger book syncing: ", e)
     }
 
+    this.syncScheduler?.start()
+
     this.updateCrashlytics()
   }
 
@@ -440,7 +460,8 @@ class Controller private constructor(
         accountProviderID = provider,
         profiles = this.profiles,
         profileEvents = this.profileEvents,
-        strings = this.profileAccountDeletionStringResources
+        strings = this.profileAccountDeletionStringResources,
+        syncSchedule = this.syncSchedule
       )
     )
   }
@@ -517,7 +538,7 @@ class Controller private constructor(
   ): FluentFuture<Feed.FeedWithoutGroups> {
     return this.submitTask(
       ProfileFeedTask(
-        bookRegistry = this.bookRegistry,
+        bookRegistryIndex = this.bookRegistryIndex,
         profiles = this,
         request = request
       )
@@ -644,16 +665,42 @@ class Controller private constructor(
   override fun booksSync(
     account: AccountType
   ): FluentFuture<Unit> {
-    return this.submitTask(
-      BookSyncTask(
-        account = account,
-        accountRegistry = this.accountProviders,
-        bookRegistry = this.bookRegistry,
-        booksController = this,
-        feedParser = this.feedParser,
-        http = this.lsHttp
-      )
-    )
+    this.syncSchedule.syncStarted(account.id)
+    return this.submitTask {
+      try {
+        BookSyncTask(
+          account = account,
+          accountRegistry = this.accountProviders,
+          bookRegistry = this.bookRegistry,
+          booksController = this,
+          feedParser = this.feedParser,
+          http = this.lsHttp,
+          schedule = this.syncSchedule
+        ).call()
+        this.syncSchedule.syncSucceeded(account.id)
+      } catch (e: Exception) {
+        val delay = this.syncSchedule.syncFailed(account.id)
+        this.logger.debug("sync of account {} failed; retrying after {}", account.id, delay)
+        throw e
+      }
+    }
+  }
+
+  override fun booksSyncIfStale(
+    account: AccountType
+  ): FluentFuture<Unit> {
+    if (!this.syncSchedule.isDue(account.id)) {
+      this.logger.debug("account {} is not due to be synced", account.id)
+      return FluentFutureExtensions.fluentFutureOfValue(Unit)
+    }
+    return this.booksSync(account)
+  }
+
+  private fun syncableAccounts(): Collection<AccountType> {
+    if (!this.profileAnyIsCurrent()) {
+      return listOf()
+    }
+    return this.profiles.currentProfileUnsafe().accounts().values
   }
 
   override fun bookRevoke(
@@ -765,14 +812,16 @@ class Controller private constructor(
       executorService: ExecutorService,
       accountEvents: Subject<AccountEvent>,
       profileEvents: Subject<ProfileEvent>,
-      cacheDirectory: File
+      cacheDirectory: File,
+      syncExecutor: ScheduledExecutorService? = null
     ): Controller {
       return Controller(
         cacheDirectory = cacheDirectory,
         accountEvents = accountEvents,
         profileEvents = profileEvents,
         services = services,
-        taskExecutor = MoreExecutors.listeningDecorator(executorService)
+        taskExecutor = MoreExecutors.listeningDecorator(executorService),
+        syncExecutor = syncExecutor
       )
     }
   }
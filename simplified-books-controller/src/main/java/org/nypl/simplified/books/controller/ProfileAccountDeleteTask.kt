@@ -20,7 +20,8 @@ class ProfileAccountDeleteTask(
   private val accountProviderID: URI,
   private val profiles: ProfilesDatabaseType,
   private val profileEvents: Subject<ProfileEvent>,
-  private val strings: ProfileAccountDeletionStringResourcesType
+  private val strings: ProfileAccountDeletionStringResourcesType,
+  private val syncSchedule: BookSyncSchedule
 ) : Callable<TaskResult<Unit>> {
 
   private val logger = LoggerFactory.getLogger(ProfileAccountDeleteTask::class.java)
@@ -50,6 +51,7 @@ class ProfileAccountDeleteTask(
 
       val profile = this.profiles.currentProfileUnsafe()
       val account = profile.deleteAccountByProvider(this.accountProviderID)
+      this.syncSchedule.forget(account)
 
       this.publishSuccessEvent(account)
       this.taskRecorder.finishSuccess(Unit)
@@ -74,7 +74,7 @@ class ProfileAccountLoginTask(
     null
 
   private val steps: TaskRecorderType =
-    TaskRecorder.create()
+    TaskRecorder.create("Login")
 
   private val logger =
     LoggerFactory.getLogger(ProfileAccountLoginTask::class.java)
@@ -58,7 +58,7 @@ class ProfileAccountLogoutTask(
     LoggerFactory.getLogger(ProfileAccountLogoutTask::class.java)
 
   private val steps =
-    TaskRecorder.create()
+    TaskRecorder.create("Logout")
 
   private fun warn(message: String, vararg arguments: Any?) =
     this.logger.warn("[{}][{}] $message", this.profile.id.uuid, this.account.id, *arguments)
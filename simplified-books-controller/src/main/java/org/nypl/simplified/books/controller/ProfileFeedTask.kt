@@ -1,8 +1,7 @@
 package org.nypl.simplified.books.controller
 
-import org.nypl.simplified.books.book_registry.BookRegistryReadableType
+import org.nypl.simplified.books.book_registry.BookRegistryIndex
 import org.nypl.simplified.books.book_registry.BookStatus
-import org.nypl.simplified.books.book_registry.BookWithStatus
 import org.nypl.simplified.feeds.api.Feed
 import org.nypl.simplified.feeds.api.FeedBooksSelection
 import org.nypl.simplified.feeds.api.FeedEntry
@@ -14,13 +13,10 @@ import org.nypl.simplified.feeds.api.FeedSearch
 import org.nypl.simplified.profiles.controller.api.ProfileFeedRequest
 import org.nypl.simplified.profiles.controller.api.ProfilesControllerType
 import org.slf4j.LoggerFactory
-import java.util.ArrayList
-import java.util.Collections
-import java.util.Locale
 import java.util.concurrent.Callable
 
 internal class ProfileFeedTask(
-  val bookRegistry: BookRegistryReadableType,
+  val bookRegistryIndex: BookRegistryIndex,
   val profiles: ProfilesControllerType,
   val request: ProfileFeedRequest
 ) : Callable<Feed.FeedWithoutGroups> {
@@ -49,17 +45,27 @@ internal class ProfileFeedTask(
       )
 
     try {
-      this.logger.debug("book registry contains {} books", this.bookRegistry.books().size)
-      val books = this.collectAllBooks(this.bookRegistry)
-      this.logger.debug("collected {} candidate books", books.size)
+      this.logger.debug("book registry index contains {} books", this.bookRegistryIndex.size)
+
+      val search = this.request.search
+      val matching =
+        if (search != null) {
+          this.bookRegistryIndex.search(search)
+        } else {
+          null
+        }
+      this.logger.debug("search matched {} candidate books", matching?.size ?: "all")
 
       val filter = this.selectFeedFilter(this.request)
-      this.filterBooks(filter, books)
-      this.logger.debug("after filtering, {} candidate books remain", books.size)
-      this.searchBooks(this.request.search, books)
-      this.logger.debug("after searching, {} candidate books remain", books.size)
-      this.sortBooks(this.request.sortBy, books)
-      this.logger.debug("after sorting, {} candidate books remain", books.size)
+      val accountID = this.request.filterByAccountID
+      val books =
+        this.bookRegistryIndex.books(
+          ordering = this.orderingFor(this.request.sortBy),
+          matching = matching
+        ) { book ->
+          (accountID == null || book.book.account == accountID) && filter.invoke(book.status)
+        }
+      this.logger.debug("after filtering and sorting, {} candidate books remain", books.size)
 
       for (book in books) {
         feed.entriesInOrder.add(
@@ -120,114 +126,6 @@ internal class ProfileFeedTask(
     return Pair(this.request.facetTitleProvider.sortBy, facets)
   }
 
-  /**
-   * Filter the given books by the given search terms.
-   */
-
-  private fun searchBooks(
-    search: String?,
-    books: ArrayList<BookWithStatus>
-  ) {
-    if (search == null) {
-      return
-    }
-
-    val termsUpper = this.searchTermsSplitUpper(search)
-    val iterator = books.iterator()
-    while (iterator.hasNext()) {
-      val book = iterator.next()
-      if (!this.searchMatches(termsUpper, book)) {
-        iterator.remove()
-      }
-    }
-  }
-
-  /**
-   * Split the given search string into a list of uppercase search terms.
-   */
-
-  private fun searchTermsSplitUpper(search: String): List<String> {
-    val terms = search.split("\\s+".toRegex()).dropLastWhile { it.isEmpty() }.toTypedArray()
-    val termsUpper = ArrayList<String>(8)
-    for (term in terms) {
-      termsUpper.add(term.toUpperCase(Locale.ROOT))
-    }
-    return termsUpper
-  }
-
-  /**
-   * Sort the list of books by the given facet.
-   */
-
-  private fun sortBooks(
-    sortBy: SortBy,
-    books: ArrayList<BookWithStatus>
-  ) {
-    when (sortBy) {
-      SortBy.SORT_BY_AUTHOR -> this.sortBooksByAuthor(books)
-      SortBy.SORT_BY_TITLE -> this.sortBooksByTitle(books)
-    }
-  }
-
-  private fun sortBooksByTitle(books: ArrayList<BookWithStatus>) {
-    Collections.sort(books) { book0, book1 ->
-      val entry0 = book0.book.entry
-      val entry1 = book1.book.entry
-      entry0.title.compareTo(entry1.title)
-    }
-  }
-
-  private fun sortBooksByAuthor(books: ArrayList<BookWithStatus>) {
-    Collections.sort(books) { book0, book1 ->
-      val entry0 = book0.book.entry
-      val entry1 = book1.book.entry
-      val authors1 = entry0.authors
-      val authors2 = entry1.authors
-      val e0 = authors1.isEmpty()
-      val e1 = authors2.isEmpty()
-      if (e0 && e1) {
-        0
-      } else if (e0) {
-        1
-      } else if (e1) {
-        -1
-      } else {
-        val author1 = authors1[0]!!
-        val author2 = authors2[0]!!
-        author1.compareTo(author2)
-      }
-    }
-  }
-
-  /**
-   * Filter the list of books with the given filter.
-   */
-
-  private fun filterBooks(
-    filter: (BookStatus) -> Boolean,
-    books: ArrayList<BookWithStatus>
-  ) {
-    val iter = books.iterator()
-    while (iter.hasNext()) {
-      val book = iter.next()
-      if (!filter.invoke(book.status)) {
-        iter.remove()
-      }
-    }
-  }
-
-  private fun collectAllBooks(bookRegistry: BookRegistryReadableType): ArrayList<BookWithStatus> {
-    val accountID = this.request.filterByAccountID
-    val values = bookRegistry.books().values
-    return ArrayList(
-      if (accountID != null) {
-        values.filter { book -> book.book.account == accountID }
-      } else {
-        values
-      }
-    )
-  }
-
   private fun usableForBooksFeed(status: BookStatus): Boolean {
     return when (status) {
       is BookStatus.Held,
@@ -272,36 +170,11 @@ internal class ProfileFeedTask(
     }
   }
 
-  /**
-   * @return `true` if any of the given search terms match the given book, or the list of
-   * search terms is empty
-   */
-
-  private fun searchMatches(
-    termsUpper: List<String>,
-    book: BookWithStatus
-  ): Boolean {
-    if (termsUpper.isEmpty()) {
-      return true
-    }
-
-    for (index in termsUpper.indices) {
-      val termUpper = termsUpper[index]
-      val ee = book.book.entry
-      val eTitle = ee.title.toUpperCase(Locale.ROOT)
-      if (eTitle.contains(termUpper)) {
-        return true
-      }
-
-      val authors = ee.authors
-      for (a in authors) {
-        if (a.toUpperCase(Locale.ROOT).contains(termUpper)) {
-          return true
-        }
-      }
+  private fun orderingFor(sortBy: SortBy): BookRegistryIndex.Ordering {
+    return when (sortBy) {
+      SortBy.SORT_BY_AUTHOR -> BookRegistryIndex.Ordering.ORDER_BY_AUTHOR
+      SortBy.SORT_BY_TITLE -> BookRegistryIndex.Ordering.ORDER_BY_TITLE
     }
-
-    return false
   }
 
   private fun selectFeedFilter(
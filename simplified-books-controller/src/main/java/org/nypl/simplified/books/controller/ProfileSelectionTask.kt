@@ -6,6 +6,7 @@ import org.nypl.simplified.analytics.api.AnalyticsEvent
 import org.nypl.simplified.analytics.api.AnalyticsType
 import org.nypl.simplified.books.book_registry.BookRegistryType
 import org.nypl.simplified.profiles.api.ProfileAnonymousEnabledException
+import org.nypl.simplified.profiles.api.ProfileDatabaseAccountsException
 import org.nypl.simplified.profiles.api.ProfileEvent
 import org.nypl.simplified.profiles.api.ProfileID
 import org.nypl.simplified.profiles.api.ProfileNonexistentException
@@ -26,7 +27,11 @@ class ProfileSelectionTask(
 
   private val logger = LoggerFactory.getLogger(ProfileSelectionTask::class.java)
 
-  @Throws(ProfileNonexistentException::class, ProfileAnonymousEnabledException::class)
+  @Throws(
+    ProfileNonexistentException::class,
+    ProfileAnonymousEnabledException::class,
+    ProfileDatabaseAccountsException::class
+  )
   override fun call() {
     try {
       this.logger.debug("[{}]: profile selection in progress", this.id.uuid)
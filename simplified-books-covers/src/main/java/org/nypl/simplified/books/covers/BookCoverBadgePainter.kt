@@ -16,8 +16,27 @@ class BookCoverBadgePainter(
   val badges: BookCoverBadgeLookupType
 ) : Transformation {
 
+  /*
+   * The key is used by Picasso as part of the memory cache key for the transformed image, so
+   * it must distinguish between covers with different badges (and covers with no badge at all).
+   */
+
   override fun key(): String {
-    return "org.nypl.simplified.books.covers.BookCoverBadgePainter"
+    val badge = this.badges.badgeForEntry(this.entry)
+    if (badge == null) {
+      return "org.nypl.simplified.books.covers.BookCoverBadgePainter"
+    }
+
+    return StringBuilder(96)
+      .append("org.nypl.simplified.books.covers.BookCoverBadgePainter:")
+      .append(System.identityHashCode(badge.bitmap))
+      .append(':')
+      .append(badge.width)
+      .append('x')
+      .append(badge.height)
+      .append(':')
+      .append(Integer.toHexString(badge.backgroundColorRGBA()))
+      .toString()
   }
 
   override fun transform(source: Bitmap): Bitmap {
@@ -0,0 +1,58 @@
+package org.nypl.simplified.books.covers
+
+import android.graphics.Bitmap
+import android.graphics.BitmapFactory
+import org.slf4j.LoggerFactory
+import java.io.ByteArrayOutputStream
+import java.io.IOException
+import java.net.URI
+
+/**
+ * A cover generator that stores generated covers in a disk cache.
+ *
+ * Generated cover URIs are derived solely from the title and author of a book, so the URI and
+ * the requested size together identify the generated image. Generating a cover is considerably
+ * more expensive than decoding a previously generated one, and the disk cache allows covers to
+ * be reused across sessions.
+ */
+
+class BookCoverCachingGenerator(
+  private val delegate: BookCoverGeneratorType,
+  private val cache: BookCoverDiskCache
+) : BookCoverGeneratorType {
+
+  private val logger =
+    LoggerFactory.getLogger(BookCoverCachingGenerator::class.java)
+
+  @Throws(IOException::class)
+  override fun generateImage(
+    uri: URI,
+    width: Int,
+    height: Int
+  ): Bitmap {
+    val key = BookCoverDiskCache.keyOf(uri, width, height)
+
+    val cached = this.cache.get(key)
+    if (cached != null) {
+      val bitmap = BitmapFactory.decodeByteArray(cached, 0, cached.size)
+      if (bitmap != null) {
+        this.logger.debug("cached: {}", uri)
+        return bitmap
+      }
+    }
+
+    val bitmap = this.delegate.generateImage(uri, width, height)
+    val output = ByteArrayOutputStream(width * height / 4 + 1024)
+    if (bitmap.compress(Bitmap.CompressFormat.PNG, 100, output)) {
+      this.cache.put(key, output.toByteArray())
+    }
+    return bitmap
+  }
+
+  override fun generateURIForTitleAuthor(
+    title: String,
+    author: String
+  ): URI {
+    return this.delegate.generateURIForTitleAuthor(title, author)
+  }
+}
@@ -0,0 +1,142 @@
+package org.nypl.simplified.books.covers
+
+import org.nypl.simplified.opds.core.OPDSBookIDDeriver
+import org.slf4j.LoggerFactory
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.security.MessageDigest
+
+/**
+ * A simple content-addressed disk cache of encoded images.
+ *
+ * Entries are stored as one file per key in the given directory, and are written atomically so
+ * that concurrent readers never observe partially written entries. When the total size of the
+ * cache exceeds the given maximum, the least recently used entries are deleted. The cache is
+ * safe to use from multiple threads, and the contents of the cache survive process restarts.
+ */
+
+class BookCoverDiskCache(
+  private val directory: File,
+  private val maximumBytes: Long
+) {
+
+  init {
+    require(this.maximumBytes > 0L) { "Maximum size must be positive" }
+  }
+
+  private val logger =
+    LoggerFactory.getLogger(BookCoverDiskCache::class.java)
+
+  private var sizeBytes: Long = -1L
+
+  /**
+   * @return The cached data for the given key, or `null` if nothing is cached
+   */
+
+  fun get(key: String): ByteArray? {
+    val file = File(this.directory, key)
+    return try {
+      val data = file.readBytes()
+      file.setLastModified(System.currentTimeMillis())
+      data
+    } catch (e: IOException) {
+      null
+    }
+  }
+
+  /**
+   * Store the given data under the given key, evicting old entries if necessary. Failures are
+   * logged and otherwise ignored: the cache is purely an optimization.
+   */
+
+  fun put(
+    key: String,
+    data: ByteArray
+  ) {
+    try {
+      this.directory.mkdirs()
+      val file = File(this.directory, key)
+      val fileTmp = File.createTempFile(key, ".tmp", this.directory)
+      try {
+        FileOutputStream(fileTmp).use { stream ->
+          stream.write(data)
+          stream.flush()
+        }
+        val previous = file.length()
+        if (!fileTmp.renameTo(file)) {
+          throw IOException("Could not rename $fileTmp to $file")
+        }
+        this.added(data.size.toLong() - previous)
+      } finally {
+        fileTmp.delete()
+      }
+    } catch (e: IOException) {
+      this.logger.debug("could not cache {}: ", key, e)
+    }
+  }
+
+  /**
+   * @return The current total size in bytes of the cached entries
+   */
+
+  @Synchronized
+  fun size(): Long {
+    this.ensureSizeKnown()
+    return this.sizeBytes
+  }
+
+  @Synchronized
+  private fun added(bytes: Long) {
+    this.ensureSizeKnown()
+    this.sizeBytes += bytes
+    if (this.sizeBytes > this.maximumBytes) {
+      this.trim()
+    }
+  }
+
+  private fun ensureSizeKnown() {
+    if (this.sizeBytes < 0L) {
+      this.sizeBytes = this.entries().map(File::length).sum()
+    }
+  }
+
+  private fun entries(): List<File> =
+    this.directory.listFiles { file -> file.isFile && !file.name.endsWith(".tmp") }
+      ?.toList()
+      ?: listOf()
+
+  private fun trim() {
+    val files = this.entries().sortedBy(File::lastModified)
+    var size = files.map(File::length).sum()
+    for (file in files) {
+      if (size <= this.maximumBytes) {
+        break
+      }
+      val length = file.length()
+      if (file.delete()) {
+        size -= length
+      }
+    }
+
+    this.logger.debug("trimmed cache from {} to {} bytes", this.sizeBytes, size)
+    this.sizeBytes = size
+  }
+
+  companion object {
+
+    /**
+     * @return A key suitable for use in the cache, derived from the given values
+     */
+
+    fun keyOf(vararg values: Any): String {
+      val digest = MessageDigest.getInstance("SHA-256")
+      for (value in values) {
+        digest.update(value.toString().toByteArray(Charsets.UTF_8))
+        digest.update(0.toByte())
+      }
+
+      return OPDSBookIDDeriver.hexOf(digest.digest())
+    }
+  }
+}
@@ -8,6 +8,8 @@ import com.google.common.util.concurrent.SettableFuture
 import com.io7m.jfunctional.OptionType
 import com.io7m.jfunctional.Some
 import com.squareup.picasso.Callback
+import com.squareup.picasso.Downloader
+import com.squareup.picasso.LruCache
 import com.squareup.picasso.Picasso
 import org.nypl.simplified.books.book_registry.BookRegistryReadableType
 import org.nypl.simplified.books.bundled.api.BundledContentResolverType
@@ -26,6 +28,7 @@ class BookCoverProvider private constructor(
   private val bookRegistry: BookRegistryReadableType,
   private val coverGenerator: BookCoverGeneratorType,
   private val picasso: Picasso,
+  private val memoryCache: LruCache,
   private val badgeLookup: BookCoverBadgeLookupType
 ) : BookCoverProviderType {
 
@@ -33,6 +36,13 @@ class BookCoverProvider private constructor(
   private val coverTag: String = "cover"
   private val thumbnailTag: String = "thumbnail"
 
+  /**
+   * The estimated number of bytes of each tag's prefetches that have not yet completed.
+   * Only accessed on the UI thread, on which Picasso delivers callbacks.
+   */
+
+  private val prefetchOutstanding = mutableMapOf<Any, Int>()
+
   private fun generateCoverURI(entry: FeedEntry.FeedEntryOPDS): URI {
     val feedEntry = entry.feedEntry
     val title = feedEntry.title
@@ -182,6 +192,81 @@ class BookCoverProvider private constructor(
     }
   }
 
+  override fun prefetchThumbnails(
+    entries: List<FeedEntry.FeedEntryOPDS>,
+    width: Int,
+    height: Int,
+    tag: Any
+  ) {
+    /*
+     * Prefetched thumbnails are placed into the same memory cache as the thumbnails that are
+     * on screen. Limit the prefetches in flight, across all calls and all tags, to a quarter
+     * of the cache so that prefetching can't evict the thumbnails that are visible. The
+     * bitmaps use two bytes per pixel, and thumbnails with an unspecified width are
+     * typically 3:4.
+     */
+
+    val estimatedWidth = if (width > 0) width else (height * 3) / 4
+    val estimatedHeight = if (height > 0) height else (width * 4) / 3
+    val estimatedBytes = Math.max(1, estimatedWidth * estimatedHeight * 2)
+    val available = (this.memoryCache.maxSize() / 4) - this.prefetchOutstanding.values.sum()
+    val budget = Math.max(0, available / estimatedBytes)
+    val count = Math.min(entries.size, budget)
+    if (count == 0) {
+      return
+    }
+
+    this.prefetchOutstanding[tag] =
+      (this.prefetchOutstanding[tag] ?: 0) + (count * estimatedBytes)
+
+    val callback = object : Callback {
+      override fun onSuccess() {
+        this@BookCoverProvider.prefetchCompleted(tag, estimatedBytes)
+      }
+
+      override fun onError(e: Exception) {
+        this@BookCoverProvider.prefetchCompleted(tag, estimatedBytes)
+      }
+    }
+
+    for (index in 0 until count) {
+      val entry = entries[index]
+      val uri = this.thumbnailURIOf(entry) ?: this.generateCoverURI(entry)
+      this.picasso.load(uri.toString())
+        .tag(tag)
+        .priority(Picasso.Priority.LOW)
+        .resize(width, height)
+        .transform(BookCoverBadgePainter(entry, this.badgeLookup))
+        .fetch(callback)
+    }
+  }
+
+  private fun prefetchCompleted(
+    tag: Any,
+    estimatedBytes: Int
+  ) {
+    val outstanding = (this.prefetchOutstanding[tag] ?: return) - estimatedBytes
+    if (outstanding > 0) {
+      this.prefetchOutstanding[tag] = outstanding
+    } else {
+      this.prefetchOutstanding.remove(tag)
+    }
+  }
+
+  override fun loadingThumbnailCancel(imageView: ImageView) {
+    this.picasso.cancelRequest(imageView)
+  }
+
+  override fun prefetchCancel(tag: Any) {
+    /*
+     * Picasso does not call the callbacks of cancelled requests, so the outstanding bytes
+     * of the tag are forgotten here.
+     */
+
+    this.picasso.cancelTag(tag)
+    this.prefetchOutstanding.remove(tag)
+  }
+
   override fun loadingThumbnailsPause() {
     this.picasso.pauseTag(this.thumbnailTag)
   }
@@ -201,6 +286,7 @@ class BookCoverProvider private constructor(
      * @param bookRegistry The book registry
      * @param coverGenerator A cover generator
      * @param executor An executor
+     * @param downloader The downloader used for remote covers, or `null` for Picasso's default
      *
      * @return A new cover provider
      */
@@ -213,7 +299,8 @@ class BookCoverProvider private constructor(
       bundledContentResolver: BundledContentResolverType,
       executor: ExecutorService,
       debugCacheIndicators: Boolean,
-      debugLogging: Boolean
+      debugLogging: Boolean,
+      downloader: Downloader? = null
     ): BookCoverProviderType {
       val picassoBuilder = Picasso.Builder(context)
       picassoBuilder.defaultBitmapConfig(Bitmap.Config.RGB_565)
@@ -222,9 +309,20 @@ class BookCoverProvider private constructor(
       picassoBuilder.addRequestHandler(BookCoverGeneratorRequestHandler(coverGenerator))
       picassoBuilder.addRequestHandler(BookCoverBundledRequestHandler(bundledContentResolver))
       picassoBuilder.executor(executor)
+      if (downloader != null) {
+        picassoBuilder.downloader(downloader)
+      }
+
+      /*
+       * The memory cache is sized by Picasso from the device memory class; it's created here
+       * so that prefetching can be limited to a fraction of it.
+       */
+
+      val memoryCache = LruCache(context)
+      picassoBuilder.memoryCache(memoryCache)
 
       val picasso = picassoBuilder.build()
-      return BookCoverProvider(bookRegistry, coverGenerator, picasso, badgeLookup)
+      return BookCoverProvider(bookRegistry, coverGenerator, picasso, memoryCache, badgeLookup)
     }
   }
 }
@@ -23,6 +23,49 @@ interface BookCoverProviderType {
 
   fun loadingThumbnailsContinue()
 
+  /**
+   * Cancel any thumbnail or cover loading into the given image view. This is typically called
+   * when the view is recycled, so that covers are only requested for views that are visible.
+   *
+   * Must only be called from the UI thread.
+   *
+   * @param imageView The image view
+   */
+
+  fun loadingThumbnailCancel(imageView: ImageView)
+
+  /**
+   * Load or generate thumbnails for the given entries in the background, so that later calls to
+   * [loadThumbnailInto] with the same dimensions can be satisfied from memory. Prefetching is
+   * best-effort: the number of thumbnails being prefetched at any one time is limited so that
+   * prefetched thumbnails cannot evict those that are currently displayed.
+   *
+   * Must only be called from the UI thread.
+   *
+   * @param entries The feed entries, in order of priority
+   * @param width Use 0 as desired dimension to resize keeping aspect ratio.
+   * @param height Use 0 as desired dimension to resize keeping aspect ratio.
+   * @param tag The tag of the prefetches, used to cancel them with [prefetchCancel]
+   */
+
+  fun prefetchThumbnails(
+    entries: List<FeedEntry.FeedEntryOPDS>,
+    width: Int,
+    height: Int,
+    tag: Any
+  )
+
+  /**
+   * Cancel any thumbnail prefetching started with [prefetchThumbnails] with the given tag.
+   * Prefetches with other tags are unaffected.
+   *
+   * Must only be called from the UI thread.
+   *
+   * @param tag The tag of the prefetches
+   */
+
+  fun prefetchCancel(tag: Any)
+
   /**
    * Load or generate a thumbnail based on `entry` into the image view
    * `imageView`, at width `width` and height `height`.
@@ -1,6 +1,5 @@
 package org.nypl.simplified.books.book_database
 
-import com.fasterxml.jackson.databind.ObjectMapper
 import org.nypl.drm.core.AdobeAdeptLoan
 import org.nypl.drm.core.AdobeLoanID
 import org.nypl.simplified.books.api.BookDRMInformation
@@ -8,6 +7,7 @@ import org.nypl.simplified.books.api.BookDRMKind
 import org.nypl.simplified.books.book_database.api.BookDRMInformationHandle
 import org.nypl.simplified.books.book_database.api.BookFormats
 import org.nypl.simplified.files.FileUtilities
+import org.nypl.simplified.json.core.JSONObjectMappers
 import org.nypl.simplified.json.core.JSONParserUtilities
 import org.nypl.simplified.json.core.JSONSerializerUtilities
 import java.io.ByteArrayOutputStream
@@ -26,7 +26,7 @@ class BookDRMInformationHandleACS(
   private val onUpdate: () -> Unit
 ) : BookDRMInformationHandle.ACSHandle(), BookDRMInformationHandleBase {
 
-  private val objectMapper = ObjectMapper()
+  private val objectMapper = JSONObjectMappers.mapper()
   private val closed = AtomicBoolean(false)
 
   companion object {
@@ -10,7 +10,6 @@ import org.nypl.simplified.books.book_database.api.BookDatabaseException
 import org.nypl.simplified.books.book_database.api.BookDatabaseType
 import org.nypl.simplified.files.DirectoryUtilities
 import org.nypl.simplified.files.FileUtilities
-import org.nypl.simplified.json.core.JSONSerializerUtilities
 import org.nypl.simplified.opds.core.OPDSAcquisitionFeedEntry
 import org.nypl.simplified.opds.core.OPDSJSONParserType
 import org.nypl.simplified.opds.core.OPDSJSONSerializerType
@@ -19,9 +18,11 @@ import java.io.File
 import java.io.FileInputStream
 import java.io.IOException
 import java.util.ArrayList
+import java.util.Collections
+import java.util.SortedMap
 import java.util.SortedSet
-import java.util.TreeSet
-import java.util.concurrent.ConcurrentSkipListMap
+import java.util.TreeMap
+import java.util.concurrent.atomic.AtomicReference
 import javax.annotation.concurrent.GuardedBy
 
 /**
@@ -36,45 +37,87 @@ class BookDatabase private constructor(
   private val serializer: OPDSJSONSerializerType
 ) : BookDatabaseType {
 
+  /**
+   * An immutable version of the contents of the database. The given map must not be
+   * modified after the snapshot is created.
+   */
+
+  private class BookSnapshot(
+    map: TreeMap<BookID, BookDatabaseEntry>
+  ) {
+    val entries: SortedMap<BookID, BookDatabaseEntry> =
+      Collections.unmodifiableSortedMap(map)
+    val ids: SortedSet<BookID> =
+      Collections.unmodifiableSortedSet(map.navigableKeySet())
+  }
+
   /**
    * A thread-safe map exposing read-only snapshots of database entries.
+   *
+   * The contents of the map are published as immutable snapshots. Writers serialize on
+   * [mapsLock], copy the current snapshot, modify the copy, and publish it as the next
+   * snapshot. Readers take the current snapshot without locking, and so never wait for
+   * writers (which may be performing disk I/O while holding the lock).
    */
 
   private class BookMaps internal constructor() {
 
     internal val mapsLock: Any = Any()
 
-    @GuardedBy("mapsLock")
-    internal val entries: ConcurrentSkipListMap<BookID, BookDatabaseEntry> =
-      ConcurrentSkipListMap()
+    private val current: AtomicReference<BookSnapshot> =
+      AtomicReference(BookSnapshot(TreeMap()))
 
-    internal fun contains(key: BookID): Boolean {
-      synchronized(mapsLock) {
-        LOG.debug("BookMaps.contains")
-        return this.entries.containsKey(key)
-      }
-    }
+    internal fun snapshot(): BookSnapshot =
+      this.current.get()
+
+    internal fun contains(key: BookID): Boolean =
+      this.current.get().entries.containsKey(key)
 
     internal fun clear() {
       synchronized(this.mapsLock) {
         LOG.debug("BookMaps.clear")
-        this.entries.clear()
+        this.updateLocked { entries -> entries.clear() }
       }
     }
 
     internal fun delete(bookID: BookID) {
       synchronized(this.mapsLock) {
         LOG.debug("BookMaps.delete: {}", bookID.value())
-        this.entries.remove(bookID)
+        this.updateLocked { entries -> entries.remove(bookID) }
       }
     }
 
     internal fun addEntry(entry: BookDatabaseEntry) {
       synchronized(this.mapsLock) {
         LOG.debug("BookMaps.addEntry: {}", entry.id.value())
-        this.entries.put(entry.id, entry)
+        this.updateLocked { entries -> entries[entry.id] = entry }
+      }
+    }
+
+    /**
+     * Add all of the given entries, publishing a single new snapshot. This avoids copying
+     * the map once per entry when a database is opened.
+     */
+
+    internal fun addEntries(newEntries: List<BookDatabaseEntry>) {
+      synchronized(this.mapsLock) {
+        LOG.debug("BookMaps.addEntries: {}", newEntries.size)
+        this.updateLocked { entries ->
+          for (entry in newEntries) {
+            entries[entry.id] = entry
+          }
+        }
       }
     }
+
+    @GuardedBy("mapsLock")
+    private inline fun updateLocked(
+      update: (TreeMap<BookID, BookDatabaseEntry>) -> Unit
+    ) {
+      val next = TreeMap(this.current.get().entries)
+      update(next)
+      this.current.set(BookSnapshot(next))
+    }
   }
 
   override fun owner(): AccountID {
@@ -82,9 +125,7 @@ class BookDatabase private constructor(
   }
 
   override fun books(): SortedSet<BookID> {
-    synchronized(this.maps.mapsLock) {
-      return TreeSet(this.maps.entries.keys)
-    }
+    return this.maps.snapshot().ids
   }
 
   @Throws(BookDatabaseException::class)
@@ -119,11 +160,9 @@ class BookDatabase private constructor(
         val cover = fileOrNull(directory, BookDatabaseEntry.COVER_FILENAME)
         val thumb = fileOrNull(directory, BookDatabaseEntry.THUMB_FILENAME)
 
-        FileUtilities.fileWriteUTF8Atomically(
-          fileMeta,
-          fileMetaTmp,
-          JSONSerializerUtilities.serializeToString(this.serializer.serializeFeedEntry(entry))
-        )
+        FileUtilities.fileWriteAtomically(fileMeta, fileMetaTmp) { stream ->
+          this.serializer.serializeFeedEntryToStream(entry, stream)
+        }
 
         val book =
           Book(
@@ -154,11 +193,9 @@ class BookDatabase private constructor(
 
   @Throws(BookDatabaseException::class)
   override fun entry(id: BookID): BookDatabaseEntryType {
-    synchronized(this.maps.mapsLock) {
-      return this.maps.entries[id] ?: throw BookDatabaseException(
-        "Nonexistent book entry: " + id.value(), emptyList()
-      )
-    }
+    return this.maps.snapshot().entries[id] ?: throw BookDatabaseException(
+      "Nonexistent book entry: " + id.value(), emptyList()
+    )
   }
 
   companion object {
@@ -207,6 +244,7 @@ class BookDatabase private constructor(
 
       val bookDirs = directory.list()
       if (bookDirs != null) {
+        val entries = ArrayList<BookDatabaseEntry>(bookDirs.size)
         for (bookID in bookDirs) {
           LOG.debug("opening book: {}/{}", directory, bookID)
           val bookDirectory = File(directory, bookID)
@@ -221,8 +259,9 @@ class BookDatabase private constructor(
             name = bookID
           )
             ?: continue
-          maps.addEntry(entry)
+          entries.add(entry)
         }
+        maps.addEntries(entries)
       }
     }
 
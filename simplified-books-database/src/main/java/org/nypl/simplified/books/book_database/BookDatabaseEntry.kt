@@ -13,7 +13,7 @@ import org.nypl.simplified.books.book_database.api.BookDatabaseException
 import org.nypl.simplified.books.book_database.api.BookFormats
 import org.nypl.simplified.files.DirectoryUtilities
 import org.nypl.simplified.files.FileUtilities
-import org.nypl.simplified.json.core.JSONSerializerUtilities
+import org.nypl.simplified.json.core.JSONObjectMappers
 import org.nypl.simplified.opds.core.OPDSAcquisitionFeedEntry
 import org.nypl.simplified.opds.core.OPDSJSONSerializerType
 import org.slf4j.Logger
@@ -95,7 +95,7 @@ internal class BookDatabaseEntry internal constructor(
         }
     }
 
-    val objectMapper = ObjectMapper()
+    val objectMapper = JSONObjectMappers.mapper()
     synchronized(this.bookLock) {
       this.bookRef.entry.acquisitions.forEach { acquisition ->
         createFormatHandleIfRequired(
@@ -139,13 +139,9 @@ internal class BookDatabaseEntry internal constructor(
       try {
         DirectoryUtilities.directoryCreate(this.bookDir)
 
-        FileUtilities.fileWriteUTF8Atomically(
-          fileMeta,
-          fileMetaTmp,
-          JSONSerializerUtilities.serializeToString(
-            this.serializer.serializeFeedEntry(opdsEntry)
-          )
-        )
+        FileUtilities.fileWriteAtomically(fileMeta, fileMetaTmp) { stream ->
+          this.serializer.serializeFeedEntryToStream(opdsEntry, stream)
+        }
 
         this.bookRef = this.bookRef.copy(entry = opdsEntry)
       } catch (e: IOException) {
@@ -4,6 +4,7 @@ import one.irradia.mime.api.MIMEType
 import org.nypl.simplified.books.formats.api.BookFormatSupportType
 import org.nypl.simplified.books.formats.api.StandardFormatNames
 import org.slf4j.LoggerFactory
+import java.util.concurrent.ConcurrentHashMap
 
 /**
  * The main implementation of the [BookFormatSupportType] API.
@@ -19,6 +20,15 @@ class BookFormatSupport private constructor(
   private val finalTypes: Set<MIMEType>
   private val knownTypes: Set<MIMEType>
 
+  /*
+   * Feeds contain very few distinct acquisition paths, so the decision for each path is
+   * computed once and remembered. Unsupported paths are therefore only logged the first
+   * time that they are seen.
+   */
+
+  private val decisions =
+    ConcurrentHashMap<List<MIMEType>, Boolean>()
+
   init {
     this.finalTypes = this.collectFinalTypes()
     this.knownTypes = this.collectKnownTypes()
@@ -70,6 +80,13 @@ class BookFormatSupport private constructor(
 
   companion object {
 
+    /**
+     * The maximum number of path decisions that will be remembered. The decisions are
+     * discarded if this is exceeded; in practice, it never is.
+     */
+
+    private const val MAXIMUM_DECISIONS = 256
+
     /**
      * Construct a new book format support API.
      */
@@ -98,6 +115,23 @@ class BookFormatSupport private constructor(
       return false
     }
 
+    val existing = this.decisions[typePath]
+    if (existing != null) {
+      return existing
+    }
+
+    val decision = this.decideSupportedPath(typePath)
+    if (this.decisions.size >= MAXIMUM_DECISIONS) {
+      this.decisions.clear()
+    }
+    this.decisions[typePath] = decision
+    return decision
+  }
+
+  private fun decideSupportedPath(
+    typePath: List<MIMEType>
+  ): Boolean {
+
     /*
      * Check that all of the types in the path are known.
      */
@@ -123,9 +157,8 @@ class BookFormatSupport private constructor(
      * Check that the path doesn't imply an Adobe-encrypted PDF.
      */
 
-    val typeSet = typePath.toSet()
-    if (typeSet.contains(StandardFormatNames.genericPDFFiles) &&
-      typeSet.contains(StandardFormatNames.adobeACSMFiles)
+    if (typePath.contains(StandardFormatNames.genericPDFFiles) &&
+      typePath.contains(StandardFormatNames.adobeACSMFiles)
     ) {
       this.logger.warn("Adobe-encrypted PDFs are not supported")
       return false
@@ -0,0 +1,341 @@
+package org.nypl.simplified.books.book_registry
+
+import io.reactivex.disposables.Disposable
+import org.nypl.simplified.books.api.BookID
+import org.nypl.simplified.books.book_registry.BookStatusEvent.BookStatusEventChanged
+import org.nypl.simplified.books.book_registry.BookStatusEvent.BookStatusEventRemoved
+import org.slf4j.LoggerFactory
+import java.util.ArrayList
+import java.util.HashMap
+import java.util.HashSet
+import java.util.Locale
+import java.util.TreeMap
+import java.util.TreeSet
+import java.util.regex.Pattern
+
+/**
+ * An index over the contents of a book registry.
+ *
+ * The index holds pre-normalized search tokens and pre-sorted orderings of all of the books
+ * in the registry, and is maintained incrementally in response to the registry's book status
+ * events. This allows local feeds (such as "My Books") to be searched and sorted without
+ * having to scan and re-sort the entire registry on every request.
+ */
+
+class BookRegistryIndex private constructor(
+  private val registry: BookRegistryReadableType
+) : AutoCloseable {
+
+  private val logger =
+    LoggerFactory.getLogger(BookRegistryIndex::class.java)
+
+  /**
+   * The orderings maintained by the index.
+   */
+
+  enum class Ordering {
+
+    /**
+     * Books are ordered by title.
+     */
+
+    ORDER_BY_TITLE,
+
+    /**
+     * Books are ordered by the first listed author. Books without authors are ordered last.
+     */
+
+    ORDER_BY_AUTHOR
+  }
+
+  private class IndexedBook(
+    @Volatile var book: BookWithStatus,
+    val title: String,
+    val author: String?,
+    val authors: List<String>,
+    val suffixes: Set<String>
+  ) {
+    val id: BookID =
+      this.book.book.id
+  }
+
+  private val lock = Any()
+  private val books = HashMap<BookID, IndexedBook>()
+  private val byTitle = TreeSet<IndexedBook>(titleOrdering)
+  private val byAuthor = TreeSet<IndexedBook>(authorOrdering)
+  private val bySuffix = TreeMap<String, MutableSet<BookID>>()
+  private val subscription: Disposable
+
+  init {
+    this.subscription =
+      this.registry.bookEvents()
+        .subscribe(this::onBookStatusEvent)
+
+    for (book in this.registry.books().values) {
+      this.index(book)
+    }
+  }
+
+  private fun onBookStatusEvent(event: BookStatusEvent) {
+    try {
+      when (event) {
+        is BookStatusEventChanged -> {
+          val book = this.registry.bookOrNull(event.bookId)
+          if (book != null) {
+            this.index(book)
+          } else {
+            this.remove(event.bookId)
+          }
+        }
+        is BookStatusEventRemoved ->
+          this.remove(event.bookId)
+      }
+    } catch (e: Exception) {
+      this.logger.error("failed to update index: ", e)
+    }
+  }
+
+  private fun index(book: BookWithStatus) {
+    val entry = book.book.entry
+
+    synchronized(this.lock) {
+      val existing = this.books[book.book.id]
+
+      /*
+       * If the indexed fields haven't changed, then the existing entry can be reused as-is. This
+       * is the common case, as most registry updates are status changes.
+       */
+
+      if (existing != null) {
+        if (existing.title == entry.title && existing.authors == entry.authors) {
+          existing.book = book
+          return
+        }
+        this.removeLocked(existing)
+      }
+
+      val indexed =
+        IndexedBook(
+          book = book,
+          title = entry.title,
+          author = entry.authors.firstOrNull(),
+          authors = entry.authors.toList(),
+          suffixes = suffixesOf(entry.title, entry.authors)
+        )
+
+      this.books[indexed.id] = indexed
+      this.byTitle.add(indexed)
+      this.byAuthor.add(indexed)
+      for (suffix in indexed.suffixes) {
+        this.bySuffix.getOrPut(suffix, { HashSet(1) }).add(indexed.id)
+      }
+    }
+  }
+
+  private fun remove(id: BookID) {
+    synchronized(this.lock) {
+      val existing = this.books[id]
+      if (existing != null) {
+        this.removeLocked(existing)
+      }
+    }
+  }
+
+  private fun removeLocked(existing: IndexedBook) {
+    this.books.remove(existing.id)
+    this.byTitle.remove(existing)
+    this.byAuthor.remove(existing)
+    for (suffix in existing.suffixes) {
+      val ids = this.bySuffix[suffix] ?: continue
+      ids.remove(existing.id)
+      if (ids.isEmpty()) {
+        this.bySuffix.remove(suffix)
+      }
+    }
+  }
+
+  /**
+   * @return The number of books in the index
+   */
+
+  val size: Int
+    get() = synchronized(this.lock) { this.books.size }
+
+  /**
+   * Search the index for books matching the given search string. The search string is split
+   * into whitespace-separated terms, and a book matches if any of the terms appear
+   * (case-insensitively) in the book's title or in any of the book's authors.
+   *
+   * @return The set of matching books, or `null` if the search matches every book
+   */
+
+  fun search(search: String): Set<BookID>? {
+    val terms = searchTermsSplitUpper(search)
+    if (terms.isEmpty() || terms.any { term -> term.isEmpty() }) {
+      return null
+    }
+
+    synchronized(this.lock) {
+      val results = HashSet<BookID>()
+      for (term in terms) {
+        for ((suffix, ids) in this.bySuffix.tailMap(term, true)) {
+          if (!suffix.startsWith(term)) {
+            break
+          }
+          results.addAll(ids)
+        }
+      }
+      return results
+    }
+  }
+
+  /**
+   * Select books from the index.
+   *
+   * @param ordering The order in which books will be returned
+   * @param matching If non-null, only books with IDs in the given set will be returned
+   * @param filter Only books for which this function returns `true` will be returned
+   *
+   * @return The selected books in the given order
+   */
+
+  fun books(
+    ordering: Ordering,
+    matching: Set<BookID>?,
+    filter: (BookWithStatus) -> Boolean
+  ): List<BookWithStatus> {
+    synchronized(this.lock) {
+      val comparator = when (ordering) {
+        Ordering.ORDER_BY_TITLE -> titleOrdering
+        Ordering.ORDER_BY_AUTHOR -> authorOrdering
+      }
+
+      /*
+       * If only a small number of books can match, then sorting the matches is cheaper than
+       * walking the entire pre-sorted ordering.
+       */
+
+      if (matching != null && matching.size < this.books.size) {
+        val candidates = ArrayList<IndexedBook>(matching.size)
+        for (id in matching) {
+          val indexed = this.books[id] ?: continue
+          candidates.add(indexed)
+        }
+        candidates.sortWith(comparator)
+        return this.filterInOrder(candidates, matching, filter)
+      }
+
+      val sorted = when (ordering) {
+        Ordering.ORDER_BY_TITLE -> this.byTitle
+        Ordering.ORDER_BY_AUTHOR -> this.byAuthor
+      }
+      return this.filterInOrder(sorted, matching, filter)
+    }
+  }
+
+  private fun filterInOrder(
+    books: Iterable<IndexedBook>,
+    matching: Set<BookID>?,
+    filter: (BookWithStatus) -> Boolean
+  ): List<BookWithStatus> {
+    val results = ArrayList<BookWithStatus>()
+    for (indexed in books) {
+      if (matching != null && !matching.contains(indexed.id)) {
+        continue
+      }
+      val book = indexed.book
+      if (filter.invoke(book)) {
+        results.add(book)
+      }
+    }
+    return results
+  }
+
+  override fun close() {
+    this.subscription.dispose()
+  }
+
+  companion object {
+
+    private val WHITESPACE =
+      Pattern.compile("\\s+")
+
+    /*
+     * Ties are broken by book ID so that the orderings are total and match the iteration order
+     * of the book registry.
+     */
+
+    private val titleOrdering: Comparator<IndexedBook> =
+      Comparator { book0, book1 ->
+        val c = book0.title.compareTo(book1.title)
+        if (c != 0) c else book0.id.compareTo(book1.id)
+      }
+
+    private val authorOrdering: Comparator<IndexedBook> =
+      Comparator { book0, book1 ->
+        val author0 = book0.author
+        val author1 = book1.author
+        val c =
+          if (author0 == null && author1 == null) {
+            0
+          } else if (author0 == null) {
+            1
+          } else if (author1 == null) {
+            -1
+          } else {
+            author0.compareTo(author1)
+          }
+        if (c != 0) c else book0.id.compareTo(book1.id)
+      }
+
+    /**
+     * Split the given search string into a list of uppercase search terms.
+     */
+
+    fun searchTermsSplitUpper(search: String): List<String> {
+      val terms = WHITESPACE.split(search)
+      val termsUpper = ArrayList<String>(terms.size)
+      for (term in terms) {
+        termsUpper.add(term.toUpperCase(Locale.ROOT))
+      }
+      return termsUpper
+    }
+
+    /*
+     * Search terms never contain whitespace, so a term appears in a string if and only if it
+     * is a prefix of a suffix of one of the whitespace-separated words of that string.
+     */
+
+    private fun suffixesOf(
+      title: String,
+      authors: List<String>
+    ): Set<String> {
+      val suffixes = HashSet<String>()
+      addSuffixes(suffixes, title)
+      for (author in authors) {
+        addSuffixes(suffixes, author)
+      }
+      return suffixes
+    }
+
+    private fun addSuffixes(
+      suffixes: MutableSet<String>,
+      text: String
+    ) {
+      for (word in WHITESPACE.split(text.toUpperCase(Locale.ROOT))) {
+        for (index in word.indices) {
+          suffixes.add(word.substring(index))
+        }
+      }
+    }
+
+    /**
+     * Create a new index over the given registry. The index will be kept up-to-date until
+     * it is closed.
+     */
+
+    fun create(registry: BookRegistryReadableType): BookRegistryIndex {
+      return BookRegistryIndex(registry)
+    }
+  }
+}
@@ -6,6 +6,7 @@ import com.google.common.util.concurrent.ListeningExecutorService
 import com.io7m.jfunctional.Some
 import net.jodah.expiringmap.ExpiringMap
 import net.jodah.expiringmap.ExpiringMap.ExpirationListener
+import one.irradia.mime.api.MIMEType
 import org.librarysimplified.http.api.LSHTTPAuthorizationType
 import org.nypl.simplified.accounts.api.AccountID
 import org.nypl.simplified.books.book_registry.BookRegistryReadableType
@@ -30,14 +31,17 @@ import org.nypl.simplified.opds.core.OPDSAcquisitionPath
 import org.nypl.simplified.opds.core.OPDSAcquisitionPaths
 import org.nypl.simplified.opds.core.OPDSFeedParserType
 import org.nypl.simplified.opds.core.OPDSFeedTransportType
+import org.nypl.simplified.opds.core.OPDSIndirectAcquisition
 import org.nypl.simplified.opds.core.OPDSOpenSearch1_1
 import org.nypl.simplified.opds.core.OPDSSearchLink
 import org.nypl.simplified.opds.core.OPDSSearchParserType
 import org.slf4j.LoggerFactory
+import java.io.ByteArrayInputStream
 import java.io.FileNotFoundException
 import java.net.URI
 import java.util.SortedMap
 import java.util.concurrent.Callable
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicBoolean
 
@@ -57,6 +61,8 @@ class FeedLoader private constructor(
   private val exec: ListeningExecutorService,
   private val parser: OPDSFeedParserType,
   private val searchParser: OPDSSearchParserType,
+  private val snapshotExec: ListeningExecutorService,
+  private val snapshots: FeedSnapshots?,
   private val transport: OPDSFeedTransportType<LSHTTPAuthorizationType?>
 ) : FeedLoaderType, ExpirationListener<URI, Feed> {
 
@@ -70,7 +76,8 @@ class FeedLoader private constructor(
     accountId: AccountID,
     uri: URI,
     auth: LSHTTPAuthorizationType?,
-    updateFromRegistry: Boolean
+    updateFromRegistry: Boolean,
+    snapshot: Boolean = false
   ): FluentFuture<FeedLoaderResult> {
     if (this.cache.containsKey(uri)) {
       return FluentFuture.from(
@@ -88,7 +95,8 @@ class FeedLoader private constructor(
             uri = uri,
             auth = auth,
             method = "GET",
-            updateFromRegistry = updateFromRegistry
+            updateFromRegistry = updateFromRegistry,
+            snapshot = snapshot
           )
         }
       )
@@ -146,6 +154,65 @@ class FeedLoader private constructor(
     )
   }
 
+  override fun fetchURISnapshotting(
+    account: AccountID,
+    uri: URI,
+    auth: LSHTTPAuthorizationType?
+  ): FluentFuture<FeedLoaderResult> {
+    return this.fetchURICore(
+      accountId = account,
+      uri = uri,
+      auth = auth,
+      updateFromRegistry = true,
+      snapshot = true
+    )
+  }
+
+  override fun fetchURISnapshot(
+    account: AccountID,
+    uri: URI
+  ): FluentFuture<FeedLoaderResult> {
+    return FluentFuture.from(
+      this.snapshotExec.submit(
+        Callable {
+          this.loadSnapshotSynchronously(account, uri)
+        }
+      )
+    )
+  }
+
+  private fun loadSnapshotSynchronously(
+    accountId: AccountID,
+    uri: URI
+  ): FeedLoaderResult {
+    try {
+      val data =
+        this.snapshots?.load(uri)
+          ?: throw FileNotFoundException("No snapshot is available for $uri")
+
+      val opdsFeed =
+        ByteArrayInputStream(data).use { stream -> this.parser.parse(uri, stream) }
+      val feed =
+        this.feedOf(
+          accountId = accountId,
+          uri = uri,
+          opdsFeed = opdsFeed,
+          search = null
+        )
+
+      this.updateFeedFromBookRegistry(feed)
+      return FeedLoaderSuccess(feed)
+    } catch (e: Exception) {
+      this.log.debug("no usable snapshot for {}: ", uri, e)
+      return FeedLoaderFailure.FeedLoaderFailedGeneral(
+        problemReport = null,
+        exception = e,
+        attributesInitial = this.errorAttributesOf(uri, "GET"),
+        message = e.localizedMessage ?: ""
+      )
+    }
+  }
+
   override fun invalidate(uri: URI) {
     this.cache.remove(uri)
   }
@@ -154,6 +221,54 @@ class FeedLoader private constructor(
     this.log.debug("expired feed: {}", key)
   }
 
+  /**
+   * Convert the given OPDS feed to a feed, removing any entries that are not supported. The
+   * number of removed entries is logged once for the whole feed.
+   */
+
+  private fun feedOf(
+    accountId: AccountID,
+    uri: URI,
+    opdsFeed: OPDSAcquisitionFeed,
+    search: FeedSearch?
+  ): Feed {
+    var unsupported = 0
+    val feed =
+      Feed.fromAcquisitionFeed(
+        accountId = accountId,
+        feed = opdsFeed,
+        filter = { entry ->
+          val supported = this.isEntrySupported(entry)
+          if (!supported) {
+            ++unsupported
+          }
+          supported
+        },
+        search = search
+      )
+
+    if (unsupported > 0) {
+      this.log.debug("{}: {} unsupported entries were removed", uri, unsupported)
+    }
+    return feed
+  }
+
+  /*
+   * Whether or not an entry is supported depends only on the relations and types of its
+   * acquisitions, and entries in a feed almost always share a handful of distinct
+   * acquisition structures. Decisions are therefore remembered by structure, so that only
+   * entries with previously unseen structures need to have their acquisitions linearized.
+   */
+
+  private data class AcquisitionShape(
+    val relation: OPDSAcquisition.Relation,
+    val type: MIMEType,
+    val indirectAcquisitions: List<OPDSIndirectAcquisition>
+  )
+
+  private val supportDecisions =
+    ConcurrentHashMap<List<AcquisitionShape>, Boolean>()
+
   private fun isEntrySupported(
     entry: OPDSAcquisitionFeedEntry
   ): Boolean {
@@ -161,6 +276,34 @@ class FeedLoader private constructor(
       return true
     }
 
+    val acquisitions = entry.acquisitions
+    val shape = ArrayList<AcquisitionShape>(acquisitions.size)
+    for (acquisition in acquisitions) {
+      shape.add(
+        AcquisitionShape(
+          relation = acquisition.relation,
+          type = acquisition.type,
+          indirectAcquisitions = acquisition.indirectAcquisitions
+        )
+      )
+    }
+
+    val existing = this.supportDecisions[shape]
+    if (existing != null) {
+      return existing
+    }
+
+    val decision = this.isEntrySupportedUncached(entry)
+    if (this.supportDecisions.size >= MAXIMUM_SUPPORT_DECISIONS) {
+      this.supportDecisions.clear()
+    }
+    this.supportDecisions[shape] = decision
+    return decision
+  }
+
+  private fun isEntrySupportedUncached(
+    entry: OPDSAcquisitionFeedEntry
+  ): Boolean {
     val linearizedPaths = OPDSAcquisitionPaths.linearize(entry)
     for (path in linearizedPaths) {
       if (this.isRelationSupported(path.source.relation) && this.isTypePathSupported(path)) {
@@ -188,7 +331,8 @@ class FeedLoader private constructor(
     uri: URI,
     auth: LSHTTPAuthorizationType?,
     method: String,
-    updateFromRegistry: Boolean
+    updateFromRegistry: Boolean,
+    snapshot: Boolean = false
   ): FeedLoaderResult {
     try {
       /*
@@ -210,18 +354,32 @@ class FeedLoader private constructor(
       }
 
       /*
-       * Otherwise, parse the OPDS feed including any embedded search links.
+       * Otherwise, parse the OPDS feed including any embedded search links. If a snapshot
+       * of the feed is required, the feed is read into memory so that it can be saved after
+       * it has been successfully parsed.
        */
 
+      val snapshots = this.snapshots
+      val snapshotData =
+        if (snapshot && snapshots != null) {
+          this.transport.getStream(auth, uri, method).use { stream -> stream.readBytes() }
+        } else {
+          null
+        }
+
       val opdsFeed =
-        this.transport.getStream(auth, uri, method).use { stream -> this.parser.parse(uri, stream) }
+        if (snapshotData != null) {
+          ByteArrayInputStream(snapshotData).use { stream -> this.parser.parse(uri, stream) }
+        } else {
+          this.transport.getStream(auth, uri, method).use { stream -> this.parser.parse(uri, stream) }
+        }
       val search =
         this.fetchSearchLink(opdsFeed, auth, method)
       val feed =
-        Feed.fromAcquisitionFeed(
+        this.feedOf(
           accountId = accountId,
-          feed = opdsFeed,
-          filter = this::isEntrySupported,
+          uri = uri,
+          opdsFeed = opdsFeed,
           search = search
         )
 
@@ -234,6 +392,9 @@ class FeedLoader private constructor(
       }
 
       this.cache[uri] = feed
+      if (snapshotData != null) {
+        snapshots?.save(uri, snapshotData)
+      }
       return FeedLoaderSuccess(feed)
     } catch (e: FeedHTTPTransportException) {
       this.log.error("feed transport exception: ", e)
@@ -272,11 +433,11 @@ class FeedLoader private constructor(
     return if (streamMaybe != null) {
       streamMaybe.use { stream ->
         FeedLoaderSuccess(
-          Feed.fromAcquisitionFeed(
+          this.feedOf(
             accountId = accountId,
-            feed = this.parser.parse(uri, stream),
-            search = null,
-            filter = this::isEntrySupported
+            uri = uri,
+            opdsFeed = this.parser.parse(uri, stream),
+            search = null
           )
         )
       }
@@ -308,10 +469,10 @@ class FeedLoader private constructor(
   ): FeedLoaderSuccess {
     return this.bundledContent.resolve(uri).use { stream ->
       FeedLoaderSuccess(
-        Feed.fromAcquisitionFeed(
+        this.feedOf(
           accountId = accountId,
-          feed = this.parser.parse(uri, stream),
-          filter = this::isEntrySupported,
+          uri = uri,
+          opdsFeed = this.parser.parse(uri, stream),
           search = null
         )
       )
@@ -379,8 +540,20 @@ class FeedLoader private constructor(
 
   companion object {
 
+    /**
+     * The maximum number of entry support decisions that will be remembered. The decisions
+     * are discarded if this is exceeded.
+     */
+
+    private const val MAXIMUM_SUPPORT_DECISIONS = 256
+
     /**
      * Create a new feed loader.
+     *
+     * Snapshots are loaded on `snapshotExec` if one is given, and on `exec` otherwise. A
+     * snapshot is displayed whilst the feed it was taken from is fetched, and so loading it on
+     * the same single-threaded executor as the fetch would delay it until after the fetch
+     * has completed.
      */
 
     fun create(
@@ -391,7 +564,9 @@ class FeedLoader private constructor(
       searchParser: OPDSSearchParserType,
       transport: OPDSFeedTransportType<LSHTTPAuthorizationType?>,
       bookRegistry: BookRegistryReadableType,
-      bundledContent: BundledContentResolverType
+      bundledContent: BundledContentResolverType,
+      snapshots: FeedSnapshots? = null,
+      snapshotExec: ListeningExecutorService? = null
     ): FeedLoaderType {
       val cache =
         ExpiringMap.builder()
@@ -408,6 +583,8 @@ class FeedLoader private constructor(
         exec = exec,
         parser = parser,
         searchParser = searchParser,
+        snapshotExec = snapshotExec ?: exec,
+        snapshots = snapshots,
         transport = transport
       )
     }
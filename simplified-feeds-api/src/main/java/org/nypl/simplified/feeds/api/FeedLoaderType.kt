@@ -69,6 +69,43 @@ interface FeedLoaderType {
     auth: LSHTTPAuthorizationType?
   ): FluentFuture<FeedLoaderResult>
 
+  /**
+   * Load a feed from the given URI as with [fetchURIWithBookRegistryEntries], additionally
+   * saving a snapshot of the feed if it is successfully fetched. The snapshot can be loaded
+   * with [fetchURISnapshot] without accessing the network, even after the application has
+   * been restarted.
+   *
+   * @param uri      The URI
+   * @param auth     HTTP authentication details, if any
+   *
+   * @return A future that can be used to cancel the loading feed
+   */
+
+  fun fetchURISnapshotting(
+    account: AccountID,
+    uri: URI,
+    auth: LSHTTPAuthorizationType?
+  ): FluentFuture<FeedLoaderResult>
+
+  /**
+   * Load the most recently saved snapshot of the feed at the given URI. The returned feed
+   * may be arbitrarily out of date: it is intended to be displayed while the feed is fetched
+   * again, and is never cached. As with [fetchURIWithBookRegistryEntries], entries are
+   * replaced with the data most recently written into the database. The search link of the
+   * feed (if any) is not resolved, as this would require network access. Snapshots are not
+   * loaded behind feeds that are being fetched, so the snapshot of a feed can be loaded
+   * whilst the feed itself is being fetched.
+   *
+   * @param uri      The URI
+   *
+   * @return A future that returns a failure if no snapshot exists
+   */
+
+  fun fetchURISnapshot(
+    account: AccountID,
+    uri: URI
+  ): FluentFuture<FeedLoaderResult>
+
   /**
    * Invalidate the cached feed for URI `uri`, if any.
    *
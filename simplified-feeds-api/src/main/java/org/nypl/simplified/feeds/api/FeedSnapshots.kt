@@ -0,0 +1,71 @@
+package org.nypl.simplified.feeds.api
+
+import org.nypl.simplified.opds.core.OPDSBookIDDeriver
+import org.slf4j.LoggerFactory
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.net.URI
+
+/**
+ * A directory of feed snapshots.
+ *
+ * A snapshot is the raw content of a feed as it was most recently fetched, stored so that
+ * the feed can be displayed immediately the next time the application starts, before the feed
+ * has been fetched again. Snapshots are written atomically, and failures to read or write
+ * snapshots are logged and otherwise ignored.
+ */
+
+class FeedSnapshots(
+  private val directory: File
+) {
+
+  private val logger =
+    LoggerFactory.getLogger(FeedSnapshots::class.java)
+
+  /**
+   * Save a snapshot of the feed at the given URI.
+   */
+
+  fun save(
+    uri: URI,
+    data: ByteArray
+  ) {
+    var fileTmp: File? = null
+    try {
+      this.directory.mkdirs()
+      val file = this.fileOf(uri)
+      fileTmp = File.createTempFile("snapshot", ".tmp", this.directory)
+      FileOutputStream(fileTmp).use { stream ->
+        stream.write(data)
+        stream.flush()
+        stream.fd.sync()
+      }
+      if (!fileTmp.renameTo(file)) {
+        throw IOException("Could not rename $fileTmp to $file")
+      }
+      fileTmp = null
+      this.logger.debug("saved snapshot of {} ({} bytes)", uri, data.size)
+    } catch (e: IOException) {
+      this.logger.error("could not save snapshot of {}: ", uri, e)
+    } finally {
+      fileTmp?.delete()
+    }
+  }
+
+  /**
+   * @return The most recent snapshot of the feed at the given URI, if any
+   */
+
+  fun load(uri: URI): ByteArray? {
+    val file = this.fileOf(uri)
+    return try {
+      file.readBytes()
+    } catch (e: IOException) {
+      null
+    }
+  }
+
+  private fun fileOf(uri: URI): File =
+    File(this.directory, "${OPDSBookIDDeriver.hashOf(uri.toString())}.feed")
+}
@@ -1,8 +1,10 @@
 package org.nypl.simplified.files;
 
+import com.io7m.jfunctional.PartialProcedureType;
 import com.io7m.jnull.NullCheck;
 import com.io7m.junreachable.UnreachableCodeException;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
@@ -12,6 +14,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.security.SecureRandom;
@@ -264,6 +267,38 @@ public final class FileUtilities
     FileUtilities.fileRename(f_tmp, f);
   }
 
+  /**
+   * Write to {@code f_tmp} using the given procedure, atomically renaming {@code f_tmp} to
+   * {@code f} on success. This allows serializers to write directly to the file rather than
+   * first producing the entire output in memory. The procedure must not close the stream.
+   *
+   * @param f      The file
+   * @param f_tmp  The temporary intermediate file
+   * @param writer A procedure that writes to the given stream
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static void fileWriteAtomically(
+    final File f,
+    final File f_tmp,
+    final PartialProcedureType<OutputStream, IOException> writer)
+    throws IOException
+  {
+    NullCheck.notNull(f);
+    NullCheck.notNull(f_tmp);
+    NullCheck.notNull(writer);
+
+    final OutputStream out = new BufferedOutputStream(new FileOutputStream(f_tmp));
+    try {
+      writer.call(out);
+      out.flush();
+    } finally {
+      out.close();
+    }
+    FileUtilities.fileRename(f_tmp, f);
+  }
+
   /**
    * Read the entire contents of the given file, returning it as a byte array.
    *
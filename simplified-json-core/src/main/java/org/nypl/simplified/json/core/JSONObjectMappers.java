@@ -0,0 +1,169 @@
+package org.nypl.simplified.json.core;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.io7m.jnull.NullCheck;
+import com.io7m.junreachable.UnreachableCodeException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * <p>Shared, preconfigured Jackson instances.</p>
+ *
+ * <p>Constructing an {@link ObjectMapper} is expensive, and each mapper maintains its own
+ * caches of serializers and deserializers that must be warmed separately. Code that needs to
+ * read or write JSON should use the instances provided here rather than creating new mappers.
+ * All of the returned values are safe to use from any number of threads simultaneously.</p>
+ */
+
+public final class JSONObjectMappers
+{
+  private static final ObjectMapper MAPPER;
+  private static final ObjectReader READER;
+  private static final ObjectWriter WRITER;
+  private static final ObjectWriter WRITER_PRETTY;
+
+  static {
+    MAPPER = new ObjectMapper();
+    READER = MAPPER.reader();
+    WRITER = MAPPER.writer();
+    WRITER_PRETTY = MAPPER.writerWithDefaultPrettyPrinter();
+  }
+
+  private JSONObjectMappers()
+  {
+    throw new UnreachableCodeException();
+  }
+
+  /**
+   * Retrieve the shared object mapper. The mapper is shared by the entire application and
+   * therefore <i>must not</i> be reconfigured; code requiring a differently configured
+   * mapper must create its own.
+   *
+   * @return The shared object mapper
+   */
+
+  public static ObjectMapper mapper()
+  {
+    return MAPPER;
+  }
+
+  /**
+   * @return An immutable reader using the default configuration
+   */
+
+  public static ObjectReader reader()
+  {
+    return READER;
+  }
+
+  /**
+   * @return An immutable writer using the default configuration
+   */
+
+  public static ObjectWriter writer()
+  {
+    return WRITER;
+  }
+
+  /**
+   * @return An immutable writer that produces pretty-printed output
+   */
+
+  public static ObjectWriter prettyWriter()
+  {
+    return WRITER_PRETTY;
+  }
+
+  /**
+   * @return The node factory used to create JSON trees
+   */
+
+  public static JsonNodeFactory nodeFactory()
+  {
+    return MAPPER.getNodeFactory();
+  }
+
+  /**
+   * @return The factory used to create streaming parsers and generators
+   */
+
+  public static JsonFactory factory()
+  {
+    return MAPPER.getFactory();
+  }
+
+  /**
+   * Create a streaming generator that writes UTF-8 to the given stream. The generator does
+   * not close the stream when the generator is closed.
+   *
+   * @param stream The output stream
+   *
+   * @return A new generator
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static JsonGenerator createGenerator(
+    final OutputStream stream)
+    throws IOException
+  {
+    NullCheck.notNull(stream, "Stream");
+
+    final JsonGenerator generator =
+      MAPPER.getFactory().createGenerator(stream, JsonEncoding.UTF8);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    return generator;
+  }
+
+  /**
+   * Create a streaming generator that writes pretty-printed UTF-8 to the given stream. The
+   * output is identical to that produced by {@link #prettyWriter()}. The generator does not
+   * close the stream when the generator is closed.
+   *
+   * @param stream The output stream
+   *
+   * @return A new generator
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static JsonGenerator createPrettyGenerator(
+    final OutputStream stream)
+    throws IOException
+  {
+    final JsonGenerator generator = createGenerator(stream);
+    generator.useDefaultPrettyPrinter();
+    return generator;
+  }
+
+  /**
+   * Create a streaming parser that reads from the given stream. The parser does not close
+   * the stream when the parser is closed.
+   *
+   * @param stream The input stream
+   *
+   * @return A new parser
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static JsonParser createParser(
+    final InputStream stream)
+    throws IOException
+  {
+    NullCheck.notNull(stream, "Stream");
+
+    final JsonParser parser = MAPPER.getFactory().createParser(stream);
+    parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    return parser;
+  }
+}
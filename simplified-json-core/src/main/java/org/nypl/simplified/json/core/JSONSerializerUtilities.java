@@ -1,6 +1,5 @@
 package org.nypl.simplified.json.core;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -38,8 +37,7 @@ public final class JSONSerializerUtilities
     NullCheck.notNull(d);
     NullCheck.notNull(os);
 
-    final ObjectMapper jom = new ObjectMapper();
-    final ObjectWriter jw = jom.writerWithDefaultPrettyPrinter();
+    final ObjectWriter jw = JSONObjectMappers.prettyWriter();
     jw.writeValue(os, d);
   }
 
@@ -59,8 +57,7 @@ public final class JSONSerializerUtilities
   {
     NullCheck.notNull(d);
 
-    final ObjectMapper jom = new ObjectMapper();
-    final ObjectWriter jw = jom.writerWithDefaultPrettyPrinter();
+    final ObjectWriter jw = JSONObjectMappers.prettyWriter();
     return jw.writeValueAsString(d);
   }
 }
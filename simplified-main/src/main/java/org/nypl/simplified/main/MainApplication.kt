@@ -24,6 +24,9 @@ import org.nypl.simplified.boot.api.BootEvent
 import org.nypl.simplified.boot.api.BootLoader
 import org.nypl.simplified.boot.api.BootProcessType
 import org.nypl.simplified.crashlytics.api.CrashlyticsLoggingAppender
+import org.nypl.simplified.reports.Reports
+import org.nypl.simplified.taskrecorder.api.TaskTraceChromeExporter
+import org.nypl.simplified.taskrecorder.api.TaskTraces
 import org.slf4j.LoggerFactory
 import java.io.File
 import java.io.IOException
@@ -56,6 +59,7 @@ class MainApplication : Application() {
     this.configureLogging()
     this.configureHttpCache()
     this.configureStrictMode()
+    this.configureTraces()
     this.logger.debug("starting app: pid {}", android.os.Process.myPid())
     this.bootFuture = this.boot.start(this)
     INSTANCE = this
@@ -159,6 +163,20 @@ class MainApplication : Application() {
     }
   }
 
+  /**
+   * Include the most recent task traces in any reports that are sent. The traces can be
+   * opened in `chrome://tracing` or Perfetto.
+   */
+
+  private fun configureTraces() {
+    Reports.addPreparer { context ->
+      TaskTraceChromeExporter.writeFile(
+        events = TaskTraces.events(),
+        file = File(context.cacheDir, "trace-tasks.json")
+      )
+    }
+  }
+
   /**
    * Install a global HTTP cache.
    */
@@ -2,12 +2,49 @@ package org.nypl.simplified.main
 
 import android.content.Context
 import android.content.pm.PackageManager
+import com.squareup.picasso.Downloader
+import com.squareup.picasso.OkHttp3Downloader
+import okhttp3.Cache
+import okhttp3.ConnectionPool
+import okhttp3.OkHttpClient
 import org.librarysimplified.http.api.LSHTTPClientConfiguration
 import org.librarysimplified.http.api.LSHTTPClientType
 import org.librarysimplified.http.vanilla.LSHTTPClients
+import java.io.File
+import java.util.concurrent.TimeUnit
+
+/**
+ * The HTTP configuration of the application.
+ */
 
 object MainHTTP {
 
+  /**
+   * The size of the disk cache used for images (covers and account icons).
+   */
+
+  private const val IMAGE_CACHE_BYTES = 32L * 1024L * 1024L
+
+  /**
+   * The maximum number of idle image connections kept alive, and the time for which they
+   * are kept. Covers are loaded from a small number of hosts in bursts as lists scroll, so
+   * keeping connections alive between bursts avoids repeating TLS handshakes.
+   */
+
+  private const val IMAGE_CONNECTIONS_IDLE = 6
+  private const val IMAGE_CONNECTIONS_KEEP_ALIVE_MINUTES = 5L
+
+  /**
+   * Image requests are cheap to retry and must not hold up scrolling lists for long.
+   */
+
+  private const val IMAGE_CONNECT_TIMEOUT_SECONDS = 10L
+  private const val IMAGE_READ_TIMEOUT_SECONDS = 20L
+
+  /**
+   * Create the main HTTP client used for feeds, documents, and account operations.
+   */
+
   fun create(
     context: Context
   ): LSHTTPClientType {
@@ -28,4 +65,40 @@ object MainHTTP {
 
     return LSHTTPClients().create(context, configuration)
   }
+
+  /**
+   * Create the HTTP client used to download images. The client has a bounded disk cache
+   * that honours `Cache-Control` and `ETag` headers, so that unchanged images are not
+   * downloaded again, and its connections are pooled and reused across requests. HTTP/2
+   * is negotiated with servers that support it, allowing concurrent requests to a host to
+   * share a single connection.
+   */
+
+  fun createImageClient(
+    context: Context
+  ): OkHttpClient {
+    return OkHttpClient.Builder()
+      .cache(Cache(File(context.cacheDir, "http-images"), IMAGE_CACHE_BYTES))
+      .connectionPool(
+        ConnectionPool(
+          IMAGE_CONNECTIONS_IDLE,
+          IMAGE_CONNECTIONS_KEEP_ALIVE_MINUTES,
+          TimeUnit.MINUTES
+        )
+      )
+      .connectTimeout(IMAGE_CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+      .readTimeout(IMAGE_READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+      .build()
+  }
+
+  /**
+   * Create an image downloader. A single downloader should be shared between all image
+   * loaders, as only one disk cache can use a given directory at a time.
+   */
+
+  fun createImageDownloader(
+    context: Context
+  ): Downloader {
+    return OkHttp3Downloader(this.createImageClient(context))
+  }
 }
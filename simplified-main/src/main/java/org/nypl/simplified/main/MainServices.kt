@@ -5,12 +5,13 @@ import android.content.pm.PackageManager
 import android.content.res.AssetManager
 import android.content.res.Resources
 import android.graphics.Color
-import com.fasterxml.jackson.databind.ObjectMapper
 import com.io7m.jfunctional.Option
 import com.io7m.jfunctional.OptionType
 import com.io7m.jfunctional.Some
+import com.squareup.picasso.Downloader
 import com.squareup.picasso.Picasso
 import io.reactivex.subjects.PublishSubject
+import io.reactivex.subjects.Subject
 import org.joda.time.LocalDateTime
 import org.librarysimplified.documents.DocumentConfigurationServiceType
 import org.librarysimplified.documents.DocumentStoreType
@@ -55,6 +56,8 @@ import org.nypl.simplified.books.controller.Controller
 import org.nypl.simplified.books.controller.api.BookRevokeStringResourcesType
 import org.nypl.simplified.books.controller.api.BooksControllerType
 import org.nypl.simplified.books.covers.BookCoverBadgeLookupType
+import org.nypl.simplified.books.covers.BookCoverCachingGenerator
+import org.nypl.simplified.books.covers.BookCoverDiskCache
 import org.nypl.simplified.books.covers.BookCoverGenerator
 import org.nypl.simplified.books.covers.BookCoverGeneratorType
 import org.nypl.simplified.books.covers.BookCoverProvider
@@ -73,7 +76,9 @@ import org.nypl.simplified.crashlytics.api.CrashlyticsServiceType
 import org.nypl.simplified.feeds.api.FeedHTTPTransport
 import org.nypl.simplified.feeds.api.FeedLoader
 import org.nypl.simplified.feeds.api.FeedLoaderType
+import org.nypl.simplified.feeds.api.FeedSnapshots
 import org.nypl.simplified.files.DirectoryUtilities
+import org.nypl.simplified.json.core.JSONObjectMappers
 import org.nypl.simplified.networkconnectivity.NetworkConnectivity
 import org.nypl.simplified.networkconnectivity.api.NetworkConnectivityType
 import org.nypl.simplified.notifications.NotificationsService
@@ -250,9 +255,13 @@ internal object MainServices {
     }
   }
 
-  private fun createLocalImageLoader(context: Context): ImageLoaderType {
+  private fun createLocalImageLoader(
+    context: Context,
+    imageDownloader: Downloader
+  ): ImageLoaderType {
     val localImageLoader =
       Picasso.Builder(context)
+        .downloader(imageDownloader)
         .indicatorsEnabled(false)
         .loggingEnabled(true)
         .addRequestHandler(ImageAccountIconRequestHandler(context))
@@ -341,7 +350,7 @@ internal object MainServices {
   @Throws(IOException::class)
   private fun createBundledCredentials(assets: AssetManager): AccountBundledCredentialsType {
     return assets.open("account_bundled_credentials.json").use { stream ->
-      AccountBundledCredentialsJSON.deserializeFromStream(ObjectMapper(), stream)
+      AccountBundledCredentialsJSON.deserializeFromStream(JSONObjectMappers.mapper(), stream)
     }
   }
 
@@ -364,7 +373,7 @@ internal object MainServices {
     context: Context,
     resources: Resources,
     analytics: AnalyticsType,
-    accountEvents: PublishSubject<AccountEvent>,
+    accountEvents: Subject<AccountEvent>,
     accountProviders: AccountProviderRegistryType,
     accountBundledCredentials: AccountBundledCredentialsType,
     accountCredentialsStore: AccountAuthenticationCredentialsStoreType,
@@ -375,6 +384,15 @@ internal object MainServices {
      */
 
     val anonymous = !resources.getBoolean(R.bool.featureProfilesEnabled)
+
+    /*
+     * Only the profile that is needed first is opened during boot; the accounts of any
+     * other profiles are opened in the background.
+     */
+
+    val execProfiles =
+      NamedThreadPools.namedThreadPool(1, "profiles", 19)
+
     if (anonymous) {
       this.logger.debug("opening profile database with anonymous profile")
       return ProfilesDatabases.openWithAnonymousProfileEnabled(
@@ -385,7 +403,8 @@ internal object MainServices {
         accountBundledCredentials,
         accountCredentialsStore,
         AccountsDatabases,
-        directory
+        directory,
+        execProfiles
       )
     }
 
@@ -398,11 +417,13 @@ internal object MainServices {
       accountBundledCredentials,
       accountCredentialsStore,
       AccountsDatabases,
-      directory
+      directory,
+      execProfiles
     )
   }
 
   private fun createFeedLoader(
+    context: Context,
     http: LSHTTPClientType,
     opdsFeedParser: OPDSFeedParserType,
     bookFormatSupport: BookFormatSupportType,
@@ -412,10 +433,14 @@ internal object MainServices {
   ): FeedLoaderType {
     val execCatalogFeeds =
       NamedThreadPools.namedThreadPool(1, "catalog-feed", 19)
+    val execCatalogSnapshots =
+      NamedThreadPools.namedThreadPool(1, "catalog-feed-snapshot", 19)
     val feedSearchParser =
       OPDSSearchParser.newParser()
     val feedTransport =
       FeedHTTPTransport(http)
+    val feedSnapshots =
+      FeedSnapshots(File(context.cacheDir, "feed-snapshots"))
 
     return FeedLoader.create(
       bookFormatSupport = bookFormatSupport,
@@ -425,6 +450,8 @@ internal object MainServices {
       exec = execCatalogFeeds,
       parser = opdsFeedParser,
       searchParser = feedSearchParser,
+      snapshotExec = execCatalogSnapshots,
+      snapshots = feedSnapshots,
       transport = feedTransport
     )
   }
@@ -459,18 +486,32 @@ internal object MainServices {
       ReaderBookmarkServiceProviderType.Requirements(
         threads = threadFactory,
         events = PublishSubject.create(),
-        httpCalls = ReaderBookmarkHTTPCalls(ObjectMapper(), http),
+        httpCalls = ReaderBookmarkHTTPCalls(JSONObjectMappers.mapper(), http),
         profilesController = bookController
       )
     )
   }
 
+  private fun createCoverGenerator(
+    context: Context,
+    tenPrint: TenPrintGeneratorType
+  ): BookCoverGeneratorType {
+    return BookCoverCachingGenerator(
+      delegate = BookCoverGenerator(tenPrint),
+      cache = BookCoverDiskCache(
+        directory = File(context.cacheDir, "generated-covers"),
+        maximumBytes = 16L * 1024L * 1024L
+      )
+    )
+  }
+
   private fun createCoverProvider(
     context: Context,
     bookRegistry: BookRegistryReadableType,
     bundledContentResolver: BundledContentResolverType,
     coverGenerator: BookCoverGeneratorType,
-    badgeLookup: BookCoverBadgeLookupType
+    badgeLookup: BookCoverBadgeLookupType,
+    imageDownloader: Downloader
   ): BookCoverProviderType {
     val execCovers =
       NamedThreadPools.namedThreadPool(2, "cover", 19)
@@ -482,7 +523,8 @@ internal object MainServices {
       bundledContentResolver = bundledContentResolver,
       executor = execCovers,
       debugCacheIndicators = false,
-      debugLogging = false
+      debugLogging = false,
+      downloader = imageDownloader
     )
   }
 
@@ -669,6 +711,14 @@ internal object MainServices {
         serviceConstructor = { MainHTTP.create(context) }
       )
 
+    /*
+     * Covers and account icons are loaded by separate image loaders that share a single
+     * downloader, and therefore a single connection pool and disk cache.
+     */
+
+    val imageDownloader =
+      MainHTTP.createImageDownloader(context)
+
     publishEvent(strings.bootingGeneral("Directories"))
     val directories = this.initializeDirectories(context)
 
@@ -716,13 +766,13 @@ internal object MainServices {
       addService(
         message = strings.bootingGeneral("cover generator"),
         interfaceType = BookCoverGeneratorType::class.java,
-        serviceConstructor = { BookCoverGenerator(tenPrint) }
+        serviceConstructor = { this.createCoverGenerator(context, tenPrint) }
       )
 
     addService(
       message = strings.bootingGeneral("local image loader"),
       interfaceType = ImageLoaderType::class.java,
-      serviceConstructor = { this.createLocalImageLoader(context) }
+      serviceConstructor = { this.createLocalImageLoader(context, imageDownloader) }
     )
 
     addService(
@@ -815,14 +865,20 @@ internal object MainServices {
           Analytics.create(
             AnalyticsConfiguration(
               context = context,
-              http = lsHTTP
+              http = lsHTTP,
+              directory = File(directories.directoryStorageBaseVersioned, "analytics")
             )
           )
         }
       )
 
+    /*
+     * Account events are published by the thread that opens the accounts of each profile,
+     * which may be a background thread, concurrently with any other thread.
+     */
+
     val accountEvents =
-      PublishSubject.create<AccountEvent>()
+      PublishSubject.create<AccountEvent>().toSerialized()
 
     val profilesDatabase =
       addService(
@@ -890,6 +946,7 @@ internal object MainServices {
       interfaceType = FeedLoaderType::class.java,
       serviceConstructor = {
         this.createFeedLoader(
+          context = context,
           bookFormatSupport = bookFormatService,
           bookRegistry = bookRegistry,
           bundledContent = bundledContent,
@@ -929,13 +986,16 @@ internal object MainServices {
       publishEvent(strings.bootingGeneral("books controller"))
       val execBooks =
         NamedThreadPools.namedThreadPool(1, "books", 19)
+      val execBooksSync =
+        NamedThreadPools.namedThreadPool(1, "books-sync", 19)
       val controller =
         Controller.createFromServiceDirectory(
           services = services.build(),
           executorService = execBooks,
           accountEvents = accountEvents,
           profileEvents = profileEvents,
-          cacheDirectory = context.cacheDir
+          cacheDirectory = context.cacheDir,
+          syncExecutor = execBooksSync
         )
       addService(
         message = strings.bootingGeneral("books controller"),
@@ -986,7 +1046,8 @@ internal object MainServices {
           bookRegistry = bookRegistry,
           bundledContentResolver = bundledContent,
           coverGenerator = coverGenerator,
-          badgeLookup = badgeLookup
+          badgeLookup = badgeLookup,
+          imageDownloader = imageDownloader
         )
       }
     )
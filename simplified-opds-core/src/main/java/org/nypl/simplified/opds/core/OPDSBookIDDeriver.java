@@ -0,0 +1,139 @@
+package org.nypl.simplified.opds.core;
+
+import com.io7m.jnull.NullCheck;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * The default book identifier deriver. Identifiers are the SHA-256 hash of
+ * the given text, encoded as lowercase hexadecimal.
+ * </p>
+ * <p>
+ * The same entries are seen repeatedly as feeds are parsed, reloaded, and
+ * merged with the book registry, so the most recently derived identifiers
+ * are kept in a bounded cache, and only text that has not been seen recently
+ * is hashed.
+ * </p>
+ */
+
+public final class OPDSBookIDDeriver implements OPDSBookIDDeriverType
+{
+  private static final char[] HEX_DIGITS =
+    "0123456789abcdef".toCharArray();
+
+  private static final ThreadLocal<MessageDigest> DIGESTS =
+    new ThreadLocal<MessageDigest>()
+    {
+      @Override
+      protected MessageDigest initialValue()
+      {
+        try {
+          return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    };
+
+  private final Object cacheLock;
+  private final Map<String, String> cache;
+
+  private OPDSBookIDDeriver(
+    final int maximumSize)
+  {
+    if (maximumSize < 0) {
+      throw new IllegalArgumentException("Cache size must be non-negative");
+    }
+
+    this.cacheLock = new Object();
+    this.cache = new LinkedHashMap<String, String>(16, 0.75f, true)
+    {
+      @Override
+      protected boolean removeEldestEntry(
+        final Map.Entry<String, String> eldest)
+      {
+        return this.size() > maximumSize;
+      }
+    };
+  }
+
+  /**
+   * Create a new deriver.
+   *
+   * @param maximumSize The maximum number of identifiers that will be cached
+   *
+   * @return A new deriver
+   */
+
+  public static OPDSBookIDDeriverType create(
+    final int maximumSize)
+  {
+    return new OPDSBookIDDeriver(maximumSize);
+  }
+
+  /**
+   * Hash the given text, without consulting any cache.
+   *
+   * @param text The text
+   *
+   * @return The SHA-256 hash of the UTF-8 encoding of the text, as lowercase hexadecimal
+   */
+
+  public static String hashOf(
+    final String text)
+  {
+    final MessageDigest digest = DIGESTS.get();
+    digest.reset();
+    return hexOf(digest.digest(text.getBytes(Charset.forName("UTF-8"))));
+  }
+
+  /**
+   * Encode the given bytes as lowercase hexadecimal.
+   *
+   * @param data The bytes
+   *
+   * @return The encoded bytes
+   */
+
+  public static String hexOf(
+    final byte[] data)
+  {
+    final char[] out = new char[data.length * 2];
+    for (int index = 0; index < data.length; ++index) {
+      final int value = data[index] & 0xff;
+      out[index * 2] = HEX_DIGITS[value >>> 4];
+      out[index * 2 + 1] = HEX_DIGITS[value & 0x0f];
+    }
+    return new String(out);
+  }
+
+  @Override
+  public String deriveBookID(
+    final String text)
+  {
+    NullCheck.notNull(text, "Text");
+
+    synchronized (this.cacheLock) {
+      final String existing = this.cache.get(text);
+      if (existing != null) {
+        return existing;
+      }
+    }
+
+    /*
+     * Hashing happens outside of the lock; two threads deriving the same
+     * identifier at the same time simply produce the same value twice.
+     */
+
+    final String result = hashOf(text);
+    synchronized (this.cacheLock) {
+      this.cache.put(text, result);
+    }
+    return result;
+  }
+}
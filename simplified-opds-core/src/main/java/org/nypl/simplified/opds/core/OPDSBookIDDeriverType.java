@@ -0,0 +1,31 @@
+package org.nypl.simplified.opds.core;
+
+/**
+ * <p>
+ * The type of functions that derive book identifiers from the text of OPDS
+ * entry identifiers.
+ * </p>
+ * <p>
+ * A derived identifier must consist solely of lowercase hexadecimal digits
+ * so that it is safe for use as a file or directory name, and the same text
+ * must always produce the same identifier.
+ * </p>
+ * <p>
+ * Implementations are required to be able to accept requests from any number
+ * of threads simultaneously.
+ * </p>
+ */
+
+public interface OPDSBookIDDeriverType
+{
+  /**
+   * Derive a book identifier from the given text.
+   *
+   * @param text The text, typically the ID of an OPDS entry
+   *
+   * @return A string of lowercase hexadecimal digits
+   */
+
+  String deriveBookID(
+    final String text);
+}
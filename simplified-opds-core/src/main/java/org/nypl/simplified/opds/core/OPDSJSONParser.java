@@ -1,8 +1,7 @@
 package org.nypl.simplified.opds.core;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.io7m.jfunctional.Option;
@@ -12,6 +11,7 @@ import com.io7m.jfunctional.Unit;
 import com.io7m.jnull.NullCheck;
 
 import org.joda.time.DateTime;
+import org.nypl.simplified.json.core.JSONObjectMappers;
 import org.nypl.simplified.json.core.JSONParseException;
 import org.nypl.simplified.json.core.JSONParserUtilities;
 import org.nypl.simplified.opds.core.OPDSAcquisition.Relation;
@@ -476,13 +476,18 @@ public final class OPDSJSONParser implements OPDSJSONParserType {
   public OPDSAcquisitionFeedEntry parseAcquisitionFeedEntryFromStream(
     final InputStream s)
     throws OPDSParseException {
+    NullCheck.notNull(s);
+
     try {
-      final ObjectMapper jom = new ObjectMapper();
-      return this.parseAcquisitionFeedEntry(
-        JSONParserUtilities.checkObject(
-          null, jom.readTree(s)));
-    } catch (final JsonProcessingException e) {
-      throw new OPDSParseException(e);
+      final JsonParser p = JSONObjectMappers.createParser(s);
+      try {
+        p.nextToken();
+        return OPDSJSONStreamParser.parseFeedEntry(p);
+      } finally {
+        p.close();
+      }
+    } catch (final OPDSParseException e) {
+      throw e;
     } catch (final IOException e) {
       throw new OPDSParseException(e);
     }
@@ -492,13 +497,18 @@ public final class OPDSJSONParser implements OPDSJSONParserType {
   public OPDSAcquisitionFeed parseAcquisitionFeedFromStream(
     final InputStream s)
     throws OPDSParseException {
+    NullCheck.notNull(s);
+
     try {
-      final ObjectMapper jom = new ObjectMapper();
-      return this.parseAcquisitionFeed(
-        JSONParserUtilities.checkObject(
-          null, jom.readTree(s)));
-    } catch (final JsonProcessingException e) {
-      throw new OPDSParseException(e);
+      final JsonParser p = JSONObjectMappers.createParser(s);
+      try {
+        p.nextToken();
+        return OPDSJSONStreamParser.parseFeed(p);
+      } finally {
+        p.close();
+      }
+    } catch (final OPDSParseException e) {
+      throw e;
     } catch (final IOException e) {
       throw new OPDSParseException(e);
     }
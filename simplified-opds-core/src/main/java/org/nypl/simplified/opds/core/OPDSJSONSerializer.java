@@ -1,5 +1,6 @@
 package org.nypl.simplified.opds.core;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -12,6 +13,7 @@ import com.io7m.junreachable.UnreachableCodeException;
 
 import org.joda.time.format.DateTimeFormatter;
 import org.joda.time.format.ISODateTimeFormat;
+import org.nypl.simplified.json.core.JSONObjectMappers;
 import org.nypl.simplified.json.core.JSONSerializerUtilities;
 
 import java.io.IOException;
@@ -43,7 +45,7 @@ public final class OPDSJSONSerializer implements OPDSJSONSerializerType {
     throws OPDSSerializationException {
     NullCheck.notNull(a, "Acquisition");
 
-    final ObjectMapper jom = new ObjectMapper();
+    final ObjectMapper jom = JSONObjectMappers.mapper();
     final ObjectNode node = jom.createObjectNode();
     node.put("type", a.getRelation().toString());
     node.put("uri", a.getUri().toString());
@@ -58,7 +60,7 @@ public final class OPDSJSONSerializer implements OPDSJSONSerializerType {
     throws OPDSSerializationException {
     NullCheck.notNull(indirects, "Indirects");
 
-    final ObjectMapper jom = new ObjectMapper();
+    final ObjectMapper jom = JSONObjectMappers.mapper();
     final ArrayNode node = jom.createArrayNode();
 
     for (OPDSIndirectAcquisition indirect : indirects) {
@@ -73,7 +75,7 @@ public final class OPDSJSONSerializer implements OPDSJSONSerializerType {
     throws OPDSSerializationException {
     NullCheck.notNull(indirect, "Indirect");
 
-    final ObjectMapper jom = new ObjectMapper();
+    final ObjectMapper jom = JSONObjectMappers.mapper();
     final ObjectNode node = jom.createObjectNode();
 
     node.put("type", indirect.getType().getFullType());
@@ -88,7 +90,7 @@ public final class OPDSJSONSerializer implements OPDSJSONSerializerType {
     NullCheck.notNull(av);
 
     final DateTimeFormatter fmt = ISODateTimeFormat.dateTime();
-    final ObjectMapper jom = new ObjectMapper();
+    final ObjectMapper jom = JSONObjectMappers.mapper();
     return av.matchAvailability(
       new OPDSAvailabilityMatcherType<ObjectNode, UnreachableCodeException>() {
         @Override
@@ -194,7 +196,7 @@ public final class OPDSJSONSerializer implements OPDSJSONSerializerType {
     final OPDSCategory c) {
     NullCheck.notNull(c);
 
-    final ObjectMapper jom = new ObjectMapper();
+    final ObjectMapper jom = JSONObjectMappers.mapper();
     final ObjectNode je = jom.createObjectNode();
     je.put("scheme", c.getScheme());
     je.put("term", c.getTerm());
@@ -212,7 +214,7 @@ public final class OPDSJSONSerializer implements OPDSJSONSerializerType {
   public ObjectNode serializeLicensor(final DRMLicensor l) {
     NullCheck.notNull(l);
 
-    final ObjectMapper jom = new ObjectMapper();
+    final ObjectMapper jom = JSONObjectMappers.mapper();
     final ObjectNode je = jom.createObjectNode();
     je.put("vendor", l.getVendor());
     je.put("clientToken", l.getClientToken());
@@ -228,7 +230,7 @@ public final class OPDSJSONSerializer implements OPDSJSONSerializerType {
   public ObjectNode serializeFeedEntry(
     final OPDSAcquisitionFeedEntry e)
     throws OPDSSerializationException {
-    final ObjectMapper jom = new ObjectMapper();
+    final ObjectMapper jom = JSONObjectMappers.mapper();
     final ObjectNode je = jom.createObjectNode();
     final DateTimeFormatter fmt = ISODateTimeFormat.dateTime();
 
@@ -321,13 +323,29 @@ public final class OPDSJSONSerializer implements OPDSJSONSerializerType {
     return NullCheck.notNull(je);
   }
 
+  @Override
+  public void serializeFeedEntryToStream(
+    final OPDSAcquisitionFeedEntry e,
+    final OutputStream os)
+    throws IOException {
+    NullCheck.notNull(e, "Entry");
+    NullCheck.notNull(os, "Stream");
+
+    final JsonGenerator g = JSONObjectMappers.createPrettyGenerator(os);
+    try {
+      OPDSJSONStreamSerializer.serializeFeedEntry(g, e);
+    } finally {
+      g.close();
+    }
+  }
+
   @Override
   public ObjectNode serializeFeed(
     final OPDSAcquisitionFeed e)
     throws OPDSSerializationException {
     NullCheck.notNull(e);
 
-    final ObjectMapper jom = new ObjectMapper();
+    final ObjectMapper jom = JSONObjectMappers.mapper();
     final ObjectNode je = jom.createObjectNode();
     final DateTimeFormatter fmt = ISODateTimeFormat.dateTime();
 
@@ -37,6 +37,22 @@ public interface OPDSJSONSerializerType {
     OPDSAcquisitionFeedEntry e)
     throws OPDSSerializationException;
 
+  /**
+   * Serialize the given feed entry directly to the given output stream, without constructing
+   * an intermediate tree. The output is byte-for-byte identical to that produced by passing
+   * the result of {@link #serializeFeedEntry(OPDSAcquisitionFeedEntry)} to
+   * {@link #serializeToStream(ObjectNode, OutputStream)}. The stream is not closed.
+   *
+   * @param e  The feed entry
+   * @param os The output stream
+   * @throws IOException On I/O errors
+   */
+
+  void serializeFeedEntryToStream(
+    OPDSAcquisitionFeedEntry e,
+    OutputStream os)
+    throws IOException;
+
   /**
    * Serialize the given availability type to JSON.
    *
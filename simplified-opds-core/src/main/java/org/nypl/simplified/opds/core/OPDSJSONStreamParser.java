@@ -0,0 +1,882 @@
+package org.nypl.simplified.opds.core;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.io7m.jfunctional.Option;
+import com.io7m.jfunctional.OptionType;
+import com.io7m.jfunctional.Pair;
+import com.io7m.jnull.NullCheck;
+import com.io7m.junreachable.UnreachableCodeException;
+
+import org.joda.time.DateTime;
+import org.joda.time.format.ISODateTimeFormat;
+import org.nypl.simplified.json.core.JSONParseException;
+import org.nypl.simplified.opds.core.OPDSAcquisition.Relation;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import one.irradia.mime.api.MIMEType;
+import one.irradia.mime.vanilla.MIMEParser;
+
+/**
+ * <p>Functions to parse OPDS feeds and feed entries directly from a streaming JSON parser.</p>
+ *
+ * <p>The functions here accept exactly the same documents as the tree-based functions in
+ * {@link OPDSJSONParser}, but do not construct an intermediate tree of JSON nodes. Fields may
+ * appear in any order, and unrecognized fields are skipped.</p>
+ */
+
+final class OPDSJSONStreamParser {
+
+  private OPDSJSONStreamParser() {
+    throw new UnreachableCodeException();
+  }
+
+  /**
+   * Parse a feed entry. The parser must be positioned on the token that starts the entry.
+   *
+   * @param p The JSON parser
+   * @return A feed entry
+   * @throws OPDSParseException On parse errors
+   * @throws IOException        On I/O errors
+   */
+
+  static OPDSAcquisitionFeedEntry parseFeedEntry(
+    final JsonParser p)
+    throws IOException {
+    NullCheck.notNull(p, "Parser");
+
+    try {
+      checkObject(p, null);
+
+      String in_id = null;
+      String in_title = null;
+      DateTime in_updated = null;
+      OPDSAvailabilityType in_availability = null;
+      List<String> in_authors = null;
+      List<OPDSAcquisition> in_acquisitions = null;
+      OptionType<DRMLicensor> in_licensor = Option.none();
+      List<OPDSCategory> in_categories = null;
+      List<Pair<URI, String>> in_groups = null;
+      OptionType<URI> in_cover = Option.none();
+      OptionType<URI> in_thumbnail = Option.none();
+      OptionType<URI> in_alternate = Option.none();
+      OptionType<URI> in_analytics = Option.none();
+      OptionType<URI> in_annotations = Option.none();
+      OptionType<DateTime> in_published = Option.none();
+      OptionType<String> in_publisher = Option.none();
+      String in_distribution = null;
+      OptionType<String> in_summary = Option.none();
+
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        final String name = p.getCurrentName();
+        p.nextToken();
+
+        switch (name) {
+          case "id":
+            in_id = getString(p, name);
+            break;
+          case "title":
+            in_title = getString(p, name);
+            break;
+          case "updated":
+            in_updated = getTimestamp(p, name);
+            break;
+          case "availability":
+            in_availability = parseAvailability(p);
+            break;
+          case "authors":
+            in_authors = parseAuthors(p);
+            break;
+          case "acquisitions": {
+            checkArray(p, name);
+            in_acquisitions = new ArrayList<>(4);
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+              in_acquisitions.add(parseAcquisition(p));
+            }
+            break;
+          }
+          case "licensor":
+            in_licensor = Option.some(parseLicensor(p));
+            break;
+          case "categories": {
+            checkArray(p, name);
+            in_categories = new ArrayList<>(4);
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+              in_categories.add(parseCategory(p));
+            }
+            break;
+          }
+          case "groups": {
+            checkArray(p, name);
+            in_groups = new ArrayList<>(4);
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+              in_groups.add(parseGroup(p));
+            }
+            break;
+          }
+          case "cover":
+            in_cover = getURIOptional(p, name);
+            break;
+          case "thumbnail":
+            in_thumbnail = getURIOptional(p, name);
+            break;
+          case "alternate":
+            in_alternate = getURIOptional(p, name);
+            break;
+          case "analytics":
+            in_analytics = getURIOptional(p, name);
+            break;
+          case "annotations":
+            in_annotations = getURIOptional(p, name);
+            break;
+          case "published":
+            in_published = Option.some(getTimestamp(p, name));
+            break;
+          case "publisher":
+            in_publisher = getStringOptional(p, name);
+            break;
+          case "distribution":
+            in_distribution = getString(p, name);
+            break;
+          case "summary":
+            in_summary = getStringOptional(p, name);
+            break;
+          default:
+            p.skipChildren();
+            break;
+        }
+      }
+
+      final OPDSAcquisitionFeedEntryBuilderType fb =
+        OPDSAcquisitionFeedEntry.newBuilder(
+          required(in_id, "id"),
+          required(in_title, "title"),
+          required(in_updated, "updated"),
+          required(in_availability, "availability"));
+
+      for (final String author : required(in_authors, "authors")) {
+        fb.addAuthor(author);
+      }
+      for (final OPDSAcquisition acquisition : required(in_acquisitions, "acquisitions")) {
+        fb.addAcquisition(acquisition);
+      }
+      fb.setLicensorOption(in_licensor);
+      for (final OPDSCategory category : required(in_categories, "categories")) {
+        fb.addCategory(category);
+      }
+      for (final Pair<URI, String> group : required(in_groups, "groups")) {
+        fb.addGroup(group.getLeft(), group.getRight());
+      }
+
+      fb.setCoverOption(in_cover);
+      fb.setThumbnailOption(in_thumbnail);
+      fb.setAlternateOption(in_alternate);
+      fb.setAnalyticsOption(in_analytics);
+      fb.setAnnotationsOption(in_annotations);
+      fb.setPublishedOption(in_published);
+      fb.setPublisherOption(in_publisher);
+      fb.setDistribution(required(in_distribution, "distribution"));
+      fb.setSummaryOption(in_summary);
+      return fb.build();
+    } catch (final JSONParseException e) {
+      throw new OPDSParseException(e);
+    }
+  }
+
+  /**
+   * Parse a feed. The parser must be positioned on the token that starts the feed.
+   *
+   * @param p The JSON parser
+   * @return A feed
+   * @throws OPDSParseException On parse errors
+   * @throws IOException        On I/O errors
+   */
+
+  static OPDSAcquisitionFeed parseFeed(
+    final JsonParser p)
+    throws IOException {
+    NullCheck.notNull(p, "Parser");
+
+    try {
+      checkObject(p, null);
+
+      URI in_uri = null;
+      String in_id = null;
+      DateTime in_updated = null;
+      String in_title = null;
+      OptionType<URI> in_next = Option.none();
+      OptionType<OPDSSearchLink> in_search = Option.none();
+      List<OPDSFacet> in_facets = null;
+      List<OPDSAcquisitionFeedEntry> in_entries = null;
+
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        final String name = p.getCurrentName();
+        p.nextToken();
+
+        switch (name) {
+          case "uri":
+            in_uri = toURI(getString(p, name), false);
+            break;
+          case "id":
+            in_id = getString(p, name);
+            break;
+          case "updated":
+            in_updated = getTimestamp(p, name);
+            break;
+          case "title":
+            in_title = getString(p, name);
+            break;
+          case "next":
+            in_next = getURIOptional(p, name);
+            break;
+          case "search":
+            in_search = Option.some(parseSearch(p));
+            break;
+          case "facets": {
+            checkArray(p, name);
+            in_facets = new ArrayList<>(8);
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+              in_facets.add(parseFacet(p));
+            }
+            break;
+          }
+          case "entries": {
+            checkArray(p, name);
+            in_entries = new ArrayList<>(32);
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+              in_entries.add(parseFeedEntry(p));
+            }
+            break;
+          }
+          default:
+            p.skipChildren();
+            break;
+        }
+      }
+
+      final OPDSAcquisitionFeedBuilderType fb =
+        OPDSAcquisitionFeed.newBuilder(
+          required(in_uri, "uri"),
+          required(in_id, "id"),
+          required(in_updated, "updated"),
+          required(in_title, "title"));
+
+      fb.setNextOption(in_next);
+      fb.setSearchOption(in_search);
+      for (final OPDSFacet facet : required(in_facets, "facets")) {
+        fb.addFacet(facet);
+      }
+      for (final OPDSAcquisitionFeedEntry entry : required(in_entries, "entries")) {
+        fb.addEntry(entry);
+      }
+      return fb.build();
+    } catch (final JSONParseException e) {
+      throw new OPDSParseException(e);
+    }
+  }
+
+  private static OPDSSearchLink parseSearch(
+    final JsonParser p)
+    throws IOException {
+    checkObject(p, "search");
+
+    String in_type = null;
+    String in_uri = null;
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = p.getCurrentName();
+      p.nextToken();
+      switch (name) {
+        case "type":
+          in_type = getString(p, name);
+          break;
+        case "uri":
+          in_uri = getString(p, name);
+          break;
+        default:
+          p.skipChildren();
+          break;
+      }
+    }
+
+    return new OPDSSearchLink(
+      required(in_type, "type"),
+      toURI(required(in_uri, "uri"), true));
+  }
+
+  private static OPDSFacet parseFacet(
+    final JsonParser p)
+    throws IOException {
+    checkObject(p, null);
+
+    Boolean in_active = null;
+    String in_uri = null;
+    String in_group = null;
+    OptionType<String> in_group_type = Option.none();
+    String in_title = null;
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = p.getCurrentName();
+      p.nextToken();
+      switch (name) {
+        case "active":
+          in_active = getBoolean(p, name);
+          break;
+        case "uri":
+          in_uri = getString(p, name);
+          break;
+        case "group":
+          in_group = getString(p, name);
+          break;
+        case "group_type":
+          in_group_type = getStringOptional(p, name);
+          break;
+        case "title":
+          in_title = getString(p, name);
+          break;
+        default:
+          p.skipChildren();
+          break;
+      }
+    }
+
+    return new OPDSFacet(
+      required(in_active, "active"),
+      toURI(required(in_uri, "uri"), false),
+      required(in_group, "group"),
+      required(in_title, "title"),
+      in_group_type);
+  }
+
+  private static List<String> parseAuthors(
+    final JsonParser p)
+    throws IOException {
+    checkArray(p, "authors");
+
+    final List<String> authors = new ArrayList<>(2);
+    while (p.nextToken() != JsonToken.END_ARRAY) {
+      switch (p.currentToken()) {
+        case START_ARRAY:
+        case START_OBJECT: {
+          p.skipChildren();
+          authors.add("");
+          break;
+        }
+        default: {
+          authors.add(p.getText());
+          break;
+        }
+      }
+    }
+    return authors;
+  }
+
+  private static OPDSAcquisition parseAcquisition(
+    final JsonParser p)
+    throws IOException {
+    try {
+      checkObject(p, null);
+
+      String in_relation = null;
+      String in_uri = null;
+      String in_type = null;
+      List<OPDSIndirectAcquisition> in_indirects = Collections.emptyList();
+
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        final String name = p.getCurrentName();
+        p.nextToken();
+        switch (name) {
+
+          /*
+           * XXX: COMPATIBILITY: this field is called "type" when it should really be called
+           * "relation". See OPDSJSONParser.
+           */
+
+          case "type":
+            in_relation = getString(p, name);
+            break;
+          case "uri":
+            in_uri = getString(p, name);
+            break;
+          case OPDSJSONParser.CONTENT_TYPE_FIELD:
+            in_type = getString(p, name);
+            break;
+          case OPDSJSONParser.INDIRECT_ACQUISITIONS_FIELD:
+            in_indirects = parseIndirectAcquisitions(p);
+            break;
+          default:
+            p.skipChildren();
+            break;
+        }
+      }
+
+      final Relation relation = Relation.valueOf(required(in_relation, "type"));
+      final URI uri = toURI(required(in_uri, "uri"), true);
+
+      /*
+       * XXX: COMPATIBILITY: The content type field will not be present for old versions of the
+       * book database. Luckily, old book databases can only contain epub files.
+       */
+
+      final MIMEType type;
+      if (in_type != null) {
+        type = MIMEParser.Companion.parseRaisingException(in_type);
+      } else {
+        type = MIMEParser.Companion.parseRaisingException("application/epub+zip");
+      }
+
+      return new OPDSAcquisition(relation, uri, type, in_indirects);
+    } catch (final IOException e) {
+      throw e;
+    } catch (final Exception e) {
+      throw new OPDSParseException(e);
+    }
+  }
+
+  private static List<OPDSIndirectAcquisition> parseIndirectAcquisitions(
+    final JsonParser p)
+    throws IOException {
+    checkArray(p, OPDSJSONParser.INDIRECT_ACQUISITIONS_FIELD);
+
+    final List<OPDSIndirectAcquisition> results = new ArrayList<>(1);
+    while (p.nextToken() != JsonToken.END_ARRAY) {
+      results.add(parseIndirectAcquisition(p));
+    }
+    return results;
+  }
+
+  private static OPDSIndirectAcquisition parseIndirectAcquisition(
+    final JsonParser p)
+    throws IOException {
+    try {
+      checkObject(p, null);
+
+      String in_type = null;
+      List<OPDSIndirectAcquisition> in_indirects = null;
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        final String name = p.getCurrentName();
+        p.nextToken();
+        switch (name) {
+          case "type":
+            in_type = getString(p, name);
+            break;
+          case OPDSJSONParser.INDIRECT_ACQUISITIONS_FIELD:
+            in_indirects = parseIndirectAcquisitions(p);
+            break;
+          default:
+            p.skipChildren();
+            break;
+        }
+      }
+
+      final MIMEType type =
+        MIMEParser.Companion.parseRaisingException(required(in_type, "type"));
+      return new OPDSIndirectAcquisition(
+        type, required(in_indirects, OPDSJSONParser.INDIRECT_ACQUISITIONS_FIELD));
+    } catch (final IOException e) {
+      throw e;
+    } catch (final Exception e) {
+      throw new OPDSParseException(e);
+    }
+  }
+
+  private static DRMLicensor parseLicensor(
+    final JsonParser p)
+    throws IOException {
+    checkObject(p, null);
+
+    String in_vendor = null;
+    String in_client_token = null;
+    OptionType<String> in_device_manager = Option.none();
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = p.getCurrentName();
+      p.nextToken();
+      switch (name) {
+        case "vendor":
+          in_vendor = getString(p, name);
+          break;
+        case "clientToken":
+          in_client_token = getString(p, name);
+          break;
+        case "deviceManager":
+          in_device_manager = getStringOptional(p, name);
+          break;
+        default:
+          p.skipChildren();
+          break;
+      }
+    }
+
+    return new DRMLicensor(
+      required(in_vendor, "vendor"),
+      required(in_client_token, "clientToken"),
+      in_device_manager);
+  }
+
+  private static OPDSCategory parseCategory(
+    final JsonParser p)
+    throws IOException {
+    checkObject(p, null);
+
+    String in_term = null;
+    String in_scheme = null;
+    OptionType<String> in_label = Option.none();
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = p.getCurrentName();
+      p.nextToken();
+      switch (name) {
+        case "term":
+          in_term = getString(p, name);
+          break;
+        case "scheme":
+          in_scheme = getString(p, name);
+          break;
+        case "label":
+          in_label = getStringOptional(p, name);
+          break;
+        default:
+          p.skipChildren();
+          break;
+      }
+    }
+
+    return new OPDSCategory(
+      required(in_term, "term"),
+      required(in_scheme, "scheme"),
+      in_label);
+  }
+
+  private static Pair<URI, String> parseGroup(
+    final JsonParser p)
+    throws IOException {
+    checkObject(p, null);
+
+    String in_uri = null;
+    String in_name = null;
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = p.getCurrentName();
+      p.nextToken();
+      switch (name) {
+        case "uri":
+          in_uri = getString(p, name);
+          break;
+        case "name":
+          in_name = getString(p, name);
+          break;
+        default:
+          p.skipChildren();
+          break;
+      }
+    }
+
+    return Pair.pair(
+      toURI(required(in_uri, "uri"), false),
+      required(in_name, "name"));
+  }
+
+  /**
+   * The fields that may appear inside any of the availability types. Only the fields relevant
+   * to the availability type that is eventually selected are used.
+   */
+
+  private static final class AvailabilityFields {
+    private OptionType<DateTime> start_date = Option.none();
+    private OptionType<DateTime> end_date = Option.none();
+    private OptionType<Integer> position = Option.none();
+    private String revoke;
+
+    OptionType<URI> revokeOptional()
+      throws JSONParseException {
+      if (this.revoke == null) {
+        return Option.none();
+      }
+      return Option.some(toURI(this.revoke, false));
+    }
+  }
+
+  private static AvailabilityFields parseAvailabilityFields(
+    final JsonParser p,
+    final String key)
+    throws IOException {
+    checkObject(p, key);
+
+    final AvailabilityFields fields = new AvailabilityFields();
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = p.getCurrentName();
+      p.nextToken();
+      switch (name) {
+        case "start_date":
+          fields.start_date = Option.some(getTimestamp(p, name));
+          break;
+        case "end_date":
+          fields.end_date = Option.some(getTimestamp(p, name));
+          break;
+        case "position":
+          fields.position = Option.some(getInteger(p, name));
+          break;
+        case "revoke":
+          fields.revoke = getStringOrNull(p, name);
+          break;
+        default:
+          p.skipChildren();
+          break;
+      }
+    }
+    return fields;
+  }
+
+  private static OPDSAvailabilityType parseAvailability(
+    final JsonParser p)
+    throws IOException {
+    checkObject(p, "availability");
+
+    boolean loanable = false;
+    boolean holdable = false;
+    AvailabilityFields loaned = null;
+    AvailabilityFields held = null;
+    AvailabilityFields held_ready = null;
+    AvailabilityFields open_access = null;
+    AvailabilityFields revoked = null;
+
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = p.getCurrentName();
+      p.nextToken();
+      switch (name) {
+        case "loanable":
+          loanable = true;
+          p.skipChildren();
+          break;
+        case "holdable":
+          holdable = true;
+          p.skipChildren();
+          break;
+        case "loaned":
+          loaned = parseAvailabilityFields(p, name);
+          break;
+        case "held":
+          held = parseAvailabilityFields(p, name);
+          break;
+        case "held_ready":
+          held_ready = parseAvailabilityFields(p, name);
+          break;
+        case "open_access":
+          open_access = parseAvailabilityFields(p, name);
+          break;
+        case "revoked":
+          revoked = parseAvailabilityFields(p, name);
+          break;
+        default:
+          p.skipChildren();
+          break;
+      }
+    }
+
+    /*
+     * The order of precedence here must match that of the tree-based parser.
+     */
+
+    if (loanable) {
+      return OPDSAvailabilityLoanable.get();
+    }
+    if (holdable) {
+      return OPDSAvailabilityHoldable.get();
+    }
+    if (loaned != null) {
+      return OPDSAvailabilityLoaned.get(
+        loaned.start_date, loaned.end_date, loaned.revokeOptional());
+    }
+    if (held != null) {
+      return OPDSAvailabilityHeld.get(
+        held.start_date, held.position, held.end_date, held.revokeOptional());
+    }
+    if (held_ready != null) {
+      return OPDSAvailabilityHeldReady.get(
+        held_ready.end_date, held_ready.revokeOptional());
+    }
+    if (open_access != null) {
+      return OPDSAvailabilityOpenAccess.get(open_access.revokeOptional());
+    }
+    if (revoked != null) {
+      return OPDSAvailabilityRevoked.get(toURI(required(revoked.revoke, "revoke"), true));
+    }
+
+    throw new OPDSParseException("Expected availability information");
+  }
+
+  private static <T> T required(
+    final T value,
+    final String key)
+    throws JSONParseException {
+    if (value != null) {
+      return value;
+    }
+
+    final StringBuilder sb = new StringBuilder(128);
+    sb.append("Expected: A key '");
+    sb.append(key);
+    sb.append("'\n");
+    sb.append("Got: nothing\n");
+    throw new JSONParseException(sb.toString());
+  }
+
+  private static URI toURI(
+    final String text,
+    final boolean trim)
+    throws JSONParseException {
+    try {
+      return new URI(trim ? text.trim() : text);
+    } catch (final URISyntaxException e) {
+      throw new JSONParseException(e);
+    }
+  }
+
+  private static String typeOf(
+    final JsonToken token) {
+    if (token == null) {
+      return "MISSING";
+    }
+
+    switch (token) {
+      case START_ARRAY:
+        return "ARRAY";
+      case START_OBJECT:
+        return "OBJECT";
+      case VALUE_EMBEDDED_OBJECT:
+        return "POJO";
+      case VALUE_STRING:
+        return "STRING";
+      case VALUE_NUMBER_INT:
+      case VALUE_NUMBER_FLOAT:
+        return "NUMBER";
+      case VALUE_TRUE:
+      case VALUE_FALSE:
+        return "BOOLEAN";
+      case VALUE_NULL:
+        return "NULL";
+      default:
+        return token.name();
+    }
+  }
+
+  private static JSONParseException wrongType(
+    final JsonParser p,
+    final String key,
+    final String expected) {
+    final StringBuilder sb = new StringBuilder(128);
+    if (key != null) {
+      sb.append("Expected: A key '");
+      sb.append(key);
+      sb.append("' with a value of type ");
+      sb.append(expected);
+      sb.append("\n");
+    } else {
+      sb.append("Expected: A value of type ");
+      sb.append(expected);
+      sb.append("\n");
+    }
+    sb.append("Got: A value of type ");
+    sb.append(typeOf(p.currentToken()));
+    sb.append("\n");
+    return new JSONParseException(sb.toString());
+  }
+
+  private static void checkObject(
+    final JsonParser p,
+    final String key)
+    throws JSONParseException {
+    if (p.currentToken() != JsonToken.START_OBJECT) {
+      throw wrongType(p, key, "Object");
+    }
+  }
+
+  private static void checkArray(
+    final JsonParser p,
+    final String key)
+    throws JSONParseException {
+    if (p.currentToken() != JsonToken.START_ARRAY) {
+      throw wrongType(p, key, "Array");
+    }
+  }
+
+  private static String getString(
+    final JsonParser p,
+    final String key)
+    throws IOException {
+    if (p.currentToken() != JsonToken.VALUE_STRING) {
+      throw wrongType(p, key, "String");
+    }
+    return p.getText();
+  }
+
+  private static String getStringOrNull(
+    final JsonParser p,
+    final String key)
+    throws IOException {
+    if (p.currentToken() == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    return getString(p, key);
+  }
+
+  private static OptionType<String> getStringOptional(
+    final JsonParser p,
+    final String key)
+    throws IOException {
+    return Option.of(getStringOrNull(p, key));
+  }
+
+  private static OptionType<URI> getURIOptional(
+    final JsonParser p,
+    final String key)
+    throws IOException {
+    final String text = getStringOrNull(p, key);
+    if (text == null) {
+      return Option.none();
+    }
+    return Option.some(toURI(text, false));
+  }
+
+  private static DateTime getTimestamp(
+    final JsonParser p,
+    final String key)
+    throws IOException {
+    final String text = getString(p, key);
+    try {
+      return ISODateTimeFormat.dateTimeParser().parseDateTime(text);
+    } catch (final IllegalArgumentException e) {
+      throw new JSONParseException(
+        String.format("Could not parse RFC3999 date for key '%s'", key), e);
+    }
+  }
+
+  private static int getInteger(
+    final JsonParser p,
+    final String key)
+    throws IOException {
+    switch (p.currentToken()) {
+      case VALUE_NUMBER_INT:
+      case VALUE_NUMBER_FLOAT:
+        return p.getValueAsInt();
+      default:
+        throw wrongType(p, key, "Integer");
+    }
+  }
+
+  private static boolean getBoolean(
+    final JsonParser p,
+    final String key)
+    throws IOException {
+    switch (p.currentToken()) {
+      case VALUE_TRUE:
+        return true;
+      case VALUE_FALSE:
+        return false;
+      default:
+        throw wrongType(p, key, "Boolean");
+    }
+  }
+}
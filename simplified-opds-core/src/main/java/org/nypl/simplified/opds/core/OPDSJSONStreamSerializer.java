@@ -0,0 +1,276 @@
+package org.nypl.simplified.opds.core;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.io7m.jfunctional.OptionType;
+import com.io7m.jfunctional.Pair;
+import com.io7m.jfunctional.Some;
+import com.io7m.jfunctional.Unit;
+import com.io7m.jnull.NullCheck;
+import com.io7m.junreachable.UnreachableCodeException;
+
+import org.joda.time.DateTime;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+/**
+ * <p>Functions to serialize OPDS feed entries directly to a streaming JSON generator.</p>
+ *
+ * <p>The output of these functions is byte-for-byte identical to that of serializing the trees
+ * produced by {@link OPDSJSONSerializer} with the same generator configuration: fields are
+ * written in exactly the same order, and absent optional values are omitted in exactly the same
+ * way. Any change made to one must be made to the other.</p>
+ */
+
+final class OPDSJSONStreamSerializer {
+
+  private static final DateTimeFormatter FORMATTER = ISODateTimeFormat.dateTime();
+
+  private OPDSJSONStreamSerializer() {
+    throw new UnreachableCodeException();
+  }
+
+  /**
+   * Serialize a feed entry.
+   *
+   * @param g The JSON generator
+   * @param e The feed entry
+   * @throws IOException On I/O errors
+   */
+
+  static void serializeFeedEntry(
+    final JsonGenerator g,
+    final OPDSAcquisitionFeedEntry e)
+    throws IOException {
+    NullCheck.notNull(g, "Generator");
+    NullCheck.notNull(e, "Entry");
+
+    g.writeStartObject();
+
+    g.writeArrayFieldStart("authors");
+    for (final String a : e.getAuthors()) {
+      g.writeString(a);
+    }
+    g.writeEndArray();
+
+    g.writeArrayFieldStart("acquisitions");
+    for (final OPDSAcquisition a : e.getAcquisitions()) {
+      serializeAcquisition(g, NullCheck.notNull(a));
+    }
+    g.writeEndArray();
+
+    g.writeFieldName("availability");
+    serializeAvailability(g, e.getAvailability());
+
+    final OptionType<DRMLicensor> licensor_opt = e.getLicensor();
+    if (licensor_opt.isSome()) {
+      g.writeFieldName("licensor");
+      serializeLicensor(g, ((Some<DRMLicensor>) licensor_opt).get());
+    }
+
+    g.writeArrayFieldStart("categories");
+    for (final OPDSCategory c : e.getCategories()) {
+      serializeCategory(g, NullCheck.notNull(c));
+    }
+    g.writeEndArray();
+
+    writeURIOptional(g, "cover", e.getCover());
+
+    g.writeArrayFieldStart("groups");
+    for (final Pair<String, URI> p : e.getGroups()) {
+      g.writeStartObject();
+      g.writeStringField("name", p.getLeft());
+      g.writeStringField("uri", p.getRight().toString());
+      g.writeEndObject();
+    }
+    g.writeEndArray();
+
+    g.writeStringField("id", e.getID());
+
+    writeTimestampOptional(g, "published", e.getPublished());
+
+    final OptionType<String> publisher_opt = e.getPublisher();
+    if (publisher_opt.isSome()) {
+      g.writeStringField("publisher", ((Some<String>) publisher_opt).get());
+    }
+
+    g.writeStringField("distribution", e.getDistribution());
+    g.writeStringField("summary", e.getSummary());
+    g.writeStringField("title", e.getTitle());
+
+    writeURIOptional(g, "thumbnail", e.getThumbnail());
+
+    final OptionType<URI> alternate_opt = e.getAlternate();
+    if (alternate_opt.isSome()) {
+      final String alternate = ((Some<URI>) alternate_opt).get().toString();
+      g.writeStringField("alternate", alternate);
+      g.writeStringField("analytics", alternate.replace("/works/", "/analytics/"));
+    }
+
+    writeURIOptional(g, "annotations", e.getAnnotations());
+
+    g.writeStringField("updated", FORMATTER.print(e.getUpdated()));
+    g.writeEndObject();
+  }
+
+  private static void writeURIOptional(
+    final JsonGenerator g,
+    final String name,
+    final OptionType<URI> uri_opt)
+    throws IOException {
+    if (uri_opt.isSome()) {
+      g.writeStringField(name, ((Some<URI>) uri_opt).get().toString());
+    }
+  }
+
+  private static void writeTimestampOptional(
+    final JsonGenerator g,
+    final String name,
+    final OptionType<DateTime> time_opt)
+    throws IOException {
+    if (time_opt.isSome()) {
+      g.writeStringField(name, FORMATTER.print(((Some<DateTime>) time_opt).get()));
+    }
+  }
+
+  private static void serializeAcquisition(
+    final JsonGenerator g,
+    final OPDSAcquisition a)
+    throws IOException {
+    g.writeStartObject();
+    g.writeStringField("type", a.getRelation().toString());
+    g.writeStringField("uri", a.getUri().toString());
+    g.writeStringField(OPDSJSONParser.CONTENT_TYPE_FIELD, a.getType().getFullType());
+    g.writeFieldName(OPDSJSONParser.INDIRECT_ACQUISITIONS_FIELD);
+    serializeIndirectAcquisitions(g, a.getIndirectAcquisitions());
+    g.writeEndObject();
+  }
+
+  private static void serializeIndirectAcquisitions(
+    final JsonGenerator g,
+    final List<OPDSIndirectAcquisition> indirects)
+    throws IOException {
+    g.writeStartArray();
+    for (final OPDSIndirectAcquisition indirect : indirects) {
+      g.writeStartObject();
+      g.writeStringField("type", indirect.getType().getFullType());
+      g.writeFieldName(OPDSJSONParser.INDIRECT_ACQUISITIONS_FIELD);
+      serializeIndirectAcquisitions(g, indirect.getIndirectAcquisitions());
+      g.writeEndObject();
+    }
+    g.writeEndArray();
+  }
+
+  private static void serializeLicensor(
+    final JsonGenerator g,
+    final DRMLicensor l)
+    throws IOException {
+    g.writeStartObject();
+    g.writeStringField("vendor", l.getVendor());
+    g.writeStringField("clientToken", l.getClientToken());
+
+    final OptionType<String> device_opt = l.getDeviceManager();
+    if (device_opt.isSome()) {
+      g.writeStringField("deviceManager", ((Some<String>) device_opt).get());
+    }
+    g.writeEndObject();
+  }
+
+  private static void serializeCategory(
+    final JsonGenerator g,
+    final OPDSCategory c)
+    throws IOException {
+    g.writeStartObject();
+    g.writeStringField("scheme", c.getScheme());
+    g.writeStringField("term", c.getTerm());
+
+    final OptionType<String> label_opt = c.getLabel();
+    if (label_opt.isSome()) {
+      g.writeStringField("label", ((Some<String>) label_opt).get());
+    }
+    g.writeEndObject();
+  }
+
+  private static void serializeAvailability(
+    final JsonGenerator g,
+    final OPDSAvailabilityType av)
+    throws IOException {
+    g.writeStartObject();
+
+    av.matchAvailability(new OPDSAvailabilityMatcherType<Unit, IOException>() {
+      @Override
+      public Unit onHeldReady(final OPDSAvailabilityHeldReady a)
+        throws IOException {
+        g.writeObjectFieldStart("held_ready");
+        writeTimestampOptional(g, "end_date", a.getEndDate());
+        writeURIOptional(g, "revoke", a.getRevoke());
+        g.writeEndObject();
+        return Unit.unit();
+      }
+
+      @Override
+      public Unit onHeld(final OPDSAvailabilityHeld a)
+        throws IOException {
+        g.writeObjectFieldStart("held");
+        writeTimestampOptional(g, "start_date", a.getStartDate());
+        final OptionType<Integer> position_opt = a.getPosition();
+        if (position_opt.isSome()) {
+          g.writeNumberField("position", ((Some<Integer>) position_opt).get());
+        }
+        writeURIOptional(g, "revoke", a.getRevoke());
+        g.writeEndObject();
+        return Unit.unit();
+      }
+
+      @Override
+      public Unit onHoldable(final OPDSAvailabilityHoldable a)
+        throws IOException {
+        g.writeObjectFieldStart("holdable");
+        g.writeEndObject();
+        return Unit.unit();
+      }
+
+      @Override
+      public Unit onLoaned(final OPDSAvailabilityLoaned a)
+        throws IOException {
+        g.writeObjectFieldStart("loaned");
+        writeTimestampOptional(g, "start_date", a.getStartDate());
+        writeTimestampOptional(g, "end_date", a.getEndDate());
+        writeURIOptional(g, "revoke", a.getRevoke());
+        g.writeEndObject();
+        return Unit.unit();
+      }
+
+      @Override
+      public Unit onLoanable(final OPDSAvailabilityLoanable a)
+        throws IOException {
+        g.writeObjectFieldStart("loanable");
+        g.writeEndObject();
+        return Unit.unit();
+      }
+
+      @Override
+      public Unit onOpenAccess(final OPDSAvailabilityOpenAccess a)
+        throws IOException {
+        g.writeObjectFieldStart("open_access");
+        writeURIOptional(g, "revoke", a.getRevoke());
+        g.writeEndObject();
+        return Unit.unit();
+      }
+
+      @Override
+      public Unit onRevoked(final OPDSAvailabilityRevoked a)
+        throws IOException {
+        g.writeObjectFieldStart("revoked");
+        g.writeStringField("revoke", a.getRevoke().toString());
+        g.writeEndObject();
+        return Unit.unit();
+      }
+    });
+
+    g.writeEndObject();
+  }
+}
@@ -99,15 +99,21 @@ interface ProfilesDatabaseType {
 
   /**
    * Set the profile with the given ID as the current profile. Setting the current profile is
-   * forbidden if the anonymous profile is enabled.
+   * forbidden if the anonymous profile is enabled. The accounts of the profile are opened, if
+   * they have not been opened already, before the profile becomes current.
    *
    * @param profile The profile ID
    * @throws ProfileNonexistentException If no profile exists with the given ID
    * @throws ProfileAnonymousEnabledException If the anonymous profile is enabled
+   * @throws ProfileDatabaseAccountsException If the accounts of the profile could not be opened
    * @see .anonymousProfileEnabled
    */
 
-  @Throws(ProfileAnonymousEnabledException::class, ProfileNonexistentException::class)
+  @Throws(
+    ProfileAnonymousEnabledException::class,
+    ProfileNonexistentException::class,
+    ProfileDatabaseAccountsException::class
+  )
   fun setProfileCurrent(profile: ProfileID)
 
   /**
@@ -31,7 +31,7 @@ internal class Profile internal constructor(
   override val id: ProfileID,
   override val directory: File,
   private val analytics: AnalyticsType,
-  private val accounts: AccountsDatabaseType,
+  private val accounts: ProfileAccounts,
   initialDescription: ProfileDescription
 ) : ProfileType {
 
@@ -54,14 +54,40 @@ internal class Profile internal constructor(
   override val isCurrent: Boolean
     get() = this.owner?.currentProfile()?.map { p -> p.id } == Option.some(this.id)
 
+  /**
+   * Open the accounts of the profile, if they have not already been opened.
+   *
+   * @throws AccountsDatabaseException If the accounts could not be opened
+   */
+
+  @Throws(AccountsDatabaseException::class)
+  internal fun openAccounts() {
+    this.checkNotDeleted()
+    this.accounts.get()
+  }
+
+  /**
+   * @return The accounts database. A profile's accounts are opened before the profile can
+   *   become the current profile, so this can only fail for profiles that are not current,
+   *   and whose accounts could not be opened.
+   */
+
+  private fun accountsOpened(): AccountsDatabaseType {
+    try {
+      return this.accounts.get()
+    } catch (e: AccountsDatabaseException) {
+      throw IllegalStateException("The accounts of profile ${this.id.uuid} are unavailable", e)
+    }
+  }
+
   override fun accounts(): SortedMap<AccountID, AccountType> {
     this.checkNotDeleted()
-    return this.accounts.accounts()
+    return this.accountsOpened().accounts()
   }
 
   override fun accountsByProvider(): SortedMap<URI, AccountType> {
     this.checkNotDeleted()
-    return this.accounts.accountsByProvider()
+    return this.accountsOpened().accountsByProvider()
   }
 
   @Throws(AccountsDatabaseNonexistentException::class)
@@ -73,7 +99,7 @@ internal class Profile internal constructor(
 
   override fun accountsDatabase(): AccountsDatabaseType {
     this.checkNotDeleted()
-    return this.accounts
+    return this.accountsOpened()
   }
 
   override fun setDescription(newDescription: ProfileDescription) {
@@ -110,13 +136,13 @@ internal class Profile internal constructor(
   @Throws(AccountsDatabaseException::class)
   override fun createAccount(accountProvider: AccountProviderType): AccountType {
     this.checkNotDeleted()
-    return this.accounts.createAccount(accountProvider)
+    return this.accounts.get().createAccount(accountProvider)
   }
 
   @Throws(AccountsDatabaseException::class)
   override fun deleteAccountByProvider(accountProvider: URI): AccountID {
     this.checkNotDeleted()
-    val deleted = this.accounts.deleteAccountByProvider(accountProvider)
+    val deleted = this.accounts.get().deleteAccountByProvider(accountProvider)
     val mostRecent = this.descriptionCurrent.preferences.mostRecentAccount
     if (mostRecent == deleted) {
       this.clearMostRecentAccount()
@@ -156,6 +182,12 @@ internal class Profile internal constructor(
       throw ProfileDatabaseDeleteAnonymousException("Cannot delete the anonymous profile")
     }
 
+    /*
+     * The accounts may not have been opened yet. They must not be opened, in the background
+     * or otherwise, whilst or after the profile directory is deleted.
+     */
+
+    this.accounts.cancel()
     this.logProfileDeleted()
     this.owner?.deleteProfile(this)
     this.deleted = true
@@ -0,0 +1,164 @@
+package org.nypl.simplified.profiles
+
+import org.nypl.simplified.accounts.database.api.AccountsDatabaseException
+import org.nypl.simplified.accounts.database.api.AccountsDatabaseOpenException
+import org.nypl.simplified.accounts.database.api.AccountsDatabaseType
+import org.slf4j.LoggerFactory
+import java.util.concurrent.Executor
+import javax.annotation.concurrent.GuardedBy
+
+/**
+ * The accounts database of a profile, which may not have been opened yet.
+ *
+ * Opening an accounts database opens every book database within it, and so profiles other
+ * than the current profile can be opened in the background. The database is opened at most
+ * once: either by a background executor, or by the first thread that needs it, whichever
+ * happens first. Threads that need the database whilst it is being opened wait for it.
+ * A failure to open the database is remembered, and raised to every thread that needs it.
+ *
+ * If the profile is deleted before the database has been opened, [cancel] ensures that the
+ * database is never opened.
+ */
+
+internal class ProfileAccounts private constructor(
+  private val profileName: String,
+  private val open: () -> AccountsDatabaseType,
+  initialState: State
+) {
+
+  private sealed class State {
+    object NotOpened : State()
+    object Opening : State()
+    object Cancelled : State()
+    data class Opened(val accounts: AccountsDatabaseType) : State()
+    data class Failed(val exception: AccountsDatabaseException) : State()
+  }
+
+  companion object {
+
+    /**
+     * @return Accounts that have already been opened
+     */
+
+    fun opened(
+      profileName: String,
+      accounts: AccountsDatabaseType
+    ): ProfileAccounts =
+      ProfileAccounts(profileName, { accounts }, State.Opened(accounts))
+
+    /**
+     * @return Accounts that will be opened with the given function when first needed
+     */
+
+    fun deferred(
+      profileName: String,
+      open: () -> AccountsDatabaseType
+    ): ProfileAccounts =
+      ProfileAccounts(profileName, open, State.NotOpened)
+  }
+
+  private val logger =
+    LoggerFactory.getLogger(ProfileAccounts::class.java)
+
+  private val stateLock = Object()
+
+  @GuardedBy("stateLock")
+  private var state: State = initialState
+
+  /**
+   * Start opening the accounts on the given executor, if they are not already open. A failure
+   * to open the accounts is logged here, and raised when the accounts are next needed.
+   */
+
+  fun openOn(executor: Executor) {
+    executor.execute {
+      if (this.tryBeginOpening()) {
+        try {
+          this.finishOpening()
+        } catch (e: AccountsDatabaseException) {
+          this.logger.error("[{}]: could not open accounts: ", this.profileName, e)
+        }
+      }
+    }
+  }
+
+  /**
+   * @return The accounts database, opening it on the current thread if necessary
+   * @throws AccountsDatabaseException If the accounts database could not be opened, or the
+   *   profile has been deleted
+   */
+
+  @Throws(AccountsDatabaseException::class)
+  fun get(): AccountsDatabaseType {
+    synchronized(this.stateLock) {
+      while (this.state == State.Opening) {
+        this.stateLock.wait()
+      }
+      when (val current = this.state) {
+        is State.Opened ->
+          return current.accounts
+        is State.Failed ->
+          throw current.exception
+        State.Cancelled ->
+          throw AccountsDatabaseOpenException(
+            "The profile ${this.profileName} has been deleted", listOf()
+          )
+        State.NotOpened, State.Opening ->
+          this.state = State.Opening
+      }
+    }
+    return this.finishOpening()
+  }
+
+  /**
+   * Ensure that the accounts are never opened. If the accounts are being opened, wait for
+   * that to finish.
+   */
+
+  fun cancel() {
+    synchronized(this.stateLock) {
+      while (this.state == State.Opening) {
+        this.stateLock.wait()
+      }
+      if (this.state == State.NotOpened) {
+        this.state = State.Cancelled
+      }
+    }
+  }
+
+  private fun tryBeginOpening(): Boolean {
+    synchronized(this.stateLock) {
+      if (this.state != State.NotOpened) {
+        return false
+      }
+      this.state = State.Opening
+      return true
+    }
+  }
+
+  @Throws(AccountsDatabaseException::class)
+  private fun finishOpening(): AccountsDatabaseType {
+    val result: State =
+      try {
+        State.Opened(this.open.invoke())
+      } catch (e: AccountsDatabaseException) {
+        State.Failed(e)
+      } catch (e: Exception) {
+        State.Failed(
+          AccountsDatabaseOpenException(
+            "Could not open the accounts of profile ${this.profileName}", listOf(e)
+          )
+        )
+      }
+
+    synchronized(this.stateLock) {
+      this.state = result
+      this.stateLock.notifyAll()
+    }
+
+    if (result is State.Failed) {
+      throw result.exception
+    }
+    return (result as State.Opened).accounts
+  }
+}
@@ -11,6 +11,7 @@ import org.nypl.simplified.accounts.api.AccountAuthenticationCredentialsStoreTyp
 import org.nypl.simplified.accounts.api.AccountBundledCredentialsType
 import org.nypl.simplified.accounts.api.AccountEvent
 import org.nypl.simplified.accounts.api.AccountProviderType
+import org.nypl.simplified.accounts.database.api.AccountsDatabaseException
 import org.nypl.simplified.accounts.database.api.AccountsDatabaseFactoryType
 import org.nypl.simplified.accounts.registry.api.AccountProviderRegistryType
 import org.nypl.simplified.analytics.api.AnalyticsEvent
@@ -20,6 +21,7 @@ import org.nypl.simplified.profiles.api.ProfileAnonymousDisabledException
 import org.nypl.simplified.profiles.api.ProfileAnonymousEnabledException
 import org.nypl.simplified.profiles.api.ProfileCreateDuplicateException
 import org.nypl.simplified.profiles.api.ProfileCreateInvalidException
+import org.nypl.simplified.profiles.api.ProfileDatabaseAccountsException
 import org.nypl.simplified.profiles.api.ProfileDatabaseException
 import org.nypl.simplified.profiles.api.ProfileID
 import org.nypl.simplified.profiles.api.ProfileNoneCurrentException
@@ -153,7 +155,11 @@ internal class ProfilesDatabase internal constructor(
     return Option.none()
   }
 
-  @Throws(ProfileNonexistentException::class, ProfileAnonymousEnabledException::class)
+  @Throws(
+    ProfileNonexistentException::class,
+    ProfileAnonymousEnabledException::class,
+    ProfileDatabaseAccountsException::class
+  )
   override fun setProfileCurrent(profile: ProfileID) {
     return when (this.anonymousProfileEnabled) {
       ANONYMOUS_PROFILE_ENABLED -> {
@@ -162,8 +168,18 @@ internal class ProfilesDatabase internal constructor(
         )
       }
       ANONYMOUS_PROFILE_DISABLED -> {
-        if (!this.profiles.containsKey(profile)) {
-          throw ProfileNonexistentException("Profile does not exist")
+        val existing =
+          this.profiles[profile] ?: throw ProfileNonexistentException("Profile does not exist")
+
+        /*
+         * The accounts of the profile may not have been opened yet. Open them now, so that
+         * a profile whose accounts cannot be opened never becomes the current profile.
+         */
+
+        try {
+          existing.openAccounts()
+        } catch (e: AccountsDatabaseException) {
+          throw ProfileDatabaseAccountsException("Could not open the accounts of the profile", e)
         }
         this.setCurrentProfile(profile)
       }
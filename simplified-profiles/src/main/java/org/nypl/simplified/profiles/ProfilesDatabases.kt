@@ -19,6 +19,7 @@ import org.nypl.simplified.accounts.registry.api.AccountProviderRegistryType
 import org.nypl.simplified.analytics.api.AnalyticsType
 import org.nypl.simplified.files.FileLocking
 import org.nypl.simplified.files.FileUtilities
+import org.nypl.simplified.json.core.JSONObjectMappers
 import org.nypl.simplified.profiles.api.ProfileAttributes
 import org.nypl.simplified.profiles.api.ProfileDatabaseAccountsException
 import org.nypl.simplified.profiles.api.ProfileDatabaseException
@@ -38,6 +39,7 @@ import java.util.ArrayList
 import java.util.SortedMap
 import java.util.UUID
 import java.util.concurrent.ConcurrentSkipListMap
+import java.util.concurrent.Executor
 
 /**
  * Functions providing profile databases.
@@ -51,11 +53,25 @@ object ProfilesDatabases {
   val ANONYMOUS_PROFILE_ID =
     ProfileID(UUID(0L, 0L))
 
+  /**
+   * The mapper used to read and write profile descriptions. Object mappers are thread-safe
+   * once configured, and are expensive to create.
+   */
+
+  private val mapper: ObjectMapper =
+    JSONObjectMappers.mapper()
+
   /**
    * Open a profile database from the given directory, creating a new database if one does not
    * exist. The anonymous profile will not be enabled, and will be ignored even if one is present
    * in the on-disk database.
    *
+   * If an executor is given, the accounts of each profile are opened on the executor rather
+   * than before this function returns, and a profile whose accounts are needed before then
+   * opens them on the thread that needs them. Errors opening the accounts of a profile are then
+   * raised when the profile is selected with [ProfilesDatabaseType.setProfileCurrent], rather
+   * than from this function.
+   *
    * @return A profile database
    * @throws ProfileDatabaseException If any errors occurred whilst trying to open the database
    */
@@ -69,12 +85,12 @@ object ProfilesDatabases {
     accountBundledCredentials: AccountBundledCredentialsType,
     accountCredentialsStore: AccountAuthenticationCredentialsStoreType,
     accountsDatabases: AccountsDatabaseFactoryType,
-    directory: File
+    directory: File,
+    accountsExecutor: Executor? = null
   ): ProfilesDatabaseType {
     this.logger.debug("opening profile database: {}", directory)
 
     val profiles = ConcurrentSkipListMap<ProfileID, Profile>()
-    val jom = ObjectMapper()
 
     val errors = ArrayList<Exception>()
     this.openAllProfiles(
@@ -85,9 +101,10 @@ object ProfilesDatabases {
       accountBundledCredentials = accountBundledCredentials,
       accountCredentialsStore = accountCredentialsStore,
       accountsDatabases = accountsDatabases,
+      accountsExecutor = accountsExecutor,
       directory = directory,
       profiles = profiles,
-      jom = jom,
+      profileEager = null,
       errors = errors
     )
     profiles.remove(this.ANONYMOUS_PROFILE_ID)
@@ -125,9 +142,10 @@ object ProfilesDatabases {
     accountBundledCredentials: AccountBundledCredentialsType,
     accountCredentialsStore: AccountAuthenticationCredentialsStoreType,
     accountsDatabases: AccountsDatabaseFactoryType,
+    accountsExecutor: Executor?,
     directory: File,
     profiles: SortedMap<ProfileID, Profile>,
-    jom: ObjectMapper,
+    profileEager: ProfileID?,
     errors: MutableList<Exception>
   ) {
     if (!directory.exists()) {
@@ -151,9 +169,10 @@ object ProfilesDatabases {
             accountsDatabases = accountsDatabases,
             accountBundledCredentials = accountBundledCredentials,
             accountCredentialsStore = accountCredentialsStore,
-            jom = jom,
+            accountsExecutor = accountsExecutor,
             directory = directory,
             errors = errors,
+            profileEager = profileEager,
             profileIdName = profileIdName
           ) ?: continue
 
@@ -166,6 +185,9 @@ object ProfilesDatabases {
    * Open a profile database from the given directory, creating a new database if one does not exist.
    * The anonymous profile will be enabled and will use the given account provider as the default
    * account.
+   *
+   * If an executor is given, the accounts of the anonymous profile are opened before this
+   * function returns, and the accounts of any other profiles are opened on the executor.
    */
 
   @Throws(ProfileDatabaseException::class)
@@ -177,12 +199,12 @@ object ProfilesDatabases {
     accountBundledCredentials: AccountBundledCredentialsType,
     accountCredentialsStore: AccountAuthenticationCredentialsStoreType,
     accountsDatabases: AccountsDatabaseFactoryType,
-    directory: File
+    directory: File,
+    accountsExecutor: Executor? = null
   ): ProfilesDatabaseType {
     this.logger.debug("opening profile database: {}", directory)
 
     val profiles = ConcurrentSkipListMap<ProfileID, Profile>()
-    val jom = ObjectMapper()
 
     val errors = ArrayList<Exception>()
     this.openAllProfiles(
@@ -193,9 +215,10 @@ object ProfilesDatabases {
       accountBundledCredentials = accountBundledCredentials,
       accountCredentialsStore = accountCredentialsStore,
       accountsDatabases = accountsDatabases,
+      accountsExecutor = accountsExecutor,
       directory = directory,
       profiles = profiles,
-      jom = jom,
+      profileEager = this.ANONYMOUS_PROFILE_ID,
       errors = errors
     )
 
@@ -329,9 +352,10 @@ object ProfilesDatabases {
     accountsDatabases: AccountsDatabaseFactoryType,
     accountBundledCredentials: AccountBundledCredentialsType,
     accountCredentialsStore: AccountAuthenticationCredentialsStoreType,
-    jom: ObjectMapper,
+    accountsExecutor: Executor?,
     directory: File,
     errors: MutableList<Exception>,
+    profileEager: ProfileID?,
     profileIdName: String
   ): Profile? {
     val profileId =
@@ -346,56 +370,92 @@ object ProfilesDatabases {
 
     val desc: ProfileDescription
     try {
-      desc = ProfileDescriptionJSON.deserializeFromFile(jom, profileFile)
+      desc = ProfileDescriptionJSON.deserializeFromFile(this.mapper, profileFile)
     } catch (e: IOException) {
       errors.add(IOException("Could not parse profile: $profileFile", e))
       return null
     }
 
-    val profileAccountsDir = File(profileDir, "accounts")
-
-    try {
-      val accounts =
-        accountsDatabases.openDatabase(
-          accountAuthenticationCredentialsStore = accountCredentialsStore,
-          accountEvents = accountEvents,
-          accountProviders = accountProviders,
-          context = context,
-          directory = profileAccountsDir
-        )
-
-      this.createAutomaticAccounts(
-        accounts = accounts,
+    val openAccounts = {
+      this.openProfileAccounts(
+        context = context,
         accountEvents = accountEvents,
-        accountBundledCredentials = accountBundledCredentials,
         accountProviders = accountProviders,
-        profile = profileId
+        accountsDatabases = accountsDatabases,
+        accountBundledCredentials = accountBundledCredentials,
+        accountCredentialsStore = accountCredentialsStore,
+        profileDir = profileDir,
+        profileId = profileId
       )
+    }
 
-      if (accounts.accounts().isEmpty()) {
-        this.logger.debug("profile is empty, creating a default account")
-        accounts.createAccount(accountProviders.defaultProvider)
+    val accounts =
+      if (accountsExecutor == null || profileId == profileEager) {
+        try {
+          ProfileAccounts.opened(profileId.uuid.toString(), openAccounts.invoke())
+        } catch (e: AccountsDatabaseException) {
+          this.logger.error("[{}]: error opening accounts: ", profileId.uuid, e)
+          errors.add(e)
+          return null
+        }
+      } else {
+        this.logger.debug("[{}]: deferring opening accounts", profileId.uuid)
+        val deferred =
+          ProfileAccounts.deferred(profileId.uuid.toString(), openAccounts)
+        deferred.openOn(accountsExecutor)
+        deferred
       }
 
-      Preconditions.checkArgument(
-        !accounts.accounts().isEmpty(),
-        "Accounts database must not be empty"
-      )
+    return Profile(
+      owner = null,
+      id = profileId,
+      directory = profileDir,
+      analytics = analytics,
+      accounts = accounts,
+      initialDescription = desc
+    )
+  }
 
-      val account = accounts.accounts()[accounts.accounts().firstKey()]!!
-      return Profile(
-        owner = null,
-        id = profileId,
-        directory = profileDir,
-        analytics = analytics,
-        accounts = accounts,
-        initialDescription = desc
+  @Throws(AccountsDatabaseException::class)
+  private fun openProfileAccounts(
+    context: Context,
+    accountEvents: Subject<AccountEvent>,
+    accountProviders: AccountProviderRegistryType,
+    accountsDatabases: AccountsDatabaseFactoryType,
+    accountBundledCredentials: AccountBundledCredentialsType,
+    accountCredentialsStore: AccountAuthenticationCredentialsStoreType,
+    profileDir: File,
+    profileId: ProfileID
+  ): AccountsDatabaseType {
+    this.logger.debug("[{}]: opening accounts", profileId.uuid)
+
+    val accounts =
+      accountsDatabases.openDatabase(
+        accountAuthenticationCredentialsStore = accountCredentialsStore,
+        accountEvents = accountEvents,
+        accountProviders = accountProviders,
+        context = context,
+        directory = File(profileDir, "accounts")
       )
-    } catch (e: AccountsDatabaseException) {
-      this.logger.error("[{}]: error opening accounts: ", profileId.uuid, e)
-      errors.add(e)
-      return null
+
+    this.createAutomaticAccounts(
+      accounts = accounts,
+      accountEvents = accountEvents,
+      accountBundledCredentials = accountBundledCredentials,
+      accountProviders = accountProviders,
+      profile = profileId
+    )
+
+    if (accounts.accounts().isEmpty()) {
+      this.logger.debug("profile is empty, creating a default account")
+      accounts.createAccount(accountProviders.defaultProvider)
     }
+
+    Preconditions.checkArgument(
+      !accounts.accounts().isEmpty(),
+      "Accounts database must not be empty"
+    )
+    return accounts
   }
 
   /**
@@ -475,7 +535,7 @@ object ProfilesDatabases {
             id = id,
             directory = profileDir,
             analytics = analytics,
-            accounts = accounts,
+            accounts = ProfileAccounts.opened(id.uuid.toString(), accounts),
             initialDescription = description
           )
 
@@ -637,7 +697,7 @@ object ProfilesDatabases {
       FileUtilities.fileWriteUTF8Atomically(
         profileFile,
         profileFileTemp,
-        ProfileDescriptionJSON.serializeToString(ObjectMapper(), newDescription)
+        ProfileDescriptionJSON.serializeToString(this.mapper, newDescription)
       )
     }
   }
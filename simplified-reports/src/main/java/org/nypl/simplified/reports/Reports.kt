@@ -11,6 +11,7 @@ import java.io.BufferedOutputStream
 import java.io.File
 import java.io.FileInputStream
 import java.io.FileOutputStream
+import java.util.concurrent.CopyOnWriteArrayList
 import java.util.zip.GZIPOutputStream
 
 /**
@@ -21,6 +22,20 @@ object Reports {
 
   private val logger = LoggerFactory.getLogger(Reports::class.java)
 
+  private val preparers =
+    CopyOnWriteArrayList<(Context) -> Unit>()
+
+  /**
+   * Add a function that will be called each time a report is about to be sent. Preparers
+   * typically write files (such as traces) into the cache directory so that they are included
+   * in the report. Exceptions raised by preparers are logged and otherwise ignored.
+   */
+
+  @JvmStatic
+  fun addPreparer(preparer: (Context) -> Unit) {
+    this.preparers.add(preparer)
+  }
+
   /**
    * The result of trying to send.
    */
@@ -78,6 +93,9 @@ object Reports {
     if (name.startsWith("report-") && name.endsWith(".xml")) {
       return true
     }
+    if (name.startsWith("trace-") && name.endsWith(".json")) {
+      return true
+    }
     return name.startsWith("log.txt")
   }
 
@@ -96,6 +114,14 @@ object Reports {
   ): Result {
     this.logger.debug("preparing report")
 
+    for (preparer in this.preparers) {
+      try {
+        preparer.invoke(context)
+      } catch (e: Exception) {
+        this.logger.error("report preparer failed: ", e)
+      }
+    }
+
     try {
       val files =
         this.collectFiles(baseDirectories, includeFile)
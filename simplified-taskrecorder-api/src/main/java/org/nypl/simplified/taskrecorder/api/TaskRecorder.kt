@@ -8,7 +8,9 @@ import org.slf4j.LoggerFactory
  * A task step recorder.
  */
 
-class TaskRecorder private constructor() : TaskRecorderType {
+class TaskRecorder private constructor(
+  private val name: String?
+) : TaskRecorderType {
 
   private val logger =
     LoggerFactory.getLogger(TaskRecorder::class.java)
@@ -16,14 +18,17 @@ class TaskRecorder private constructor() : TaskRecorderType {
   companion object {
 
     /**
-     * Create a new task recorder.
+     * Create a new task recorder. The name of the task appears in traces; if no name is
+     * given, the description of the first step is used.
      */
 
-    fun create(): TaskRecorderType =
-      TaskRecorder()
+    fun create(name: String? = null): TaskRecorderType =
+      TaskRecorder(name)
   }
 
+  private val startTime = System.nanoTime()
   private val steps = mutableListOf<TaskStep>()
+  private val stepsCreated = mutableListOf<TaskStep>()
   private val attributes = mutableMapOf<String, String>()
 
   override fun addAttribute(
@@ -42,8 +47,10 @@ class TaskRecorder private constructor() : TaskRecorderType {
   override fun beginNewStep(message: String): TaskStep {
     this.logger.debug("step started: {}", message)
 
+    this.steps.lastOrNull()?.endIfNecessary()
     val step = TaskStep(description = message)
     this.steps.add(step)
+    this.stepsCreated.add(step)
     return step
   }
 
@@ -53,6 +60,7 @@ class TaskRecorder private constructor() : TaskRecorderType {
     this.logger.debug("step succeeded: {}", message)
     val step = this.steps.last()
     step.resolution = TaskStepResolution.TaskStepSucceeded(message)
+    step.endTime = System.nanoTime()
     return step
   }
 
@@ -71,6 +79,7 @@ class TaskRecorder private constructor() : TaskRecorderType {
         errorCode = errorCode,
         exception = exception
       )
+    step.endTime = System.nanoTime()
     return step
   }
 
@@ -83,6 +92,7 @@ class TaskRecorder private constructor() : TaskRecorderType {
 
     this.logger.debug("step failed: {} ({}): ", message, errorCode, exception)
     val step = this.steps.last()
+    step.endTime = System.nanoTime()
     return when (val resolution = step.resolution) {
       is TaskStepResolution.TaskStepSucceeded -> {
         step.resolution = TaskStepResolution.TaskStepFailed(
@@ -116,9 +126,61 @@ class TaskRecorder private constructor() : TaskRecorderType {
   override fun currentStep(): TaskStep? =
     this.steps.lastOrNull()
 
-  override fun <A> finishSuccess(result: A): TaskResult.Success<A> =
-    TaskResult.Success(result, this.steps, this.attributes.toMap())
+  override fun <A> finishSuccess(result: A): TaskResult.Success<A> {
+    this.trace(succeeded = true)
+    return TaskResult.Success(result, this.steps, this.attributes.toMap())
+  }
+
+  override fun <A> finishFailure(): TaskResult.Failure<A> {
+    this.trace(succeeded = false)
+    return TaskResult.Failure(this.steps, this.attributes.toMap())
+  }
+
+  /**
+   * Record the task and its steps as trace events. Steps run within the task, and so are
+   * nested within the task in trace viewers. Steps added from other tasks were traced when
+   * those tasks finished, and so are not traced again here.
+   */
+
+  private fun trace(succeeded: Boolean) {
+    this.steps.lastOrNull()?.endIfNecessary()
+
+    val endTime = System.nanoTime()
+    val thread = Thread.currentThread()
+    val taskName = this.name ?: this.steps.firstOrNull()?.description ?: "Task"
+
+    TaskTraces.record(
+      TaskTraceEvent(
+        name = taskName,
+        category = "task",
+        startTime = this.startTime,
+        duration = endTime - this.startTime,
+        threadId = thread.id,
+        threadName = thread.name,
+        arguments = mapOf(Pair("result", if (succeeded) "succeeded" else "failed"))
+      )
+    )
+
+    for (step in this.stepsCreated) {
+      val arguments =
+        when (val resolution = step.resolution) {
+          is TaskStepResolution.TaskStepSucceeded ->
+            mapOf(Pair("result", "succeeded"))
+          is TaskStepResolution.TaskStepFailed ->
+            mapOf(Pair("result", "failed"), Pair("errorCode", resolution.errorCode))
+        }
 
-  override fun <A> finishFailure(): TaskResult.Failure<A> =
-    TaskResult.Failure(this.steps, this.attributes.toMap())
+      TaskTraces.record(
+        TaskTraceEvent(
+          name = step.description,
+          category = "step",
+          startTime = step.startTime,
+          duration = Math.max(0L, step.duration),
+          threadId = thread.id,
+          threadName = thread.name,
+          arguments = arguments
+        )
+      )
+    }
+  }
 }
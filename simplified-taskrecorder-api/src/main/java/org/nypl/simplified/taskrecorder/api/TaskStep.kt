@@ -25,4 +25,35 @@ data class TaskStep(
 ) : Serializable, PresentableType {
   override val message: String
     get() = this.resolution.message
+
+  /**
+   * The time at which the step began, in nanoseconds, as given by [System.nanoTime].
+   */
+
+  var startTime: Long = System.nanoTime()
+
+  /**
+   * The time at which the step ended, in nanoseconds, as given by [System.nanoTime], or
+   * `-1` if the step has not ended. A step ends when it is resolved, or when the next step
+   * begins, or when the task finishes.
+   */
+
+  var endTime: Long = -1L
+
+  /**
+   * The duration of the step in nanoseconds, or `-1` if the step has not ended.
+   */
+
+  val duration: Long
+    get() = if (this.endTime < 0L) -1L else this.endTime - this.startTime
+
+  /**
+   * End the step now, if it has not already ended.
+   */
+
+  fun endIfNecessary() {
+    if (this.endTime < 0L) {
+      this.endTime = System.nanoTime()
+    }
+  }
 }
@@ -0,0 +1,125 @@
+package org.nypl.simplified.taskrecorder.api
+
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.io.OutputStream
+import java.io.OutputStreamWriter
+import java.io.Writer
+
+/**
+ * An exporter that writes trace events in the Chrome trace event format. The resulting files
+ * can be opened in `chrome://tracing` or in Perfetto.
+ *
+ * @see "https://docs.google.com/document/d/1CvAClvFfyA5R-PhYUmn5OOQtYMH4h6I0nSsKchNAySU"
+ */
+
+object TaskTraceChromeExporter {
+
+  /**
+   * Write the given events to the given stream. The stream is not closed.
+   */
+
+  @Throws(IOException::class)
+  fun write(
+    events: List<TaskTraceEvent>,
+    stream: OutputStream
+  ) {
+    val writer = OutputStreamWriter(stream, Charsets.UTF_8)
+    writer.write("{\"traceEvents\":[")
+
+    val threads = mutableMapOf<Long, String>()
+    var first = true
+    for (event in events) {
+      threads[event.threadId] = event.threadName
+      if (!first) {
+        writer.write(",")
+      }
+      first = false
+      this.writeEvent(writer, event)
+    }
+
+    /*
+     * Metadata events give each thread a readable name.
+     */
+
+    for ((threadId, threadName) in threads) {
+      if (!first) {
+        writer.write(",")
+      }
+      first = false
+      writer.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":")
+      writer.write(threadId.toString())
+      writer.write(",\"args\":{\"name\":")
+      this.writeString(writer, threadName)
+      writer.write("}}")
+    }
+
+    writer.write("],\"displayTimeUnit\":\"ms\"}")
+    writer.flush()
+  }
+
+  /**
+   * Atomically write the given events to the given file.
+   */
+
+  @Throws(IOException::class)
+  fun writeFile(
+    events: List<TaskTraceEvent>,
+    file: File
+  ) {
+    val fileTmp = File(file.parentFile, "${file.name}.tmp")
+    FileOutputStream(fileTmp).use { stream -> this.write(events, stream) }
+    if (!fileTmp.renameTo(file)) {
+      throw IOException("Could not rename $fileTmp to $file")
+    }
+  }
+
+  private fun writeEvent(
+    writer: Writer,
+    event: TaskTraceEvent
+  ) {
+    writer.write("{\"name\":")
+    this.writeString(writer, event.name)
+    writer.write(",\"cat\":")
+    this.writeString(writer, event.category)
+    writer.write(",\"ph\":\"X\",\"pid\":1,\"tid\":")
+    writer.write(event.threadId.toString())
+    writer.write(",\"ts\":")
+    writer.write((event.startTime / 1000L).toString())
+    writer.write(",\"dur\":")
+    writer.write((event.duration / 1000L).toString())
+    writer.write(",\"args\":{")
+
+    var first = true
+    for ((key, value) in event.arguments) {
+      if (!first) {
+        writer.write(",")
+      }
+      first = false
+      this.writeString(writer, key)
+      writer.write(":")
+      this.writeString(writer, value)
+    }
+    writer.write("}}")
+  }
+
+  private fun writeString(
+    writer: Writer,
+    text: String
+  ) {
+    writer.write("\"")
+    for (c in text) {
+      when {
+        c == '"' -> writer.write("\\\"")
+        c == '\\' -> writer.write("\\\\")
+        c == '\n' -> writer.write("\\n")
+        c == '\r' -> writer.write("\\r")
+        c == '\t' -> writer.write("\\t")
+        c < ' ' -> writer.write(String.format("\\u%04x", c.toInt()))
+        else -> writer.write(c.toInt())
+      }
+    }
+    writer.write("\"")
+  }
+}
@@ -0,0 +1,50 @@
+package org.nypl.simplified.taskrecorder.api
+
+/**
+ * A completed span of time recorded for tracing.
+ */
+
+data class TaskTraceEvent(
+
+  /**
+   * The name of the span.
+   */
+
+  val name: String,
+
+  /**
+   * The category of the span, such as "task" or "step".
+   */
+
+  val category: String,
+
+  /**
+   * The time at which the span began, in nanoseconds, as given by [System.nanoTime].
+   */
+
+  val startTime: Long,
+
+  /**
+   * The duration of the span in nanoseconds.
+   */
+
+  val duration: Long,
+
+  /**
+   * The ID of the thread on which the span was recorded.
+   */
+
+  val threadId: Long,
+
+  /**
+   * The name of the thread on which the span was recorded.
+   */
+
+  val threadName: String,
+
+  /**
+   * Extra information about the span.
+   */
+
+  val arguments: Map<String, String> = mapOf()
+)
@@ -0,0 +1,83 @@
+package org.nypl.simplified.taskrecorder.api
+
+import java.util.ArrayDeque
+
+/**
+ * The trace events recorded by tasks.
+ *
+ * The most recent events are held in memory so that they can be exported on request; older
+ * events are discarded. Spans recorded on the same thread nest by time, so a span recorded
+ * with [span] during a task step appears nested within that step.
+ */
+
+object TaskTraces {
+
+  /**
+   * The maximum number of events that will be held.
+   */
+
+  const val MAXIMUM_EVENTS = 2048
+
+  private val eventsLock = Any()
+  private val events = ArrayDeque<TaskTraceEvent>(MAXIMUM_EVENTS)
+
+  /**
+   * Record an event.
+   */
+
+  fun record(event: TaskTraceEvent) {
+    synchronized(this.eventsLock) {
+      if (this.events.size >= MAXIMUM_EVENTS) {
+        this.events.removeFirst()
+      }
+      this.events.addLast(event)
+    }
+  }
+
+  /**
+   * @return The recorded events, oldest first
+   */
+
+  fun events(): List<TaskTraceEvent> {
+    return synchronized(this.eventsLock) {
+      this.events.toList()
+    }
+  }
+
+  /**
+   * Discard all recorded events.
+   */
+
+  fun clear() {
+    synchronized(this.eventsLock) {
+      this.events.clear()
+    }
+  }
+
+  /**
+   * Evaluate `body`, recording the time taken as a span with the given name.
+   */
+
+  inline fun <T> span(
+    name: String,
+    category: String = "span",
+    body: () -> T
+  ): T {
+    val startTime = System.nanoTime()
+    try {
+      return body()
+    } finally {
+      val thread = Thread.currentThread()
+      this.record(
+        TaskTraceEvent(
+          name = name,
+          category = category,
+          startTime = startTime,
+          duration = System.nanoTime() - startTime,
+          threadId = thread.id,
+          threadName = thread.name
+        )
+      )
+    }
+  }
+}
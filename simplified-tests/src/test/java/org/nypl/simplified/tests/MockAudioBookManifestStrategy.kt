@@ -12,6 +12,10 @@ class MockAudioBookManifestStrategy : AudioBookManifestStrategyType {
     TaskResult.fail("Failed", "Failed", "failed")
   }
 
+  var onExecuteLocal: () -> TaskResult<AudioBookManifestData> = {
+    TaskResult.fail("Failed", "Failed", "failed")
+  }
+
   var eventSubject: PublishSubject<String> =
     PublishSubject.create()
 
@@ -21,4 +25,8 @@ class MockAudioBookManifestStrategy : AudioBookManifestStrategyType {
   override fun execute(): TaskResult<AudioBookManifestData> {
     return this.onExecute.invoke()
   }
+
+  override fun executeLocal(): TaskResult<AudioBookManifestData> {
+    return this.onExecuteLocal.invoke()
+  }
 }
@@ -39,6 +39,21 @@ class MockCrashingFeedLoader : FeedLoaderType {
     return FluentFuture.from(Futures.immediateFailedFuture(IOException("Ouch!")))
   }
 
+  override fun fetchURISnapshotting(
+    account: AccountID,
+    uri: URI,
+    auth: LSHTTPAuthorizationType?
+  ): FluentFuture<FeedLoaderResult> {
+    return FluentFuture.from(Futures.immediateFailedFuture(IOException("Ouch!")))
+  }
+
+  override fun fetchURISnapshot(
+    account: AccountID,
+    uri: URI
+  ): FluentFuture<FeedLoaderResult> {
+    return FluentFuture.from(Futures.immediateFailedFuture(IOException("Ouch!")))
+  }
+
   override fun invalidate(uri: URI) {
   }
 }
@@ -0,0 +1,233 @@
+package org.nypl.simplified.tests.analytics
+
+import android.content.Context
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.joda.time.LocalDateTime
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import org.librarysimplified.http.api.LSHTTPClientConfiguration
+import org.librarysimplified.http.api.LSHTTPClientType
+import org.librarysimplified.http.api.LSHTTPResponseStatus
+import org.librarysimplified.http.vanilla.LSHTTPClients
+import org.mockito.Mockito
+import org.nypl.simplified.analytics.api.AnalyticsEventDeliveryResult
+import org.nypl.simplified.analytics.api.AnalyticsEventQueue
+import org.nypl.simplified.analytics.api.AnalyticsEventQueueConfiguration
+import org.nypl.simplified.analytics.api.AnalyticsEventQueueDropPolicy
+import org.nypl.simplified.analytics.api.AnalyticsEventQueueEntry
+import org.nypl.simplified.tests.TestDirectories
+import java.io.File
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+
+class AnalyticsEventQueueTest {
+
+  private lateinit var directory: File
+  private lateinit var executor: ScheduledExecutorService
+  private lateinit var http: LSHTTPClientType
+  private lateinit var webServer: MockWebServer
+
+  @Before
+  fun testSetup() {
+    this.directory = TestDirectories.temporaryDirectory()
+    this.executor = Executors.newSingleThreadScheduledExecutor()
+    this.webServer = MockWebServer()
+    this.webServer.start()
+    this.http =
+      LSHTTPClients()
+        .create(
+          context = Mockito.mock(Context::class.java),
+          configuration = LSHTTPClientConfiguration(
+            "simplified-tests",
+            "999.999.0"
+          )
+        )
+  }
+
+  @After
+  fun tearDown() {
+    this.executor.shutdownNow()
+    this.webServer.close()
+  }
+
+  private fun configuration(
+    maximumSize: Int = 100,
+    batchDelayMilliseconds: Long = 0L
+  ): AnalyticsEventQueueConfiguration {
+    return AnalyticsEventQueueConfiguration(
+      file = File(this.directory, "queue.txt"),
+      maximumSize = maximumSize,
+      batchDelayMilliseconds = batchDelayMilliseconds,
+      backoffInitialMilliseconds = 100L,
+      backoffMaximumMilliseconds = 1_000L,
+      compactionThreshold = 2
+    )
+  }
+
+  private fun send(entry: AnalyticsEventQueueEntry): AnalyticsEventDeliveryResult {
+    return this.http.newRequest(entry.target)
+      .build()
+      .execute()
+      .use { response ->
+        when (response.status) {
+          is LSHTTPResponseStatus.Responded.OK ->
+            AnalyticsEventDeliveryResult.DELIVERED
+          is LSHTTPResponseStatus.Responded.Error,
+          is LSHTTPResponseStatus.Failed ->
+            AnalyticsEventDeliveryResult.FAILED
+        }
+      }
+  }
+
+  private fun openQueue(
+    configuration: AnalyticsEventQueueConfiguration
+  ): AnalyticsEventQueue {
+    return AnalyticsEventQueue.open(
+      configuration = configuration,
+      executor = this.executor,
+      sender = this::send
+    )
+  }
+
+  private fun waitForEmpty(queue: AnalyticsEventQueue) {
+    val deadline = System.currentTimeMillis() + 10_000L
+    while (queue.size > 0) {
+      if (System.currentTimeMillis() > deadline) {
+        throw AssertionError("Queue still contains ${queue.size} events")
+      }
+      Thread.sleep(10L)
+    }
+  }
+
+  /**
+   * Queued events are delivered to the server.
+   */
+
+  @Test
+  fun testEventsDelivered() {
+    this.webServer.enqueue(MockResponse().setResponseCode(200))
+    this.webServer.enqueue(MockResponse().setResponseCode(200))
+
+    this.openQueue(this.configuration()).use { queue ->
+      queue.enqueue(this.webServer.url("/a").toUri(), LocalDateTime.now(), null)
+      queue.enqueue(this.webServer.url("/b").toUri(), LocalDateTime.now(), null)
+      this.waitForEmpty(queue)
+    }
+
+    assertEquals(2, this.webServer.requestCount)
+    assertEquals("/a", this.webServer.takeRequest(1L, TimeUnit.SECONDS)!!.path)
+    assertEquals("/b", this.webServer.takeRequest(1L, TimeUnit.SECONDS)!!.path)
+  }
+
+  /**
+   * Events that fail to be delivered are retried.
+   */
+
+  @Test
+  fun testEventsRetried() {
+    this.webServer.enqueue(MockResponse().setResponseCode(500))
+    this.webServer.enqueue(MockResponse().setResponseCode(503))
+    this.webServer.enqueue(MockResponse().setResponseCode(200))
+
+    this.openQueue(this.configuration()).use { queue ->
+      queue.enqueue(this.webServer.url("/a").toUri(), LocalDateTime.now(), null)
+      this.waitForEmpty(queue)
+    }
+
+    assertEquals(3, this.webServer.requestCount)
+  }
+
+  /**
+   * Events that have not been delivered survive the queue being closed and reopened.
+   */
+
+  @Test
+  fun testEventsPersisted() {
+    this.openQueue(this.configuration(batchDelayMilliseconds = 3_600_000L)).use { queue ->
+      queue.enqueue(this.webServer.url("/a").toUri(), LocalDateTime.now(), null)
+      queue.enqueue(this.webServer.url("/b").toUri(), LocalDateTime.now(), null)
+      assertEquals(2, queue.size)
+    }
+
+    assertEquals(0, this.webServer.requestCount)
+
+    this.webServer.enqueue(MockResponse().setResponseCode(200))
+    this.webServer.enqueue(MockResponse().setResponseCode(200))
+
+    this.openQueue(this.configuration()).use { queue ->
+      assertEquals(
+        listOf("/a", "/b"),
+        queue.pending().map { entry -> entry.target.path }
+      )
+      this.waitForEmpty(queue)
+    }
+
+    assertEquals(2, this.webServer.requestCount)
+
+    this.openQueue(this.configuration(batchDelayMilliseconds = 3_600_000L)).use { queue ->
+      assertEquals(0, queue.size)
+    }
+  }
+
+  /**
+   * An incomplete record at the end of the queue file is ignored.
+   */
+
+  @Test
+  fun testTruncatedRecordIgnored() {
+    this.openQueue(this.configuration(batchDelayMilliseconds = 3_600_000L)).use { queue ->
+      queue.enqueue(this.webServer.url("/a").toUri(), LocalDateTime.now(), null)
+    }
+
+    File(this.directory, "queue.txt").appendText("+ 1 2021-01-")
+
+    this.openQueue(this.configuration(batchDelayMilliseconds = 3_600_000L)).use { queue ->
+      assertEquals(1, queue.size)
+    }
+  }
+
+  /**
+   * The oldest events are dropped when the queue is full.
+   */
+
+  @Test
+  fun testDropOldest() {
+    this.openQueue(
+      this.configuration(maximumSize = 2, batchDelayMilliseconds = 3_600_000L)
+    ).use { queue ->
+      queue.enqueue(this.webServer.url("/a").toUri(), LocalDateTime.now(), null)
+      queue.enqueue(this.webServer.url("/b").toUri(), LocalDateTime.now(), null)
+      queue.enqueue(this.webServer.url("/c").toUri(), LocalDateTime.now(), null)
+
+      assertEquals(
+        listOf("/b", "/c"),
+        queue.pending().map { entry -> entry.target.path }
+      )
+    }
+  }
+
+  /**
+   * The newest events are dropped when the queue is full, if configured.
+   */
+
+  @Test
+  fun testDropNewest() {
+    this.openQueue(
+      this.configuration(maximumSize = 2, batchDelayMilliseconds = 3_600_000L)
+        .copy(dropPolicy = AnalyticsEventQueueDropPolicy.DROP_NEWEST)
+    ).use { queue ->
+      queue.enqueue(this.webServer.url("/a").toUri(), LocalDateTime.now(), null)
+      queue.enqueue(this.webServer.url("/b").toUri(), LocalDateTime.now(), null)
+      queue.enqueue(this.webServer.url("/c").toUri(), LocalDateTime.now(), null)
+
+      assertEquals(
+        listOf("/a", "/b"),
+        queue.pending().map { entry -> entry.target.path }
+      )
+    }
+  }
+}
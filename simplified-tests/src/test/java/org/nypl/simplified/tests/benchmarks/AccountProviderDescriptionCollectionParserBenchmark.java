@@ -0,0 +1,106 @@
+package org.nypl.simplified.tests.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.nypl.simplified.accounts.api.AccountProviderDescriptionCollection;
+import org.nypl.simplified.accounts.json.AccountProviderDescriptionCollectionParsers;
+import org.nypl.simplified.parser.api.ParseResult;
+import org.nypl.simplified.parser.api.ParserType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for parsing library registry responses. The registry is fetched and parsed when
+ * the list of libraries is first shown, and the production registry lists thousands of
+ * libraries.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AccountProviderDescriptionCollectionParserBenchmark
+{
+  @Param({
+    "182",
+    "2000",
+    "5000"
+  })
+  public int libraries;
+
+  private AccountProviderDescriptionCollectionParsers parsers;
+  private byte[] registry;
+
+  /**
+   * Build a synthetic registry with the given number of libraries, taken in turn from the
+   * libraries of a real registry response and given distinct IDs.
+   *
+   * @throws Exception On errors
+   */
+
+  @Setup
+  public void setup()
+    throws Exception
+  {
+    this.parsers = new AccountProviderDescriptionCollectionParsers();
+
+    final ObjectMapper mapper = new ObjectMapper();
+    final ObjectNode root =
+      (ObjectNode) mapper.readTree(TestBenchmarkResources.resource(
+        "/org/nypl/simplified/tests/books/accounts/descriptions/libraryregistry-qa.json"));
+
+    final ArrayNode catalogs = (ArrayNode) root.get("catalogs");
+    final ArrayNode synthetic = mapper.createArrayNode();
+    for (int index = 0; index < this.libraries; ++index) {
+      final ObjectNode catalog = catalogs.get(index % catalogs.size()).deepCopy();
+      final ObjectNode metadata = (ObjectNode) catalog.get("metadata");
+      metadata.put("id", "urn:uuid:" + new UUID(0L, index));
+      synthetic.add(catalog);
+    }
+
+    root.set("catalogs", synthetic);
+    this.registry = mapper.writeValueAsBytes(root);
+  }
+
+  /**
+   * Parse the registry.
+   *
+   * @return The parsed registry
+   *
+   * @throws IOException On errors
+   */
+
+  @Benchmark
+  public AccountProviderDescriptionCollection parse()
+    throws IOException
+  {
+    try (ParserType<AccountProviderDescriptionCollection> parser =
+           this.parsers.createParser(
+             URI.create("urn:fake"), new ByteArrayInputStream(this.registry), false)) {
+      final ParseResult<AccountProviderDescriptionCollection> result = parser.parse();
+      if (result instanceof ParseResult.Success) {
+        return ((ParseResult.Success<AccountProviderDescriptionCollection>) result).getResult();
+      }
+      throw new IOException("Could not parse the registry: " + result);
+    }
+  }
+}
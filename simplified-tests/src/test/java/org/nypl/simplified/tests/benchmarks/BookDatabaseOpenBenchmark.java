@@ -0,0 +1,132 @@
+package org.nypl.simplified.tests.benchmarks;
+
+import android.content.Context;
+
+import org.mockito.Mockito;
+import org.nypl.simplified.accounts.api.AccountID;
+import org.nypl.simplified.books.api.BookID;
+import org.nypl.simplified.books.book_database.BookDatabase;
+import org.nypl.simplified.books.book_database.api.BookDatabaseException;
+import org.nypl.simplified.books.book_database.api.BookDatabaseType;
+import org.nypl.simplified.files.DirectoryUtilities;
+import org.nypl.simplified.opds.core.OPDSAcquisitionFeed;
+import org.nypl.simplified.opds.core.OPDSAcquisitionFeedEntry;
+import org.nypl.simplified.opds.core.OPDSAcquisitionFeedEntryParser;
+import org.nypl.simplified.opds.core.OPDSFeedParser;
+import org.nypl.simplified.opds.core.OPDSJSONParser;
+import org.nypl.simplified.opds.core.OPDSJSONParserType;
+import org.nypl.simplified.opds.core.OPDSJSONSerializer;
+import org.nypl.simplified.opds.core.OPDSJSONSerializerType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for opening a book database. Every book database of every account of the current
+ * profile is opened when the application starts.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class BookDatabaseOpenBenchmark
+{
+  @Param({
+    "10",
+    "100",
+    "1000"
+  })
+  public int books;
+
+  private Context context;
+  private OPDSJSONParserType parser;
+  private OPDSJSONSerializerType serializer;
+  private AccountID account;
+  private File directory;
+
+  /**
+   * Populate a book database with the given number of books, taken in turn from the entries
+   * of a catalog feed.
+   *
+   * @throws Exception On errors
+   */
+
+  @Setup
+  public void setup()
+    throws Exception
+  {
+    this.context = Mockito.mock(Context.class);
+    this.parser = OPDSJSONParser.newParser();
+    this.serializer = OPDSJSONSerializer.newSerializer();
+    this.account = new AccountID(UUID.fromString("46d17029-14ba-4e34-bcaa-def02713575a"));
+    this.directory = DirectoryUtilities.directoryCreateTemporary();
+
+    final OPDSAcquisitionFeed feed =
+      OPDSFeedParser.newParser(OPDSAcquisitionFeedEntryParser.newParser())
+        .parse(
+          URI.create("http://www.example.com/feed.xml"),
+          new ByteArrayInputStream(
+            TestBenchmarkResources.opdsResource("acquisition-fiction-0.xml")));
+
+    final List<OPDSAcquisitionFeedEntry> entries = feed.getFeedEntries();
+    final BookDatabaseType database = this.open();
+    for (int index = 0; index < this.books; ++index) {
+      database.createOrUpdate(
+        BookID.create(String.format("%064x", index)),
+        entries.get(index % entries.size()));
+    }
+  }
+
+  /**
+   * Delete the book database.
+   *
+   * @throws IOException On errors
+   */
+
+  @TearDown
+  public void tearDown()
+    throws IOException
+  {
+    DirectoryUtilities.directoryDelete(this.directory);
+  }
+
+  /**
+   * Open the book database, reading the metadata of every book in it.
+   *
+   * @return The database
+   *
+   * @throws BookDatabaseException On errors
+   */
+
+  @Benchmark
+  public BookDatabaseType open()
+    throws BookDatabaseException
+  {
+    return BookDatabase.Companion.open(
+      this.context,
+      this.parser,
+      this.serializer,
+      this.account,
+      this.directory);
+  }
+}
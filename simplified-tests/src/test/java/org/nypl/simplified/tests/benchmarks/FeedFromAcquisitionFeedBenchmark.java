@@ -0,0 +1,80 @@
+package org.nypl.simplified.tests.benchmarks;
+
+import org.nypl.simplified.accounts.api.AccountID;
+import org.nypl.simplified.feeds.api.Feed;
+import org.nypl.simplified.opds.core.OPDSAcquisitionFeed;
+import org.nypl.simplified.opds.core.OPDSAcquisitionFeedEntryParser;
+import org.nypl.simplified.opds.core.OPDSFeedParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for converting parsed OPDS feeds to the feeds displayed by the catalog. Every
+ * catalog feed is converted once it has been fetched and parsed.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class FeedFromAcquisitionFeedBenchmark
+{
+  @Param({
+    "acquisition-fiction-0.xml",
+    "acquisition-groups-0.xml"
+  })
+  public String feed;
+
+  private AccountID account;
+  private OPDSAcquisitionFeed feedParsed;
+
+  /**
+   * Parse the feed ahead of time.
+   *
+   * @throws Exception On errors
+   */
+
+  @Setup
+  public void setup()
+    throws Exception
+  {
+    this.account = new AccountID(UUID.fromString("46d17029-14ba-4e34-bcaa-def02713575a"));
+    this.feedParsed =
+      OPDSFeedParser.newParser(OPDSAcquisitionFeedEntryParser.newParser())
+        .parse(
+          URI.create("http://www.example.com/feed.xml"),
+          new ByteArrayInputStream(TestBenchmarkResources.opdsResource(this.feed)));
+  }
+
+  /**
+   * Convert the parsed feed, accepting every entry.
+   *
+   * @return The converted feed
+   */
+
+  @Benchmark
+  public Feed fromAcquisitionFeed()
+  {
+    return Feed.Companion.fromAcquisitionFeed(
+      this.account,
+      this.feedParsed,
+      entry -> true,
+      null);
+  }
+}
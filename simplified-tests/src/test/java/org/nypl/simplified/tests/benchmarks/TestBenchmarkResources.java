@@ -0,0 +1,71 @@
+package org.nypl.simplified.tests.benchmarks;
+
+import com.io7m.junreachable.UnreachableCodeException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+/**
+ * Functions to load benchmark fixtures from the test suite resources.
+ */
+
+public final class TestBenchmarkResources
+{
+  private TestBenchmarkResources()
+  {
+    throw new UnreachableCodeException();
+  }
+
+  /**
+   * Load the given test suite resource.
+   *
+   * @param path The absolute resource path
+   *
+   * @return The resource data
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static byte[] resource(
+    final String path)
+    throws IOException
+  {
+    final URL url = TestBenchmarkResources.class.getResource(path);
+    if (url == null) {
+      throw new FileNotFoundException(path);
+    }
+
+    try (InputStream stream = url.openStream()) {
+      final ByteArrayOutputStream output = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[8192];
+      while (true) {
+        final int r = stream.read(buffer);
+        if (r == -1) {
+          break;
+        }
+        output.write(buffer, 0, r);
+      }
+      return output.toByteArray();
+    }
+  }
+
+  /**
+   * Load the named OPDS fixture.
+   *
+   * @param name The fixture name
+   *
+   * @return The fixture data
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static byte[] opdsResource(
+    final String name)
+    throws IOException
+  {
+    return resource("/org/nypl/simplified/tests/opds/" + name);
+  }
+}
@@ -0,0 +1,5 @@
+/**
+ * JMH benchmarks for Android library modules.
+ */
+
+package org.nypl.simplified.tests.benchmarks;
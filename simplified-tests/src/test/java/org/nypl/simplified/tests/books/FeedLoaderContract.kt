@@ -5,30 +5,50 @@ import com.google.common.util.concurrent.MoreExecutors
 import org.junit.After
 import org.junit.Assert
 import org.junit.Before
+import org.junit.Rule
 import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.librarysimplified.http.api.LSHTTPAuthorizationType
 import org.nypl.simplified.accounts.api.AccountID
 import org.nypl.simplified.feeds.api.FeedLoaderResult
 import org.nypl.simplified.feeds.api.FeedLoaderType
+import org.nypl.simplified.feeds.api.FeedSnapshots
+import org.nypl.simplified.opds.core.OPDSFeedTransportType
+import java.io.File
 import java.net.URI
 import java.util.UUID
+import java.util.concurrent.CountDownLatch
 import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
 
 abstract class FeedLoaderContract {
 
-  abstract fun createFeedLoader(exec: ListeningExecutorService): FeedLoaderType
+  abstract fun createFeedLoader(
+    exec: ListeningExecutorService,
+    snapshots: FeedSnapshots? = null,
+    snapshotExec: ListeningExecutorService? = null,
+    transport: OPDSFeedTransportType<LSHTTPAuthorizationType?>? = null
+  ): FeedLoaderType
 
   abstract fun resource(name: String): URI
 
+  @Rule
+  @JvmField
+  val tempFolder = TemporaryFolder()
+
   private lateinit var exec: ListeningExecutorService
+  private lateinit var snapshotExec: ListeningExecutorService
 
   @Before
   fun setup() {
     this.exec = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(1))
+    this.snapshotExec = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(1))
   }
 
   @After
   fun tearDown() {
     this.exec.shutdown()
+    this.snapshotExec.shutdown()
   }
 
   /**
@@ -74,4 +94,132 @@ abstract class FeedLoaderContract {
     val feed = (result as FeedLoaderResult.FeedLoaderSuccess).feed
     Assert.assertEquals(0, feed.size)
   }
+
+  /**
+   * Loading a snapshot of a feed that has never been snapshotted fails.
+   */
+
+  @Test
+  fun testSnapshotMissing() {
+    val snapshots =
+      FeedSnapshots(File(this.tempFolder.root, "snapshots"))
+    val loader =
+      this.createFeedLoader(this.exec, snapshots)
+    val result =
+      loader.fetchURISnapshot(
+        AccountID(UUID.randomUUID()),
+        resource("feed-only-buy-acquisitions.xml")
+      ).get()
+
+    Assert.assertTrue(result is FeedLoaderResult.FeedLoaderFailure)
+  }
+
+  /**
+   * A snapshot of a fetched feed can be loaded by a new feed loader.
+   */
+
+  @Test
+  fun testSnapshotSavedAndLoaded() {
+    val directory =
+      File(this.tempFolder.root, "snapshots")
+    val account =
+      AccountID(UUID.randomUUID())
+    val uri =
+      resource("feed-only-buy-acquisitions.xml")
+
+    val loader0 =
+      this.createFeedLoader(this.exec, FeedSnapshots(directory))
+    val result0 =
+      loader0.fetchURISnapshotting(account, uri, null).get()
+
+    Assert.assertTrue(result0 is FeedLoaderResult.FeedLoaderSuccess)
+    val feed0 = (result0 as FeedLoaderResult.FeedLoaderSuccess).feed
+
+    val loader1 =
+      this.createFeedLoader(this.exec, FeedSnapshots(directory))
+    val result1 =
+      loader1.fetchURISnapshot(account, uri).get()
+
+    Assert.assertTrue(result1 is FeedLoaderResult.FeedLoaderSuccess)
+    val feed1 = (result1 as FeedLoaderResult.FeedLoaderSuccess).feed
+    Assert.assertEquals(feed0.feedID, feed1.feedID)
+    Assert.assertEquals(feed0.feedTitle, feed1.feedTitle)
+    Assert.assertEquals(feed0.size, feed1.size)
+  }
+
+  /**
+   * Feeds fetched without snapshotting do not produce snapshots.
+   */
+
+  @Test
+  fun testSnapshotNotSavedByDefault() {
+    val snapshots =
+      FeedSnapshots(File(this.tempFolder.root, "snapshots"))
+    val account =
+      AccountID(UUID.randomUUID())
+    val uri =
+      resource("feed-only-buy-acquisitions.xml")
+
+    val loader =
+      this.createFeedLoader(this.exec, snapshots)
+    val result0 =
+      loader.fetchURIWithBookRegistryEntries(account, uri, null).get()
+    Assert.assertTrue(result0 is FeedLoaderResult.FeedLoaderSuccess)
+
+    val result1 =
+      loader.fetchURISnapshot(account, uri).get()
+    Assert.assertTrue(result1 is FeedLoaderResult.FeedLoaderFailure)
+  }
+
+  /**
+   * A snapshot can be loaded whilst the feed it was taken from is still being fetched.
+   */
+
+  @Test(timeout = 10_000L)
+  fun testSnapshotLoadedWhileFetchBlocked() {
+    val directory =
+      File(this.tempFolder.root, "snapshots")
+    val account =
+      AccountID(UUID.randomUUID())
+    val uri =
+      resource("feed-only-buy-acquisitions.xml")
+
+    val loader0 =
+      this.createFeedLoader(this.exec, FeedSnapshots(directory))
+    val result0 =
+      loader0.fetchURISnapshotting(account, uri, null).get()
+    Assert.assertTrue(result0 is FeedLoaderResult.FeedLoaderSuccess)
+
+    val fetchStarted = CountDownLatch(1)
+    val fetchRelease = CountDownLatch(1)
+    val transport =
+      OPDSFeedTransportType<LSHTTPAuthorizationType?> { _, target, _ ->
+        fetchStarted.countDown()
+        fetchRelease.await()
+        target.toURL().openStream()
+      }
+
+    val loader1 =
+      this.createFeedLoader(
+        exec = this.exec,
+        snapshots = FeedSnapshots(directory),
+        snapshotExec = this.snapshotExec,
+        transport = transport
+      )
+
+    val fetch =
+      loader1.fetchURISnapshotting(account, uri, null)
+    Assert.assertTrue(fetchStarted.await(5L, TimeUnit.SECONDS))
+
+    try {
+      val snapshot =
+        loader1.fetchURISnapshot(account, uri).get(5L, TimeUnit.SECONDS)
+      Assert.assertTrue(snapshot is FeedLoaderResult.FeedLoaderSuccess)
+      Assert.assertFalse(fetch.isDone)
+    } finally {
+      fetchRelease.countDown()
+    }
+
+    Assert.assertTrue(fetch.get() is FeedLoaderResult.FeedLoaderSuccess)
+  }
 }
@@ -10,6 +10,7 @@ import org.nypl.simplified.books.formats.BookFormatSupportParameters
 import org.nypl.simplified.content.api.ContentResolverType
 import org.nypl.simplified.feeds.api.FeedLoader
 import org.nypl.simplified.feeds.api.FeedLoaderType
+import org.nypl.simplified.feeds.api.FeedSnapshots
 import org.nypl.simplified.opds.core.OPDSAcquisitionFeedEntryParser
 import org.nypl.simplified.opds.core.OPDSFeedParser
 import org.nypl.simplified.opds.core.OPDSFeedTransportType
@@ -19,13 +20,18 @@ import java.net.URI
 
 class FeedLoaderTest : FeedLoaderContract() {
 
-  override fun createFeedLoader(exec: ListeningExecutorService): FeedLoaderType {
+  override fun createFeedLoader(
+    exec: ListeningExecutorService,
+    snapshots: FeedSnapshots?,
+    snapshotExec: ListeningExecutorService?,
+    transport: OPDSFeedTransportType<LSHTTPAuthorizationType?>?
+  ): FeedLoaderType {
     val entryParser =
       OPDSAcquisitionFeedEntryParser.newParser()
     val parser =
       OPDSFeedParser.newParser(entryParser)
-    val transport =
-      OPDSFeedTransportType<LSHTTPAuthorizationType?> { context, uri, method ->
+    val feedTransport =
+      transport ?: OPDSFeedTransportType<LSHTTPAuthorizationType?> { context, uri, method ->
         uri.toURL().openStream()
       }
 
@@ -55,7 +61,9 @@ class FeedLoaderTest : FeedLoaderContract() {
       exec = exec,
       parser = parser,
       searchParser = searchParser,
-      transport = transport
+      snapshotExec = snapshotExec,
+      snapshots = snapshots,
+      transport = feedTransport
     )
   }
 
@@ -25,6 +25,7 @@ abstract class AccountAuthenticationCredentialsStoreContract {
 
   private lateinit var fileTemp: File
   private lateinit var file: File
+  private lateinit var fileJournal: File
 
   @JvmField
   @Rule
@@ -36,6 +37,9 @@ abstract class AccountAuthenticationCredentialsStoreContract {
       File.createTempFile("test-simplified-auth-credentials-store", ".json")
     this.fileTemp =
       File(file.toString() + ".tmp")
+    this.fileJournal =
+      AccountAuthenticationCredentialsStore.journalFileOf(this.file)
+    this.fileJournal.delete()
 
     this.logger.debug("file:     {}", this.file)
     this.logger.debug("fileTemp: {}", this.fileTemp)
@@ -201,4 +205,138 @@ abstract class AccountAuthenticationCredentialsStoreContract {
     Assert.assertEquals(null, store.get(accountID))
     Assert.assertEquals(0, store.size())
   }
+
+  private fun credentials(password: String): AccountAuthenticationCredentials {
+    return AccountAuthenticationCredentials.Basic(
+      userName = AccountUsername("abcd"),
+      password = AccountPassword(password),
+      adobeCredentials = null,
+      authenticationDescription = null
+    )
+  }
+
+  /**
+   * Updates are appended to the journal rather than rewriting the main file.
+   */
+
+  @Test
+  fun testUpdatesAreJournaled() {
+    val store0 =
+      AccountAuthenticationCredentialsStore.open(this.file, this.fileTemp)
+
+    val mainBefore = this.file.readText()
+    val accountID = AccountID.generate()
+    store0.put(accountID, this.credentials("1234"))
+
+    Assert.assertEquals(mainBefore, this.file.readText())
+    Assert.assertTrue(this.fileJournal.isFile)
+    Assert.assertEquals(1, this.fileJournal.readLines().size)
+
+    val store1 =
+      AccountAuthenticationCredentialsStore.open(this.file, this.fileTemp)
+
+    Assert.assertEquals(this.credentials("1234"), store1.get(accountID))
+    Assert.assertFalse(this.fileJournal.exists())
+  }
+
+  /**
+   * Deletions are replayed from the journal.
+   */
+
+  @Test
+  fun testDeleteReplayed() {
+    val accountA = AccountID.generate()
+    val accountB = AccountID.generate()
+
+    val store0 =
+      AccountAuthenticationCredentialsStore.open(this.file, this.fileTemp)
+    store0.put(accountA, this.credentials("a"))
+    store0.put(accountB, this.credentials("b"))
+    store0.delete(accountA)
+
+    val store1 =
+      AccountAuthenticationCredentialsStore.open(this.file, this.fileTemp)
+
+    Assert.assertEquals(null, store1.get(accountA))
+    Assert.assertEquals(this.credentials("b"), store1.get(accountB))
+    Assert.assertEquals(1, store1.size())
+  }
+
+  /**
+   * A partially written journal entry is ignored.
+   */
+
+  @Test
+  fun testTornJournalEntryIgnored() {
+    val accountID = AccountID.generate()
+
+    val store0 =
+      AccountAuthenticationCredentialsStore.open(this.file, this.fileTemp)
+    store0.put(accountID, this.credentials("1234"))
+
+    this.fileJournal.appendText("{\"operation\":\"put\",\"acc")
+
+    val store1 =
+      AccountAuthenticationCredentialsStore.open(this.file, this.fileTemp)
+
+    Assert.assertEquals(this.credentials("1234"), store1.get(accountID))
+    Assert.assertEquals(1, store1.size())
+  }
+
+  /**
+   * The journal is compacted after many updates.
+   */
+
+  @Test
+  fun testJournalCompacted() {
+    val accountID = AccountID.generate()
+
+    val store0 =
+      AccountAuthenticationCredentialsStore.open(this.file, this.fileTemp)
+
+    val count = AccountAuthenticationCredentialsStore.COMPACT_AFTER_ENTRIES * 2 + 1
+    for (index in 0 until count) {
+      store0.put(accountID, this.credentials(index.toString()))
+    }
+
+    val journalSize =
+      if (this.fileJournal.exists()) this.fileJournal.readLines().size else 0
+    Assert.assertTrue(journalSize < AccountAuthenticationCredentialsStore.COMPACT_AFTER_ENTRIES)
+
+    val store1 =
+      AccountAuthenticationCredentialsStore.open(this.file, this.fileTemp)
+
+    Assert.assertEquals(this.credentials((count - 1).toString()), store1.get(accountID))
+  }
+
+  /**
+   * An update that triggers compaction is not journaled, and compaction leaves no journal
+   * entries behind that could undo it when the store is reopened.
+   */
+
+  @Test
+  fun testCompactingUpdateNotUndone() {
+    val accountA = AccountID.generate()
+    val accountB = AccountID.generate()
+
+    val store0 =
+      AccountAuthenticationCredentialsStore.open(this.file, this.fileTemp)
+    store0.put(accountA, this.credentials("a"))
+    for (index in 0 until AccountAuthenticationCredentialsStore.COMPACT_AFTER_ENTRIES - 2) {
+      store0.put(accountB, this.credentials(index.toString()))
+    }
+    Assert.assertEquals(
+      AccountAuthenticationCredentialsStore.COMPACT_AFTER_ENTRIES - 1,
+      this.fileJournal.readLines().size
+    )
+
+    store0.delete(accountA)
+    Assert.assertTrue(!this.fileJournal.exists() || this.fileJournal.length() == 0L)
+
+    val store1 =
+      AccountAuthenticationCredentialsStore.open(this.file, this.fileTemp)
+
+    Assert.assertEquals(null, store1.get(accountA))
+    Assert.assertEquals(1, store1.size())
+  }
 }
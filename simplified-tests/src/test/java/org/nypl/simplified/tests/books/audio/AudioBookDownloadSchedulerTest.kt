@@ -0,0 +1,193 @@
+package org.nypl.simplified.tests.books.audio
+
+import org.junit.Assert
+import org.junit.Test
+import org.nypl.simplified.books.audio.AudioBookDownloadScheduler
+
+class AudioBookDownloadSchedulerTest {
+
+  private val downloaded = HashSet<Int>()
+  private val started = ArrayList<Int>()
+  private val cancelled = ArrayList<Int>()
+
+  private fun scheduler(
+    partCount: Int,
+    maximumConcurrent: Int = 2,
+    lookahead: Int = 1
+  ): AudioBookDownloadScheduler {
+    return AudioBookDownloadScheduler(
+      partCount = partCount,
+      maximumConcurrent = maximumConcurrent,
+      lookahead = lookahead,
+      isDownloaded = { part -> this.downloaded.contains(part) },
+      start = { part -> this.started.add(part) },
+      cancel = { part -> this.cancelled.add(part) }
+    )
+  }
+
+  private fun complete(
+    scheduler: AudioBookDownloadScheduler,
+    part: Int
+  ) {
+    this.downloaded.add(part)
+    scheduler.onPartDownloaded(part)
+  }
+
+  /**
+   * Parts are downloaded starting from the playhead, wrapping around to the start of the book.
+   */
+
+  @Test
+  fun testPriorityOrder() {
+    val scheduler = this.scheduler(5)
+    scheduler.start(3)
+
+    Assert.assertEquals(listOf(3, 4, 0, 1, 2), scheduler.priorityOrder())
+    Assert.assertEquals(listOf(3, 4), this.started)
+
+    this.complete(scheduler, 3)
+    this.complete(scheduler, 4)
+    this.complete(scheduler, 0)
+    this.complete(scheduler, 1)
+    this.complete(scheduler, 2)
+
+    Assert.assertEquals(listOf(3, 4, 0, 1, 2), this.started)
+    Assert.assertEquals(setOf<Int>(), scheduler.activeParts)
+  }
+
+  /**
+   * No more than the configured number of parts are downloaded at once.
+   */
+
+  @Test
+  fun testConcurrencyLimited() {
+    val scheduler = this.scheduler(10, maximumConcurrent = 3)
+    scheduler.start(0)
+
+    Assert.assertEquals(listOf(0, 1, 2), this.started)
+    Assert.assertEquals(setOf(0, 1, 2), scheduler.activeParts)
+
+    this.complete(scheduler, 1)
+    Assert.assertEquals(listOf(0, 1, 2, 3), this.started)
+    Assert.assertEquals(setOf(0, 2, 3), scheduler.activeParts)
+  }
+
+  /**
+   * Parts that are already downloaded are not downloaded again.
+   */
+
+  @Test
+  fun testDownloadedPartsSkipped() {
+    this.downloaded.addAll(listOf(0, 1, 3))
+
+    val scheduler = this.scheduler(5)
+    scheduler.start(0)
+
+    Assert.assertEquals(listOf(2, 4), this.started)
+  }
+
+  /**
+   * Seeking to a part that is not downloaded cancels the least urgent download to make room.
+   */
+
+  @Test
+  fun testSeekCancelsLeastUrgent() {
+    val scheduler = this.scheduler(10, maximumConcurrent = 2, lookahead = 1)
+    scheduler.start(0)
+    Assert.assertEquals(listOf(0, 1), this.started)
+
+    scheduler.onCurrentPartChanged(6)
+
+    Assert.assertEquals(listOf(1), this.cancelled)
+    Assert.assertEquals(listOf(0, 1, 6), this.started)
+    Assert.assertEquals(setOf(0, 6), scheduler.activeParts)
+
+    this.complete(scheduler, 6)
+    Assert.assertEquals(listOf(0, 1, 6, 7), this.started)
+  }
+
+  /**
+   * Moving to the next part does not cancel downloads within the lookahead window.
+   */
+
+  @Test
+  fun testAdvanceKeepsLookahead() {
+    val scheduler = this.scheduler(10, maximumConcurrent = 2, lookahead = 1)
+    scheduler.start(0)
+    this.complete(scheduler, 0)
+    Assert.assertEquals(listOf(0, 1, 2), this.started)
+
+    scheduler.onCurrentPartChanged(1)
+    scheduler.onCurrentPartChanged(1)
+
+    Assert.assertEquals(listOf<Int>(), this.cancelled)
+    Assert.assertEquals(setOf(1, 2), scheduler.activeParts)
+  }
+
+  /**
+   * Failed parts are not retried until they become the current part.
+   */
+
+  @Test
+  fun testFailedPartsSkipped() {
+    val scheduler = this.scheduler(4, maximumConcurrent = 1)
+    scheduler.start(0)
+    scheduler.onPartFailed(0)
+
+    Assert.assertEquals(listOf(0, 1), this.started)
+
+    this.complete(scheduler, 1)
+    this.complete(scheduler, 2)
+    this.complete(scheduler, 3)
+    Assert.assertEquals(listOf(0, 1, 2, 3), this.started)
+    Assert.assertEquals(setOf<Int>(), scheduler.activeParts)
+
+    scheduler.onCurrentPartChanged(3)
+    scheduler.onCurrentPartChanged(0)
+    Assert.assertEquals(listOf(0, 1, 2, 3, 0), this.started)
+  }
+
+  /**
+   * Parts that fail to start are treated as failed.
+   */
+
+  @Test
+  fun testStartFailure() {
+    val scheduler =
+      AudioBookDownloadScheduler(
+        partCount = 3,
+        maximumConcurrent = 1,
+        lookahead = 1,
+        isDownloaded = { false },
+        start = { part ->
+          this.started.add(part)
+          if (part == 0) {
+            throw IllegalStateException("Failed")
+          }
+        },
+        cancel = { part -> this.cancelled.add(part) }
+      )
+
+    scheduler.start(0)
+    Assert.assertEquals(listOf(0, 1), this.started)
+    Assert.assertEquals(setOf(1), scheduler.activeParts)
+  }
+
+  /**
+   * Stopping the scheduler cancels active downloads and starts no more.
+   */
+
+  @Test
+  fun testStopCancels() {
+    val scheduler = this.scheduler(5)
+    scheduler.start(0)
+    scheduler.stop()
+
+    Assert.assertEquals(listOf(0, 1), this.cancelled)
+    Assert.assertEquals(setOf<Int>(), scheduler.activeParts)
+
+    scheduler.onCurrentPartChanged(3)
+    scheduler.onPartDownloaded(0)
+    Assert.assertEquals(listOf(0, 1), this.started)
+  }
+}
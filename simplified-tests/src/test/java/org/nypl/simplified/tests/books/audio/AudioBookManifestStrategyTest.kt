@@ -329,6 +329,90 @@ class AudioBookManifestStrategyTest {
     Assert.assertEquals(AudioBookSucceedingParsers.playerManifest, success.result.manifest)
   }
 
+  @Test
+  fun testLocalLoadDoesNotUseNetwork() {
+    val strategy =
+      AudioBookManifestStrategy(
+        AudioBookManifestRequest(
+          targetURI = URI.create("http://www.example.com"),
+          contentType = BookFormats.audioBookGenericMimeTypes().first(),
+          userAgent = PlayerUserAgent("test"),
+          credentials = null,
+          loadFallbackData = {
+            ManifestFulfilled(
+              BookFormats.audioBookGenericMimeTypes().first(),
+              ByteArray(23)
+            )
+          },
+          services = this.services,
+          manifestParsers = AudioBookSucceedingParsers,
+          isNetworkAvailable = { true },
+          strategyRegistry = this.strategies,
+          licenseChecks = listOf(),
+          cacheDirectory = tempFolder.newFolder("cache")
+        )
+      )
+
+    val success = strategy.executeLocal() as TaskResult.Success
+    Assert.assertEquals(AudioBookSucceedingParsers.playerManifest, success.result.manifest)
+    Mockito.verifyZeroInteractions(this.strategies)
+  }
+
+  @Test
+  fun testLocalLoadLicenseCheckFails() {
+    val strategy =
+      AudioBookManifestStrategy(
+        AudioBookManifestRequest(
+          targetURI = URI.create("http://www.example.com"),
+          contentType = BookFormats.audioBookGenericMimeTypes().first(),
+          userAgent = PlayerUserAgent("test"),
+          credentials = null,
+          loadFallbackData = {
+            ManifestFulfilled(
+              BookFormats.audioBookGenericMimeTypes().first(),
+              ByteArray(23)
+            )
+          },
+          services = this.services,
+          manifestParsers = AudioBookSucceedingParsers,
+          isNetworkAvailable = { true },
+          strategyRegistry = this.strategies,
+          extensions = emptyList(),
+          licenseChecks = listOf(AudioBookFailingLicenseChecks),
+          cacheDirectory = tempFolder.newFolder("cache")
+        )
+      )
+
+    val failure = strategy.executeLocal() as TaskResult.Failure
+    Assert.assertTrue(
+      failure.resolutionOf(2).message.startsWith("One or more license checks failed")
+    )
+    Mockito.verifyZeroInteractions(this.strategies)
+  }
+
+  @Test
+  fun testLocalLoadMissingFails() {
+    val strategy =
+      AudioBookManifestStrategy(
+        AudioBookManifestRequest(
+          targetURI = URI.create("http://www.example.com"),
+          contentType = BookFormats.audioBookGenericMimeTypes().first(),
+          userAgent = PlayerUserAgent("test"),
+          credentials = null,
+          services = this.services,
+          isNetworkAvailable = { true },
+          strategyRegistry = this.strategies,
+          cacheDirectory = tempFolder.newFolder("cache")
+        )
+      )
+
+    val failure = strategy.executeLocal() as TaskResult.Failure
+    Assert.assertEquals(
+      "No fallback manifest data is provided",
+      failure.resolutionOf(0).message
+    )
+  }
+
   /**
    * Some magic needed to mock calls via Kotlin.
    *
@@ -109,6 +109,60 @@ abstract class BookDatabaseContract {
     Assert.assertEquals(database1.entry(id2).book.id.value(), entry2.id)
   }
 
+  /**
+   * The set of books is a snapshot that does not change when the database does.
+   */
+
+  @Test
+  fun testBooksSnapshot() {
+    val parser = OPDSJSONParser.newParser()
+    val serializer = OPDSJSONSerializer.newSerializer()
+
+    val directory = DirectoryUtilities.directoryCreateTemporary()
+    val db0 =
+      org.nypl.simplified.books.book_database.BookDatabase.open(context(), parser, serializer, accountID, directory)
+
+    val entry0 =
+      OPDSAcquisitionFeedEntry.newBuilder(
+        "a",
+        "Title",
+        DateTime.now(),
+        OPDSAvailabilityOpenAccess.get(Option.none<URI>())
+      )
+        .build()
+
+    val entry1 =
+      OPDSAcquisitionFeedEntry.newBuilder(
+        "b",
+        "Title",
+        DateTime.now(),
+        OPDSAvailabilityOpenAccess.get(Option.none<URI>())
+      )
+        .build()
+
+    val id0 = org.nypl.simplified.books.api.BookID.create("a")
+    val dbEntry0 = db0.createOrUpdate(id0, entry0)
+    val books0 = db0.books()
+
+    val id1 = org.nypl.simplified.books.api.BookID.create("b")
+    db0.createOrUpdate(id1, entry1)
+    val books1 = db0.books()
+
+    dbEntry0.delete()
+    val books2 = db0.books()
+
+    Assert.assertEquals(listOf(id0), books0.toList())
+    Assert.assertEquals(listOf(id0, id1), books1.toList())
+    Assert.assertEquals(listOf(id1), books2.toList())
+
+    try {
+      books2.add(id0)
+      Assert.fail()
+    } catch (e: UnsupportedOperationException) {
+      // Expected
+    }
+  }
+
   /**
    * Creating and deleting a database entry works.
    */
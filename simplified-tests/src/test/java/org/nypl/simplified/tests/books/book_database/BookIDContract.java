@@ -14,6 +14,8 @@ import org.nypl.simplified.books.api.BookIDs;
 import org.nypl.simplified.opds.core.OPDSAcquisitionFeedEntry;
 import org.nypl.simplified.opds.core.OPDSAcquisitionFeedEntryBuilderType;
 import org.nypl.simplified.opds.core.OPDSAvailabilityOpenAccess;
+import org.nypl.simplified.opds.core.OPDSBookIDDeriver;
+import org.nypl.simplified.opds.core.OPDSBookIDDeriverType;
 
 import java.net.URI;
 
@@ -74,4 +76,48 @@ public abstract class BookIDContract
       "abcdefghijklmnopqrstuvwxyz1234567890",
       BookID.create("abcdefghijklmnopqrstuvwxyz1234567890").value());
   }
+
+  @Test public void testBookIDDerivedMatchesUncached()
+  {
+    final OPDSBookIDDeriverType deriver = OPDSBookIDDeriver.create(2);
+    final String text =
+      "http://circulation.alpha.librarysimplified.org/loans/Gutenberg/18405";
+
+    final String hash = OPDSBookIDDeriver.hashOf(text);
+    Assert.assertEquals(hash, deriver.deriveBookID(text));
+    Assert.assertEquals(hash, deriver.deriveBookID(text));
+    Assert.assertEquals(hash, BookIDs.newFromText(deriver, text).value());
+    Assert.assertEquals(BookIDs.newFromText(text), BookIDs.newFromText(deriver, text));
+  }
+
+  @Test public void testBookIDDerivedEviction()
+  {
+    final OPDSBookIDDeriverType deriver = OPDSBookIDDeriver.create(1);
+    final String id0 = deriver.deriveBookID("a");
+    final String id1 = deriver.deriveBookID("b");
+    Assert.assertEquals(id0, deriver.deriveBookID("a"));
+    Assert.assertEquals(id1, deriver.deriveBookID("b"));
+    Assert.assertNotEquals(id0, id1);
+  }
+
+  @Test public void testBookIDHex()
+  {
+    Assert.assertEquals("", OPDSBookIDDeriver.hexOf(new byte[0]));
+    Assert.assertEquals(
+      "00017f80ff",
+      OPDSBookIDDeriver.hexOf(new byte[]{0x00, 0x01, 0x7f, (byte) 0x80, (byte) 0xff}));
+  }
+
+  @Test public void testBookIDCustomDeriver()
+  {
+    final OPDSBookIDDeriverType deriver = text -> "abcd";
+    Assert.assertEquals("abcd", BookIDs.newFromText(deriver, "x").value());
+  }
+
+  @Test public void testBookIDCustomDeriverInvalid()
+  {
+    final OPDSBookIDDeriverType deriver = text -> "_";
+    this.expected.expect(IllegalArgumentException.class);
+    BookIDs.newFromText(deriver, "x");
+  }
 }
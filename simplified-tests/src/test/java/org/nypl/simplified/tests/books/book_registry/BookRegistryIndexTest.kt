@@ -0,0 +1,173 @@
+package org.nypl.simplified.tests.books.book_registry
+
+import org.joda.time.DateTime
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Before
+import org.junit.Test
+import org.nypl.simplified.accounts.api.AccountID
+import org.nypl.simplified.books.api.Book
+import org.nypl.simplified.books.api.BookID
+import org.nypl.simplified.books.book_registry.BookRegistry
+import org.nypl.simplified.books.book_registry.BookRegistryIndex
+import org.nypl.simplified.books.book_registry.BookRegistryIndex.Ordering.ORDER_BY_AUTHOR
+import org.nypl.simplified.books.book_registry.BookRegistryIndex.Ordering.ORDER_BY_TITLE
+import org.nypl.simplified.books.book_registry.BookRegistryType
+import org.nypl.simplified.books.book_registry.BookStatus
+import org.nypl.simplified.books.book_registry.BookWithStatus
+import org.nypl.simplified.opds.core.OPDSAcquisitionFeedEntry
+import org.nypl.simplified.opds.core.OPDSAvailabilityLoanable
+
+class BookRegistryIndexTest {
+
+  private lateinit var account: AccountID
+  private lateinit var bookRegistry: BookRegistryType
+  private lateinit var index: BookRegistryIndex
+
+  @Before
+  fun testSetup() {
+    this.account = AccountID.generate()
+    this.bookRegistry = BookRegistry.create()
+    this.index = BookRegistryIndex.create(this.bookRegistry)
+  }
+
+  @After
+  fun tearDown() {
+    this.index.close()
+  }
+
+  private fun bookOf(
+    id: String,
+    title: String,
+    authors: List<String>
+  ): BookWithStatus {
+    val entryBuilder =
+      OPDSAcquisitionFeedEntry.newBuilder(
+        id,
+        title,
+        DateTime.now(),
+        OPDSAvailabilityLoanable.get()
+      )
+    for (author in authors) {
+      entryBuilder.addAuthor(author)
+    }
+
+    val bookID = BookID.create(id)
+    return BookWithStatus(
+      book = Book(
+        id = bookID,
+        account = this.account,
+        cover = null,
+        thumbnail = null,
+        entry = entryBuilder.build(),
+        formats = listOf()
+      ),
+      status = BookStatus.Loanable(bookID)
+    )
+  }
+
+  private fun idsOf(books: List<BookWithStatus>): List<String> {
+    return books.map { book -> book.book.id.value() }
+  }
+
+  /**
+   * Books present in the registry before the index is created are indexed.
+   */
+
+  @Test
+  fun testExistingBooksIndexed() {
+    this.index.close()
+    this.bookRegistry.update(this.bookOf("a", "Moby Dick", listOf("Herman Melville")))
+    this.index = BookRegistryIndex.create(this.bookRegistry)
+
+    assertEquals(1, this.index.size)
+    assertEquals(setOf(BookID.create("a")), this.index.search("dick"))
+  }
+
+  /**
+   * Books are returned in title and author order.
+   */
+
+  @Test
+  fun testOrdering() {
+    this.bookRegistry.update(this.bookOf("a", "Moby Dick", listOf("Herman Melville")))
+    this.bookRegistry.update(this.bookOf("b", "Emma", listOf("Jane Austen")))
+    this.bookRegistry.update(this.bookOf("c", "Anonymous", listOf()))
+
+    assertEquals(
+      listOf("c", "b", "a"),
+      this.idsOf(this.index.books(ORDER_BY_TITLE, null) { true })
+    )
+    assertEquals(
+      listOf("a", "b", "c"),
+      this.idsOf(this.index.books(ORDER_BY_AUTHOR, null) { true })
+    )
+  }
+
+  /**
+   * Searching matches substrings of titles and authors, case-insensitively, and any term
+   * may match.
+   */
+
+  @Test
+  fun testSearch() {
+    this.bookRegistry.update(this.bookOf("a", "Moby Dick", listOf("Herman Melville")))
+    this.bookRegistry.update(this.bookOf("b", "Emma", listOf("Jane Austen")))
+    this.bookRegistry.update(this.bookOf("c", "Persuasion", listOf("Jane Austen")))
+
+    assertEquals(setOf(BookID.create("a")), this.index.search("OBY"))
+    assertEquals(setOf(BookID.create("a")), this.index.search("melv"))
+    assertEquals(setOf(BookID.create("b"), BookID.create("c")), this.index.search("austen"))
+    assertEquals(setOf(BookID.create("a"), BookID.create("b")), this.index.search("emma dick"))
+    assertEquals(setOf<BookID>(), this.index.search("tolstoy"))
+    assertNull(this.index.search(""))
+    assertNull(this.index.search(" emma"))
+
+    assertEquals(
+      listOf("b", "c"),
+      this.idsOf(this.index.books(ORDER_BY_TITLE, this.index.search("austen")) { true })
+    )
+  }
+
+  /**
+   * Changes and removals in the registry are reflected in the index.
+   */
+
+  @Test
+  fun testUpdatesAndRemovals() {
+    this.bookRegistry.update(this.bookOf("a", "Moby Dick", listOf("Herman Melville")))
+    this.bookRegistry.update(this.bookOf("b", "Emma", listOf("Jane Austen")))
+
+    this.bookRegistry.update(this.bookOf("a", "Typee", listOf("Herman Melville")))
+    assertEquals(setOf<BookID>(), this.index.search("dick"))
+    assertEquals(setOf(BookID.create("a")), this.index.search("typee"))
+    assertEquals(
+      listOf("b", "a"),
+      this.idsOf(this.index.books(ORDER_BY_TITLE, null) { true })
+    )
+
+    this.bookRegistry.clearFor(BookID.create("a"))
+    assertEquals(1, this.index.size)
+    assertEquals(setOf<BookID>(), this.index.search("typee"))
+
+    this.bookRegistry.clear()
+    assertEquals(0, this.index.size)
+  }
+
+  /**
+   * Status changes are visible to filters.
+   */
+
+  @Test
+  fun testFilterSeesCurrentStatus() {
+    val book = this.bookOf("a", "Moby Dick", listOf("Herman Melville"))
+    this.bookRegistry.update(book)
+    this.bookRegistry.update(book.copy(status = BookStatus.Holdable(book.book.id)))
+
+    assertEquals(
+      listOf("a"),
+      this.idsOf(this.index.books(ORDER_BY_TITLE, null) { it.status is BookStatus.Holdable })
+    )
+  }
+}
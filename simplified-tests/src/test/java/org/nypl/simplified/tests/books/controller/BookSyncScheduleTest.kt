@@ -0,0 +1,171 @@
+package org.nypl.simplified.tests.books.controller
+
+import com.google.common.util.concurrent.FluentFuture
+import com.google.common.util.concurrent.Futures
+import org.joda.time.Duration
+import org.joda.time.Instant
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.nypl.simplified.accounts.api.AccountID
+import org.nypl.simplified.accounts.database.api.AccountType
+import org.nypl.simplified.books.controller.BookSyncSchedule
+import org.nypl.simplified.books.controller.BookSyncScheduler
+import org.nypl.simplified.tests.MockAccount
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+
+class BookSyncScheduleTest {
+
+  private var now = Instant.parse("2020-01-01T00:00:00Z")
+  private lateinit var schedule: BookSyncSchedule
+  private lateinit var executor: ScheduledExecutorService
+
+  @Before
+  fun testSetup() {
+    this.schedule =
+      BookSyncSchedule(
+        clock = { this.now },
+        freshPeriod = Duration.standardMinutes(15L),
+        backoffInitial = Duration.standardMinutes(1L),
+        backoffMaximum = Duration.standardMinutes(10L),
+        providerValidPeriod = Duration.standardHours(1L)
+      )
+    this.executor = Executors.newSingleThreadScheduledExecutor()
+  }
+
+  @After
+  fun testTearDown() {
+    this.executor.shutdown()
+  }
+
+  private fun advance(duration: Duration) {
+    this.now = this.now.plus(duration)
+  }
+
+  /**
+   * Accounts that have never been synced are due.
+   */
+
+  @Test
+  fun testNeverSyncedIsDue() {
+    assertTrue(this.schedule.isDue(AccountID.generate()))
+  }
+
+  /**
+   * Accounts are not due while syncing, nor while fresh.
+   */
+
+  @Test
+  fun testFreshIsNotDue() {
+    val account = AccountID.generate()
+    this.schedule.syncStarted(account)
+    assertFalse(this.schedule.isDue(account))
+
+    this.schedule.syncSucceeded(account)
+    assertFalse(this.schedule.isDue(account))
+
+    this.advance(Duration.standardMinutes(14L))
+    assertFalse(this.schedule.isDue(account))
+
+    this.advance(Duration.standardMinutes(1L))
+    assertTrue(this.schedule.isDue(account))
+  }
+
+  /**
+   * Failures back off exponentially up to the maximum, and success resets the backoff.
+   */
+
+  @Test
+  fun testFailuresBackOff() {
+    val account = AccountID.generate()
+
+    assertEquals(Duration.standardMinutes(1L), this.schedule.syncFailed(account))
+    assertEquals(Duration.standardMinutes(2L), this.schedule.syncFailed(account))
+    assertEquals(Duration.standardMinutes(4L), this.schedule.syncFailed(account))
+    assertEquals(Duration.standardMinutes(8L), this.schedule.syncFailed(account))
+    assertEquals(Duration.standardMinutes(10L), this.schedule.syncFailed(account))
+    assertEquals(Duration.standardMinutes(10L), this.schedule.syncFailed(account))
+
+    this.advance(Duration.standardMinutes(9L))
+    assertFalse(this.schedule.isDue(account))
+    this.advance(Duration.standardMinutes(1L))
+    assertTrue(this.schedule.isDue(account))
+
+    this.schedule.syncSucceeded(account)
+    this.advance(Duration.standardMinutes(15L))
+    assertEquals(Duration.standardMinutes(1L), this.schedule.syncFailed(account))
+  }
+
+  /**
+   * Resolved providers remain valid for a fixed period.
+   */
+
+  @Test
+  fun testProviderValidity() {
+    val account = AccountID.generate()
+    assertFalse(this.schedule.isProviderValid(account))
+
+    this.schedule.providerResolved(account)
+    assertTrue(this.schedule.isProviderValid(account))
+
+    this.advance(Duration.standardHours(1L))
+    assertFalse(this.schedule.isProviderValid(account))
+  }
+
+  /**
+   * Forgetting an account discards its backoff and its resolved provider.
+   */
+
+  @Test
+  fun testForget() {
+    val account = AccountID.generate()
+    this.schedule.syncFailed(account)
+    this.schedule.providerResolved(account)
+    assertFalse(this.schedule.isDue(account))
+    assertTrue(this.schedule.isProviderValid(account))
+
+    this.schedule.forget(account)
+    assertTrue(this.schedule.isDue(account))
+    assertFalse(this.schedule.isProviderValid(account))
+  }
+
+  /**
+   * The scheduler syncs only the accounts that are due.
+   */
+
+  @Test(timeout = 10_000L)
+  fun testSchedulerSyncsDueAccounts() {
+    val account0 = MockAccount(AccountID.generate())
+    val account1 = MockAccount(AccountID.generate())
+    val account2 = MockAccount(AccountID.generate())
+
+    this.schedule.syncSucceeded(account1.id)
+    this.schedule.syncFailed(account2.id)
+
+    val synced = mutableListOf<AccountID>()
+    val latch = CountDownLatch(1)
+    val scheduler =
+      BookSyncScheduler(
+        schedule = this.schedule,
+        executor = this.executor,
+        accounts = { listOf<AccountType>(account0, account1, account2) },
+        sync = { account ->
+          synchronized(synced) { synced.add(account.id) }
+          latch.countDown()
+          FluentFuture.from(Futures.immediateFuture(Unit))
+        },
+        stagger = Duration.millis(1L)
+      )
+
+    assertEquals(listOf(account0.id), scheduler.check())
+    latch.await(5L, TimeUnit.SECONDS)
+    assertEquals(listOf(account0.id), synchronized(synced) { synced.toList() })
+    scheduler.close()
+  }
+}
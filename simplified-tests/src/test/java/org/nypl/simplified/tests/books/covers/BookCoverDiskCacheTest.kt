@@ -0,0 +1,83 @@
+package org.nypl.simplified.tests.books.covers
+
+import org.junit.Assert
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.nypl.simplified.books.covers.BookCoverDiskCache
+import java.io.File
+
+class BookCoverDiskCacheTest {
+
+  @Rule
+  @JvmField
+  val tempFolder = TemporaryFolder()
+
+  private fun directory(): File =
+    File(this.tempFolder.root, "covers")
+
+  @Test
+  fun testKeysAreStable() {
+    val key0 = BookCoverDiskCache.keyOf("generated-cover://localhost/?title=A", 100, 0)
+    val key1 = BookCoverDiskCache.keyOf("generated-cover://localhost/?title=A", 100, 0)
+    val key2 = BookCoverDiskCache.keyOf("generated-cover://localhost/?title=A", 10, "0")
+    val key3 = BookCoverDiskCache.keyOf("generated-cover://localhost/?title=A", 1, "00")
+
+    Assert.assertEquals(key0, key1)
+    Assert.assertNotEquals(key0, key2)
+    Assert.assertNotEquals(key2, key3)
+    Assert.assertEquals(64, key0.length)
+    Assert.assertTrue(key0.all { c -> c in '0'..'9' || c in 'a'..'f' })
+  }
+
+  @Test
+  fun testMissing() {
+    val cache = BookCoverDiskCache(this.directory(), 1024L)
+    Assert.assertNull(cache.get(BookCoverDiskCache.keyOf("x")))
+    Assert.assertEquals(0L, cache.size())
+  }
+
+  @Test
+  fun testPutGet() {
+    val key = BookCoverDiskCache.keyOf("x")
+    val cache = BookCoverDiskCache(this.directory(), 1024L)
+    cache.put(key, byteArrayOf(1, 2, 3))
+
+    Assert.assertArrayEquals(byteArrayOf(1, 2, 3), cache.get(key))
+    Assert.assertEquals(3L, cache.size())
+
+    cache.put(key, byteArrayOf(4, 5))
+    Assert.assertArrayEquals(byteArrayOf(4, 5), cache.get(key))
+    Assert.assertEquals(2L, cache.size())
+  }
+
+  @Test
+  fun testPersistent() {
+    val key = BookCoverDiskCache.keyOf("x")
+    BookCoverDiskCache(this.directory(), 1024L).put(key, byteArrayOf(1, 2, 3))
+
+    val cache = BookCoverDiskCache(this.directory(), 1024L)
+    Assert.assertArrayEquals(byteArrayOf(1, 2, 3), cache.get(key))
+    Assert.assertEquals(3L, cache.size())
+  }
+
+  @Test
+  fun testLeastRecentlyUsedEvicted() {
+    val keyA = BookCoverDiskCache.keyOf("a")
+    val keyB = BookCoverDiskCache.keyOf("b")
+    val keyC = BookCoverDiskCache.keyOf("c")
+    val cache = BookCoverDiskCache(this.directory(), 200L)
+
+    cache.put(keyA, ByteArray(100))
+    cache.put(keyB, ByteArray(100))
+    File(this.directory(), keyA).setLastModified(1000L)
+    File(this.directory(), keyB).setLastModified(2000L)
+
+    cache.put(keyC, ByteArray(100))
+
+    Assert.assertNull(cache.get(keyA))
+    Assert.assertNotNull(cache.get(keyB))
+    Assert.assertNotNull(cache.get(keyC))
+    Assert.assertEquals(200L, cache.size())
+  }
+}
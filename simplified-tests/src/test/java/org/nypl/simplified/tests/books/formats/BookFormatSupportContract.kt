@@ -336,4 +336,39 @@ abstract class BookFormatSupportContract {
       )
     )
   }
+
+  /**
+   * Repeated queries for equal paths return the same decisions.
+   */
+
+  @Test
+  fun testDecisionsRemembered() {
+    val support =
+      BookFormatSupport.create(
+        BookFormatSupportParameters(
+          supportsPDF = false,
+          supportsAdobeDRM = true,
+          supportsAudioBooks = null
+        )
+      )
+
+    for (i in 0 until 3) {
+      Assert.assertTrue(
+        support.isSupportedPath(
+          mutableListOf(
+            StandardFormatNames.adobeACSMFiles,
+            StandardFormatNames.genericEPUBFiles
+          )
+        )
+      )
+      Assert.assertFalse(
+        support.isSupportedPath(
+          mutableListOf(
+            StandardFormatNames.adobeACSMFiles,
+            StandardFormatNames.genericPDFFiles
+          )
+        )
+      )
+    }
+  }
 }
@@ -3,6 +3,7 @@ package org.nypl.simplified.tests.books.profiles
 import android.content.Context
 import com.io7m.jfunctional.Option
 import io.reactivex.subjects.PublishSubject
+import io.reactivex.subjects.Subject
 import org.hamcrest.BaseMatcher
 import org.hamcrest.Description
 import org.hamcrest.core.StringContains
@@ -13,17 +14,23 @@ import org.junit.Rule
 import org.junit.Test
 import org.junit.rules.ExpectedException
 import org.mockito.Mockito
+import org.nypl.simplified.accounts.api.AccountAuthenticationCredentialsStoreType
 import org.nypl.simplified.accounts.api.AccountEvent
 import org.nypl.simplified.accounts.database.AccountBundledCredentialsEmpty
 import org.nypl.simplified.accounts.database.api.AccountsDatabaseFactoryType
 import org.nypl.simplified.accounts.database.api.AccountsDatabaseLastAccountException
 import org.nypl.simplified.accounts.database.api.AccountsDatabaseNonexistentException
+import org.nypl.simplified.accounts.database.api.AccountsDatabaseOpenException
+import org.nypl.simplified.accounts.database.api.AccountsDatabaseType
+import org.nypl.simplified.accounts.registry.api.AccountProviderRegistryType
 import org.nypl.simplified.analytics.api.AnalyticsType
+import org.nypl.simplified.books.book_database.api.BookDatabaseFactoryType
 import org.nypl.simplified.files.DirectoryUtilities
 import org.nypl.simplified.files.FileUtilities
 import org.nypl.simplified.profiles.ProfilesDatabases
 import org.nypl.simplified.profiles.api.ProfileAnonymousDisabledException
 import org.nypl.simplified.profiles.api.ProfileCreateDuplicateException
+import org.nypl.simplified.profiles.api.ProfileDatabaseAccountsException
 import org.nypl.simplified.profiles.api.ProfileDatabaseDeleteAnonymousException
 import org.nypl.simplified.profiles.api.ProfileDatabaseException
 import org.nypl.simplified.profiles.api.ProfileDateOfBirth
@@ -39,7 +46,10 @@ import org.slf4j.LoggerFactory
 import java.io.File
 import java.io.IOException
 import java.net.URI
+import java.util.Collections
 import java.util.UUID
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
 
 abstract class ProfilesDatabaseContract {
 
@@ -97,6 +107,84 @@ abstract class ProfilesDatabaseContract {
     }
   }
 
+  /**
+   * An accounts database factory that records the profile of each database that it opens,
+   * and that fails to open the databases of the given profiles.
+   */
+
+  private class CountingAccountsDatabases(
+    private val failing: Set<ProfileID> = setOf()
+  ) : AccountsDatabaseFactoryType {
+
+    val opened: MutableList<ProfileID> =
+      Collections.synchronizedList(mutableListOf())
+
+    private fun profileOf(directory: File): ProfileID =
+      ProfileID(UUID.fromString(directory.parentFile.name))
+
+    override fun openDatabase(
+      accountAuthenticationCredentialsStore: AccountAuthenticationCredentialsStoreType,
+      accountEvents: Subject<AccountEvent>,
+      accountProviders: AccountProviderRegistryType,
+      bookDatabases: BookDatabaseFactoryType,
+      context: Context,
+      directory: File
+    ): AccountsDatabaseType {
+      val profile = this.profileOf(directory)
+      this.opened.add(profile)
+      if (this.failing.contains(profile)) {
+        throw AccountsDatabaseOpenException("Failed to open $profile", listOf())
+      }
+      return org.nypl.simplified.accounts.database.AccountsDatabases.openDatabase(
+        accountAuthenticationCredentialsStore,
+        accountEvents,
+        accountProviders,
+        bookDatabases,
+        context,
+        directory
+      )
+    }
+
+    override fun openDatabase(
+      accountAuthenticationCredentialsStore: AccountAuthenticationCredentialsStoreType,
+      accountEvents: Subject<AccountEvent>,
+      accountProviders: AccountProviderRegistryType,
+      context: Context,
+      directory: File
+    ): AccountsDatabaseType {
+      val profile = this.profileOf(directory)
+      this.opened.add(profile)
+      if (this.failing.contains(profile)) {
+        throw AccountsDatabaseOpenException("Failed to open $profile", listOf())
+      }
+      return org.nypl.simplified.accounts.database.AccountsDatabases.openDatabase(
+        accountAuthenticationCredentialsStore,
+        accountEvents,
+        accountProviders,
+        context,
+        directory
+      )
+    }
+  }
+
+  /**
+   * An executor that runs nothing until asked.
+   */
+
+  private class QueuedExecutor : Executor {
+    private val queued = mutableListOf<Runnable>()
+
+    override fun execute(command: Runnable) {
+      this.queued.add(command)
+    }
+
+    fun runAll() {
+      val commands = this.queued.toList()
+      this.queued.clear()
+      commands.forEach(Runnable::run)
+    }
+  }
+
   private fun onAccountResolution(
     id: URI,
     message: String
@@ -408,6 +496,221 @@ abstract class ProfilesDatabaseContract {
     Assert.assertEquals(p2.id, pr2.id)
   }
 
+  /**
+   * Reopening a database with deferred account opening yields the same profiles and accounts.
+   */
+
+  @Test
+  @Throws(Exception::class)
+  fun testOpenCreateReopenDeferred() {
+    val fileTemp = DirectoryUtilities.directoryCreateTemporary()
+    val fileProfiles = File(fileTemp, "profiles")
+
+    val accountProviders =
+      MockAccountProviders.fakeAccountProviders()
+
+    val db0 = ProfilesDatabases.openWithAnonymousProfileDisabled(
+      this.context(),
+      this.analytics,
+      this.accountEvents,
+      accountProviders,
+      AccountBundledCredentialsEmpty.getInstance(),
+      this.credentialStore,
+      this.accountsDatabases(),
+      fileProfiles
+    )
+
+    val acc =
+      MockAccountProviders.fakeProvider("urn:fake:0")
+
+    val p0 = db0.createProfile(acc, "Kermit")
+    val p1 = db0.createProfile(acc, "Gonzo")
+
+    val executor = Executors.newSingleThreadExecutor()
+    try {
+      val db1 = ProfilesDatabases.openWithAnonymousProfileDisabled(
+        this.context(),
+        this.analytics,
+        this.accountEvents,
+        accountProviders,
+        AccountBundledCredentialsEmpty.getInstance(),
+        this.credentialStore,
+        this.accountsDatabases(),
+        fileProfiles,
+        executor
+      )
+
+      val pr0 = db1.profiles()[p0.id]!!
+      val pr1 = db1.profiles()[p1.id]!!
+
+      Assert.assertEquals(p0.displayName, pr0.displayName)
+      Assert.assertEquals(p1.displayName, pr1.displayName)
+      Assert.assertEquals(p0.accounts().keys, pr0.accounts().keys)
+      Assert.assertEquals(p1.accounts().keys, pr1.accounts().keys)
+    } finally {
+      executor.shutdown()
+    }
+  }
+
+  /**
+   * Deferred accounts are not opened until they are first used, and are opened only once.
+   */
+
+  @Test
+  @Throws(Exception::class)
+  fun testOpenDeferredNotOpenedBeforeUse() {
+    val fileTemp = DirectoryUtilities.directoryCreateTemporary()
+    val fileProfiles = File(fileTemp, "profiles")
+    val accountProviders = MockAccountProviders.fakeAccountProviders()
+
+    val db0 = ProfilesDatabases.openWithAnonymousProfileDisabled(
+      this.context(),
+      this.analytics,
+      this.accountEvents,
+      accountProviders,
+      AccountBundledCredentialsEmpty.getInstance(),
+      this.credentialStore,
+      this.accountsDatabases(),
+      fileProfiles
+    )
+
+    val acc = MockAccountProviders.fakeProvider("urn:fake:0")
+    val p0 = db0.createProfile(acc, "Kermit")
+    val p1 = db0.createProfile(acc, "Gonzo")
+
+    val databases = CountingAccountsDatabases()
+    val executor = QueuedExecutor()
+    val db1 = ProfilesDatabases.openWithAnonymousProfileDisabled(
+      this.context(),
+      this.analytics,
+      this.accountEvents,
+      accountProviders,
+      AccountBundledCredentialsEmpty.getInstance(),
+      this.credentialStore,
+      databases,
+      fileProfiles,
+      executor
+    )
+
+    Assert.assertEquals(listOf<ProfileID>(), databases.opened.toList())
+
+    val pr0 = db1.profiles()[p0.id]!!
+    Assert.assertEquals(p0.accounts().keys, pr0.accounts().keys)
+    Assert.assertEquals(listOf(p0.id), databases.opened.toList())
+
+    executor.runAll()
+    Assert.assertEquals(setOf(p0.id, p1.id), databases.opened.toSet())
+    Assert.assertEquals(2, databases.opened.size)
+  }
+
+  /**
+   * A failure to open deferred accounts is reported when the profile is selected, and the
+   * profile does not become current.
+   */
+
+  @Test
+  @Throws(Exception::class)
+  fun testOpenDeferredFailureReported() {
+    val fileTemp = DirectoryUtilities.directoryCreateTemporary()
+    val fileProfiles = File(fileTemp, "profiles")
+    val accountProviders = MockAccountProviders.fakeAccountProviders()
+
+    val db0 = ProfilesDatabases.openWithAnonymousProfileDisabled(
+      this.context(),
+      this.analytics,
+      this.accountEvents,
+      accountProviders,
+      AccountBundledCredentialsEmpty.getInstance(),
+      this.credentialStore,
+      this.accountsDatabases(),
+      fileProfiles
+    )
+
+    val acc = MockAccountProviders.fakeProvider("urn:fake:0")
+    val p0 = db0.createProfile(acc, "Kermit")
+    val p1 = db0.createProfile(acc, "Gonzo")
+
+    val databases = CountingAccountsDatabases(failing = setOf(p0.id))
+    val executor = QueuedExecutor()
+    val db1 = ProfilesDatabases.openWithAnonymousProfileDisabled(
+      this.context(),
+      this.analytics,
+      this.accountEvents,
+      accountProviders,
+      AccountBundledCredentialsEmpty.getInstance(),
+      this.credentialStore,
+      databases,
+      fileProfiles,
+      executor
+    )
+
+    executor.runAll()
+
+    try {
+      db1.setProfileCurrent(p0.id)
+      Assert.fail()
+    } catch (e: ProfileDatabaseAccountsException) {
+      Assert.assertTrue(e.causes()[0] is AccountsDatabaseOpenException)
+    }
+
+    Assert.assertTrue(db1.currentProfile().isNone)
+    Assert.assertEquals(1, databases.opened.count { id -> id == p0.id })
+
+    db1.setProfileCurrent(p1.id)
+    Assert.assertEquals(p1.id, db1.currentProfileUnsafe().id)
+    Assert.assertEquals(p1.accounts().keys, db1.currentProfileUnsafe().accounts().keys)
+  }
+
+  /**
+   * Deleting a profile whose accounts are queued to be opened never opens them.
+   */
+
+  @Test
+  @Throws(Exception::class)
+  fun testOpenDeferredDeleteWhileQueued() {
+    val fileTemp = DirectoryUtilities.directoryCreateTemporary()
+    val fileProfiles = File(fileTemp, "profiles")
+    val accountProviders = MockAccountProviders.fakeAccountProviders()
+
+    val db0 = ProfilesDatabases.openWithAnonymousProfileDisabled(
+      this.context(),
+      this.analytics,
+      this.accountEvents,
+      accountProviders,
+      AccountBundledCredentialsEmpty.getInstance(),
+      this.credentialStore,
+      this.accountsDatabases(),
+      fileProfiles
+    )
+
+    val acc = MockAccountProviders.fakeProvider("urn:fake:0")
+    val p0 = db0.createProfile(acc, "Kermit")
+    val p1 = db0.createProfile(acc, "Gonzo")
+
+    val databases = CountingAccountsDatabases()
+    val executor = QueuedExecutor()
+    val db1 = ProfilesDatabases.openWithAnonymousProfileDisabled(
+      this.context(),
+      this.analytics,
+      this.accountEvents,
+      accountProviders,
+      AccountBundledCredentialsEmpty.getInstance(),
+      this.credentialStore,
+      databases,
+      fileProfiles,
+      executor
+    )
+
+    val pr0 = db1.profiles()[p0.id]!!
+    pr0.delete()
+    Assert.assertFalse(pr0.directory.exists())
+    Assert.assertFalse(db1.profiles().containsKey(p0.id))
+
+    executor.runAll()
+    Assert.assertEquals(listOf(p1.id), databases.opened.toList())
+    Assert.assertFalse(pr0.directory.exists())
+  }
+
   /**
    * Updating preferences works.
    */
@@ -0,0 +1,187 @@
+package org.nypl.simplified.tests.catalog
+
+import android.content.res.Resources
+import com.io7m.jfunctional.Option
+import one.irradia.mime.vanilla.MIMEParser
+import org.joda.time.DateTime
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.mockito.Mockito
+import org.nypl.simplified.accounts.api.AccountID
+import org.nypl.simplified.books.api.BookID
+import org.nypl.simplified.books.book_registry.BookStatus
+import org.nypl.simplified.feeds.api.FeedEntry
+import org.nypl.simplified.feeds.api.FeedEntry.FeedEntryCorrupt
+import org.nypl.simplified.feeds.api.FeedEntry.FeedEntryOPDS
+import org.nypl.simplified.opds.core.OPDSAcquisition
+import org.nypl.simplified.opds.core.OPDSAcquisitionFeedEntry
+import org.nypl.simplified.opds.core.OPDSAvailabilityLoanable
+import org.nypl.simplified.opds.core.OPDSAvailabilityOpenAccess
+import org.nypl.simplified.ui.catalog.CatalogPagedRow
+import org.nypl.simplified.ui.catalog.CatalogPagedRow.CatalogPagedRowBook
+import org.nypl.simplified.ui.catalog.CatalogPagedRow.CatalogPagedRowCorrupt
+import org.nypl.simplified.ui.catalog.R
+import java.io.IOException
+import java.net.URI
+
+abstract class CatalogPagedRowContract {
+
+  private val accountID = AccountID.generate()
+  private lateinit var resources: Resources
+
+  /**
+   * A set of resources in which every string is its resource ID, followed by any format
+   * arguments.
+   */
+
+  @Before
+  fun testSetup() {
+    this.resources =
+      Mockito.mock(Resources::class.java) { invocation ->
+        if (invocation.method.returnType == String::class.java) {
+          invocation.arguments.joinToString(" ") { argument -> argument.toString() }
+        } else {
+          Mockito.RETURNS_DEFAULTS.answer(invocation)
+        }
+      }
+  }
+
+  private fun entryWithType(
+    id: String,
+    type: String?
+  ): FeedEntryOPDS {
+    val builder =
+      OPDSAcquisitionFeedEntry.newBuilder(
+        id,
+        "Title $id",
+        DateTime.now(),
+        OPDSAvailabilityLoanable.get()
+      )
+    builder.addAuthor("Author A")
+    builder.addAuthor("Author B")
+    if (type != null) {
+      builder.addAcquisition(
+        OPDSAcquisition(
+          OPDSAcquisition.Relation.ACQUISITION_BORROW,
+          URI.create("http://www.example.com/$id"),
+          MIMEParser.parseRaisingException(type),
+          listOf()
+        )
+      )
+    }
+    return FeedEntryOPDS(this.accountID, builder.build())
+  }
+
+  /**
+   * Rows for OPDS entries contain the precomputed display values of the entry.
+   */
+
+  @Test
+  fun testCreateBook() {
+    val entry = this.entryWithType("a", "application/epub+zip")
+    val row = CatalogPagedRow.create(this.resources, entry)
+
+    assertEquals(entry, row.entry)
+    assertEquals(entry.bookID, row.bookID)
+    assertEquals("Title a", row.title)
+    assertEquals("Author A, Author B", row.authors)
+    assertEquals("${R.string.catalogBookFormatEPUB}", row.meta)
+    assertEquals(
+      "${R.string.catalogAccessibilityCoverEpub} Title a Author A, Author B",
+      row.coverDescription
+    )
+    assertEquals(entry.bookID, row.synthesizedStatus.book.id)
+  }
+
+  /**
+   * Creating a row from a feed entry of unknown type yields the same row as creating it from
+   * the OPDS entry directly.
+   */
+
+  @Test
+  fun testCreateFromFeedEntry() {
+    val entry = this.entryWithType("a", "application/epub+zip")
+    val row = CatalogPagedRow.create(this.resources, entry)
+    val entryGeneric: FeedEntry = entry
+    val rowGeneric = CatalogPagedRow.create(this.resources, entryGeneric)
+
+    assertTrue(rowGeneric is CatalogPagedRowBook)
+    assertEquals(row, rowGeneric)
+  }
+
+  /**
+   * Rows for corrupt entries contain the entry.
+   */
+
+  @Test
+  fun testCreateCorrupt() {
+    val entry =
+      FeedEntryCorrupt(
+        accountID = this.accountID,
+        bookID = BookID.create("abcd"),
+        error = IOException("Corrupt!")
+      )
+
+    val row = CatalogPagedRow.create(this.resources, entry)
+    assertEquals(CatalogPagedRowCorrupt(entry), row)
+  }
+
+  /**
+   * The format text reflects the probable format of each entry.
+   */
+
+  @Test
+  fun testMetaOf() {
+    assertEquals(
+      "${R.string.catalogBookFormatEPUB}",
+      CatalogPagedRow.metaOf(this.resources, this.entryWithType("a", "application/epub+zip"))
+    )
+    assertEquals(
+      "${R.string.catalogBookFormatPDF}",
+      CatalogPagedRow.metaOf(this.resources, this.entryWithType("b", "application/pdf"))
+    )
+    assertEquals(
+      "${R.string.catalogBookFormatAudioBook}",
+      CatalogPagedRow.metaOf(
+        this.resources, this.entryWithType("c", "application/audiobook+json")
+      )
+    )
+    assertEquals(
+      "",
+      CatalogPagedRow.metaOf(this.resources, this.entryWithType("d", null))
+    )
+  }
+
+  /**
+   * Synthesized statuses are derived from the availability of the entry alone, as if the book
+   * had never been downloaded.
+   */
+
+  @Test
+  fun testSynthesizeBookWithStatus() {
+    val loanable = this.entryWithType("a", "application/epub+zip")
+    val loanableStatus = CatalogPagedRow.synthesizeBookWithStatus(loanable)
+    assertEquals(loanable.bookID, loanableStatus.book.id)
+    assertEquals(this.accountID, loanableStatus.book.account)
+    assertEquals(loanable.feedEntry, loanableStatus.book.entry)
+    assertEquals(null, loanableStatus.book.cover)
+    assertEquals(listOf<Any>(), loanableStatus.book.formats)
+    assertTrue(loanableStatus.status is BookStatus.Loanable)
+
+    val openAccess =
+      FeedEntryOPDS(
+        this.accountID,
+        OPDSAcquisitionFeedEntry.newBuilder(
+          "b",
+          "Title b",
+          DateTime.now(),
+          OPDSAvailabilityOpenAccess.get(Option.none())
+        ).build()
+      )
+    val openAccessStatus = CatalogPagedRow.synthesizeBookWithStatus(openAccess)
+    assertEquals(openAccess.bookID, openAccessStatus.book.id)
+    assertTrue(openAccessStatus.status is BookStatus.Loaned.LoanedNotDownloaded)
+  }
+}
@@ -0,0 +1,3 @@
+package org.nypl.simplified.tests.catalog
+
+class CatalogPagedRowTest : CatalogPagedRowContract()
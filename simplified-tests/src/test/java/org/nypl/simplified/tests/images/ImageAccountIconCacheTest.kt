@@ -0,0 +1,97 @@
+package org.nypl.simplified.tests.images
+
+import org.junit.Assert
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.nypl.simplified.ui.images.ImageAccountIconCache
+import java.io.File
+import java.net.URI
+
+class ImageAccountIconCacheTest {
+
+  @Rule
+  @JvmField
+  val tempFolder = TemporaryFolder()
+
+  private fun file(
+    name: String,
+    size: Int,
+    lastModified: Long
+  ): File {
+    val file = File(this.tempFolder.root, name)
+    file.writeBytes(ByteArray(size))
+    file.setLastModified(lastModified)
+    return file
+  }
+
+  @Test
+  fun testKeysAreStable() {
+    val provider = URI.create("urn:uuid:1a110ef6-3018-4359-84f9-e24abee9aeb3")
+    val key0 = ImageAccountIconCache.keyOf(provider, URI.create("data:image/png;base64,AAAA"))
+    val key1 = ImageAccountIconCache.keyOf(provider, URI.create("data:image/png;base64,AAAA"))
+    val key2 = ImageAccountIconCache.keyOf(provider, URI.create("data:image/png;base64,AAAB"))
+
+    Assert.assertEquals(key0, key1)
+    Assert.assertNotEquals(key0, key2)
+    Assert.assertTrue(key0.startsWith(ImageAccountIconCache.KEY_PREFIX + provider + ":"))
+    Assert.assertEquals(64, key0.substringAfterLast(':').length)
+  }
+
+  @Test
+  fun testSampleSize() {
+    Assert.assertEquals(1, ImageAccountIconCache.sampleSizeOf(512, 256, 0))
+    Assert.assertEquals(1, ImageAccountIconCache.sampleSizeOf(64, 64, 128))
+    Assert.assertEquals(1, ImageAccountIconCache.sampleSizeOf(255, 100, 128))
+    Assert.assertEquals(2, ImageAccountIconCache.sampleSizeOf(256, 100, 128))
+    Assert.assertEquals(4, ImageAccountIconCache.sampleSizeOf(100, 600, 128))
+    Assert.assertEquals(8, ImageAccountIconCache.sampleSizeOf(1024, 1024, 128))
+  }
+
+  @Test
+  fun testScaledSize() {
+    Assert.assertNull(ImageAccountIconCache.scaledSizeOf(512, 256, 0))
+    Assert.assertNull(ImageAccountIconCache.scaledSizeOf(128, 64, 128))
+    Assert.assertEquals(Pair(128, 64), ImageAccountIconCache.scaledSizeOf(256, 128, 128))
+    Assert.assertEquals(Pair(50, 100), ImageAccountIconCache.scaledSizeOf(150, 300, 100))
+    Assert.assertEquals(Pair(1, 100), ImageAccountIconCache.scaledSizeOf(1, 400, 100))
+  }
+
+  @Test
+  fun testTrimWithinBound() {
+    val a = this.file("a.png", 100, 1000L)
+    val b = this.file("b.png", 100, 2000L)
+
+    ImageAccountIconCache.trimDirectory(this.tempFolder.root, 200L, 10_000L)
+    Assert.assertTrue(a.isFile)
+    Assert.assertTrue(b.isFile)
+  }
+
+  @Test
+  fun testTrimLeastRecentlyUsed() {
+    val a = this.file("a.png", 100, 3000L)
+    val b = this.file("b.png", 100, 1000L)
+    val c = this.file("c.png", 100, 2000L)
+    val d = this.file("d.png", 100, 4000L)
+
+    ImageAccountIconCache.trimDirectory(this.tempFolder.root, 250L, 10_000L)
+    Assert.assertTrue(a.isFile)
+    Assert.assertFalse(b.isFile)
+    Assert.assertFalse(c.isFile)
+    Assert.assertTrue(d.isFile)
+  }
+
+  @Test
+  fun testTrimStaleTemporaryFiles() {
+    val now = 100_000L
+    val staleTime = now - ImageAccountIconCache.STALE_TEMPORARY_FILE_MILLIS - 1L
+    val stale = this.file("icon0.tmp", 10, staleTime)
+    val fresh = this.file("icon1.tmp", 10, now - 1L)
+    val other = this.file("other.txt", 1000, 1000L)
+
+    ImageAccountIconCache.trimDirectory(this.tempFolder.root, 0L, now)
+    Assert.assertFalse(stale.exists())
+    Assert.assertTrue(fresh.isFile)
+    Assert.assertTrue(other.isFile)
+  }
+}
@@ -1,5 +1,8 @@
 package org.nypl.simplified.tests.opds;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.nypl.simplified.opds.core.OPDSAcquisition;
@@ -20,6 +23,10 @@ import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public abstract class OPDSJSONSerializerContract {
@@ -128,4 +135,134 @@ public abstract class OPDSJSONSerializerContract {
       }
     }
   }
+
+  private static byte[] getResourceBytes(
+    final String name)
+    throws Exception {
+    final InputStream stream = OPDSJSONSerializerContract.getResource(name);
+    try {
+      final ByteArrayOutputStream output = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[4096];
+      while (true) {
+        final int r = stream.read(buffer);
+        if (r == -1) {
+          break;
+        }
+        output.write(buffer, 0, r);
+      }
+      return output.toByteArray();
+    } finally {
+      stream.close();
+    }
+  }
+
+  private static String serializeTree(
+    final OPDSJSONSerializerType s,
+    final OPDSAcquisitionFeedEntry e)
+    throws Exception {
+    final ByteArrayOutputStream bao = new ByteArrayOutputStream();
+    s.serializeToStream(s.serializeFeedEntry(e), bao);
+    return new String(bao.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private static String serializeStreaming(
+    final OPDSJSONSerializerType s,
+    final OPDSAcquisitionFeedEntry e)
+    throws Exception {
+    final ByteArrayOutputStream bao = new ByteArrayOutputStream();
+    s.serializeFeedEntryToStream(e, bao);
+    return new String(bao.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * The streaming parser and serializer agree exactly with the tree-based parser and serializer
+   * for all of the compatibility files, and the streaming serializer output round-trips.
+   */
+
+  @Test
+  public void testStreamingCompatibility()
+    throws Exception {
+    final OPDSJSONParserType jp = OPDSJSONParser.newParser();
+    final OPDSJSONSerializerType s = OPDSJSONSerializer.newSerializer();
+    final ObjectMapper mapper = new ObjectMapper();
+
+    final List<String> names = Arrays.asList(
+      "compatibility-20180921-test-new-0.json",
+      "compatibility-20180921-test-new-1.json",
+      "compatibility-20180921-test-old.json"
+    );
+
+    for (final String name : names) {
+      final byte[] data = OPDSJSONSerializerContract.getResourceBytes(name);
+
+      final OPDSAcquisitionFeedEntry eTree =
+        jp.parseAcquisitionFeedEntry((ObjectNode) mapper.readTree(data));
+      final OPDSAcquisitionFeedEntry eStream =
+        jp.parseAcquisitionFeedEntryFromStream(new ByteArrayInputStream(data));
+      Assert.assertEquals(name, eTree, eStream);
+
+      final String textTree = serializeTree(s, eTree);
+      final String textStream = serializeStreaming(s, eStream);
+      Assert.assertEquals(name, textTree, textStream);
+
+      final OPDSAcquisitionFeedEntry eRound =
+        jp.parseAcquisitionFeedEntryFromStream(
+          new ByteArrayInputStream(textStream.getBytes(StandardCharsets.UTF_8)));
+      Assert.assertEquals(name, eStream, eRound);
+      Assert.assertEquals(name, textStream, serializeStreaming(s, eRound));
+    }
+  }
+
+  /**
+   * The streaming serializer produces exactly the same output as the tree-based serializer for
+   * entries taken from real feeds.
+   */
+
+  @Test
+  public void testStreamingFeedEntries()
+    throws Exception {
+    final OPDSAcquisitionFeedEntryParserType ep =
+      OPDSAcquisitionFeedEntryParser.newParser();
+    final OPDSFeedParserType p = OPDSFeedParser.newParser(ep);
+    final OPDSJSONSerializerType s = OPDSJSONSerializer.newSerializer();
+
+    final InputStream rs0 = OPDSJSONSerializerContract.getResource("loans.xml");
+    final OPDSAcquisitionFeed fe0 = p.parse(new URI("http://example.com"), rs0);
+    Assert.assertFalse(fe0.getFeedEntries().isEmpty());
+
+    for (final OPDSAcquisitionFeedEntry e : fe0.getFeedEntries()) {
+      Assert.assertEquals(serializeTree(s, e), serializeStreaming(s, e));
+    }
+  }
+
+  /**
+   * Unknown fields are ignored by the streaming parser, and fields may appear in any order.
+   */
+
+  @Test
+  public void testStreamingParserFieldOrder()
+    throws Exception {
+    final OPDSJSONParserType jp = OPDSJSONParser.newParser();
+    final ObjectMapper mapper = new ObjectMapper();
+
+    final byte[] data =
+      OPDSJSONSerializerContract.getResourceBytes("compatibility-20180921-test-new-1.json");
+    final ObjectNode original = (ObjectNode) mapper.readTree(data);
+
+    final ObjectNode reordered = mapper.createObjectNode();
+    final List<String> fields = new ArrayList<>();
+    original.fieldNames().forEachRemaining(fields::add);
+    Collections.reverse(fields);
+    reordered.put("unknown", "value");
+    reordered.set("unknownObject", mapper.createObjectNode().put("x", 23));
+    for (final String field : fields) {
+      reordered.set(field, original.get(field));
+    }
+
+    final OPDSAcquisitionFeedEntry e0 = jp.parseAcquisitionFeedEntry(original);
+    final OPDSAcquisitionFeedEntry e1 =
+      jp.parseAcquisitionFeedEntryFromStream(
+        new ByteArrayInputStream(mapper.writeValueAsBytes(reordered)));
+    Assert.assertEquals(e0, e1);
+  }
 }
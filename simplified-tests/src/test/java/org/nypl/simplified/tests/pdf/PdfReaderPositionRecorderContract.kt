@@ -0,0 +1,166 @@
+package org.nypl.simplified.tests.pdf
+
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.nypl.simplified.viewer.pdf.PdfReaderPositionRecorder
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+
+abstract class PdfReaderPositionRecorderContract {
+
+  private var now = 0L
+  private lateinit var executor: ScheduledExecutorService
+  private lateinit var saved: LinkedBlockingQueue<Int>
+
+  /**
+   * @return A new executor on which the recorder saves pages
+   */
+
+  protected abstract fun executor(): ScheduledExecutorService
+
+  @Before
+  fun testSetup() {
+    this.now = 0L
+    this.executor = this.executor()
+    this.saved = LinkedBlockingQueue()
+  }
+
+  @After
+  fun testTearDown() {
+    this.executor.shutdownNow()
+  }
+
+  private fun recorder(
+    idleDelayMillis: Long,
+    maximumDelayMillis: Long = PdfReaderPositionRecorder.DEFAULT_MAXIMUM_DELAY_MILLIS
+  ): PdfReaderPositionRecorder {
+    return PdfReaderPositionRecorder(
+      executor = this.executor,
+      save = { page -> this.saved.add(page) },
+      idleDelayMillis = idleDelayMillis,
+      maximumDelayMillis = maximumDelayMillis,
+      clock = { this.now }
+    )
+  }
+
+  private fun takeSaved(): Int? =
+    this.saved.poll(5L, TimeUnit.SECONDS)
+
+  /**
+   * Wait for the executor to finish any saves that are due now.
+   */
+
+  private fun settle() {
+    this.executor.schedule({ }, 0L, TimeUnit.MILLISECONDS).get(5L, TimeUnit.SECONDS)
+  }
+
+  /**
+   * Pages that change within the idle period are coalesced into a single save of the last page.
+   */
+
+  @Test(timeout = 10_000L)
+  fun testIdleCoalescing() {
+    val recorder = this.recorder(idleDelayMillis = 200L, maximumDelayMillis = 60_000L)
+    for (page in 1..10) {
+      recorder.pageChanged(page)
+    }
+
+    assertEquals(10, this.takeSaved())
+    Thread.sleep(400L)
+    assertEquals(listOf<Int>(), this.saved.toList())
+  }
+
+  /**
+   * A page that has already been saved is not saved again.
+   */
+
+  @Test(timeout = 10_000L)
+  fun testSavedPageNotSavedAgain() {
+    val recorder = this.recorder(idleDelayMillis = 0L)
+    recorder.pageChanged(3)
+    assertEquals(3, this.takeSaved())
+    this.settle()
+
+    recorder.pageChanged(3)
+    recorder.flush()
+    this.settle()
+    assertEquals(listOf<Int>(), this.saved.toList())
+  }
+
+  /**
+   * Pages that keep changing are saved once they have been left unsaved for the maximum delay,
+   * even though they never stop changing for the idle period.
+   */
+
+  @Test(timeout = 10_000L)
+  fun testMaximumDelay() {
+    assertEquals(5_000L, PdfReaderPositionRecorder.DEFAULT_MAXIMUM_DELAY_MILLIS)
+
+    val recorder = this.recorder(idleDelayMillis = 60_000L)
+    recorder.pageChanged(1)
+
+    this.now = 4_000L
+    recorder.pageChanged(2)
+    this.settle()
+    assertEquals(listOf<Int>(), this.saved.toList())
+
+    this.now = 5_000L
+    recorder.pageChanged(3)
+    assertEquals(3, this.takeSaved())
+
+    /*
+     * The maximum delay starts again from the next unsaved change.
+     */
+
+    this.now = 6_000L
+    recorder.pageChanged(4)
+    this.now = 10_000L
+    recorder.pageChanged(5)
+    this.settle()
+    assertEquals(listOf<Int>(), this.saved.toList())
+
+    this.now = 11_000L
+    recorder.pageChanged(6)
+    assertEquals(6, this.takeSaved())
+  }
+
+  /**
+   * Flushing saves the last page without waiting for the idle period, as happens when the
+   * reader is paused.
+   */
+
+  @Test(timeout = 10_000L)
+  fun testFlushOnPause() {
+    val recorder = this.recorder(idleDelayMillis = 60_000L, maximumDelayMillis = 60_000L)
+    recorder.pageChanged(7)
+    recorder.pageChanged(8)
+    recorder.flush()
+
+    assertEquals(8, this.takeSaved())
+    this.settle()
+    assertEquals(listOf<Int>(), this.saved.toList())
+  }
+
+  /**
+   * Closing the recorder saves the last page before the executor shuts down, and pages that
+   * change after the recorder is closed are ignored.
+   */
+
+  @Test(timeout = 10_000L)
+  fun testCloseAfterFlush() {
+    val recorder = this.recorder(idleDelayMillis = 60_000L, maximumDelayMillis = 60_000L)
+    recorder.pageChanged(9)
+    recorder.close()
+
+    assertTrue(this.executor.awaitTermination(5L, TimeUnit.SECONDS))
+    assertEquals(listOf(9), this.saved.toList())
+
+    recorder.pageChanged(10)
+    recorder.flush()
+    assertEquals(listOf(9), this.saved.toList())
+  }
+}
@@ -0,0 +1,9 @@
+package org.nypl.simplified.tests.pdf
+
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+
+class PdfReaderPositionRecorderTest : PdfReaderPositionRecorderContract() {
+  override fun executor(): ScheduledExecutorService =
+    Executors.newSingleThreadScheduledExecutor()
+}
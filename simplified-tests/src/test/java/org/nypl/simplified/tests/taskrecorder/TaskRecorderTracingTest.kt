@@ -0,0 +1,165 @@
+package org.nypl.simplified.tests.taskrecorder
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.nypl.simplified.taskrecorder.api.TaskRecorder
+import org.nypl.simplified.taskrecorder.api.TaskTraceChromeExporter
+import org.nypl.simplified.taskrecorder.api.TaskTraceEvent
+import org.nypl.simplified.taskrecorder.api.TaskTraces
+import java.io.ByteArrayOutputStream
+
+class TaskRecorderTracingTest {
+
+  @Before
+  fun testSetup() {
+    TaskTraces.clear()
+  }
+
+  /**
+   * Steps end when they are resolved, or when the next step begins.
+   */
+
+  @Test
+  fun testStepsEnd() {
+    val recorder = TaskRecorder.create()
+    val step0 = recorder.beginNewStep("Step 0")
+    assertEquals(-1L, step0.duration)
+    val step1 = recorder.beginNewStep("Step 1")
+    assertTrue(step0.duration >= 0L)
+    assertEquals(-1L, step1.duration)
+    recorder.currentStepSucceeded("OK")
+    assertTrue(step1.duration >= 0L)
+    assertTrue(step1.startTime >= step0.endTime)
+  }
+
+  /**
+   * Finishing a task records the task and its steps.
+   */
+
+  @Test
+  fun testFinishRecordsTrace() {
+    val recorder = TaskRecorder.create("Borrow")
+    recorder.beginNewStep("Step 0")
+    recorder.currentStepSucceeded("OK")
+    recorder.beginNewStep("Step 1")
+    recorder.currentStepFailed("Failed", "error-code")
+    recorder.finishFailure<Unit>()
+
+    val events = TaskTraces.events()
+    assertEquals(3, events.size)
+    assertEquals("Borrow", events[0].name)
+    assertEquals("task", events[0].category)
+    assertEquals("failed", events[0].arguments["result"])
+    assertEquals("Step 0", events[1].name)
+    assertEquals("succeeded", events[1].arguments["result"])
+    assertEquals("Step 1", events[2].name)
+    assertEquals("error-code", events[2].arguments["errorCode"])
+
+    for (event in events) {
+      assertTrue(event.duration >= 0L)
+    }
+  }
+
+  /**
+   * Steps added from other tasks are not traced twice.
+   */
+
+  @Test
+  fun testSubtaskStepsTracedOnce() {
+    val recorder = TaskRecorder.create("Outer")
+    recorder.beginNewStep("Outer step")
+
+    val subRecorder = TaskRecorder.create("Inner")
+    subRecorder.beginNewStep("Inner step")
+    val subResult = subRecorder.finishSuccess(Unit)
+
+    recorder.addAll(subResult.steps)
+    recorder.finishSuccess(Unit)
+
+    val names = TaskTraces.events().map(TaskTraceEvent::name)
+    assertEquals(listOf("Inner", "Inner step", "Outer", "Outer step"), names)
+  }
+
+  /**
+   * Spans are recorded even if the body raises an exception.
+   */
+
+  @Test
+  fun testSpan() {
+    val value = TaskTraces.span("Span 0") { 23 }
+    assertEquals(23, value)
+
+    try {
+      TaskTraces.span<Unit>("Span 1") { throw IllegalStateException() }
+    } catch (e: IllegalStateException) {
+      // Expected
+    }
+
+    val names = TaskTraces.events().map(TaskTraceEvent::name)
+    assertEquals(listOf("Span 0", "Span 1"), names)
+  }
+
+  /**
+   * Only the most recent events are held.
+   */
+
+  @Test
+  fun testBounded() {
+    for (index in 0 until TaskTraces.MAXIMUM_EVENTS + 10) {
+      TaskTraces.record(
+        TaskTraceEvent(
+          name = "Event $index",
+          category = "test",
+          startTime = index.toLong(),
+          duration = 0L,
+          threadId = 1L,
+          threadName = "main"
+        )
+      )
+    }
+
+    val events = TaskTraces.events()
+    assertEquals(TaskTraces.MAXIMUM_EVENTS, events.size)
+    assertEquals("Event 10", events[0].name)
+  }
+
+  /**
+   * The exported trace is valid JSON in the Chrome trace event format.
+   */
+
+  @Test
+  fun testExportChrome() {
+    val event =
+      TaskTraceEvent(
+        name = "A \"quoted\"\nname\u0001",
+        category = "test",
+        startTime = 2_000_000L,
+        duration = 3_000L,
+        threadId = 7L,
+        threadName = "worker",
+        arguments = mapOf(Pair("key", "value\\"))
+      )
+
+    val output = ByteArrayOutputStream()
+    TaskTraceChromeExporter.write(listOf(event), output)
+
+    val node = ObjectMapper().readTree(output.toByteArray())
+    val traceEvents = node["traceEvents"]
+    assertEquals(2, traceEvents.size())
+
+    val complete = traceEvents[0]
+    assertEquals("A \"quoted\"\nname\u0001", complete["name"].asText())
+    assertEquals("X", complete["ph"].asText())
+    assertEquals(2000L, complete["ts"].asLong())
+    assertEquals(3L, complete["dur"].asLong())
+    assertEquals(7L, complete["tid"].asLong())
+    assertEquals("value\\", complete["args"]["key"].asText())
+
+    val metadata = traceEvents[1]
+    assertEquals("thread_name", metadata["name"].asText())
+    assertEquals("worker", metadata["args"]["name"].asText())
+  }
+}
@@ -0,0 +1,5 @@
+/**
+ * Test contracts for the task recorder package.
+ */
+
+@com.io7m.jnull.NonNullByDefault package org.nypl.simplified.tests.taskrecorder;
@@ -4,7 +4,6 @@ import androidx.lifecycle.LiveData
 import androidx.paging.PagedList
 import com.google.common.util.concurrent.FluentFuture
 import org.nypl.simplified.feeds.api.Feed
-import org.nypl.simplified.feeds.api.FeedEntry
 import org.nypl.simplified.feeds.api.FeedFacet
 import org.nypl.simplified.feeds.api.FeedLoaderResult
 import org.nypl.simplified.feeds.api.FeedSearch
@@ -72,12 +71,17 @@ sealed class CatalogFeedState {
 
     /**
      * A feed was loaded and it turned out to be a feed with groups. These will be
-     * rendered as horizontal scrolling lanes.
+     * rendered as horizontal scrolling lanes. A stale feed is a snapshot saved by a
+     * previous run of the application, displayed while the feed is fetched again. If the
+     * feed could not be fetched again, the snapshot remains displayed and [isRefreshFailed]
+     * is `true`.
      */
 
     data class CatalogFeedWithGroups(
       override val arguments: CatalogFeedArguments,
-      val feed: Feed.FeedWithGroups
+      val feed: Feed.FeedWithGroups,
+      val isStale: Boolean = false,
+      val isRefreshFailed: Boolean = false
     ) : CatalogFeedLoaded() {
       override val title: String
         get() = this.feed.feedTitle
@@ -87,16 +91,21 @@ sealed class CatalogFeedState {
 
     /**
      * A feed was loaded without groups. The feed is "infinitely scrolling", with
-     * newly loaded entries being concatenated to the [entries] list.
+     * newly loaded entries being concatenated to the [entries] list. A stale feed is a
+     * snapshot saved by a previous run of the application, displayed while the feed is
+     * fetched again. If the feed could not be fetched again, the snapshot remains displayed
+     * and [isRefreshFailed] is `true`.
      */
 
     data class CatalogFeedWithoutGroups(
       override val arguments: CatalogFeedArguments,
-      val entries: LiveData<PagedList<FeedEntry>>,
+      val entries: LiveData<PagedList<CatalogPagedRow>>,
       val facetsInOrder: List<FeedFacet>,
       val facetsByGroup: Map<String, List<FeedFacet>>,
       override val search: FeedSearch?,
-      override val title: String
+      override val title: String,
+      val isStale: Boolean = false,
+      val isRefreshFailed: Boolean = false
     ) : CatalogFeedLoaded()
 
     /**
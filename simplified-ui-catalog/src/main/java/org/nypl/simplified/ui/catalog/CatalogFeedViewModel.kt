@@ -16,6 +16,7 @@ import org.nypl.simplified.accounts.api.AccountEventLoginStateChanged
 import org.nypl.simplified.accounts.api.AccountID
 import org.nypl.simplified.accounts.api.AccountLoginState
 import org.nypl.simplified.accounts.api.AccountProviderAuthenticationDescription
+import org.nypl.simplified.accounts.api.AccountReadableType
 import org.nypl.simplified.books.controller.api.BooksControllerType
 import org.nypl.simplified.feeds.api.Feed
 import org.nypl.simplified.feeds.api.FeedFacet
@@ -82,22 +83,25 @@ class CatalogFeedViewModel(
   private var state: CatalogFeedState? = null
 
   private fun loadFeed(
-    arguments: CatalogFeedArguments
+    arguments: CatalogFeedArguments,
+    forceSync: Boolean
   ): CatalogFeedState {
     return when (arguments) {
       is CatalogFeedArgumentsRemote ->
         this.doLoadRemoteFeed(arguments)
       is CatalogFeedArgumentsLocalBooks ->
-        this.doLoadLocalFeed(arguments)
+        this.doLoadLocalFeed(arguments, forceSync)
     }
   }
 
   /**
-   * Load a locally-generated feed.
+   * Load a locally-generated feed. The accounts in the feed are synced first if `forceSync`
+   * is `true`, and otherwise only if they have not been synced recently.
    */
 
   private fun doLoadLocalFeed(
-    arguments: CatalogFeedArgumentsLocalBooks
+    arguments: CatalogFeedArgumentsLocalBooks,
+    forceSync: Boolean
   ): CatalogFeedState {
     this.logger.debug("[{}]: loading local feed {}", this.instanceId, arguments.selection)
 
@@ -128,7 +132,11 @@ class CatalogFeedViewModel(
     val syncFuture =
       fluentFutureOfAll(
         accountsToSync.values.map { account ->
-          this.booksController.booksSync(account)
+          if (forceSync) {
+            this.booksController.booksSync(account)
+          } else {
+            this.booksController.booksSyncIfStale(account)
+          }
         }
       )
 
@@ -181,17 +189,78 @@ class CatalogFeedViewModel(
     val authentication =
       AccountAuthenticatedHTTP.createAuthorizationIfPresent(loginState.credentials)
 
-    val future =
-      this.feedLoader.fetchURIWithBookRegistryEntries(
-        account.id,
-        arguments.feedURI,
-        authentication
+    /*
+     * The root feed of the account is snapshotted each time it is fetched. The most recent
+     * snapshot is displayed while the feed is being fetched, so that returning users see
+     * the catalog without waiting for the server.
+     */
+
+    val isRootFeed =
+      !arguments.isSearchResults && this.isRootFeedOf(account, arguments.feedURI)
+
+    if (!isRootFeed) {
+      return this.createNewStatus(
+        arguments = arguments,
+        future = this.feedLoader.fetchURIWithBookRegistryEntries(
+          account.id,
+          arguments.feedURI,
+          authentication
+        )
       )
+    }
 
-    return this.createNewStatus(
-      arguments = arguments,
-      future = future
-    )
+    /*
+     * The snapshot is requested before the feed so that it can never be queued behind the
+     * fetch. The callback is registered only once the loading state exists; if the snapshot
+     * has already been loaded by then, the callback runs immediately.
+     */
+
+    val snapshotFuture =
+      this.feedLoader.fetchURISnapshot(account.id, arguments.feedURI)
+
+    val loadingState =
+      this.createNewStatus(
+        arguments = arguments,
+        future = this.feedLoader.fetchURISnapshotting(
+          account.id,
+          arguments.feedURI,
+          authentication
+        )
+      )
+
+    snapshotFuture.map { snapshotResult -> this.onFeedSnapshotLoaded(snapshotResult, loadingState) }
+    return loadingState
+  }
+
+  private fun isRootFeedOf(
+    account: AccountReadableType,
+    uri: URI
+  ): Boolean {
+    return uri == account.catalogURIForAge(0) || uri == account.catalogURIForAge(13)
+  }
+
+  /**
+   * A snapshot of the feed has been loaded. The snapshot is displayed only if the feed
+   * itself has not finished loading in the meantime.
+   */
+
+  private fun onFeedSnapshotLoaded(
+    result: FeedLoaderResult,
+    loadingState: CatalogFeedState.CatalogFeedLoading
+  ) {
+    if (result !is FeedLoaderResult.FeedLoaderSuccess) {
+      return
+    }
+
+    synchronized(this.stateLock) {
+      if (this.state !== loadingState) {
+        return
+      }
+      this.logger.debug("[{}]: displaying feed snapshot", this.instanceId)
+      this.state = this.feedLoaderResultToFeedState(result, loadingState, isStale = true)
+    }
+
+    this.feedStatusSource.onNext(Unit)
   }
 
   /**
@@ -231,23 +300,54 @@ class CatalogFeedViewModel(
     this.logger.debug("[{}]: feed status updated: {}", this.instanceId, result.javaClass)
 
     synchronized(this.stateLock) {
-      this.state = this.feedLoaderResultToFeedState(result, state)
+      val current = this.state
+
+      /*
+       * If a snapshot of the feed is being displayed, and the feed could not be fetched for
+       * any reason other than a lack of credentials, then keep displaying the snapshot and
+       * mark it as having failed to refresh so that the user can retry.
+       */
+
+      val staleState =
+        if (result is FeedLoaderResult.FeedLoaderFailure.FeedLoaderFailedGeneral) {
+          this.refreshFailedStateOf(current)
+        } else {
+          null
+        }
+
+      if (staleState != null) {
+        this.logger.debug("[{}]: feed could not be fetched, keeping snapshot", this.instanceId)
+        this.state = staleState
+      } else {
+        this.state = this.feedLoaderResultToFeedState(result, state, isStale = false)
+      }
     }
 
     this.feedStatusSource.onNext(Unit)
   }
 
+  private fun refreshFailedStateOf(state: CatalogFeedState?): CatalogFeedState? {
+    return when (state) {
+      is CatalogFeedWithGroups ->
+        if (state.isStale) state.copy(isRefreshFailed = true) else null
+      is CatalogFeedWithoutGroups ->
+        if (state.isStale) state.copy(isRefreshFailed = true) else null
+      else -> null
+    }
+  }
+
   private fun feedLoaderResultToFeedState(
     result: FeedLoaderResult,
-    state: CatalogFeedState
+    state: CatalogFeedState,
+    isStale: Boolean
   ): CatalogFeedState {
     return when (result) {
       is FeedLoaderResult.FeedLoaderSuccess ->
         when (val feed = result.feed) {
           is Feed.FeedWithoutGroups ->
-            this.onReceivedFeedWithoutGroups(state, feed)
+            this.onReceivedFeedWithoutGroups(state, feed, isStale)
           is Feed.FeedWithGroups ->
-            this.onReceivedFeedWithGroups(state, feed)
+            this.onReceivedFeedWithGroups(state, feed, isStale)
         }
       is FeedLoaderResult.FeedLoaderFailure ->
         this.onReceivedFeedFailure(state, result)
@@ -270,7 +370,7 @@ class CatalogFeedViewModel(
             accountId = ownership.accountId,
             runOnSuccess = {
               this.logger.debug("reloading feed due to successful login")
-              this.reloadFeed(state.arguments)
+              this.reloadFeed(state.arguments, forceSync = false)
             }
           )
         CatalogFeedOwnership.CollectedFromAccounts -> {
@@ -322,7 +422,8 @@ class CatalogFeedViewModel(
 
   private fun onReceivedFeedWithGroups(
     state: CatalogFeedState,
-    feed: Feed.FeedWithGroups
+    feed: Feed.FeedWithGroups,
+    isStale: Boolean
   ): CatalogFeedLoaded {
     if (feed.size == 0) {
       return CatalogFeedEmpty(
@@ -334,13 +435,15 @@ class CatalogFeedViewModel(
 
     return CatalogFeedWithGroups(
       arguments = state.arguments,
-      feed = feed
+      feed = feed,
+      isStale = isStale
     )
   }
 
   private fun onReceivedFeedWithoutGroups(
     state: CatalogFeedState,
-    feed: Feed.FeedWithoutGroups
+    feed: Feed.FeedWithoutGroups,
+    isStale: Boolean
   ): CatalogFeedLoaded {
     if (feed.entriesInOrder.isEmpty()) {
       return CatalogFeedEmpty(
@@ -370,8 +473,17 @@ class CatalogFeedViewModel(
         .setPrefetchDistance(25)
         .build()
 
+    /*
+     * Rows are computed from the feed entries on the paging library's background thread as
+     * each page is loaded, so that binding rows to views on the UI thread is cheap.
+     */
+
+    val resources = this.context.resources
+    val rowSourceFactory =
+      dataSourceFactory.map { entry -> CatalogPagedRow.create(resources, entry) }
+
     val pagedList =
-      LivePagedListBuilder(dataSourceFactory, pagedListConfig)
+      LivePagedListBuilder(rowSourceFactory, pagedListConfig)
         .build()
 
     return CatalogFeedWithoutGroups(
@@ -380,7 +492,8 @@ class CatalogFeedViewModel(
       facetsInOrder = feed.facetsOrder,
       facetsByGroup = feed.facetsByGroup,
       search = feed.feedSearch,
-      title = feed.feedTitle
+      title = feed.feedTitle,
+      isStale = isStale
     )
   }
 
@@ -416,7 +529,7 @@ class CatalogFeedViewModel(
     if (currentState != null) {
       return currentState
     }
-    return this.loadFeed(this.feedArguments)
+    return this.loadFeed(this.feedArguments, forceSync = false)
   }
 
   override fun resolveFeed(
@@ -466,11 +579,14 @@ class CatalogFeedViewModel(
     }
   }
 
-  override fun reloadFeed(arguments: CatalogFeedArguments) {
+  override fun reloadFeed(
+    arguments: CatalogFeedArguments,
+    forceSync: Boolean
+  ) {
     synchronized(this.stateLock) {
       this.state = null
     }
-    this.loadFeed(arguments)
+    this.loadFeed(arguments, forceSync)
   }
 
   override fun resolveFacet(
@@ -60,9 +60,15 @@ interface CatalogFeedViewModelType {
 
   /**
    * Reload the current feed using the given arguments.
+   *
+   * @param forceSync `true` if the user asked for the reload, in which case the accounts of
+   *   a locally generated feed are synced even if they were synced recently
    */
 
-  fun reloadFeed(arguments: CatalogFeedArguments)
+  fun reloadFeed(
+    arguments: CatalogFeedArguments,
+    forceSync: Boolean
+  )
 
   /**
    * Resolve a given facet as a set of feed arguments.
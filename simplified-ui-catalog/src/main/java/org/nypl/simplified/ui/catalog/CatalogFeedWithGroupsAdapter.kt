@@ -25,6 +25,15 @@ class CatalogFeedWithGroupsAdapter(
 
   private var viewHolders = 0
 
+  /*
+   * A pool of cover views shared between all lanes. Without this, each lane would maintain
+   * its own set of views.
+   */
+
+  private val coverPool =
+    RecyclerView.RecycledViewPool()
+      .apply { this.setMaxRecycledViews(0, COVER_POOL_SIZE) }
+
   override fun onCreateViewHolder(
     parent: ViewGroup,
     viewType: Int
@@ -39,6 +48,7 @@ class CatalogFeedWithGroupsAdapter(
 
     return CatalogFeedWithGroupsLaneViewHolder(
       parent = item,
+      coverPool = this.coverPool,
       coverLoader = this.coverLoader,
       onFeedSelected = this.onFeedSelected,
       onBookSelected = this.onBookSelected
@@ -57,6 +67,15 @@ class CatalogFeedWithGroupsAdapter(
     }
   }
 
+  override fun onViewRecycled(holder: CatalogFeedWithGroupsLaneViewHolder) {
+    /*
+     * Each lane prefetches covers with its own tag, so recycling a lane that has scrolled
+     * off screen does not cancel the prefetching of the lanes that are still visible.
+     */
+
+    holder.unbind()
+  }
+
   override fun getItemCount(): Int =
     this.groups.size
 
@@ -66,4 +85,13 @@ class CatalogFeedWithGroupsAdapter(
   ) {
     holder.bindTo(this.groups[position])
   }
+
+  companion object {
+
+    /**
+     * The maximum number of unused cover views retained for reuse across lanes.
+     */
+
+    private const val COVER_POOL_SIZE = 32
+  }
 }
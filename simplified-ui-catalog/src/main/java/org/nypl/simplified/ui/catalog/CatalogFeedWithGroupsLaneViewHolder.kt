@@ -11,9 +11,13 @@ import java.net.URI
 
 /**
  * A `ViewHolder` that represents a single swimlane within the [CatalogFeedWithGroupsAdapter].
+ *
+ * The item views of all lanes are drawn from a pool shared between lanes, and the item views
+ * of a lane are returned to the pool when the lane is recycled.
  */
 class CatalogFeedWithGroupsLaneViewHolder(
   private val parent: View,
+  private val coverPool: RecyclerView.RecycledViewPool,
   private val coverLoader: BookCoverProviderType,
   private val onFeedSelected: (title: String, uri: URI) -> Unit,
   private val onBookSelected: (FeedEntry.FeedEntryOPDS) -> Unit
@@ -23,21 +27,48 @@ class CatalogFeedWithGroupsLaneViewHolder(
     this.parent.findViewById<TextView>(R.id.feedLaneTitle)
   private val scrollView =
     this.parent.findViewById<RecyclerView>(R.id.feedLaneCoversScroll)
+  private val targetHeight =
+    this.parent.resources.getDimensionPixelSize(
+      org.nypl.simplified.books.covers.R.dimen.cover_thumbnail_height
+    )
+  private val scrollListener =
+    CatalogScrollListener(this.coverLoader, this::onPrefetch)
+
+  private val adapter =
+    CatalogLaneAdapter(this.coverLoader, this.onBookSelected)
+
+  private var entries: List<FeedEntry.FeedEntryOPDS> = listOf()
 
   init {
     scrollView.apply {
       setHasFixedSize(true)
+      setRecycledViewPool(this@CatalogFeedWithGroupsLaneViewHolder.coverPool)
       layoutManager = LinearLayoutManager(
         this.context, LinearLayoutManager.HORIZONTAL, false
-      )
+      ).apply {
+        recycleChildrenOnDetach = true
+        initialPrefetchItemCount = LANE_INITIAL_PREFETCH_ITEMS
+      }
+      adapter = this@CatalogFeedWithGroupsLaneViewHolder.adapter
       addItemDecoration(
         SpaceItemDecoration(
           this.resources.getDimensionPixelSize(R.dimen.catalogFeedCoversSpace)
         )
       )
+      addOnScrollListener(this@CatalogFeedWithGroupsLaneViewHolder.scrollListener)
     }
   }
 
+  private fun onPrefetch(positions: IntProgression) {
+    val entries = this.entries
+    this.coverLoader.prefetchThumbnails(
+      positions.filter { position -> position < entries.size }.map(entries::get),
+      0,
+      this.targetHeight,
+      this.scrollListener.prefetchTag
+    )
+  }
+
   fun bindTo(group: FeedGroup) {
     this.title.text = group.groupTitle
     this.title.setOnClickListener {
@@ -48,22 +79,42 @@ class CatalogFeedWithGroupsLaneViewHolder(
      * If the group is empty, there isn't much we can do.
      */
 
+    this.scrollListener.reset()
     if (group.groupEntries.isEmpty()) {
-      this.scrollView.adapter = null
+      this.entries = listOf()
+      this.adapter.setItems(listOf())
       return
     }
 
     /*
-     * Populate our feed with our book covers
+     * Populate our feed with our book covers. Only the visible covers (and those that the
+     * layout manager prefetches) are bound.
      */
 
     val filtered = group.groupEntries.filterIsInstance<FeedEntry.FeedEntryOPDS>()
-    this.scrollView.adapter = CatalogLaneAdapter(
-      filtered, coverLoader, onBookSelected
-    )
+    this.entries = filtered
+    this.adapter.setItems(filtered)
+    this.scrollView.scrollToPosition(0)
   }
 
+  /**
+   * Unbind the lane from its group. Only the prefetching of this lane is cancelled; the
+   * prefetching of other lanes, and of the enclosing list, continues.
+   */
+
   fun unbind() {
-    this.scrollView.adapter = null
+    this.scrollListener.reset()
+    this.entries = listOf()
+    this.adapter.setItems(listOf())
+  }
+
+  companion object {
+
+    /**
+     * The number of items bound ahead of time when a lane is about to scroll onto the screen.
+     * This is approximately the number of covers that fit across a phone screen.
+     */
+
+    private const val LANE_INITIAL_PREFETCH_ITEMS = 4
   }
 }
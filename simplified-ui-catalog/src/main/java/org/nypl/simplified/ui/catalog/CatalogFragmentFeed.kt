@@ -26,11 +26,14 @@ import androidx.appcompat.widget.AppCompatButton
 import androidx.appcompat.widget.AppCompatTextView
 import androidx.core.content.ContextCompat
 import androidx.fragment.app.Fragment
+import androidx.lifecycle.LiveData
 import androidx.lifecycle.Observer
 import androidx.lifecycle.ViewModelProviders
+import androidx.paging.PagedList
 import androidx.recyclerview.widget.LinearLayoutManager
 import androidx.recyclerview.widget.RecyclerView
 import androidx.recyclerview.widget.SimpleItemAnimator
+import com.google.android.material.snackbar.Snackbar
 import io.reactivex.disposables.Disposable
 import org.joda.time.DateTime
 import org.joda.time.LocalDateTime
@@ -129,11 +132,12 @@ class CatalogFragmentFeed : Fragment() {
   private lateinit var feedWithGroupsTabs: RadioGroup
   private lateinit var feedWithoutGroups: ViewGroup
   private lateinit var feedWithoutGroupsAdapter: CatalogPagedAdapter
+  private var feedWithoutGroupsEntries: LiveData<PagedList<CatalogPagedRow>>? = null
   private lateinit var feedWithoutGroupsFacets: LinearLayout
   private lateinit var feedWithoutGroupsFacetsScroll: ViewGroup
   private lateinit var feedWithoutGroupsHeader: ViewGroup
   private lateinit var feedWithoutGroupsList: RecyclerView
-  private lateinit var feedWithoutGroupsScrollListener: RecyclerView.OnScrollListener
+  private lateinit var feedWithoutGroupsScrollListener: CatalogScrollListener
   private lateinit var feedWithoutGroupsTabs: RadioGroup
   private lateinit var imageLoader: ImageLoaderType
   private lateinit var parameters: CatalogFeedArguments
@@ -154,6 +158,7 @@ class CatalogFragmentFeed : Fragment() {
   private var accountSubscription: Disposable? = null
   private var profileSubscription: Disposable? = null
   private var feedStatusSubscription: Disposable? = null
+  private var feedStaleNotice: Snackbar? = null
 
   override fun onCreate(savedInstanceState: Bundle?) {
     super.onCreate(savedInstanceState)
@@ -218,8 +223,13 @@ class CatalogFragmentFeed : Fragment() {
       this.feedWithGroupsHeader.findViewById(R.id.feedHeaderTabs)
 
     this.feedWithGroupsList = this.feedWithGroups.findViewById(R.id.feedWithGroupsList)
+    /*
+     * Lanes that scroll off the screen are recycled (releasing their cover views into the pool
+     * shared between lanes) rather than being cached fully bound.
+     */
+
     this.feedWithGroupsList.setHasFixedSize(true)
-    this.feedWithGroupsList.setItemViewCacheSize(32)
+    this.feedWithGroupsList.setItemViewCacheSize(2)
     this.feedWithGroupsList.layoutManager = LinearLayoutManager(this.context)
     (this.feedWithGroupsList.itemAnimator as SimpleItemAnimator).supportsChangeAnimations = false
     this.feedWithGroupsList.addItemDecoration(
@@ -290,7 +300,8 @@ class CatalogFragmentFeed : Fragment() {
       this.feedModel.restoreFeedWithoutGroupsViewState()
     )
 
-    this.feedWithoutGroupsScrollListener = CatalogScrollListener(this.bookCovers)
+    this.feedWithoutGroupsScrollListener =
+      CatalogScrollListener(this.bookCovers, this::onFeedWithoutGroupsPrefetch)
     this.feedWithoutGroupsList.addOnScrollListener(this.feedWithoutGroupsScrollListener)
     this.reconfigureUI(this.feedModel.feedState())
 
@@ -306,7 +317,7 @@ class CatalogFragmentFeed : Fragment() {
      */
 
     if (this.parameters.isLocallyGenerated) {
-      this.feedModel.reloadFeed(this.parameters)
+      this.feedModel.reloadFeed(this.parameters, forceSync = false)
     }
   }
 
@@ -330,7 +341,7 @@ class CatalogFragmentFeed : Fragment() {
         true
       }
       R.id.catalogMenuActionReload -> {
-        this.feedModel.reloadFeed(this.feedModel.feedState().arguments)
+        this.feedModel.reloadFeed(this.feedModel.feedState().arguments, forceSync = true)
         true
       }
       android.R.id.home -> {
@@ -352,7 +363,7 @@ class CatalogFragmentFeed : Fragment() {
       is AccountEventCreation.AccountEventCreationSucceeded,
       is AccountEventDeletion.AccountEventDeletionSucceeded -> {
         if (this.parameters.isLocallyGenerated) {
-          this.feedModel.reloadFeed(this.parameters)
+          this.feedModel.reloadFeed(this.parameters, forceSync = false)
         } else {
           // No reload necessary
         }
@@ -413,6 +424,8 @@ class CatalogFragmentFeed : Fragment() {
       return
     }
 
+    this.configureStaleNotice(feedState)
+
     return when (feedState) {
       is CatalogFeedAgeGate ->
         this.onCatalogFeedAgeGateUI(feedState)
@@ -431,9 +444,58 @@ class CatalogFragmentFeed : Fragment() {
     }
   }
 
+  /**
+   * Tell the user when the displayed feed is a snapshot saved by a previous run of the
+   * application, and offer to retry if the feed could not be fetched again.
+   */
+
+  @UiThread
+  private fun configureStaleNotice(feedState: CatalogFeedState) {
+    val isStale: Boolean
+    val isRefreshFailed: Boolean
+    when (feedState) {
+      is CatalogFeedWithGroups -> {
+        isStale = feedState.isStale
+        isRefreshFailed = feedState.isRefreshFailed
+      }
+      is CatalogFeedWithoutGroups -> {
+        isStale = feedState.isStale
+        isRefreshFailed = feedState.isRefreshFailed
+      }
+      else -> {
+        isStale = false
+        isRefreshFailed = false
+      }
+    }
+
+    this.feedStaleNotice?.dismiss()
+    this.feedStaleNotice = null
+
+    val view = this.view
+    if (!isStale || view == null) {
+      return
+    }
+
+    val notice =
+      if (isRefreshFailed) {
+        Snackbar.make(view, R.string.feedStaleRefreshFailed, Snackbar.LENGTH_INDEFINITE)
+          .setAction(R.string.feedRetry) {
+            this.feedModel.reloadFeed(this.feedModel.feedState().arguments, forceSync = true)
+          }
+      } else {
+        Snackbar.make(view, R.string.feedStale, Snackbar.LENGTH_INDEFINITE)
+      }
+
+    this.feedStaleNotice = notice
+    notice.show()
+  }
+
   override fun onStop() {
     super.onStop()
 
+    this.feedStaleNotice?.dismiss()
+    this.feedStaleNotice = null
+
     this.feedModel.saveFeedWithGroupsViewState(
       this.feedWithGroupsList.layoutManager!!.onSaveInstanceState()
     )
@@ -447,6 +509,7 @@ class CatalogFragmentFeed : Fragment() {
      */
 
     this.feedWithoutGroupsList.removeOnScrollListener(this.feedWithoutGroupsScrollListener)
+    this.feedWithoutGroupsScrollListener.reset()
     this.feedWithoutGroupsList.adapter = null
     this.feedWithGroupsList.adapter = null
     this.feedStatusSubscription?.dispose()
@@ -487,7 +550,7 @@ class CatalogFragmentFeed : Fragment() {
         feedURI = account.catalogURIForAge(age),
         isSearchResults = false
       )
-      this.uiThread.runOnUIThread { this.feedModel.reloadFeed(newParameters) }
+      this.uiThread.runOnUIThread { this.feedModel.reloadFeed(newParameters, forceSync = false) }
     }
   }
 
@@ -574,15 +637,63 @@ class CatalogFragmentFeed : Fragment() {
       )
 
     this.feedWithoutGroupsList.adapter = this.feedWithoutGroupsAdapter
+
+    /*
+     * A stale snapshot of the feed may be replaced with the live feed, so stop observing
+     * the entries of any previously displayed feed.
+     */
+
+    this.feedWithoutGroupsEntries?.removeObservers(this)
+    this.feedWithoutGroupsEntries = feedState.entries
     feedState.entries.observe(
       this,
       Observer { newPagedList ->
         this.logger.debug("received paged list ({} elements)", newPagedList.size)
+        this.feedWithoutGroupsScrollListener.reset()
         this.feedWithoutGroupsAdapter.submitList(newPagedList)
       }
     )
   }
 
+  @UiThread
+  private fun onFeedWithoutGroupsPrefetch(
+    positions: IntProgression
+  ) {
+    if (!this::feedWithoutGroupsAdapter.isInitialized) {
+      return
+    }
+    val pagedList = this.feedWithoutGroupsAdapter.currentList ?: return
+    if (pagedList.isEmpty()) {
+      return
+    }
+
+    /*
+     * Telling the paged list that the furthest prefetched position has been accessed causes
+     * the next page of the feed to be fetched as soon as that position comes within the
+     * list's prefetch distance, rather than when the visible items do. Entries that have not
+     * been loaded yet are placeholders, and are skipped.
+     */
+
+    pagedList.loadAround(Math.min(positions.last, pagedList.size - 1))
+
+    val entries = ArrayList<FeedEntry.FeedEntryOPDS>()
+    for (position in positions) {
+      if (position < pagedList.size) {
+        val row = pagedList[position]
+        if (row is CatalogPagedRow.CatalogPagedRowBook) {
+          entries.add(row.entry)
+        }
+      }
+    }
+
+    this.bookCovers.prefetchThumbnails(
+      entries,
+      0,
+      this.resources.getDimensionPixelSize(R.dimen.cover_thumbnail_height),
+      this.feedWithoutGroupsScrollListener.prefetchTag
+    )
+  }
+
   @UiThread
   private fun onCatalogFeedWithGroupsUI(
     feedState: CatalogFeedWithGroups
@@ -673,7 +784,7 @@ class CatalogFragmentFeed : Fragment() {
     this.feedErrorRetry.isEnabled = true
     this.feedErrorRetry.setOnClickListener { button ->
       button.isEnabled = false
-      this.feedModel.reloadFeed(this.feedModel.feedState().arguments)
+      this.feedModel.reloadFeed(this.feedModel.feedState().arguments, forceSync = true)
     }
 
     this.feedErrorDetails.isEnabled = true
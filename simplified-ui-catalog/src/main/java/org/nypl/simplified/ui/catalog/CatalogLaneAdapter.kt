@@ -7,16 +7,28 @@ import org.nypl.simplified.books.covers.BookCoverProviderType
 import org.nypl.simplified.feeds.api.FeedEntry
 
 /**
- * This adapter displays a list of feed items in a catalog lane.
+ * This adapter displays a list of feed items in a catalog lane. A single adapter is
+ * used for the lifetime of a lane view, and is given new items each time the lane
+ * is bound to a different group.
  *
  * @see CatalogLaneItemViewHolder
  */
 class CatalogLaneAdapter(
-  private val items: List<FeedEntry.FeedEntryOPDS>,
   private val coverLoader: BookCoverProviderType,
   private val onBookSelected: (FeedEntry.FeedEntryOPDS) -> Unit
 ) : RecyclerView.Adapter<CatalogLaneItemViewHolder>() {
 
+  private var items: List<FeedEntry.FeedEntryOPDS> = listOf()
+
+  /**
+   * Replace the items displayed in the lane.
+   */
+
+  fun setItems(newItems: List<FeedEntry.FeedEntryOPDS>) {
+    this.items = newItems
+    this.notifyDataSetChanged()
+  }
+
   override fun onCreateViewHolder(parent: ViewGroup, viewType: Int): CatalogLaneItemViewHolder {
     val view = LayoutInflater.from(parent.context).inflate(R.layout.feed_lane_item, parent, false)
     return CatalogLaneItemViewHolder(view, coverLoader, onBookSelected)
@@ -27,4 +39,8 @@ class CatalogLaneAdapter(
   override fun onBindViewHolder(holder: CatalogLaneItemViewHolder, position: Int) {
     holder.bindTo(items[position])
   }
+
+  override fun onViewRecycled(holder: CatalogLaneItemViewHolder) {
+    holder.unbind()
+  }
 }
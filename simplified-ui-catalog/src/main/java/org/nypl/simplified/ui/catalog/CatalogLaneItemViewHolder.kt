@@ -33,4 +33,15 @@ class CatalogLaneItemViewHolder(
       entry, imageView, 0, targetHeight
     )
   }
+
+  /**
+   * Release the view; any cover that is still loading is cancelled, as the view is no
+   * longer visible.
+   */
+
+  fun unbind() {
+    coverLoader.loadingThumbnailCancel(imageView)
+    imageView.setImageDrawable(null)
+    view.setOnClickListener(null)
+  }
 }
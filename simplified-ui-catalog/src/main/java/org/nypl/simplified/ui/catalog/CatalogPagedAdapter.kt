@@ -12,7 +12,8 @@ import org.slf4j.LoggerFactory
 
 /**
  * An adapter that handles views for paged lists. This is essentially responsible for
- * configuring the views of infinitely-scrolling feeds.
+ * configuring the views of infinitely-scrolling feeds. The rows are precomputed, and
+ * are diffed on a background thread by the paged list differ.
  */
 
 class CatalogPagedAdapter(
@@ -23,7 +24,7 @@ class CatalogPagedAdapter(
   private val onBookSelected: (FeedEntry.FeedEntryOPDS) -> Unit,
   private val services: ServiceDirectoryType,
   private val ownership: CatalogFeedOwnership
-) : PagedListAdapter<FeedEntry, CatalogPagedViewHolder>(CatalogPagedAdapterDiffing.comparisonCallback) {
+) : PagedListAdapter<CatalogPagedRow, CatalogPagedViewHolder>(CatalogPagedAdapterDiffing.comparisonCallback) {
 
   private val logger =
     LoggerFactory.getLogger(CatalogPagedAdapter::class.java)
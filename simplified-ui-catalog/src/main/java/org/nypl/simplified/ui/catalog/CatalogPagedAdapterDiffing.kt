@@ -1,26 +1,29 @@
 package org.nypl.simplified.ui.catalog
 
 import androidx.recyclerview.widget.DiffUtil
-import org.nypl.simplified.feeds.api.FeedEntry
+import org.nypl.simplified.ui.catalog.CatalogPagedRow.CatalogPagedRowBook
 
 /**
- * Functions to compare feed entries for paged adapters.
+ * Functions to compare rows for paged adapters.
  */
 
 object CatalogPagedAdapterDiffing {
 
   val comparisonCallback =
-    object : DiffUtil.ItemCallback<FeedEntry>() {
+    object : DiffUtil.ItemCallback<CatalogPagedRow>() {
       override fun areItemsTheSame(
-        oldItem: FeedEntry,
-        newItem: FeedEntry
+        oldItem: CatalogPagedRow,
+        newItem: CatalogPagedRow
       ): Boolean {
+        if (oldItem is CatalogPagedRowBook && newItem is CatalogPagedRowBook) {
+          return oldItem.bookID == newItem.bookID
+        }
         return oldItem == newItem
       }
 
       override fun areContentsTheSame(
-        oldItem: FeedEntry,
-        newItem: FeedEntry
+        oldItem: CatalogPagedRow,
+        newItem: CatalogPagedRow
       ): Boolean {
         return oldItem == newItem
       }
@@ -0,0 +1,156 @@
+package org.nypl.simplified.ui.catalog
+
+import android.content.res.Resources
+import org.nypl.simplified.books.api.Book
+import org.nypl.simplified.books.api.BookID
+import org.nypl.simplified.books.book_database.api.BookFormats.BookFormatDefinition.BOOK_FORMAT_AUDIO
+import org.nypl.simplified.books.book_database.api.BookFormats.BookFormatDefinition.BOOK_FORMAT_EPUB
+import org.nypl.simplified.books.book_database.api.BookFormats.BookFormatDefinition.BOOK_FORMAT_PDF
+import org.nypl.simplified.books.book_registry.BookStatus
+import org.nypl.simplified.books.book_registry.BookWithStatus
+import org.nypl.simplified.feeds.api.FeedEntry
+import org.nypl.simplified.feeds.api.FeedEntry.FeedEntryCorrupt
+import org.nypl.simplified.feeds.api.FeedEntry.FeedEntryOPDS
+
+/**
+ * An immutable, display-ready row in an infinitely-scrolling feed.
+ *
+ * Rows are computed from feed entries on the paging library's background thread as each page
+ * of a feed is loaded, so that binding a row to a view on the UI thread consists only of
+ * assigning precomputed values to views.
+ */
+
+sealed class CatalogPagedRow {
+
+  /**
+   * The feed entry from which the row was computed.
+   */
+
+  abstract val entry: FeedEntry
+
+  /**
+   * A row representing an entry that could not be parsed.
+   */
+
+  data class CatalogPagedRowCorrupt(
+    override val entry: FeedEntryCorrupt
+  ) : CatalogPagedRow()
+
+  /**
+   * A row representing a book.
+   */
+
+  data class CatalogPagedRowBook(
+    override val entry: FeedEntryOPDS,
+
+    /**
+     * The book title.
+     */
+
+    val title: String,
+
+    /**
+     * The book authors, separated with commas.
+     */
+
+    val authors: String,
+
+    /**
+     * The text describing the book format.
+     */
+
+    val meta: String,
+
+    /**
+     * The content description of the book cover.
+     */
+
+    val coverDescription: String,
+
+    /**
+     * The status of the book, synthesized from the feed entry. This is the status that is
+     * displayed if the book is not in the book registry (that is, if the user has never tried
+     * to borrow it).
+     */
+
+    val synthesizedStatus: BookWithStatus
+  ) : CatalogPagedRow() {
+    val bookID: BookID
+      get() = this.entry.bookID
+  }
+
+  companion object {
+
+    /**
+     * Compute a row for the given feed entry.
+     */
+
+    fun create(
+      resources: Resources,
+      entry: FeedEntry
+    ): CatalogPagedRow {
+      return when (entry) {
+        is FeedEntryCorrupt ->
+          CatalogPagedRowCorrupt(entry)
+        is FeedEntryOPDS ->
+          this.create(resources, entry)
+      }
+    }
+
+    /**
+     * Compute a row for the given OPDS feed entry.
+     */
+
+    fun create(
+      resources: Resources,
+      entry: FeedEntryOPDS
+    ): CatalogPagedRowBook {
+      return CatalogPagedRowBook(
+        entry = entry,
+        title = entry.feedEntry.title,
+        authors = entry.feedEntry.authorsCommaSeparated,
+        meta = this.metaOf(resources, entry),
+        coverDescription = CatalogBookAccessibilityStrings.coverDescription(resources, entry),
+        synthesizedStatus = this.synthesizeBookWithStatus(entry)
+      )
+    }
+
+    /**
+     * @return The text describing the probable format of the given entry, or an empty string
+     *   if the format is unknown
+     */
+
+    fun metaOf(
+      resources: Resources,
+      entry: FeedEntryOPDS
+    ): String {
+      return when (entry.probableFormat) {
+        BOOK_FORMAT_EPUB ->
+          resources.getString(R.string.catalogBookFormatEPUB)
+        BOOK_FORMAT_AUDIO ->
+          resources.getString(R.string.catalogBookFormatAudioBook)
+        BOOK_FORMAT_PDF ->
+          resources.getString(R.string.catalogBookFormatPDF)
+        null -> ""
+      }
+    }
+
+    /**
+     * Synthesize a status value based on the OPDS feed entry.
+     */
+
+    fun synthesizeBookWithStatus(
+      entry: FeedEntryOPDS
+    ): BookWithStatus {
+      val book = Book(
+        id = entry.bookID,
+        account = entry.accountID,
+        cover = null,
+        thumbnail = null,
+        entry = entry.feedEntry,
+        formats = listOf()
+      )
+      return BookWithStatus(book, BookStatus.fromBook(book))
+    }
+  }
+}
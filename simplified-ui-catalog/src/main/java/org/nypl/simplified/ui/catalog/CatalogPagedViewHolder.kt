@@ -17,23 +17,19 @@ import org.librarysimplified.services.api.ServiceDirectoryType
 import org.nypl.simplified.accounts.api.AccountID
 import org.nypl.simplified.books.api.Book
 import org.nypl.simplified.books.api.BookFormat
-import org.nypl.simplified.books.book_database.api.BookFormats.BookFormatDefinition.BOOK_FORMAT_AUDIO
-import org.nypl.simplified.books.book_database.api.BookFormats.BookFormatDefinition.BOOK_FORMAT_EPUB
-import org.nypl.simplified.books.book_database.api.BookFormats.BookFormatDefinition.BOOK_FORMAT_PDF
 import org.nypl.simplified.books.book_registry.BookRegistryReadableType
 import org.nypl.simplified.books.book_registry.BookStatus
 import org.nypl.simplified.books.book_registry.BookStatusEvent
 import org.nypl.simplified.books.book_registry.BookWithStatus
 import org.nypl.simplified.books.covers.BookCoverProviderType
 import org.nypl.simplified.buildconfig.api.BuildConfigurationServiceType
-import org.nypl.simplified.feeds.api.FeedEntry
-import org.nypl.simplified.feeds.api.FeedEntry.FeedEntryCorrupt
 import org.nypl.simplified.feeds.api.FeedEntry.FeedEntryOPDS
 import org.nypl.simplified.futures.FluentFutureExtensions.map
 import org.nypl.simplified.profiles.controller.api.ProfilesControllerType
 import org.nypl.simplified.taskrecorder.api.TaskResult
 import org.nypl.simplified.ui.accounts.AccountFragmentParameters
-import org.nypl.simplified.ui.catalog.R.string
+import org.nypl.simplified.ui.catalog.CatalogPagedRow.CatalogPagedRowBook
+import org.nypl.simplified.ui.catalog.CatalogPagedRow.CatalogPagedRowCorrupt
 import org.nypl.simplified.ui.errorpage.ErrorPageParameters
 import org.nypl.simplified.ui.thread.api.UIThreadServiceType
 import org.slf4j.LoggerFactory
@@ -109,22 +105,31 @@ class CatalogPagedViewHolder(
     this.error.findViewById<Button>(R.id.bookCellErrorButtonRetry)
 
   private var bookSubscription: Disposable? = null
-  private var feedEntry: FeedEntry? = null
+  private var row: CatalogPagedRow? = null
   private var loginSubscription: Disposable? = null
 
   private var isDownloadLoginVisible = false
 
-  fun bindTo(item: FeedEntry?) {
-    this.feedEntry = item
+  private val targetHeight =
+    this.parent.resources.getDimensionPixelSize(R.dimen.cover_thumbnail_height)
+
+  /**
+   * Bind the given precomputed row to the views. This is expected to do nothing more than
+   * assign values to views: the row was computed on a background thread when the page
+   * containing it was loaded.
+   */
+
+  fun bindTo(item: CatalogPagedRow?) {
+    this.row = item
     this.unbind()
 
     return when (item) {
-      is FeedEntryCorrupt -> {
+      is CatalogPagedRowCorrupt -> {
         this.setVisibilityIfNecessary(this.corrupt, View.VISIBLE)
         this.checkSomethingIsVisible()
       }
 
-      is FeedEntryOPDS -> {
+      is CatalogPagedRowBook -> {
         val newBookSubscription =
           this.bookRegistry.bookEvents().subscribe { bookEvent ->
             if (bookEvent.bookId == item.bookID) {
@@ -137,14 +142,14 @@ class CatalogPagedViewHolder(
         this.onFeedEntryOPDSUI(item)
 
         /*
-         * Retrieve the current status of the book, or synthesize a status value based on the
-         * OPDS feed entry if the book is not in the registry. The book will only be in the
-         * registry if the user has ever tried to borrow it (as per the registry spec).
+         * Retrieve the current status of the book, or use the status synthesized from the OPDS
+         * feed entry if the book is not in the registry. The book will only be in the registry
+         * if the user has ever tried to borrow it (as per the registry spec).
          */
 
         val status =
           this.bookRegistry.bookOrNull(item.bookID)
-            ?: this.synthesizeBookWithStatus(item)
+            ?: item.synthesizedStatus
 
         this.onBookWithStatus(status)
         this.checkSomethingIsVisible()
@@ -159,22 +164,6 @@ class CatalogPagedViewHolder(
     }
   }
 
-  private fun synthesizeBookWithStatus(
-    item: FeedEntryOPDS
-  ): BookWithStatus {
-    val book = Book(
-      id = item.bookID,
-      account = item.accountID,
-      cover = null,
-      thumbnail = null,
-      entry = item.feedEntry,
-      formats = listOf()
-    )
-    val status = BookStatus.fromBook(book)
-    this.logger.debug("Synthesizing {} with status {}", book.id, status)
-    return BookWithStatus(book, status)
-  }
-
   private fun setVisibilityIfNecessary(
     view: View,
     visibility: Int
@@ -185,7 +174,7 @@ class CatalogPagedViewHolder(
   }
 
   @UiThread
-  private fun onFeedEntryOPDSUI(item: FeedEntryOPDS) {
+  private fun onFeedEntryOPDSUI(row: CatalogPagedRowBook) {
     this.uiThread.checkIsUIThread()
 
     this.setVisibilityIfNecessary(this.corrupt, View.GONE)
@@ -195,30 +184,18 @@ class CatalogPagedViewHolder(
 
     this.setVisibilityIfNecessary(this.idleCover, View.INVISIBLE)
     this.idleCover.setImageDrawable(null)
-    this.idleCover.contentDescription =
-      CatalogBookAccessibilityStrings.coverDescription(this.context.resources, item)
+    this.idleCover.contentDescription = row.coverDescription
 
     this.setVisibilityIfNecessary(this.idleProgress, View.VISIBLE)
-    this.idleTitle.text = item.feedEntry.title
-    this.idleAuthor.text = item.feedEntry.authorsCommaSeparated
-    this.errorTitle.text = item.feedEntry.title
-
-    this.idleMeta.text = when (item.probableFormat) {
-      BOOK_FORMAT_EPUB ->
-        context.getString(string.catalogBookFormatEPUB)
-      BOOK_FORMAT_AUDIO ->
-        context.getString(string.catalogBookFormatAudioBook)
-      BOOK_FORMAT_PDF ->
-        context.getString(string.catalogBookFormatPDF)
-      null -> ""
-    }
+    this.idleTitle.text = row.title
+    this.idleAuthor.text = row.authors
+    this.errorTitle.text = row.title
+    this.idleMeta.text = row.meta
 
-    val targetHeight =
-      this.parent.resources.getDimensionPixelSize(R.dimen.cover_thumbnail_height)
-    val targetWidth = 0
+    val item = row.entry
     this.thumbnailLoading =
       this.bookCovers.loadThumbnailInto(
-        item, this.idleCover, targetWidth, targetHeight
+        item, this.idleCover, 0, this.targetHeight
       ).map {
         this.uiThread.runOnUIThread {
           this.setVisibilityIfNecessary(this.idleProgress, View.INVISIBLE)
@@ -233,22 +210,27 @@ class CatalogPagedViewHolder(
   }
 
   private fun onBookChanged(event: BookStatusEvent) {
-    val previousEntry =
-      this.feedEntry as FeedEntryOPDS
+    val previousRow =
+      this.row as CatalogPagedRowBook
 
     val bookWithStatus =
       this.bookRegistry.bookOrNull(event.bookId)
-        ?: this.synthesizeBookWithStatus(previousEntry)
+        ?: previousRow.synthesizedStatus
 
-    // Update the cached parameters with the feed entry. We'll need this later if the availability
+    // Update the cached row with the feed entry. We'll need this later if the availability
     // has changed but it's been removed from the registry (e.g. when revoking a hold).
-    this.feedEntry = FeedEntryOPDS(
-      accountID = previousEntry.accountID,
-      feedEntry = bookWithStatus.book.entry
-    )
+    val newRow =
+      CatalogPagedRow.create(
+        this.context.resources,
+        FeedEntryOPDS(
+          accountID = previousRow.entry.accountID,
+          feedEntry = bookWithStatus.book.entry
+        )
+      )
+    this.row = newRow
 
     this.uiThread.runOnUIThread {
-      this.onBookChangedUI(bookWithStatus)
+      this.onBookChangedUI(newRow, bookWithStatus)
       this.checkSomethingIsVisible()
     }
   }
@@ -265,10 +247,12 @@ class CatalogPagedViewHolder(
   }
 
   @UiThread
-  private fun onBookChangedUI(book: BookWithStatus) {
+  private fun onBookChangedUI(
+    row: CatalogPagedRowBook,
+    book: BookWithStatus
+  ) {
     this.uiThread.checkIsUIThread()
-    this.bindTo(this.feedEntry)
-    this.onFeedEntryOPDSUI(this.feedEntry as FeedEntryOPDS)
+    this.bindTo(row)
     this.onBookWithStatus(book)
   }
 
@@ -0,0 +1,103 @@
+package org.nypl.simplified.ui.catalog
+
+/**
+ * A calculator for the range of list items that should be prefetched as a list scrolls.
+ *
+ * The window covers the items just beyond the visible items in the direction of scrolling. A
+ * slowly scrolling list prefetches one screenful of items, and a list that is being flung
+ * prefetches up to three screenfuls. Items that have already been prefetched in the current
+ * direction are not returned again, and no more than a fixed number of items are returned at
+ * once.
+ */
+
+class CatalogPrefetchWindow(
+  private val maximumItems: Int
+) {
+
+  init {
+    require(this.maximumItems >= 1) { "Maximum items must be at least 1" }
+  }
+
+  private var prefetchedAfter = -1
+  private var prefetchedBefore = Int.MAX_VALUE
+
+  /**
+   * Forget which items have been prefetched. This should be called when the list contents
+   * change.
+   */
+
+  fun reset() {
+    this.prefetchedAfter = -1
+    this.prefetchedBefore = Int.MAX_VALUE
+  }
+
+  /**
+   * Determine the items that should be prefetched.
+   *
+   * @param firstVisible The position of the first visible item
+   * @param lastVisible The position of the last visible item
+   * @param itemCount The number of items in the list
+   * @param delta The distance in pixels scrolled since the last call; positive values indicate
+   *   scrolling towards the end of the list
+   * @param extent The size in pixels of the list in the scrolling direction
+   *
+   * @return The positions of the items to prefetch, nearest first
+   */
+
+  fun next(
+    firstVisible: Int,
+    lastVisible: Int,
+    itemCount: Int,
+    delta: Int,
+    extent: Int
+  ): IntProgression {
+    if (firstVisible < 0 || lastVisible < firstVisible || itemCount <= 0 || delta == 0) {
+      return IntRange.EMPTY
+    }
+
+    val visible = lastVisible - firstVisible + 1
+    val screens = this.screensFor(delta, extent)
+    val count = Math.min(this.maximumItems, visible * screens)
+
+    return if (delta > 0) {
+      val start = Math.max(lastVisible + 1, this.prefetchedAfter + 1)
+      val end = Math.min(itemCount - 1, lastVisible + count)
+      if (start > end) {
+        IntRange.EMPTY
+      } else {
+        this.prefetchedAfter = end
+        start..end
+      }
+    } else {
+      val start = Math.min(firstVisible - 1, this.prefetchedBefore - 1)
+      val end = Math.max(0, firstVisible - count)
+      if (start < end) {
+        IntRange.EMPTY
+      } else {
+        this.prefetchedBefore = end
+        start downTo end
+      }
+    }
+  }
+
+  /*
+   * Scroll events are delivered once per frame, so the distance scrolled relative to the size
+   * of the list is a measure of velocity: at 60 frames per second, a list moving a tenth of its
+   * size per frame passes six screenfuls of items per second.
+   */
+
+  private fun screensFor(
+    delta: Int,
+    extent: Int
+  ): Int {
+    if (extent <= 0) {
+      return 1
+    }
+    val fraction = Math.abs(delta).toDouble() / extent.toDouble()
+    return when {
+      fraction >= 0.1 -> 3
+      fraction >= 0.03 -> 2
+      else -> 1
+    }
+  }
+}
@@ -1,21 +1,53 @@
 package org.nypl.simplified.ui.catalog
 
+import androidx.recyclerview.widget.LinearLayoutManager
 import androidx.recyclerview.widget.RecyclerView
 import org.nypl.simplified.books.covers.BookCoverProviderType
 import org.slf4j.LoggerFactory
 
 /**
  * A recycler view scroll listener that pauses the loading of thumbnails during
- * scrolling. This is purely for improving scroll performance.
+ * scrolling, and prefetches the items that are about to become visible. This is
+ * purely for improving scroll performance.
+ *
+ * The `onPrefetch` function is called with the positions of the items that should
+ * be prefetched, nearest first, and should prefetch them with [prefetchTag]. Any
+ * prefetching that is in progress is cancelled when the scrolling direction changes.
+ * Each listener has its own tag, so resetting one list does not cancel the
+ * prefetching of any other list.
  */
 
 class CatalogScrollListener(
-  private val bookCovers: BookCoverProviderType
+  private val bookCovers: BookCoverProviderType,
+  private val onPrefetch: ((IntProgression) -> Unit)? = null
 ) : RecyclerView.OnScrollListener() {
 
   private val logger =
     LoggerFactory.getLogger(CatalogScrollListener::class.java)
 
+  private val prefetchWindow =
+    CatalogPrefetchWindow(maximumItems = 24)
+
+  private var lastDirection = 0
+
+  /**
+   * The tag with which the items of this list should be prefetched.
+   */
+
+  val prefetchTag: Any = Any()
+
+  /**
+   * Forget which items have been prefetched and the direction of scrolling, and cancel any
+   * prefetching of this list that is in progress. This should be called when the list
+   * contents change.
+   */
+
+  fun reset() {
+    this.prefetchWindow.reset()
+    this.lastDirection = 0
+    this.bookCovers.prefetchCancel(this.prefetchTag)
+  }
+
   override fun onScrollStateChanged(recyclerView: RecyclerView, newState: Int) {
     when (newState) {
       RecyclerView.SCROLL_STATE_DRAGGING -> {
@@ -29,4 +61,34 @@ class CatalogScrollListener(
       }
     }
   }
+
+  override fun onScrolled(recyclerView: RecyclerView, dx: Int, dy: Int) {
+    val prefetch = this.onPrefetch ?: return
+    val layoutManager = recyclerView.layoutManager as? LinearLayoutManager ?: return
+
+    val horizontal = layoutManager.orientation == LinearLayoutManager.HORIZONTAL
+    val delta = if (horizontal) dx else dy
+    val extent = if (horizontal) recyclerView.width else recyclerView.height
+
+    val direction = Integer.signum(delta)
+    if (direction != 0 && direction != this.lastDirection) {
+      if (this.lastDirection != 0) {
+        this.reset()
+      }
+      this.lastDirection = direction
+    }
+
+    val positions =
+      this.prefetchWindow.next(
+        firstVisible = layoutManager.findFirstVisibleItemPosition(),
+        lastVisible = layoutManager.findLastVisibleItemPosition(),
+        itemCount = layoutManager.itemCount,
+        delta = delta,
+        extent = extent
+      )
+
+    if (!positions.isEmpty()) {
+      prefetch.invoke(positions)
+    }
+  }
 }
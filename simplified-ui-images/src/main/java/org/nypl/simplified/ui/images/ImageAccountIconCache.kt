@@ -0,0 +1,263 @@
+package org.nypl.simplified.ui.images
+
+import android.graphics.Bitmap
+import android.graphics.BitmapFactory
+import org.nypl.simplified.opds.core.OPDSBookIDDeriver
+import org.slf4j.LoggerFactory
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.net.URI
+
+/**
+ * A disk cache of decoded account icons.
+ *
+ * Account icons are usually delivered as Base64 `data:` URIs inside account provider
+ * descriptions, and the same icons are bound to views repeatedly as account lists scroll.
+ * Icons are decoded once to the size at which they are displayed, and written to disk as small
+ * PNG files so that they need not be decoded again when the application next starts. The files
+ * on disk are bounded in total size, and the least recently used files are deleted when the
+ * bound is exceeded.
+ *
+ * Decoded icons are not held in memory here: every icon returned is a new bitmap owned by the
+ * caller. Picasso holds icons in its own bounded memory cache, keyed by the stable key of each
+ * request, and may recycle the bitmaps that it is given.
+ *
+ * Icons are keyed by the account provider ID and the SHA-256 hash of the icon URI, so an icon
+ * is decoded again if a provider changes its icon.
+ */
+
+class ImageAccountIconCache(
+  private val directory: File,
+  private val maximumDiskBytes: Long = DEFAULT_MAXIMUM_DISK_BYTES
+) {
+
+  companion object {
+
+    /**
+     * The prefix of the stable keys of account icon requests.
+     */
+
+    const val KEY_PREFIX = "account-icon:"
+
+    /**
+     * The default maximum number of bytes of icons held on disk.
+     */
+
+    const val DEFAULT_MAXIMUM_DISK_BYTES = 8L * 1024L * 1024L
+
+    /**
+     * The age in milliseconds after which a temporary file is assumed to have been left behind
+     * by a process that died whilst saving an icon.
+     */
+
+    const val STALE_TEMPORARY_FILE_MILLIS = 60_000L
+
+    /**
+     * @return The cache key for the given icon of the given account provider
+     */
+
+    @JvmStatic
+    fun keyOf(
+      providerId: URI,
+      icon: URI
+    ): String =
+      "$KEY_PREFIX$providerId:${OPDSBookIDDeriver.hashOf(icon.toString())}"
+
+    /**
+     * @return The largest power of two by which an image of the given dimensions can be
+     *   subsampled whilst keeping its largest side at least `size` pixels, or `1` if `size`
+     *   is not positive
+     */
+
+    @JvmStatic
+    fun sampleSizeOf(
+      width: Int,
+      height: Int,
+      size: Int
+    ): Int {
+      if (size <= 0) {
+        return 1
+      }
+      val largest = Math.max(width, height)
+      var sampleSize = 1
+      while (largest / (sampleSize * 2) >= size) {
+        sampleSize *= 2
+      }
+      return sampleSize
+    }
+
+    /**
+     * @return The dimensions to which an image of the given dimensions must be scaled so that
+     *   its largest side is at most `size` pixels, or `null` if no scaling is required
+     */
+
+    @JvmStatic
+    fun scaledSizeOf(
+      width: Int,
+      height: Int,
+      size: Int
+    ): Pair<Int, Int>? {
+      val largest = Math.max(width, height)
+      if (size <= 0 || largest <= size) {
+        return null
+      }
+      val scale = size.toDouble() / largest.toDouble()
+      return Pair(
+        Math.max(1, (width * scale).toInt()),
+        Math.max(1, (height * scale).toInt())
+      )
+    }
+
+    /**
+     * Delete the least recently modified icons in the given directory until the icons fit
+     * within the given number of bytes. Temporary files older than
+     * [STALE_TEMPORARY_FILE_MILLIS] are deleted too.
+     *
+     * @param directory The directory
+     * @param maximumBytes The maximum total size of the icons
+     * @param now The current time, in milliseconds since the epoch
+     */
+
+    @JvmStatic
+    fun trimDirectory(
+      directory: File,
+      maximumBytes: Long,
+      now: Long
+    ) {
+      val staleTime = now - STALE_TEMPORARY_FILE_MILLIS
+      directory.listFiles { file -> file.name.endsWith(".tmp") }
+        ?.filter { file -> file.lastModified() < staleTime }
+        ?.forEach { file -> file.delete() }
+
+      val files =
+        directory.listFiles { file -> file.isFile && file.name.endsWith(".png") }
+          ?: return
+
+      var total = files.fold(0L) { sum, file -> sum + file.length() }
+      if (total <= maximumBytes) {
+        return
+      }
+
+      files.sortBy(File::lastModified)
+      for (file in files) {
+        if (total <= maximumBytes) {
+          break
+        }
+        val size = file.length()
+        if (file.delete()) {
+          total -= size
+        }
+      }
+    }
+  }
+
+  private val logger =
+    LoggerFactory.getLogger(ImageAccountIconCache::class.java)
+
+  private val diskLock = Any()
+
+  /**
+   * Retrieve the icon with the given key at the given size, decoding it from the given data URI
+   * if it is not cached.
+   *
+   * @param key The key, as returned by [keyOf]
+   * @param dataURI The `data:` URI of the icon
+   * @param size The size in pixels of the largest side of the displayed icon, or `0` if the
+   *   icon should be decoded at its original size
+   *
+   * @return A new bitmap containing the icon, or `null` if the icon could not be decoded
+   */
+
+  fun get(
+    key: String,
+    dataURI: String,
+    size: Int
+  ): Bitmap? {
+    val file = this.fileOf("$key:$size")
+    val stored = this.loadFromDisk(file)
+    if (stored != null) {
+      return stored
+    }
+
+    val decoded = this.decode(dataURI, size) ?: return null
+    this.saveToDisk(file, decoded)
+    return decoded
+  }
+
+  private fun decode(
+    dataURI: String,
+    size: Int
+  ): Bitmap? {
+    val data = ImageIconViews.bytesFromBase64URI(dataURI) ?: return null
+
+    val bounds = BitmapFactory.Options()
+    bounds.inJustDecodeBounds = true
+    BitmapFactory.decodeByteArray(data, 0, data.size, bounds)
+    if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+      return null
+    }
+
+    /*
+     * Subsample by the largest power of two that keeps the image at least as large as the
+     * requested size, and then scale the rest of the way.
+     */
+
+    val options = BitmapFactory.Options()
+    options.inSampleSize = sampleSizeOf(bounds.outWidth, bounds.outHeight, size)
+
+    val bitmap =
+      BitmapFactory.decodeByteArray(data, 0, data.size, options) ?: return null
+    val scaledSize =
+      scaledSizeOf(bitmap.width, bitmap.height, size) ?: return bitmap
+
+    val scaled =
+      Bitmap.createScaledBitmap(bitmap, scaledSize.first, scaledSize.second, true)
+    if (scaled !== bitmap) {
+      bitmap.recycle()
+    }
+    return scaled
+  }
+
+  private fun loadFromDisk(file: File): Bitmap? {
+    if (!file.isFile) {
+      return null
+    }
+
+    /*
+     * Mark the file as recently used so that it is not the first to be evicted.
+     */
+
+    file.setLastModified(System.currentTimeMillis())
+    return BitmapFactory.decodeFile(file.absolutePath)
+  }
+
+  private fun saveToDisk(
+    file: File,
+    bitmap: Bitmap
+  ) {
+    var fileTmp: File? = null
+    try {
+      this.directory.mkdirs()
+      fileTmp = File.createTempFile("icon", ".tmp", this.directory)
+      FileOutputStream(fileTmp).use { stream ->
+        bitmap.compress(Bitmap.CompressFormat.PNG, 100, stream)
+      }
+      if (!fileTmp.renameTo(file)) {
+        throw IOException("Could not rename $fileTmp to $file")
+      }
+      fileTmp = null
+
+      synchronized(this.diskLock) {
+        trimDirectory(this.directory, this.maximumDiskBytes, System.currentTimeMillis())
+      }
+    } catch (e: IOException) {
+      this.logger.error("could not save account icon {}: ", file, e)
+    } finally {
+      fileTmp?.delete()
+    }
+  }
+
+  private fun fileOf(sizedKey: String): File =
+    File(this.directory, "${OPDSBookIDDeriver.hashOf(sizedKey)}.png")
+}
@@ -2,24 +2,34 @@ package org.nypl.simplified.ui.images
 
 import android.content.Context
 import com.squareup.picasso.Picasso.LoadedFrom.DISK
-import com.squareup.picasso.Picasso.LoadedFrom.NETWORK
 import com.squareup.picasso.Request
 import com.squareup.picasso.RequestHandler
 import okio.Okio
 import java.io.ByteArrayInputStream
-import java.net.URL
+import java.io.File
 
 /**
  * A Picasso request handler for account icons.
  *
  * Most account icons are using a `data:` URI scheme with a Base64 encoded PNG as the payload.
+ * Requests for these icons that carry a stable key from [ImageAccountIconCache.keyOf] are
+ * decoded through an [ImageAccountIconCache] at the requested size. Icons with other schemes
+ * are left to Picasso's own handlers so that remote icons are fetched through the (caching)
+ * downloader.
  */
 
 class ImageAccountIconRequestHandler(
-  private val context: Context
+  private val context: Context,
+  private val cache: ImageAccountIconCache =
+    ImageAccountIconCache(File(context.cacheDir, "account-icons"))
 ) : RequestHandler() {
 
-  override fun canHandleRequest(data: Request): Boolean = true
+  override fun canHandleRequest(data: Request): Boolean {
+    return when (data.uri.scheme) {
+      "data", "simplified-asset" -> true
+      else -> false
+    }
+  }
 
   override fun load(
     request: Request,
@@ -27,7 +37,7 @@ class ImageAccountIconRequestHandler(
   ): Result {
     return when (request.uri.scheme) {
       "data" -> {
-        val bitmap = ImageIconViews.imageFromBase64URI(request.uri.toString())
+        val bitmap = this.decode(request)
         if (bitmap != null) {
           Result(bitmap, DISK)
         } else {
@@ -44,12 +54,22 @@ class ImageAccountIconRequestHandler(
         }
       }
 
-      else -> {
-        Result(Okio.source(URL(request.uri.toString()).openStream()), NETWORK)
-      }
+      else ->
+        this.failQuietly()
     }
   }
 
+  private fun decode(request: Request) =
+    if (request.stableKey?.startsWith(ImageAccountIconCache.KEY_PREFIX) == true) {
+      this.cache.get(
+        key = request.stableKey,
+        dataURI = request.uri.toString(),
+        size = Math.max(request.targetWidth, request.targetHeight)
+      )
+    } else {
+      ImageIconViews.imageFromBase64URI(request.uri.toString())
+    }
+
   private fun failQuietly() =
     Result(Okio.source(ByteArrayInputStream(ByteArray(0))), DISK)
 }
@@ -15,6 +15,13 @@ object ImageAccountIcons {
   private val logger =
     LoggerFactory.getLogger(ImageAccountIcons::class.java)
 
+  /**
+   * The size at which account icons are decoded. Icons are displayed at sizes no larger than
+   * this, and larger icons are scaled down when decoded.
+   */
+
+  private const val ICON_SIZE_DP = 64.0f
+
   /**
    * Load the logo of the given account into the given image view,
    * or load a default image if the account does not have a logo.
@@ -28,15 +35,32 @@ object ImageAccountIcons {
     iconView: ImageView
   ) {
     val uri = account.logoURI?.hrefURI
-    this.logger.debug("configuring account logo: {}", uri)
+    this.logger.debug("configuring account logo: {} ({})", account.id, uri?.scheme)
 
     if (uri == null) {
       iconView.setImageResource(defaultIcon)
       return
     }
 
-    loader
-      .load(uri.toString())
+    val size =
+      (ICON_SIZE_DP * iconView.resources.displayMetrics.density).toInt()
+
+    val request =
+      loader.load(uri.toString())
+        .resize(size, size)
+        .centerInside()
+        .onlyScaleDown()
+
+    /*
+     * A stable key allows the icon cache to recognize data URIs, and saves Picasso from
+     * keying its memory cache by the (often large) URI itself.
+     */
+
+    if (uri.scheme == "data") {
+      request.stableKey(ImageAccountIconCache.keyOf(account.id, uri))
+    }
+
+    request
       .placeholder(defaultIcon)
       .error(defaultIcon)
       .into(iconView)
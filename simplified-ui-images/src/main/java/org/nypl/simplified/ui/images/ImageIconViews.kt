@@ -53,6 +53,17 @@ object ImageIconViews {
    */
 
   fun imageFromBase64URI(text: String): Bitmap? {
+    val data = this.bytesFromBase64URI(text) ?: return null
+    return BitmapFactory.decodeByteArray(data, 0, data.size)
+  }
+
+  /**
+   * Decode the payload of a Base64 data URI.
+   *
+   * @param text The data URI
+   */
+
+  fun bytesFromBase64URI(text: String): ByteArray? {
     Preconditions.checkArgument(
       text.startsWith("data:"),
       "Base64 URI must begin with 'data:'"
@@ -60,9 +71,12 @@ object ImageIconViews {
 
     val comma = text.indexOf(',')
     if (comma != -1) {
-      val base64String = text.substring(comma)
-      val data = Base64.decode(base64String, 0)
-      return BitmapFactory.decodeByteArray(data, 0, data.size)
+      return try {
+        Base64.decode(text.substring(comma + 1), 0)
+      } catch (e: IllegalArgumentException) {
+        LOG.error("could not decode Base64 URI: ", e)
+        null
+      }
     }
     return null
   }
@@ -10,7 +10,9 @@ import com.google.common.util.concurrent.ListeningExecutorService
 import org.librarysimplified.audiobook.manifest.api.PlayerManifest
 import org.librarysimplified.services.api.Services
 import org.nypl.simplified.accounts.api.AccountAuthenticationCredentials
+import org.nypl.simplified.books.audio.AudioBookManifestData
 import org.nypl.simplified.books.audio.AudioBookManifestStrategiesType
+import org.nypl.simplified.books.audio.AudioBookManifestStrategyType
 import org.nypl.simplified.profiles.controller.api.ProfilesControllerType
 import org.nypl.simplified.taskrecorder.api.TaskResult
 import org.nypl.simplified.ui.thread.api.UIThreadServiceType
@@ -18,7 +20,13 @@ import org.slf4j.LoggerFactory
 import java.io.IOException
 
 /**
- * A fragment that downloads and updates an audio book manifest.
+ * A fragment that loads an audio book manifest.
+ *
+ * The manifest stored in the book database is used if it is present, parses, and passes the
+ * license checks (which include checks for expired licenses), so opening a book that has been
+ * opened before does not have to wait for the network. The manifest is then revalidated against
+ * the server in the background, and the listener is notified if a changed manifest is received.
+ * Only if the stored manifest cannot be used does loading wait for a fresh download.
  */
 
 class AudioBookLoadingFragment : Fragment() {
@@ -108,7 +116,9 @@ class AudioBookLoadingFragment : Fragment() {
           this.progress.progress = 0
         }
 
-        val manifest = this.downloadAndSaveManifest(credentials)
+        val strategy = this.createStrategy(credentials)
+        val local = this.loadLocalManifest(strategy)
+        val manifest = local?.manifest ?: this.downloadAndSaveManifest(strategy)
 
         this.uiThread.runOnUIThread {
           this.progress.isIndeterminate = false
@@ -116,6 +126,10 @@ class AudioBookLoadingFragment : Fragment() {
         }
 
         this.listener.onLoadingFragmentLoadingFinished(manifest)
+
+        if (local != null) {
+          this.revalidateManifest(strategy, local)
+        }
       } catch (e: Exception) {
         this.uiThread.runOnUIThread {
           this.progress.isIndeterminate = false
@@ -127,16 +141,83 @@ class AudioBookLoadingFragment : Fragment() {
     }
   }
 
-  private fun downloadAndSaveManifest(
+  private fun createStrategy(
     credentials: AccountAuthenticationCredentials?
+  ): AudioBookManifestStrategyType {
+    return this.playerParameters.toManifestStrategy(
+      this.strategies,
+      this.listener::onLoadingFragmentIsNetworkConnectivityAvailable,
+      credentials,
+      this.requireContext().cacheDir
+    )
+  }
+
+  /**
+   * Load, parse, and license check the locally stored manifest. Returns `null` if the stored
+   * manifest is missing or unusable (for example, because the license has expired).
+   */
+
+  private fun loadLocalManifest(
+    strategy: AudioBookManifestStrategyType
+  ): AudioBookManifestData? {
+    return when (val localResult = strategy.executeLocal()) {
+      is TaskResult.Success -> {
+        this.log.debug("using the stored manifest")
+        localResult.result
+      }
+      is TaskResult.Failure -> {
+        this.log.debug("stored manifest is not usable: {}", localResult.message)
+        null
+      }
+    }
+  }
+
+  /**
+   * Download a fresh copy of a manifest that was loaded locally. If the manifest has changed,
+   * save it and hand it to the listener. Failures are logged and otherwise ignored; the
+   * player continues to use the local manifest.
+   */
+
+  private fun revalidateManifest(
+    strategy: AudioBookManifestStrategyType,
+    local: AudioBookManifestData
+  ) {
+    if (!this.listener.onLoadingFragmentIsNetworkConnectivityAvailable()) {
+      this.log.debug("network is unavailable; not revalidating the manifest")
+      return
+    }
+
+    this.ioExecutor.execute {
+      try {
+        when (val strategyResult = strategy.execute()) {
+          is TaskResult.Success -> {
+            val refreshed = strategyResult.result
+            if (refreshed.fulfilled.data.contentEquals(local.fulfilled.data)) {
+              this.log.debug("manifest is unchanged")
+              return@execute
+            }
+
+            this.log.debug("manifest has changed; replacing it")
+            AudioBookHelpers.saveManifest(
+              profiles = this.profiles,
+              bookId = this.playerParameters.bookID,
+              manifestURI = this.playerParameters.manifestURI,
+              manifest = refreshed.fulfilled
+            )
+            this.listener.onLoadingFragmentManifestRevalidated(refreshed.manifest)
+          }
+          is TaskResult.Failure ->
+            this.log.debug("could not revalidate manifest: {}", strategyResult.message)
+        }
+      } catch (e: Exception) {
+        this.log.error("could not revalidate manifest: ", e)
+      }
+    }
+  }
+
+  private fun downloadAndSaveManifest(
+    strategy: AudioBookManifestStrategyType
   ): PlayerManifest {
-    val strategy =
-      this.playerParameters.toManifestStrategy(
-        this.strategies,
-        this.listener::onLoadingFragmentIsNetworkConnectivityAvailable,
-        credentials,
-        this.requireContext().cacheDir
-      )
     return when (val strategyResult = strategy.execute()) {
       is TaskResult.Success -> {
         AudioBookHelpers.saveManifest(
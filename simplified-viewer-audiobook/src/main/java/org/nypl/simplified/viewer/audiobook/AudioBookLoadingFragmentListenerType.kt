@@ -33,6 +33,13 @@ interface AudioBookLoadingFragmentListenerType {
 
   fun onLoadingFragmentLoadingFinished(manifest: PlayerManifest)
 
+  /**
+   * Called after loading has finished with a locally stored manifest, if a changed copy of the
+   * manifest was subsequently received from the server. The new manifest has already been saved.
+   */
+
+  fun onLoadingFragmentManifestRevalidated(manifest: PlayerManifest)
+
   /**
    * Called when the loading and parsing of the manifest has failed.
    */
@@ -27,7 +27,11 @@ import org.librarysimplified.audiobook.api.PlayerPosition
 import org.librarysimplified.audiobook.api.PlayerResult
 import org.librarysimplified.audiobook.api.PlayerSleepTimer
 import org.librarysimplified.audiobook.api.PlayerSleepTimerType
+import org.librarysimplified.audiobook.api.PlayerSpineElementDownloadStatus
 import org.librarysimplified.audiobook.api.PlayerSpineElementDownloadStatus.PlayerSpineElementDownloadExpired
+import org.librarysimplified.audiobook.api.PlayerSpineElementDownloadStatus.PlayerSpineElementDownloadFailed
+import org.librarysimplified.audiobook.api.PlayerSpineElementDownloadStatus.PlayerSpineElementDownloaded
+import org.librarysimplified.audiobook.api.PlayerSpineElementDownloadStatus.PlayerSpineElementNotDownloaded
 import org.librarysimplified.audiobook.api.PlayerType
 import org.librarysimplified.audiobook.api.PlayerUserAgent
 import org.librarysimplified.audiobook.api.extensions.PlayerExtensionType
@@ -46,6 +50,7 @@ import org.librarysimplified.http.api.LSHTTPClientType
 import org.librarysimplified.services.api.ServiceDirectoryType
 import org.librarysimplified.services.api.Services
 import org.nypl.simplified.accounts.api.AccountAuthenticationCredentials
+import org.nypl.simplified.books.audio.AudioBookDownloadScheduler
 import org.nypl.simplified.books.audio.AudioBookFeedbooksSecretServiceType
 import org.nypl.simplified.books.audio.AudioBookManifestStrategiesType
 import org.nypl.simplified.books.book_database.api.BookDatabaseEntryFormatHandle.BookDatabaseEntryFormatHandleAudioBook
@@ -83,6 +88,18 @@ class AudioBookPlayerActivity :
 
   companion object {
 
+    /**
+     * The maximum number of parts that will be downloaded simultaneously.
+     */
+
+    private const val PART_DOWNLOADS_CONCURRENT = 2
+
+    /**
+     * The number of parts after the current part that are downloaded with high priority.
+     */
+
+    private const val PART_DOWNLOADS_LOOKAHEAD = 2
+
     private const val PARAMETER_ID =
       "org.nypl.simplified.viewer.audiobook.AudioBookPlayerActivity.parameters"
 
@@ -114,10 +131,13 @@ class AudioBookPlayerActivity :
   private lateinit var bookTitle: String
   private lateinit var covers: BookCoverProviderType
   private lateinit var downloadExecutor: ListeningExecutorService
+  private lateinit var downloadScheduler: AudioBookDownloadScheduler
+  private lateinit var downloadStatusSubscription: Subscription
   private lateinit var downloadProvider: PlayerDownloadProviderType
   private lateinit var formatHandle: BookDatabaseEntryFormatHandleAudioBook
   private lateinit var http: LSHTTPClientType
   private lateinit var loadingFragment: AudioBookLoadingFragment
+  private lateinit var partDownloadExecutor: ListeningExecutorService
   private lateinit var networkConnectivity: NetworkConnectivityType
   private lateinit var parameters: AudioBookPlayerParameters
   private lateinit var player: PlayerType
@@ -217,6 +237,16 @@ class AudioBookPlayerActivity :
     this.downloadProvider =
       DownloadProvider.create(this.downloadExecutor)
 
+    /*
+     * Create a separate executor for downloading book parts, so that the parts chosen by the
+     * download scheduler can proceed in parallel without delaying manifest requests.
+     */
+
+    this.partDownloadExecutor =
+      MoreExecutors.listeningDecorator(
+        NamedThreadPools.namedThreadPool(PART_DOWNLOADS_CONCURRENT, "audiobook-parts", 19)
+      )
+
     /*
      * Create a sleep timer.
      */
@@ -279,6 +309,7 @@ class AudioBookPlayerActivity :
       }
 
       this.bookSubscription.unsubscribe()
+      this.downloadStatusSubscription.unsubscribe()
       this.playerSubscription.unsubscribe()
 
       try {
@@ -289,6 +320,9 @@ class AudioBookPlayerActivity :
     }
 
     this.downloadExecutor.shutdown()
+    if (this::partDownloadExecutor.isInitialized) {
+      this.partDownloadExecutor.shutdown()
+    }
     this.playerScheduledExecutor.shutdown()
   }
 
@@ -335,7 +369,7 @@ class AudioBookPlayerActivity :
       PlayerAudioEngineRequest(
         manifest = manifest,
         filter = { true },
-        downloadProvider = DownloadProvider.create(this.downloadExecutor),
+        downloadProvider = DownloadProvider.create(this.partDownloadExecutor),
         userAgent = PlayerUserAgent(this.parameters.userAgent)
       )
     )
@@ -396,10 +430,23 @@ class AudioBookPlayerActivity :
     this.playerSubscription =
       this.player.events.subscribe(this::onPlayerEvent)
 
+    val spine = this.book.spine
+    this.downloadScheduler =
+      AudioBookDownloadScheduler(
+        partCount = spine.size,
+        maximumConcurrent = PART_DOWNLOADS_CONCURRENT,
+        lookahead = PART_DOWNLOADS_LOOKAHEAD,
+        isDownloaded = { index -> spine[index].downloadStatus is PlayerSpineElementDownloaded },
+        start = { index -> spine[index].downloadTask.fetch() },
+        cancel = { index -> spine[index].downloadTask.cancel() }
+      )
+    this.downloadStatusSubscription =
+      this.book.spineElementDownloadStatus.subscribe(this::onDownloadStatusChanged)
+
     this.playerInitialized = true
 
-    this.restoreSavedPlayerPosition()
-    this.startAllPartsDownloading()
+    val currentPart = this.restoreSavedPlayerPosition()
+    this.startAllPartsDownloading(currentPart)
 
     /*
      * Create and load the main player fragment into the holder view declared in the activity.
@@ -419,6 +466,23 @@ class AudioBookPlayerActivity :
     }
   }
 
+  override fun onLoadingFragmentManifestRevalidated(manifest: PlayerManifest) {
+    if (this.destroying || !this.playerInitialized) {
+      return
+    }
+
+    if (this.reloadingManifest.compareAndSet(false, true)) {
+      try {
+        this.log.debug("replacing manifest with revalidated copy")
+        this.book.replaceManifest(manifest)
+      } catch (e: Exception) {
+        this.log.error("onLoadingFragmentManifestRevalidated: failed to replace manifest: ", e)
+      } finally {
+        this.reloadingManifest.set(false)
+      }
+    }
+  }
+
   private fun downloadAndSaveManifest(
     credentials: AccountAuthenticationCredentials?
   ): PlayerManifest {
@@ -459,6 +523,7 @@ class AudioBookPlayerActivity :
                 .credentials
             )
           )
+          this.downloadScheduler.retryFailed()
         } catch (e: Exception) {
           this.log.error("onDownloadExpired: failed to download/replace manifest: ", e)
         } finally {
@@ -499,14 +564,19 @@ class AudioBookPlayerActivity :
     }
   }
 
-  private fun restoreSavedPlayerPosition() {
-    var restored = false
+  /**
+   * Restore the saved player position, returning the index of the spine element that contains
+   * the playhead.
+   */
 
+  private fun restoreSavedPlayerPosition(): Int {
     try {
       val position = this.formatHandle.format.position
       if (position != null) {
         this.player.movePlayheadToLocation(position)
-        restored = true
+        return this.book.spine.indexOfFirst { element ->
+          element.position.part == position.part && element.position.chapter == position.chapter
+        }.coerceAtLeast(0)
       }
     } catch (e: Exception) {
       this.log.error("unable to load saved player position: ", e)
@@ -516,22 +586,44 @@ class AudioBookPlayerActivity :
      * Explicitly wind back to the start of the book if there isn't a suitable position saved.
      */
 
-    if (!restored) {
-      this.player.movePlayheadToLocation(this.book.spine[0].position)
-    }
+    this.player.movePlayheadToLocation(this.book.spine[0].position)
+    return 0
   }
 
-  private fun startAllPartsDownloading() {
+  private fun startAllPartsDownloading(currentPart: Int) {
     if (this.networkConnectivity.isNetworkAvailable) {
-      this.book.wholeBookDownloadTask.fetch()
+      this.downloadScheduler.start(currentPart)
     }
   }
 
   private fun cancelAllDownloads() {
+    this.downloadScheduler.stop()
     this.book.wholeBookDownloadTask.cancel()
   }
 
+  private fun onDownloadStatusChanged(status: PlayerSpineElementDownloadStatus) {
+    return when (status) {
+      is PlayerSpineElementDownloaded ->
+        this.downloadScheduler.onPartDownloaded(status.spineElement.index)
+      is PlayerSpineElementNotDownloaded,
+      is PlayerSpineElementDownloadFailed,
+      is PlayerSpineElementDownloadExpired ->
+        this.downloadScheduler.onPartFailed(status.spineElement.index)
+      else ->
+        Unit
+    }
+  }
+
   private fun onPlayerEvent(event: PlayerEvent) {
+    /*
+     * Any event concerning a spine element other than a completed one indicates where the
+     * playhead is now; the download scheduler ignores events that do not change the part.
+     */
+
+    if (event is PlayerEvent.PlayerEventWithSpineElement && event !is PlayerEventChapterCompleted) {
+      this.downloadScheduler.onCurrentPartChanged(event.spineElement.index)
+    }
+
     return when (event) {
       is PlayerEventPlaybackStarted ->
         this.playerLastPosition =
@@ -122,7 +122,8 @@ public final class ReaderActivity extends AppCompatActivity implements
 
   private BookID book_id;
   private OPDSAcquisitionFeedEntry feed_entry;
-  private Container epub_container;
+  private volatile Container epub_container;
+  private volatile boolean destroyed;
   private ReaderReadiumJavaScriptAPIType readium_js_api;
   private ReaderSimplifiedJavaScriptAPIType simplified_js_api;
   private ImageView view_bookmark;
@@ -468,7 +469,14 @@ public final class ReaderActivity extends AppCompatActivity implements
     s.setAllowContentAccess(false);
     s.setAllowUniversalAccessFromFileURLs(false);
     s.setSupportMultipleWindows(false);
-    s.setCacheMode(WebSettings.LOAD_NO_CACHE);
+
+    /*
+     * The reader HTTP server marks bundled assets as immutable and tags package resources so
+     * that they can be revalidated cheaply. The cache is cleared when the reader is opened and
+     * closed, so nothing survives beyond a single reading session.
+     */
+
+    s.setCacheMode(WebSettings.LOAD_DEFAULT);
     s.setGeolocationEnabled(false);
     s.setJavaScriptEnabled(true);
 
@@ -662,9 +670,30 @@ public final class ReaderActivity extends AppCompatActivity implements
     }
     this.profile_subscription = null;
 
+    /*
+     * Stop serving the book and hand the container back to the loader, which
+     * may close it at any point from now on.
+     */
+
+    this.destroyed = true;
+    final Container container = this.epub_container;
+    this.epub_container = null;
+    if (container != null) {
+      this.releaseContainer(container);
+    }
+
     clearWebCache();
   }
 
+  private void releaseContainer(final Container container) {
+    Services.INSTANCE.serviceDirectory()
+      .requireService(ReaderHTTPServerType.class)
+      .releasePackage(container.getDefaultPackage());
+    Services.INSTANCE.serviceDirectory()
+      .requireService(ReaderReadiumEPUBLoaderType.class)
+      .releaseEPUB(container);
+  }
+
   private void clearWebCache() {
     LOG.debug("clearing the webview cache");
     this.view_web_view.clearCache(true);
@@ -685,6 +714,12 @@ public final class ReaderActivity extends AppCompatActivity implements
   public void onEPUBLoadSucceeded(final Container c) {
     LOG.debug("onEPUBLoadSucceeded: {}", c.getName());
 
+    if (this.destroyed) {
+      LOG.debug("onEPUBLoadSucceeded: activity has been destroyed");
+      this.releaseContainer(c);
+      return;
+    }
+
     this.epub_container = c;
     final Package p = Objects.requireNonNull(c.getDefaultPackage());
 
@@ -926,9 +961,21 @@ public final class ReaderActivity extends AppCompatActivity implements
     final ProgressBar in_progress_bar =
       Objects.requireNonNull(this.view_progress_bar);
 
-    final Container container = Objects.requireNonNull(this.epub_container);
+    final Container container = this.epub_container;
+    if (container == null) {
+      return;
+    }
     final Package default_package = Objects.requireNonNull(container.getDefaultPackage());
 
+    /*
+     * Start loading the chapters that follow the current position in the
+     * background, so that turning to the next chapter does not stall.
+     */
+
+    Services.INSTANCE.serviceDirectory()
+      .requireService(ReaderHTTPServerType.class)
+      .prefetchAfter(e);
+
     uiThread.runOnUIThread(() -> {
       final double p = e.getProgressFractional();
       in_progress_bar.setMax(100);
@@ -53,34 +53,46 @@ final class ReaderHTTPByteRangeInputStream extends InputStream
   private final boolean                  is_range;
   private       long                     requested_offset;
   private       long                     already_read;
-  private boolean is_open = true;
+  private final byte[]                   single;
+  private final Runnable                 on_close;
+  private volatile boolean is_open = true;
 
   ReaderHTTPByteRangeInputStream(
     final ResourceInputStream in_is,
     final boolean in_range,
-    final ReaderNativeCodeReadLock in_lock)
+    final ReaderNativeCodeReadLock in_lock,
+    final Runnable in_on_close)
   {
     this.is_range = in_range;
     this.ris = NullCheck.notNull(in_is);
     this.read_lock = NullCheck.notNull(in_lock);
+    this.on_close = NullCheck.notNull(in_on_close);
+    this.single = new byte[1];
   }
 
+  /**
+   * Close the stream. Closing a stream more than once has no effect.
+   */
+
   @Override public void close()
     throws IOException
   {
-    this.is_open = false;
     synchronized (this.read_lock) {
+      if (!this.is_open) {
+        return;
+      }
+      this.is_open = false;
       this.ris.close();
     }
+    this.on_close.run();
   }
 
   @Override public int read()
     throws IOException
   {
     if (this.is_open) {
-      final byte[] buffer = new byte[1];
-      if (this.read(buffer) == 1) {
-        return buffer[0];
+      if (this.read(this.single, 0, 1) == 1) {
+        return this.single[0] & 0xff;
       }
     }
     return -1;
@@ -91,6 +103,9 @@ final class ReaderHTTPByteRangeInputStream extends InputStream
   {
     final int available;
     synchronized (this.read_lock) {
+      if (!this.is_open) {
+        return 0;
+      }
       available = this.ris.available();
     }
     long remaining = available - this.already_read;
@@ -107,6 +122,9 @@ final class ReaderHTTPByteRangeInputStream extends InputStream
       this.requested_offset = this.already_read + byte_count;
     } else if (byte_count != 0) {
       synchronized (this.read_lock) {
+        if (!this.is_open) {
+          return 0;
+        }
         return this.ris.skip(byte_count);
       }
     }
@@ -141,6 +159,9 @@ final class ReaderHTTPByteRangeInputStream extends InputStream
     int read;
 
     synchronized (this.read_lock) {
+      if (!this.is_open) {
+        return -1;
+      }
       if (this.is_range) {
         read = (int) this.ris.getRangeBytesX(
           this.requested_offset + this.already_read, (long) len, b);
@@ -0,0 +1,264 @@
+package org.nypl.simplified.viewer.epub.readium1;
+
+import com.io7m.jnull.NullCheck;
+import com.io7m.jnull.Nullable;
+
+import org.nypl.simplified.viewer.epub.readium1.ReaderHTTPResourceCache.ReaderHTTPCachedResource;
+import org.readium.sdk.android.Package;
+import org.readium.sdk.android.SpineItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>A prefetcher that loads the spine items following the current reading
+ * position, and the stylesheets and images that those spine items reference,
+ * into the reader HTTP server's package cache ahead of time.</p>
+ *
+ * <p>Reading package resources requires decompressing (and possibly
+ * decrypting) them in native code, and that code can only be entered by one
+ * thread at a time. Doing the work in the background while the user is
+ * reading a chapter means that turning to the next chapter can be answered
+ * from memory.</p>
+ *
+ * <p>Prefetching is strictly best-effort: each new reading position
+ * supersedes any prefetch still in progress for an earlier position, and
+ * failures are logged and otherwise ignored.</p>
+ */
+
+final class ReaderHTTPPrefetcher
+{
+  private static final Logger LOG = LoggerFactory.getLogger(ReaderHTTPPrefetcher.class);
+
+  private static final Pattern TAG =
+    Pattern.compile("<(link|img|image)\\b[^>]*>", Pattern.CASE_INSENSITIVE);
+  private static final Pattern ATTRIBUTE =
+    Pattern.compile("\\b(?:href|src)\\s*=\\s*([\"'])(.*?)\\1", Pattern.CASE_INSENSITIVE);
+
+  private final     Executor   executor;
+  private final     LoaderType loader;
+  private final     int        count;
+  private final     AtomicLong generation;
+  private @Nullable Package    last_package;
+  private           int        last_index;
+
+  ReaderHTTPPrefetcher(
+    final Executor in_executor,
+    final LoaderType in_loader,
+    final int in_count)
+  {
+    this.executor = NullCheck.notNull(in_executor);
+    this.loader = NullCheck.notNull(in_loader);
+    this.count = in_count;
+    this.generation = new AtomicLong(0L);
+    this.last_index = -1;
+  }
+
+  /**
+   * Start prefetching the spine items that follow the spine item with the
+   * given identifier. Calling this method repeatedly for the same position has
+   * no effect.
+   *
+   * @param pack  The package
+   * @param idref The identifier of the current spine item
+   */
+
+  void prefetchAfter(
+    final Package pack,
+    final String idref)
+  {
+    NullCheck.notNull(pack);
+    NullCheck.notNull(idref);
+
+    final List<SpineItem> spine = pack.getSpineItems();
+    int index = -1;
+    for (int current = 0; current < spine.size(); ++current) {
+      if (idref.equals(spine.get(current).getIdRef())) {
+        index = current;
+        break;
+      }
+    }
+
+    if (index < 0) {
+      ReaderHTTPPrefetcher.LOG.debug("no spine item with id {}", idref);
+      return;
+    }
+
+    final long gen;
+    synchronized (this) {
+      if (this.last_package == pack && this.last_index == index) {
+        return;
+      }
+      this.last_package = pack;
+      this.last_index = index;
+      gen = this.generation.incrementAndGet();
+    }
+
+    final int start = index;
+    this.executor.execute(() -> this.run(pack, spine, start, gen));
+  }
+
+  private void run(
+    final Package pack,
+    final List<SpineItem> spine,
+    final int index,
+    final long gen)
+  {
+    final String base = basePathOf(pack);
+    final int end = Math.min(spine.size() - 1, index + this.count);
+
+    for (int current = index + 1; current <= end; ++current) {
+      final String path = resolve(base, spine.get(current).getHref());
+      if (path == null) {
+        continue;
+      }
+
+      final ReaderHTTPCachedResource document = this.load(pack, path, gen);
+      if (document == null) {
+        continue;
+      }
+
+      for (final String reference : references(path, document)) {
+        this.load(pack, reference, gen);
+      }
+    }
+  }
+
+  private @Nullable ReaderHTTPCachedResource load(
+    final Package pack,
+    final String path,
+    final long gen)
+  {
+    if (this.generation.get() != gen) {
+      return null;
+    }
+
+    try {
+      ReaderHTTPPrefetcher.LOG.trace("prefetch: {}", path);
+      return this.loader.load(pack, path);
+    } catch (final Throwable e) {
+      ReaderHTTPPrefetcher.LOG.debug("prefetch: {}: ", path, e);
+      return null;
+    }
+  }
+
+  private static String basePathOf(final Package pack)
+  {
+    final String base = pack.getBasePath();
+    if (base == null || base.isEmpty()) {
+      return "";
+    }
+    return base.endsWith("/") ? base : base + "/";
+  }
+
+  /**
+   * Find the stylesheets and images referenced by the given document. The
+   * document is scanned rather than parsed: a missed or spurious reference
+   * costs at most a wasted or skipped prefetch.
+   *
+   * @param path     The path of the document within the package
+   * @param document The document
+   *
+   * @return The paths of the referenced resources within the package
+   */
+
+  static List<String> references(
+    final String path,
+    final ReaderHTTPCachedResource document)
+  {
+    final List<String> results = new ArrayList<>(8);
+
+    final String type = document.type.toLowerCase(Locale.ROOT);
+    if (!type.contains("html") && !type.contains("xml")) {
+      return results;
+    }
+
+    final String text = new String(document.data, StandardCharsets.UTF_8);
+    final Matcher tag_matcher = TAG.matcher(text);
+    while (tag_matcher.find()) {
+      final String tag = tag_matcher.group();
+      if ("link".equalsIgnoreCase(tag_matcher.group(1))
+        && !tag.toLowerCase(Locale.ROOT).contains("stylesheet")) {
+        continue;
+      }
+
+      final Matcher attribute_matcher = ATTRIBUTE.matcher(tag);
+      if (attribute_matcher.find()) {
+        final String resolved = resolve(path, attribute_matcher.group(2));
+        if (resolved != null && !results.contains(resolved)) {
+          results.add(resolved);
+        }
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Resolve a reference against the path of the document containing it.
+   *
+   * @param path      The path of the document within the package
+   * @param reference The (possibly percent-encoded) reference
+   *
+   * @return The decoded path of the referenced resource within the package, or
+   * {@code null} if the reference does not refer to a resource in the package
+   */
+
+  static @Nullable String resolve(
+    final String path,
+    final String reference)
+  {
+    try {
+      final URI uri = new URI(reference.trim());
+      if (uri.isAbsolute() || uri.getRawAuthority() != null) {
+        return null;
+      }
+
+      final URI document = new URI(null, null, "/" + path, null);
+      final String resolved = document.resolve(uri).getPath();
+      if (resolved == null) {
+        return null;
+      }
+
+      final String relative = resolved.replaceFirst("^[/]+", "");
+      return relative.isEmpty() ? null : relative;
+    } catch (final URISyntaxException e) {
+      return null;
+    }
+  }
+
+  /**
+   * The type of functions that load resources into the package cache.
+   */
+
+  interface LoaderType
+  {
+    /**
+     * Load the given resource into the package cache if it is small enough to
+     * be cached, and is not already cached.
+     *
+     * @param pack The package
+     * @param path The path of the resource within the package
+     *
+     * @return The cached resource, or {@code null} if the resource does not
+     * exist, cannot be cached, or belongs to a package that is no longer open
+     *
+     * @throws IOException On I/O errors
+     */
+
+    @Nullable ReaderHTTPCachedResource load(
+      Package pack,
+      String path)
+      throws IOException;
+  }
+}
@@ -0,0 +1,131 @@
+package org.nypl.simplified.viewer.epub.readium1;
+
+import com.io7m.jnull.NullCheck;
+import com.io7m.jnull.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>A bounded, least-recently-used, in-memory cache of resources served by the
+ * reader HTTP server.</p>
+ *
+ * <p>The cache is bounded by the total number of bytes held. Resources larger
+ * than the configured maximum entry size are never cached. The cache is safe to
+ * use from multiple threads.</p>
+ */
+
+final class ReaderHTTPResourceCache
+{
+  private final long                                          size_maximum;
+  private final int                                           entry_size_maximum;
+  private final LinkedHashMap<String, ReaderHTTPCachedResource> entries;
+  private       long                                          size;
+
+  ReaderHTTPResourceCache(
+    final long in_size_maximum,
+    final int in_entry_size_maximum)
+  {
+    this.size_maximum = in_size_maximum;
+    this.entry_size_maximum = in_entry_size_maximum;
+    this.entries = new LinkedHashMap<>(64, 0.75f, true);
+    this.size = 0L;
+  }
+
+  /**
+   * @param length The size of a resource in bytes
+   *
+   * @return {@code true} if a resource of the given size would be cached
+   */
+
+  boolean isCacheable(final long length)
+  {
+    return length >= 0L && length <= this.entry_size_maximum;
+  }
+
+  /**
+   * @param key The resource key
+   *
+   * @return The cached resource, if any
+   */
+
+  synchronized @Nullable ReaderHTTPCachedResource get(final String key)
+  {
+    return this.entries.get(NullCheck.notNull(key));
+  }
+
+  /**
+   * Cache the given resource, evicting the least recently used resources if
+   * necessary.
+   *
+   * @param key      The resource key
+   * @param resource The resource
+   */
+
+  synchronized void put(
+    final String key,
+    final ReaderHTTPCachedResource resource)
+  {
+    NullCheck.notNull(key);
+    NullCheck.notNull(resource);
+
+    if (!this.isCacheable(resource.data.length)) {
+      return;
+    }
+
+    final ReaderHTTPCachedResource previous = this.entries.put(key, resource);
+    if (previous != null) {
+      this.size -= previous.data.length;
+    }
+    this.size += resource.data.length;
+
+    final Iterator<Map.Entry<String, ReaderHTTPCachedResource>> iter =
+      this.entries.entrySet().iterator();
+    while (this.size > this.size_maximum && iter.hasNext()) {
+      final Map.Entry<String, ReaderHTTPCachedResource> eldest = iter.next();
+      this.size -= eldest.getValue().data.length;
+      iter.remove();
+    }
+  }
+
+  /**
+   * Remove all resources from the cache.
+   */
+
+  synchronized void clear()
+  {
+    this.entries.clear();
+    this.size = 0L;
+  }
+
+  /**
+   * @return The total size in bytes of all cached resources
+   */
+
+  synchronized long size()
+  {
+    return this.size;
+  }
+
+  /**
+   * A resource held in the cache.
+   */
+
+  static final class ReaderHTTPCachedResource
+  {
+    final byte[] data;
+    final String type;
+    final String etag;
+
+    ReaderHTTPCachedResource(
+      final byte[] in_data,
+      final String in_type,
+      final String in_etag)
+    {
+      this.data = NullCheck.notNull(in_data);
+      this.type = NullCheck.notNull(in_type);
+      this.etag = NullCheck.notNull(in_etag);
+    }
+  }
+}
@@ -14,21 +14,49 @@ import com.koushikdutta.async.http.server.AsyncHttpServerRequest;
 import com.koushikdutta.async.http.server.AsyncHttpServerResponse;
 import com.koushikdutta.async.http.server.HttpServerRequestCallback;
 
+import org.nypl.simplified.viewer.epub.readium1.ReaderHTTPResourceCache.ReaderHTTPCachedResource;
 import org.readium.sdk.android.ManifestItem;
 import org.readium.sdk.android.Package;
 import org.readium.sdk.android.util.ResourceInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
 
 /**
- * The AndroidAsync implementation of the {@link ReaderHTTPServerType}
- * interface.
+ * <p>The AndroidAsync implementation of the {@link ReaderHTTPServerType}
+ * interface.</p>
+ *
+ * <p>Bundled assets and resources are immutable, and are therefore held in a
+ * bounded memory cache and served with strong entity tags and a long
+ * {@code max-age}. Small package resources are held in a second bounded cache
+ * that is discarded whenever a different package is opened, and are served with
+ * entity tags that the client must revalidate on each use. Requests that can be
+ * answered from either cache do not touch the (non thread-safe) native code, and
+ * so do not contend on the {@link ReaderNativeCodeReadLock}.</p>
+ *
+ * <p>As the reading position changes, the spine items that follow it (and the
+ * stylesheets and images they reference) are loaded into the package cache in
+ * the background by a {@link ReaderHTTPPrefetcher}, so that moving to the next
+ * chapter rarely has to wait for the native code.</p>
  */
 
 public final class ReaderHTTPServerAAsync
@@ -36,15 +64,29 @@ public final class ReaderHTTPServerAAsync
 {
   private static final Logger LOG = LoggerFactory.getLogger(ReaderHTTPServerAAsync.class);
 
-  private final     URI                   base;
-  private final     ReaderHTTPMimeMapType mime;
-  private final     int                   port;
-  private final     AsyncServer           server;
-  private final     AtomicBoolean         started;
-  private final     AsyncHttpServer       server_http;
-  private final     AssetManager          assets;
-  private @Nullable Package               epub_package;
-  private @Nullable AsyncServerSocket     socket;
+  private static final String CACHE_CONTROL_IMMUTABLE  = "public, max-age=31536000, immutable";
+  private static final String CACHE_CONTROL_REVALIDATE = "private, no-cache";
+  private static final String CACHE_CONTROL_NONE       = "no-store";
+
+  private static final long IMMUTABLE_CACHE_SIZE       = 8L * 1024L * 1024L;
+  private static final int  IMMUTABLE_CACHE_ENTRY_SIZE = 2 * 1024 * 1024;
+  private static final long PACKAGE_CACHE_SIZE         = 8L * 1024L * 1024L;
+  private static final int  PACKAGE_CACHE_ENTRY_SIZE   = 512 * 1024;
+  private static final int  PREFETCH_SPINE_ITEMS       = 2;
+
+  private final              URI                     base;
+  private final              ReaderHTTPMimeMapType   mime;
+  private final              int                     port;
+  private final              AsyncServer             server;
+  private final              AtomicBoolean           started;
+  private final              AsyncHttpServer         server_http;
+  private final              AssetManager            assets;
+  private final              ReaderHTTPResourceCache cache_immutable;
+  private final              String                  generation_base;
+  private final              AtomicLong              generation_next;
+  private final              ReaderHTTPPrefetcher    prefetcher;
+  private volatile @Nullable PackageState            package_state;
+  private @Nullable          AsyncServerSocket       socket;
 
   private ReaderHTTPServerAAsync(
     final AssetManager in_assets,
@@ -60,6 +102,20 @@ public final class ReaderHTTPServerAAsync
     this.server = new AsyncServer();
     this.server_http = new AsyncHttpServer();
     this.started = new AtomicBoolean(false);
+    this.cache_immutable =
+      new ReaderHTTPResourceCache(IMMUTABLE_CACHE_SIZE, IMMUTABLE_CACHE_ENTRY_SIZE);
+    this.generation_base = UUID.randomUUID().toString();
+    this.generation_next = new AtomicLong(0L);
+
+    final ExecutorService prefetch_executor =
+      Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "reader-http-prefetch");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+      });
+    this.prefetcher = new ReaderHTTPPrefetcher(
+      prefetch_executor, this::prefetchPackageResource, PREFETCH_SPINE_ITEMS);
 
     /**
      * This looks like it will make a request to the server, but it actually
@@ -139,74 +195,68 @@ public final class ReaderHTTPServerAAsync
     }
   }
 
+  @Override public void prefetchAfter(
+    final ReaderPaginationChangedEvent event)
+  {
+    NullCheck.notNull(event);
+
+    final PackageState state = this.package_state;
+    if (state == null) {
+      return;
+    }
+
+    /*
+     * When two pages are visible, the last of them is the furthest position
+     * the user has reached.
+     */
+
+    final List<ReaderPaginationChangedEvent.OpenPage> pages = event.getOpenPages();
+    if (pages.isEmpty()) {
+      return;
+    }
+
+    final ReaderPaginationChangedEvent.OpenPage page = pages.get(pages.size() - 1);
+    this.prefetcher.prefetchAfter(state.pack, page.getIDRef());
+  }
+
   @Override public void onRequest(
     final AsyncHttpServerRequest request,
     final AsyncHttpServerResponse response)
   {
     try {
-      final ReaderNativeCodeReadLock read_lock = ReaderNativeCodeReadLock.get();
-      disableCache(response);
+      final Headers request_headers = request.getHeaders();
 
       /**
-       * Determine if the current request is a range request.
+       * Determine if the current request is a range request, and whether the
+       * client already holds a copy of the resource.
        */
 
       final boolean is_range =
-        this.isRangeRequest(request.getHeaders());
+        this.isRangeRequest(request_headers);
+      final String if_none_match =
+        request_headers.get("If-None-Match");
 
       /**
        * Guess the mime type.
        */
 
       final String path = request.getPath();
-      String type = this.mime.guessMimeTypeForURI(path);
+      final String type = this.mime.guessMimeTypeForURI(path);
 
       /**
-       * First, try looking at the available Android assets.
+       * First, try looking at the available Android assets, and then at the
+       * included Java resources. The latter includes all of the readium shared
+       * javascript content. Both are immutable for the lifetime of the
+       * application, so they are held in memory once loaded and the client is
+       * told that it may cache them indefinitely. Range requests are ignored
+       * and the full entity is always served.
        */
 
-      {
-        try {
-          String asset_path = path.replaceFirst("^/+", "");
-          if (asset_path.contains("OpenDyslexic"))
-          {
-            asset_path = "OpenDyslexic3-Regular.ttf";
-          }
-          ReaderHTTPServerAAsync.LOG.debug("opening asset: {}", asset_path);
-
-          final InputStream stream =
-            this.assets.open(asset_path, AssetManager.ACCESS_STREAMING);
-
-          response.code(200);
-          response.setContentType(type);
-          response.sendStream(stream, stream.available());
-          ReaderHTTPServerAAsync.LOG.debug(
-            "request: (asset) {} {}", response.code(), path);
-          return;
-        } catch (final FileNotFoundException e) {
-          ReaderHTTPServerAAsync.LOG.debug("asset not found: {}", path);
-        }
+      if (this.serveAsset(path, type, if_none_match, response)) {
+        return;
       }
-
-      /**
-       * Otherwise, try looking at the included Java resources. This includes
-       * all of the readium shared javascript content. For resources served
-       * in this manner, range requests are ignored and the full entity is
-       * always served.
-       */
-
-      {
-        final InputStream stream =
-          ReaderHTTPServerAAsync.class.getResourceAsStream(path);
-
-        if (stream != null) {
-          response.code(200);
-          response.setContentType(type);
-          response.sendStream(stream, stream.available());
-          ReaderHTTPServerAAsync.LOG.debug(
-            "request: (resource) {} {}", response.code(), path);
-          return;
-        }
+      if (this.serveResource(path, type, if_none_match, response)) {
+        return;
       }
 
       /**
@@ -214,61 +264,15 @@ public final class ReaderHTTPServerAAsync
        * respected iff they are satisfiable.
        */
 
-      {
-        final Package pack = NullCheck.notNull(this.epub_package);
-        final String relative = path.replaceFirst("^[/]+", "");
-
-        ReaderHTTPServerAAsync.LOG.debug(
-          "request: trying package path: {}", relative);
-
-        final int size;
-        synchronized (read_lock) {
-          size = pack.getArchiveInfoSize(relative);
-        }
-
-        if (size >= 0) {
-          /**
-           * Try to get the mime type from the package manifest.
-           */
-
-          ManifestItem manifestItem = pack.getManifestItem(relative);
-
-          if (manifestItem != null) {
-            String manifestItemType = manifestItem.getMediaType();
-
-            if (manifestItemType != null) {
-              type = manifestItemType;
-            }
-          }
-
-          /**
-           * Return a byte range stream that allows for very fine-grained
-           * locking (locks are acquired during read operations and released
-           * afterwards).
-           */
-
-          final InputStream response_stream;
-
-          synchronized (read_lock) {
-            final ResourceInputStream stream = NullCheck.notNull(
-              (ResourceInputStream) pack.getInputStream(relative, is_range));
-            response_stream =
-              new ReaderHTTPByteRangeInputStream(stream, is_range, read_lock);
-          }
-
-          response.code(is_range ? 206 : 200);
-          response.setContentType(type);
-          response.sendStream(response_stream, response_stream.available());
-          ReaderHTTPServerAAsync.LOG.debug(
-            "request: (package) {} {}", response.code(), path);
-          return;
-        }
+      if (this.servePackage(path, type, is_range, if_none_match, response)) {
+        return;
       }
 
       /**
        * Otherwise, give up.
        */
 
+      disableCache(response);
       response.code(404);
       response.setContentType("text/plain");
       response.send("NOT FOUND");
@@ -276,6 +280,7 @@ public final class ReaderHTTPServerAAsync
 
     } catch (final Throwable e) {
       ReaderHTTPServerAAsync.LOG.error("error: {}: ", request.getPath(), e);
+      disableCache(response);
       response.code(500);
       response.setContentType("text/plain");
       response.send(e.getMessage());
@@ -284,16 +289,542 @@ public final class ReaderHTTPServerAAsync
     }
   }
 
-  private Headers disableCache(AsyncHttpServerResponse response) {
-    return response.getHeaders().add("Cache-Control", "no-store");
+  private boolean serveAsset(
+    final String path,
+    final String type,
+    final @Nullable String if_none_match,
+    final AsyncHttpServerResponse response)
+    throws IOException
+  {
+    String asset_path = path.replaceFirst("^/+", "");
+    if (asset_path.contains("OpenDyslexic")) {
+      asset_path = "OpenDyslexic3-Regular.ttf";
+    }
+
+    final String key = "asset:" + asset_path;
+    ReaderHTTPCachedResource cached = this.cache_immutable.get(key);
+    if (cached == null) {
+      ReaderHTTPServerAAsync.LOG.debug("opening asset: {}", asset_path);
+
+      final InputStream stream;
+      try {
+        stream = this.assets.open(asset_path, AssetManager.ACCESS_STREAMING);
+      } catch (final FileNotFoundException e) {
+        ReaderHTTPServerAAsync.LOG.debug("asset not found: {}", path);
+        return false;
+      }
+
+      cached = this.loadImmutable(key, stream, type);
+    }
+
+    this.sendCached(response, cached, if_none_match, CACHE_CONTROL_IMMUTABLE);
+    ReaderHTTPServerAAsync.LOG.debug(
+      "request: (asset) {} {}", response.code(), path);
+    return true;
+  }
+
+  private boolean serveResource(
+    final String path,
+    final String type,
+    final @Nullable String if_none_match,
+    final AsyncHttpServerResponse response)
+    throws IOException
+  {
+    final String key = "resource:" + path;
+    ReaderHTTPCachedResource cached = this.cache_immutable.get(key);
+    if (cached == null) {
+      final InputStream stream =
+        ReaderHTTPServerAAsync.class.getResourceAsStream(path);
+      if (stream == null) {
+        return false;
+      }
+
+      cached = this.loadImmutable(key, stream, type);
+    }
+
+    this.sendCached(response, cached, if_none_match, CACHE_CONTROL_IMMUTABLE);
+    ReaderHTTPServerAAsync.LOG.debug(
+      "request: (resource) {} {}", response.code(), path);
+    return true;
+  }
+
+  private boolean servePackage(
+    final String path,
+    final String guessed_type,
+    final boolean is_range,
+    final @Nullable String if_none_match,
+    final AsyncHttpServerResponse response)
+    throws IOException
+  {
+    final PackageState state = this.package_state;
+    if (state == null) {
+      return false;
+    }
+
+    final String relative = path.replaceFirst("^[/]+", "");
+
+    /**
+     * Resources held in memory can be served without touching the native
+     * code at all.
+     */
+
+    if (!is_range) {
+      final ReaderHTTPCachedResource cached = state.cache.get(relative);
+      if (cached != null) {
+        this.sendCached(response, cached, if_none_match, CACHE_CONTROL_REVALIDATE);
+        ReaderHTTPServerAAsync.LOG.debug(
+          "request: (package, cached) {} {}", response.code(), path);
+        return true;
+      }
+    }
+
+    ReaderHTTPServerAAsync.LOG.debug(
+      "request: trying package path: {}", relative);
+
+    final ReaderNativeCodeReadLock read_lock = ReaderNativeCodeReadLock.get();
+    final int size = state.sizeOf(relative, read_lock);
+    if (size < 0) {
+      return false;
+    }
+
+    final String type = typeOf(state, relative, guessed_type);
+    final String etag = etagOf(state, relative, size);
+
+    if (!is_range) {
+      if (etagMatches(if_none_match, etag)) {
+        this.sendNotModified(response, etag, CACHE_CONTROL_REVALIDATE);
+        ReaderHTTPServerAAsync.LOG.debug(
+          "request: (package) {} {}", response.code(), path);
+        return true;
+      }
+
+      if (state.cache.isCacheable(size)) {
+        final ReaderHTTPCachedResource cached =
+          NullCheck.notNull(this.loadPackageResource(
+            state, relative, size, type, etag, read_lock, false));
+        this.sendCached(response, cached, null, CACHE_CONTROL_REVALIDATE);
+        ReaderHTTPServerAAsync.LOG.debug(
+          "request: (package) {} {}", response.code(), path);
+        return true;
+      }
+    }
+
+    /**
+     * Large resources and range requests are streamed directly from the
+     * package.
+     */
+
+    final InputStream response_stream =
+      this.openPackageStream(state, relative, is_range, read_lock);
+
+    if (is_range) {
+      disableCache(response);
+    } else {
+      response.getHeaders().set("Cache-Control", CACHE_CONTROL_REVALIDATE);
+      response.getHeaders().set("ETag", etag);
+    }
+
+    response.code(is_range ? 206 : 200);
+    response.setContentType(type);
+    response.sendStream(response_stream, response_stream.available());
+    ReaderHTTPServerAAsync.LOG.debug(
+      "request: (package) {} {}", response.code(), path);
+    return true;
+  }
+
+  /**
+   * Try to get the mime type from the package manifest.
+   */
+
+  private static String typeOf(
+    final PackageState state,
+    final String relative,
+    final String guessed_type)
+  {
+    final ManifestItem manifestItem = state.pack.getManifestItem(relative);
+    if (manifestItem != null) {
+      final String manifestItemType = manifestItem.getMediaType();
+      if (manifestItemType != null) {
+        return manifestItemType;
+      }
+    }
+    return guessed_type;
+  }
+
+  /**
+   * The contents of a package cannot change while it is open, so the tag
+   * need only identify the package instance, the path, and the size.
+   */
+
+  private static String etagOf(
+    final PackageState state,
+    final String relative,
+    final int size)
+  {
+    return "\"" + state.generation
+      + "-" + Integer.toHexString(relative.hashCode())
+      + "-" + Integer.toHexString(size) + "\"";
+  }
+
+  /**
+   * Load a cacheable package resource into the package cache. At most one load
+   * of each resource is registered at a time, so that the prefetcher and the
+   * server do not both read a resource that neither has cached yet. The server
+   * never waits for a load registered by another thread: it is called on the
+   * server's reactor thread, and the prefetcher runs at minimum priority. If a
+   * load is in progress elsewhere, the server reads the resource itself, and
+   * the prefetcher gives up on the resource.
+   *
+   * @return The resource, or {@code null} if {@code is_prefetch} is true and
+   * the resource is already being loaded
+   */
+
+  private @Nullable ReaderHTTPCachedResource loadPackageResource(
+    final PackageState state,
+    final String relative,
+    final int size,
+    final String type,
+    final String etag,
+    final ReaderNativeCodeReadLock read_lock,
+    final boolean is_prefetch)
+    throws IOException
+  {
+    final ReaderHTTPCachedResource existing = state.cache.get(relative);
+    if (existing != null) {
+      return existing;
+    }
+
+    final FutureTask<ReaderHTTPCachedResource> task = new FutureTask<>(
+      () -> this.readPackageResource(state, relative, size, type, etag, read_lock));
+
+    final FutureTask<ReaderHTTPCachedResource> running =
+      state.loading.putIfAbsent(relative, task);
+
+    if (running != null) {
+      if (running.isDone()) {
+        try {
+          return resultOf(running);
+        } catch (final IOException e) {
+          ReaderHTTPServerAAsync.LOG.debug(
+            "request: load of {} failed elsewhere, retrying: ", relative, e);
+        }
+      }
+      if (is_prefetch) {
+        return null;
+      }
+      return this.readPackageResource(state, relative, size, type, etag, read_lock);
+    }
+
+    try {
+      task.run();
+    } finally {
+      state.loading.remove(relative, task);
+    }
+    return resultOf(task);
+  }
+
+  private ReaderHTTPCachedResource readPackageResource(
+    final PackageState state,
+    final String relative,
+    final int size,
+    final String type,
+    final String etag,
+    final ReaderNativeCodeReadLock read_lock)
+    throws IOException
+  {
+    final ReaderHTTPCachedResource existing = state.cache.get(relative);
+    if (existing != null) {
+      return existing;
+    }
+
+    final byte[] data;
+    final InputStream stream = this.openPackageStream(state, relative, false, read_lock);
+    try {
+      data = readAll(stream, size);
+    } finally {
+      stream.close();
+    }
+
+    final ReaderHTTPCachedResource cached =
+      new ReaderHTTPCachedResource(data, type, etag);
+    state.cache.put(relative, cached);
+    return cached;
+  }
+
+  /**
+   * Retrieve the result of a completed load. This never blocks.
+   */
+
+  private static ReaderHTTPCachedResource resultOf(
+    final FutureTask<ReaderHTTPCachedResource> task)
+    throws IOException
+  {
+    try {
+      return task.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    } catch (final ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  /**
+   * Load a package resource on behalf of the prefetcher.
+   */
+
+  private @Nullable ReaderHTTPCachedResource prefetchPackageResource(
+    final Package pack,
+    final String relative)
+    throws IOException
+  {
+    final PackageState state = this.package_state;
+    if (state == null || state.pack != pack) {
+      return null;
+    }
+
+    final ReaderHTTPCachedResource cached = state.cache.get(relative);
+    if (cached != null) {
+      return cached;
+    }
+
+    final ReaderNativeCodeReadLock read_lock = ReaderNativeCodeReadLock.get();
+    final int size = state.sizeOf(relative, read_lock);
+    if (size < 0 || !state.cache.isCacheable(size)) {
+      return null;
+    }
+
+    final String type = typeOf(state, relative, this.mime.guessMimeTypeForURI(relative));
+    return this.loadPackageResource(
+      state, relative, size, type, etagOf(state, relative, size), read_lock, true);
+  }
+
+  /**
+   * Return a byte range stream that allows for very fine-grained locking
+   * (locks are acquired during read operations and released afterwards).
+   */
+
+  private InputStream openPackageStream(
+    final PackageState state,
+    final String relative,
+    final boolean is_range,
+    final ReaderNativeCodeReadLock read_lock)
+    throws IOException
+  {
+    synchronized (read_lock) {
+      if (state.released) {
+        throw new FileNotFoundException("The package has been released");
+      }
+
+      final ResourceInputStream stream = NullCheck.notNull(
+        (ResourceInputStream) state.pack.getInputStream(relative, is_range));
+
+      final ReaderHTTPByteRangeInputStream[] opened =
+        new ReaderHTTPByteRangeInputStream[1];
+      opened[0] = new ReaderHTTPByteRangeInputStream(
+        stream, is_range, read_lock, () -> state.streams.remove(opened[0]));
+      state.streams.add(opened[0]);
+      return opened[0];
+    }
+  }
+
+  private ReaderHTTPCachedResource loadImmutable(
+    final String key,
+    final InputStream stream,
+    final String type)
+    throws IOException
+  {
+    final byte[] data;
+    try {
+      data = readAll(stream, stream.available());
+    } finally {
+      stream.close();
+    }
+
+    final CRC32 crc = new CRC32();
+    crc.update(data);
+
+    final String etag =
+      "\"" + Long.toHexString(crc.getValue())
+        + "-" + Integer.toHexString(data.length) + "\"";
+
+    final ReaderHTTPCachedResource cached =
+      new ReaderHTTPCachedResource(data, type, etag);
+    this.cache_immutable.put(key, cached);
+    return cached;
+  }
+
+  private void sendCached(
+    final AsyncHttpServerResponse response,
+    final ReaderHTTPCachedResource cached,
+    final @Nullable String if_none_match,
+    final String cache_control)
+  {
+    if (etagMatches(if_none_match, cached.etag)) {
+      this.sendNotModified(response, cached.etag, cache_control);
+      return;
+    }
+
+    response.getHeaders().set("Cache-Control", cache_control);
+    response.getHeaders().set("ETag", cached.etag);
+    response.code(200);
+    response.setContentType(cached.type);
+    response.sendStream(new ByteArrayInputStream(cached.data), cached.data.length);
+  }
+
+  private void sendNotModified(
+    final AsyncHttpServerResponse response,
+    final String etag,
+    final String cache_control)
+  {
+    response.getHeaders().set("Cache-Control", cache_control);
+    response.getHeaders().set("ETag", etag);
+    response.code(304);
+    response.end();
+  }
+
+  private static boolean etagMatches(
+    final @Nullable String if_none_match,
+    final String etag)
+  {
+    if (if_none_match == null) {
+      return false;
+    }
+
+    for (final String candidate : if_none_match.split(",")) {
+      String tag = candidate.trim();
+      if (tag.startsWith("W/")) {
+        tag = tag.substring(2);
+      }
+      if ("*".equals(tag) || etag.equals(tag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static byte[] readAll(
+    final InputStream stream,
+    final int size_hint)
+    throws IOException
+  {
+    final ByteArrayOutputStream output =
+      new ByteArrayOutputStream(Math.max(size_hint, 32));
+    final byte[] buffer = new byte[Math.min(Math.max(size_hint, 8192), 65536)];
+    while (true) {
+      final int r = stream.read(buffer);
+      if (r == -1) {
+        break;
+      }
+      output.write(buffer, 0, r);
+    }
+    return output.toByteArray();
+  }
+
+  private static Headers disableCache(final AsyncHttpServerResponse response)
+  {
+    return response.getHeaders().set("Cache-Control", CACHE_CONTROL_NONE);
   }
 
-  private boolean isRangeRequest(Headers headers) {
+  private boolean isRangeRequest(final Headers headers)
+  {
     return headers.get("range") != null;
   }
 
-  private void setPackage(final Package p)
+  @Override public synchronized void releasePackage(final Package p)
+  {
+    NullCheck.notNull(p);
+
+    final PackageState state = this.package_state;
+    if (state == null || state.pack != p) {
+      return;
+    }
+
+    /*
+     * Close any streams still reading from the package, and prevent any more
+     * from being opened, so that the package can safely be closed as soon as
+     * this method returns.
+     */
+
+    this.package_state = null;
+    final ReaderNativeCodeReadLock read_lock = ReaderNativeCodeReadLock.get();
+    synchronized (read_lock) {
+      state.released = true;
+      for (final ReaderHTTPByteRangeInputStream stream : state.streams.toArray(
+        new ReaderHTTPByteRangeInputStream[0])) {
+        try {
+          stream.close();
+        } catch (final IOException e) {
+          ReaderHTTPServerAAsync.LOG.error("could not close stream: ", e);
+        }
+      }
+      state.streams.clear();
+    }
+    state.cache.clear();
+  }
+
+  private synchronized void setPackage(final Package p)
+  {
+    NullCheck.notNull(p);
+
+    final PackageState current = this.package_state;
+    if (current == null || current.pack != p) {
+      this.package_state = new PackageState(
+        p, this.generation_base + "-" + this.generation_next.incrementAndGet());
+    }
+  }
+
+  /**
+   * The state associated with the currently open package. A new state is
+   * created each time a different package is opened, so nothing cached for
+   * one package can ever be served for another.
+   */
+
+  private static final class PackageState
   {
-    this.epub_package = NullCheck.notNull(p);
+    private final Package                                                         pack;
+    private final String                                                          generation;
+    private final ReaderHTTPResourceCache                                         cache;
+    private final ConcurrentHashMap<String, Integer>                              sizes;
+    private final ConcurrentHashMap<String, FutureTask<ReaderHTTPCachedResource>> loading;
+    private final Set<ReaderHTTPByteRangeInputStream>                             streams;
+    private       boolean                                                         released;
+
+    PackageState(
+      final Package in_pack,
+      final String in_generation)
+    {
+      this.pack = NullCheck.notNull(in_pack);
+      this.generation = NullCheck.notNull(in_generation);
+      this.cache = new ReaderHTTPResourceCache(PACKAGE_CACHE_SIZE, PACKAGE_CACHE_ENTRY_SIZE);
+      this.sizes = new ConcurrentHashMap<>(64);
+      this.loading = new ConcurrentHashMap<>(8);
+      this.streams = Collections.newSetFromMap(new ConcurrentHashMap<>(8));
+      this.released = false;
+    }
+
+    int sizeOf(
+      final String relative,
+      final ReaderNativeCodeReadLock read_lock)
+    {
+      final Integer existing = this.sizes.get(relative);
+      if (existing != null) {
+        return existing;
+      }
+
+      final int size;
+      synchronized (read_lock) {
+        if (this.released) {
+          return -1;
+        }
+        size = this.pack.getArchiveInfoSize(relative);
+      }
+      this.sizes.put(relative, size);
+      return size;
+    }
   }
 }
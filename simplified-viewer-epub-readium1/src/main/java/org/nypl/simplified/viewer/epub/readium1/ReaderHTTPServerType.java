@@ -28,4 +28,25 @@ public interface ReaderHTTPServerType
   void startIfNecessaryForPackage(
     Package p,
     ReaderHTTPServerStartListenerType s);
+
+  /**
+   * Indicate that the reading position has changed. The server will start
+   * loading the content that the user is likely to request next in the
+   * background. The method returns immediately.
+   *
+   * @param event The pagination event describing the current position
+   */
+
+  void prefetchAfter(ReaderPaginationChangedEvent event);
+
+  /**
+   * Stop serving the given package. Any requests for the package that are
+   * still in progress are terminated, and no further requests are answered
+   * from it, so the package may be closed as soon as this method returns. The
+   * method has no effect if the server is serving a different package.
+   *
+   * @param p The EPUB package
+   */
+
+  void releasePackage(Package p);
 }
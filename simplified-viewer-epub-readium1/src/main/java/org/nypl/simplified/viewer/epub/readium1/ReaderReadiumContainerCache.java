@@ -0,0 +1,182 @@
+package org.nypl.simplified.viewer.epub.readium1;
+
+import com.io7m.jnull.NullCheck;
+import com.io7m.jnull.Nullable;
+
+import org.readium.sdk.android.Container;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>A bounded, least-recently-used, reference-counted cache of open EPUB
+ * containers.</p>
+ *
+ * <p>Each container holds a substantial amount of native memory. Containers
+ * that are in use (that have been acquired more times than they have been
+ * released) are never evicted. Containers that are not in use are retained,
+ * up to the configured limit, so that reopening a recently read book is
+ * instantaneous.</p>
+ *
+ * <p>The cache does not close containers itself: operations that cause
+ * containers to be evicted return them, and the caller is responsible for
+ * closing them. The cache is safe to use from multiple threads.</p>
+ */
+
+final class ReaderReadiumContainerCache
+{
+  private final int                             maximum;
+  private final LinkedHashMap<File, CacheEntry> entries;
+
+  ReaderReadiumContainerCache(final int in_maximum)
+  {
+    if (in_maximum < 0) {
+      throw new IllegalArgumentException("Maximum must be non-negative");
+    }
+
+    this.maximum = in_maximum;
+    this.entries = new LinkedHashMap<>(8, 0.75f, true);
+  }
+
+  /**
+   * Acquire a reference to the container for the given file, if one is cached.
+   *
+   * @param file The EPUB file
+   *
+   * @return The container, or {@code null} if no container is cached
+   */
+
+  synchronized @Nullable Container acquire(final File file)
+  {
+    final CacheEntry entry = this.entries.get(NullCheck.notNull(file));
+    if (entry == null) {
+      return null;
+    }
+
+    ++entry.references;
+    return entry.container;
+  }
+
+  /**
+   * Insert a newly opened container and acquire a reference to it. If another
+   * container was inserted for the same file in the meantime, a reference to
+   * that container is acquired instead, and the new container is returned in
+   * the list of evicted containers.
+   *
+   * @param file      The EPUB file
+   * @param container The container
+   * @param evicted   A list to which evicted containers will be added
+   *
+   * @return The acquired container
+   */
+
+  synchronized Container insert(
+    final File file,
+    final Container container,
+    final List<Container> evicted)
+  {
+    NullCheck.notNull(file);
+    NullCheck.notNull(container);
+    NullCheck.notNull(evicted);
+
+    final CacheEntry existing = this.entries.get(file);
+    if (existing != null) {
+      ++existing.references;
+      evicted.add(container);
+      return existing.container;
+    }
+
+    final CacheEntry entry = new CacheEntry(container);
+    entry.references = 1;
+    this.entries.put(file, entry);
+    this.evict(this.maximum, evicted);
+    return container;
+  }
+
+  /**
+   * Release a reference to the given container.
+   *
+   * @param container The container
+   * @param evicted   A list to which evicted containers will be added
+   */
+
+  synchronized void release(
+    final Container container,
+    final List<Container> evicted)
+  {
+    NullCheck.notNull(container);
+    NullCheck.notNull(evicted);
+
+    for (final CacheEntry entry : this.entries.values()) {
+      if (entry.container == container) {
+        if (entry.references > 0) {
+          --entry.references;
+        }
+        break;
+      }
+    }
+    this.evict(this.maximum, evicted);
+  }
+
+  /**
+   * Evict unused containers until no more than {@code keep} unused containers
+   * remain.
+   *
+   * @param keep    The number of unused containers to keep
+   * @param evicted A list to which evicted containers will be added
+   */
+
+  synchronized void trim(
+    final int keep,
+    final List<Container> evicted)
+  {
+    NullCheck.notNull(evicted);
+    this.evict(Math.min(keep, this.maximum), evicted);
+  }
+
+  /**
+   * @return The number of cached containers, including those in use
+   */
+
+  synchronized int size()
+  {
+    return this.entries.size();
+  }
+
+  private void evict(
+    final int keep,
+    final List<Container> evicted)
+  {
+    int unused = 0;
+    for (final CacheEntry entry : this.entries.values()) {
+      if (entry.references == 0) {
+        ++unused;
+      }
+    }
+
+    final Iterator<Map.Entry<File, CacheEntry>> iter =
+      this.entries.entrySet().iterator();
+    while (unused > keep && iter.hasNext()) {
+      final CacheEntry entry = iter.next().getValue();
+      if (entry.references == 0) {
+        iter.remove();
+        evicted.add(entry.container);
+        --unused;
+      }
+    }
+  }
+
+  private static final class CacheEntry
+  {
+    private final Container container;
+    private       int       references;
+
+    CacheEntry(final Container in_container)
+    {
+      this.container = NullCheck.notNull(in_container);
+    }
+  }
+}
@@ -1,6 +1,8 @@
 package org.nypl.simplified.viewer.epub.readium1;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
 
 import com.io7m.jfunctional.None;
 import com.io7m.jfunctional.OptionPartialVisitorType;
@@ -24,19 +26,34 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 
 /**
- * The default implementation of the {@link ReaderReadiumEPUBLoaderType}
- * interface.
+ * <p>The default implementation of the {@link ReaderReadiumEPUBLoaderType}
+ * interface.</p>
+ *
+ * <p>Loaded containers are held in a bounded, reference-counted cache. A
+ * container that is still cached when its book is reopened is delivered
+ * immediately, without waiting behind other loads on the executor. Containers
+ * that are no longer in use are closed when they fall out of the cache, or
+ * when the system reports that memory is running low.</p>
  */
 
-public final class ReaderReadiumEPUBLoader implements ReaderReadiumEPUBLoaderType {
+public final class ReaderReadiumEPUBLoader
+  implements ReaderReadiumEPUBLoaderType, ComponentCallbacks2 {
 
   private static final Logger LOG = LoggerFactory.getLogger(ReaderReadiumEPUBLoader.class);
 
-  private final ConcurrentHashMap<File, Container> containers;
+  /**
+   * The default number of containers that are kept open when not in use.
+   */
+
+  public static final int DEFAULT_MAXIMUM_UNUSED_CONTAINERS = 1;
+
+  private final ReaderReadiumContainerCache containers;
   private final AdobeConfigurationServiceType adobeConfiguration;
   private final ExecutorService exec;
   private final Context context;
@@ -44,12 +61,13 @@ public final class ReaderReadiumEPUBLoader implements ReaderReadiumEPUBLoaderTyp
   private ReaderReadiumEPUBLoader(
     final Context in_context,
     final AdobeConfigurationServiceType adobeConfiguration,
-    final ExecutorService in_exec) {
+    final ExecutorService in_exec,
+    final int in_maximum_unused) {
 
     this.adobeConfiguration = adobeConfiguration;
     this.exec = NullCheck.notNull(in_exec);
     this.context = NullCheck.notNull(in_context);
-    this.containers = new ConcurrentHashMap<>();
+    this.containers = new ReaderReadiumContainerCache(in_maximum_unused);
   }
 
   private Container loadFromFile(
@@ -151,6 +169,7 @@ public final class ReaderReadiumEPUBLoader implements ReaderReadiumEPUBLoaderTyp
 
     final Package p = c.getDefaultPackage();
     if (p.getSpineItems().isEmpty()) {
+      this.closeContainers(Collections.singletonList(c));
       throw new IOException("Loaded package had no spine items");
     }
     return c;
@@ -168,7 +187,28 @@ public final class ReaderReadiumEPUBLoader implements ReaderReadiumEPUBLoaderTyp
     final Context in_context,
     final AdobeConfigurationServiceType adobeConfiguration,
     final ExecutorService in_exec) {
-    return new ReaderReadiumEPUBLoader(in_context, adobeConfiguration, in_exec);
+    return newLoader(
+      in_context, adobeConfiguration, in_exec, DEFAULT_MAXIMUM_UNUSED_CONTAINERS);
+  }
+
+  /**
+   * Construct a new EPUB loader.
+   *
+   * @param in_context        The application context
+   * @param in_exec           An executor service
+   * @param in_maximum_unused The maximum number of containers to keep open when not in use
+   * @return A new EPUB loader
+   */
+
+  public static ReaderReadiumEPUBLoaderType newLoader(
+    final Context in_context,
+    final AdobeConfigurationServiceType adobeConfiguration,
+    final ExecutorService in_exec,
+    final int in_maximum_unused) {
+    final ReaderReadiumEPUBLoader loader =
+      new ReaderReadiumEPUBLoader(in_context, adobeConfiguration, in_exec, in_maximum_unused);
+    in_context.registerComponentCallbacks(loader);
+    return loader;
   }
 
   @Override
@@ -180,33 +220,106 @@ public final class ReaderReadiumEPUBLoader implements ReaderReadiumEPUBLoaderTyp
     NullCheck.notNull(l);
 
     /*
-     * This loader caches references to loaded containers. It's not actually
-     * expected that there will be more than one container for the lifetime of
-     * the process.
+     * A cached container can be delivered immediately; there is no reason
+     * to wait for any loads that happen to be queued on the executor.
      */
 
-    final ConcurrentHashMap<File, Container> cs = this.containers;
+    final File file = request.epubFile();
+    final Container cached = this.containers.acquire(file);
+    if (cached != null) {
+      LOG.debug("container cache hit: {}", file);
+      this.deliver(cached, l);
+      return;
+    }
+
     this.exec.submit(() -> {
+      final Container c;
       try {
-        final Container c;
-        if (cs.containsKey(request.epubFile())) {
-          c = NullCheck.notNull(cs.get(request.epubFile()));
+        final Container existing = this.containers.acquire(file);
+        if (existing != null) {
+          c = existing;
         } else {
-          c = loadFromFile(this.context, request);
-          cs.put(request.epubFile(), c);
+          final List<Container> evicted = new ArrayList<>(1);
+          c = this.containers.insert(file, loadFromFile(this.context, request), evicted);
+          this.closeContainers(evicted);
         }
-
-        l.onEPUBLoadSucceeded(c);
       } catch (final Throwable x0) {
         try {
           l.onEPUBLoadFailed(x0);
         } catch (final Throwable x1) {
           LOG.error("{}", x1.getMessage(), x1);
         }
+        return;
       }
+
+      this.deliver(c, l);
     });
   }
 
+  private void deliver(
+    final Container c,
+    final ReaderReadiumEPUBLoadListenerType l) {
+    try {
+      l.onEPUBLoadSucceeded(c);
+    } catch (final Throwable x0) {
+      LOG.error("{}", x0.getMessage(), x0);
+    }
+  }
+
+  @Override
+  public void releaseEPUB(final Container c) {
+    NullCheck.notNull(c);
+
+    final List<Container> evicted = new ArrayList<>(1);
+    this.containers.release(c, evicted);
+    this.closeContainersLater(evicted);
+  }
+
+  @Override
+  public void onTrimMemory(final int level) {
+    if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+      LOG.debug("onTrimMemory: {}: closing unused containers", level);
+      final List<Container> evicted = new ArrayList<>(1);
+      this.containers.trim(0, evicted);
+      this.closeContainersLater(evicted);
+    }
+  }
+
+  @Override
+  public void onLowMemory() {
+    this.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+  }
+
+  @Override
+  public void onConfigurationChanged(final Configuration configuration) {
+    // Nothing to do
+  }
+
+  private void closeContainersLater(final List<Container> evicted) {
+    if (!evicted.isEmpty()) {
+      this.exec.submit(() -> this.closeContainers(evicted));
+    }
+  }
+
+  /*
+   * Containers are closed while holding the native code lock so that a
+   * container can never be closed underneath a concurrent read.
+   */
+
+  private void closeContainers(final List<Container> evicted) {
+    final ReaderNativeCodeReadLock read_lock = ReaderNativeCodeReadLock.get();
+    for (final Container c : evicted) {
+      LOG.debug("closing container: {}", c.getName());
+      try {
+        synchronized (read_lock) {
+          EPub3.closeBook(c);
+        }
+      } catch (final Throwable x) {
+        LOG.error("could not close container: ", x);
+      }
+    }
+  }
+
   private static abstract class ReaderReadiumRuntimeException extends Exception {
     ReaderReadiumRuntimeException(final String in_message) {
       super(in_message);
@@ -1,5 +1,7 @@
 package org.nypl.simplified.viewer.epub.readium1;
 
+import org.readium.sdk.android.Container;
+
 /**
  * The type of asynchronous EPUB loaders.
  */
@@ -16,4 +18,15 @@ public interface ReaderReadiumEPUBLoaderType {
   void loadEPUB(
     ReaderReadiumEPUBLoadRequest request,
     ReaderReadiumEPUBLoadListenerType l);
+
+  /**
+   * Release a container delivered by {@link #loadEPUB}. Each successfully
+   * delivered container must be released exactly once when it is no longer
+   * in use, and must not be used afterwards; the loader may close it at any
+   * point after it has been released.
+   *
+   * @param c The container
+   */
+
+  void releaseEPUB(Container c);
 }
@@ -0,0 +1,157 @@
+package org.nypl.simplified.viewer.epub.readium1;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.nypl.simplified.viewer.epub.readium1.ReaderHTTPResourceCache.ReaderHTTPCachedResource;
+import org.readium.sdk.android.Package;
+import org.readium.sdk.android.SpineItem;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReaderHTTPPrefetcherTest {
+
+  private static ReaderHTTPCachedResource xhtml(final String text) {
+    return new ReaderHTTPCachedResource(
+        text.getBytes(StandardCharsets.UTF_8), "application/xhtml+xml", "\"x\"");
+  }
+
+  private static SpineItem spineItem(final String idref, final String href) {
+    final SpineItem item = mock(SpineItem.class);
+    when(item.getIdRef()).thenReturn(idref);
+    when(item.getHref()).thenReturn(href);
+    return item;
+  }
+
+  private static Package createPackage() {
+    final Package pack = mock(Package.class);
+    when(pack.getBasePath()).thenReturn("OEBPS/");
+    when(pack.getSpineItems()).thenReturn(Arrays.asList(
+        spineItem("c0", "text/c0.xhtml"),
+        spineItem("c1", "text/c1.xhtml"),
+        spineItem("c2", "text/c2.xhtml"),
+        spineItem("c3", "text/c3.xhtml")));
+    return pack;
+  }
+
+  @Test
+  public void resolveRelativeReferences() {
+    Assert.assertEquals(
+        "OEBPS/styles/main.css",
+        ReaderHTTPPrefetcher.resolve("OEBPS/text/c1.xhtml", "../styles/main.css"));
+    Assert.assertEquals(
+        "OEBPS/text/images/a b.png",
+        ReaderHTTPPrefetcher.resolve("OEBPS/text/c1.xhtml", "images/a%20b.png"));
+    Assert.assertEquals(
+        "c1.xhtml",
+        ReaderHTTPPrefetcher.resolve("", "c1.xhtml"));
+    Assert.assertNull(
+        ReaderHTTPPrefetcher.resolve("OEBPS/text/c1.xhtml", "http://example.com/a.png"));
+    Assert.assertNull(
+        ReaderHTTPPrefetcher.resolve("OEBPS/text/c1.xhtml", "data:image/png;base64,AAAA"));
+    Assert.assertNull(
+        ReaderHTTPPrefetcher.resolve("OEBPS/text/c1.xhtml", "//example.com/a.png"));
+  }
+
+  @Test
+  public void referencesAreStylesheetsAndImages() {
+    final ReaderHTTPCachedResource document = xhtml(
+        "<html><head>"
+            + "<link rel=\"stylesheet\" type=\"text/css\" href=\"../styles/main.css\"/>"
+            + "<link rel='alternate' href='other.xhtml'/>"
+            + "</head><body>"
+            + "<p><a href=\"c2.xhtml\">Next</a></p>"
+            + "<IMG SRC='images/cover.jpg'/>"
+            + "<svg><image xlink:href=\"images/map.png\"/></svg>"
+            + "<img src=\"images/cover.jpg\"/>"
+            + "</body></html>");
+
+    Assert.assertEquals(
+        Arrays.asList(
+            "OEBPS/styles/main.css",
+            "OEBPS/text/images/cover.jpg",
+            "OEBPS/text/images/map.png"),
+        ReaderHTTPPrefetcher.references("OEBPS/text/c1.xhtml", document));
+  }
+
+  @Test
+  public void referencesIgnoreNonDocuments() {
+    final ReaderHTTPCachedResource image = new ReaderHTTPCachedResource(
+        "<img src=\"a.png\"/>".getBytes(StandardCharsets.UTF_8), "image/png", "\"x\"");
+
+    Assert.assertEquals(
+        new ArrayList<String>(),
+        ReaderHTTPPrefetcher.references("OEBPS/a.png", image));
+  }
+
+  @Test
+  public void followingSpineItemsAndReferencesArePrefetched() {
+    final Map<String, ReaderHTTPCachedResource> resources = new HashMap<>();
+    resources.put("OEBPS/text/c2.xhtml", xhtml("<link rel=\"stylesheet\" href=\"c.css\"/>"));
+    resources.put("OEBPS/text/c3.xhtml", xhtml("<img src=\"d.png\"/>"));
+
+    final List<String> loaded = new ArrayList<>();
+    final Package pack = createPackage();
+    final ReaderHTTPPrefetcher prefetcher = new ReaderHTTPPrefetcher(
+        Runnable::run,
+        (p, path) -> {
+          Assert.assertSame(pack, p);
+          loaded.add(path);
+          return resources.get(path);
+        },
+        2);
+
+    prefetcher.prefetchAfter(pack, "c1");
+
+    Assert.assertEquals(
+        Arrays.asList(
+            "OEBPS/text/c2.xhtml",
+            "OEBPS/text/c.css",
+            "OEBPS/text/c3.xhtml",
+            "OEBPS/text/d.png"),
+        loaded);
+
+    /*
+     * Reporting the same position again does nothing.
+     */
+
+    prefetcher.prefetchAfter(pack, "c1");
+    Assert.assertEquals(4, loaded.size());
+
+    /*
+     * Prefetching stops at the end of the spine, and unknown positions are
+     * ignored.
+     */
+
+    loaded.clear();
+    prefetcher.prefetchAfter(pack, "c3");
+    prefetcher.prefetchAfter(pack, "nonexistent");
+    Assert.assertEquals(new ArrayList<String>(), loaded);
+  }
+
+  @Test
+  public void loaderFailuresAreIgnored() {
+    final List<String> loaded = new ArrayList<>();
+    final ReaderHTTPPrefetcher prefetcher = new ReaderHTTPPrefetcher(
+        Runnable::run,
+        (p, path) -> {
+          loaded.add(path);
+          throw new IOException("Failed");
+        },
+        2);
+
+    prefetcher.prefetchAfter(createPackage(), "c0");
+
+    Assert.assertEquals(
+        Arrays.asList("OEBPS/text/c1.xhtml", "OEBPS/text/c2.xhtml"),
+        loaded);
+  }
+}
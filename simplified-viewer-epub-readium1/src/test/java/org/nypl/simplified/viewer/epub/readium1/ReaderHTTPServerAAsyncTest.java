@@ -6,19 +6,24 @@ import com.koushikdutta.async.http.Headers;
 import com.koushikdutta.async.http.server.AsyncHttpServerRequest;
 import com.koushikdutta.async.http.server.AsyncHttpServerResponse;
 
+import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.readium.sdk.android.ManifestItem;
 import org.readium.sdk.android.Package;
 import org.readium.sdk.android.util.ResourceInputStream;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -30,6 +35,7 @@ public class ReaderHTTPServerAAsyncTest {
   private static final String XHTML_MANIFEST_ITEM_MIME_TYPE = "application/xhtml+xml";
 
   private static ReaderHTTPServerAAsync httpServer;
+  private static Package httpPackage;
 
   private static AssetManager createAssetManager() throws IOException {
     AssetManager mockAssetManager = mock(AssetManager.class);
@@ -76,7 +82,8 @@ public class ReaderHTTPServerAAsyncTest {
     httpServer = (ReaderHTTPServerAAsync) ReaderHTTPServerAAsync.newServer(
         createAssetManager(), createMimeMap(), 8888);
 
-    httpServer.startIfNecessaryForPackage(createPackage(), createStartListener());
+    httpPackage = createPackage();
+    httpServer.startIfNecessaryForPackage(httpPackage, createStartListener());
   }
 
   private AsyncHttpServerRequest createRequestForRelativePath(String relativePath) {
@@ -126,4 +133,130 @@ public class ReaderHTTPServerAAsyncTest {
 
     verify(mockResponse).setContentType(GUESSED_MIME_TYPE);
   }
+
+  @Test
+  public void packageResourcesAreTaggedAndRevalidated() {
+    final String path = "tagged.xhtml";
+
+    final Headers headers0 = new Headers();
+    AsyncHttpServerResponse mockResponse0 = mock(AsyncHttpServerResponse.class);
+    when(mockResponse0.getHeaders()).thenReturn(headers0);
+    httpServer.onRequest(createRequestForRelativePath(path), mockResponse0);
+
+    verify(mockResponse0).code(200);
+    final String etag = headers0.get("ETag");
+    Assert.assertNotNull(etag);
+    Assert.assertEquals("private, no-cache", headers0.get("Cache-Control"));
+
+    AsyncHttpServerRequest mockRequest1 = createRequestForRelativePath(path);
+    mockRequest1.getHeaders().set("If-None-Match", etag);
+    final Headers headers1 = new Headers();
+    AsyncHttpServerResponse mockResponse1 = mock(AsyncHttpServerResponse.class);
+    when(mockResponse1.getHeaders()).thenReturn(headers1);
+    httpServer.onRequest(mockRequest1, mockResponse1);
+
+    verify(mockResponse1).code(304);
+    verify(mockResponse1).end();
+    Assert.assertEquals(etag, headers1.get("ETag"));
+  }
+
+  @Test
+  public void packageResourcesAreReadOnce() {
+    final String path = "cached.xhtml";
+
+    for (int index = 0; index < 3; ++index) {
+      AsyncHttpServerResponse mockResponse = mock(AsyncHttpServerResponse.class);
+      when(mockResponse.getHeaders()).thenReturn(new Headers());
+      httpServer.onRequest(createRequestForRelativePath(path), mockResponse);
+      verify(mockResponse).code(200);
+      verify(mockResponse).setContentType(GUESSED_MIME_TYPE);
+    }
+
+    verify(httpPackage, times(1)).getArchiveInfoSize(eq(path));
+    verify(httpPackage, times(1)).getInputStream(eq(path), anyBoolean());
+  }
+
+  @Test
+  public void rangeRequestsAreNotCached() {
+    final String path = "range.mp3";
+
+    for (int index = 0; index < 2; ++index) {
+      AsyncHttpServerRequest mockRequest = createRequestForRelativePath(path);
+      mockRequest.getHeaders().set("Range", "bytes=0-");
+      final Headers headers = new Headers();
+      AsyncHttpServerResponse mockResponse = mock(AsyncHttpServerResponse.class);
+      when(mockResponse.getHeaders()).thenReturn(headers);
+      httpServer.onRequest(mockRequest, mockResponse);
+      verify(mockResponse).code(206);
+      Assert.assertEquals("no-store", headers.get("Cache-Control"));
+    }
+
+    verify(httpPackage, times(2)).getInputStream(eq(path), eq(true));
+  }
+
+  @Test
+  public void assetsAreImmutableAndReadOnce() throws IOException {
+    final byte[] content = "<html></html>".getBytes(StandardCharsets.UTF_8);
+    final AssetManager assets = mock(AssetManager.class);
+    when(assets.open(eq("reader.html"), anyInt())).thenAnswer(
+        invocation -> new ByteArrayInputStream(content));
+
+    final ReaderHTTPServerAAsync server = (ReaderHTTPServerAAsync) ReaderHTTPServerAAsync.newServer(
+        assets, createMimeMap(), 8889);
+
+    String etag = null;
+    for (int index = 0; index < 2; ++index) {
+      final Headers headers = new Headers();
+      AsyncHttpServerResponse mockResponse = mock(AsyncHttpServerResponse.class);
+      when(mockResponse.getHeaders()).thenReturn(headers);
+      server.onRequest(createRequestForRelativePath("reader.html"), mockResponse);
+
+      verify(mockResponse).code(200);
+      Assert.assertEquals(
+          "public, max-age=31536000, immutable", headers.get("Cache-Control"));
+      Assert.assertNotNull(headers.get("ETag"));
+      if (etag != null) {
+        Assert.assertEquals(etag, headers.get("ETag"));
+      }
+      etag = headers.get("ETag");
+    }
+
+    verify(assets, times(1)).open(eq("reader.html"), anyInt());
+
+    AsyncHttpServerRequest mockRequest = createRequestForRelativePath("reader.html");
+    mockRequest.getHeaders().set("If-None-Match", "W/" + etag);
+    AsyncHttpServerResponse mockResponse = mock(AsyncHttpServerResponse.class);
+    when(mockResponse.getHeaders()).thenReturn(new Headers());
+    server.onRequest(mockRequest, mockResponse);
+    verify(mockResponse).code(304);
+  }
+
+  @Test
+  public void releasedPackagesAreNotServed() {
+    final Package pack = createPackage();
+    final ReaderHTTPServerAAsync server = (ReaderHTTPServerAAsync) ReaderHTTPServerAAsync.newServer(
+        mock(AssetManager.class), createMimeMap(), 8890);
+    server.startIfNecessaryForPackage(pack, createStartListener());
+
+    AsyncHttpServerResponse mockResponse0 = mock(AsyncHttpServerResponse.class);
+    when(mockResponse0.getHeaders()).thenReturn(new Headers());
+    server.onRequest(createRequestForRelativePath("released.xhtml"), mockResponse0);
+    verify(mockResponse0).code(200);
+
+    server.releasePackage(mock(Package.class));
+
+    AsyncHttpServerResponse mockResponse1 = mock(AsyncHttpServerResponse.class);
+    when(mockResponse1.getHeaders()).thenReturn(new Headers());
+    server.onRequest(createRequestForRelativePath("released.xhtml"), mockResponse1);
+    verify(mockResponse1).code(200);
+
+    server.releasePackage(pack);
+
+    final Headers headers = new Headers();
+    AsyncHttpServerResponse mockResponse2 = mock(AsyncHttpServerResponse.class);
+    when(mockResponse2.getHeaders()).thenReturn(headers);
+    server.onRequest(createRequestForRelativePath("released.xhtml"), mockResponse2);
+    verify(mockResponse2).code(404);
+    Assert.assertEquals("no-store", headers.get("Cache-Control"));
+  }
 }
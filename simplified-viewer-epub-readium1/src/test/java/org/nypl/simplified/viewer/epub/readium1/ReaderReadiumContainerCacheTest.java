@@ -0,0 +1,121 @@
+package org.nypl.simplified.viewer.epub.readium1;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.readium.sdk.android.Container;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+
+public class ReaderReadiumContainerCacheTest {
+
+  private static final File FILE_A = new File("a.epub");
+  private static final File FILE_B = new File("b.epub");
+  private static final File FILE_C = new File("c.epub");
+
+  @Test
+  public void cachedContainersAreReused() {
+    final ReaderReadiumContainerCache cache = new ReaderReadiumContainerCache(1);
+    final Container a = mock(Container.class);
+    final List<Container> evicted = new ArrayList<>();
+
+    Assert.assertNull(cache.acquire(FILE_A));
+    Assert.assertSame(a, cache.insert(FILE_A, a, evicted));
+    cache.release(a, evicted);
+
+    Assert.assertSame(a, cache.acquire(FILE_A));
+    Assert.assertEquals(Collections.emptyList(), evicted);
+  }
+
+  @Test
+  public void containersInUseAreNeverEvicted() {
+    final ReaderReadiumContainerCache cache = new ReaderReadiumContainerCache(0);
+    final Container a = mock(Container.class);
+    final Container b = mock(Container.class);
+    final List<Container> evicted = new ArrayList<>();
+
+    cache.insert(FILE_A, a, evicted);
+    cache.insert(FILE_B, b, evicted);
+    Assert.assertEquals(Collections.emptyList(), evicted);
+    Assert.assertEquals(2, cache.size());
+
+    cache.release(a, evicted);
+    Assert.assertEquals(Collections.singletonList(a), evicted);
+    Assert.assertEquals(1, cache.size());
+    Assert.assertNull(cache.acquire(FILE_A));
+  }
+
+  @Test
+  public void leastRecentlyUsedContainersAreEvicted() {
+    final ReaderReadiumContainerCache cache = new ReaderReadiumContainerCache(2);
+    final Container a = mock(Container.class);
+    final Container b = mock(Container.class);
+    final Container c = mock(Container.class);
+    final List<Container> evicted = new ArrayList<>();
+
+    cache.insert(FILE_A, a, evicted);
+    cache.release(a, evicted);
+    cache.insert(FILE_B, b, evicted);
+    cache.release(b, evicted);
+
+    /*
+     * Using A makes B the least recently used container.
+     */
+
+    cache.release(cache.acquire(FILE_A), evicted);
+    cache.insert(FILE_C, c, evicted);
+    cache.release(c, evicted);
+
+    Assert.assertEquals(Collections.singletonList(b), evicted);
+    Assert.assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void containersAreReferenceCounted() {
+    final ReaderReadiumContainerCache cache = new ReaderReadiumContainerCache(0);
+    final Container a = mock(Container.class);
+    final List<Container> evicted = new ArrayList<>();
+
+    cache.insert(FILE_A, a, evicted);
+    Assert.assertSame(a, cache.acquire(FILE_A));
+
+    cache.release(a, evicted);
+    Assert.assertEquals(Collections.emptyList(), evicted);
+
+    cache.release(a, evicted);
+    Assert.assertEquals(Collections.singletonList(a), evicted);
+  }
+
+  @Test
+  public void duplicateInsertionsAreEvicted() {
+    final ReaderReadiumContainerCache cache = new ReaderReadiumContainerCache(1);
+    final Container a0 = mock(Container.class);
+    final Container a1 = mock(Container.class);
+    final List<Container> evicted = new ArrayList<>();
+
+    Assert.assertSame(a0, cache.insert(FILE_A, a0, evicted));
+    Assert.assertSame(a0, cache.insert(FILE_A, a1, evicted));
+    Assert.assertEquals(Collections.singletonList(a1), evicted);
+    Assert.assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void trimEvictsUnusedContainers() {
+    final ReaderReadiumContainerCache cache = new ReaderReadiumContainerCache(2);
+    final Container a = mock(Container.class);
+    final Container b = mock(Container.class);
+    final List<Container> evicted = new ArrayList<>();
+
+    cache.insert(FILE_A, a, evicted);
+    cache.release(a, evicted);
+    cache.insert(FILE_B, b, evicted);
+
+    cache.trim(0, evicted);
+    Assert.assertEquals(Collections.singletonList(a), evicted);
+    Assert.assertSame(b, cache.acquire(FILE_B));
+  }
+}
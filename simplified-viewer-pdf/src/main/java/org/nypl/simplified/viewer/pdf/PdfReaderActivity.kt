@@ -22,6 +22,7 @@ import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 import java.io.File
 import java.io.InputStream
+import java.util.concurrent.Executors
 
 class PdfReaderActivity :
   AppCompatActivity(),
@@ -60,6 +61,7 @@ class PdfReaderActivity :
   private lateinit var books: BookDatabaseType
   private lateinit var entry: BookDatabaseEntryType
   private lateinit var handle: BookDatabaseEntryFormatHandlePDF
+  private lateinit var positionRecorder: PdfReaderPositionRecorder
 
   // vars for the activity to pass back to the reader or table of contents fragment
   private var documentPageIndex: Int = 0
@@ -92,6 +94,14 @@ class PdfReaderActivity :
       log.error("Could not get lastReadLocation, defaulting to the 1st page", e)
     }
 
+    this.positionRecorder =
+      PdfReaderPositionRecorder(
+        executor = Executors.newSingleThreadScheduledExecutor { runnable ->
+          Thread(runnable, "simplified-pdf-position")
+        },
+        save = { page -> this.handle.setLastReadLocation(page) }
+      )
+
     if (savedInstanceState == null) {
       // Get the new instance of the reader you want to load here.
       val readerFragment = PdfViewerFragment.newInstance()
@@ -106,6 +116,18 @@ class PdfReaderActivity :
     }
   }
 
+  override fun onPause() {
+    log.debug("onPause")
+    this.positionRecorder.flush()
+    super.onPause()
+  }
+
+  override fun onDestroy() {
+    log.debug("onDestroy")
+    this.positionRecorder.close()
+    super.onDestroy()
+  }
+
   override fun onSaveInstanceState(outState: Bundle) {
     log.debug("onSaveInstanceState")
     outState.putParcelableArrayList(TABLE_OF_CONTENTS, tableOfContentsList)
@@ -131,7 +153,7 @@ class PdfReaderActivity :
   override fun onReaderPageChanged(pageIndex: Int) {
     log.debug("onReaderPageChanged")
     this.documentPageIndex = pageIndex
-    handle.setLastReadLocation(pageIndex)
+    this.positionRecorder.pageChanged(pageIndex)
   }
 
   override fun onReaderLoadedTableOfContents(tableOfContentsList: ArrayList<TableOfContentsItem>) {
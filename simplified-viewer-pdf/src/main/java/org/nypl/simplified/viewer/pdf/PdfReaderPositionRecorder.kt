@@ -0,0 +1,124 @@
+package org.nypl.simplified.viewer.pdf
+
+import org.slf4j.LoggerFactory
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+
+/**
+ * A recorder of the reading position in a PDF.
+ *
+ * Saving the reading position writes the book database entry to disk, and readers can turn
+ * through many pages a second when scrubbing through a document. The recorder holds the most
+ * recent page in memory, and saves it on the given executor once pages have stopped changing
+ * for a short idle period, or once a change has been left unsaved for a maximum delay. At
+ * most one save is ever pending, and a page that has already been saved is not saved again.
+ *
+ * Owners should call [flush] when the reader is paused, and [close] when it is destroyed.
+ */
+
+class PdfReaderPositionRecorder(
+  private val executor: ScheduledExecutorService,
+  private val save: (Int) -> Unit,
+  private val idleDelayMillis: Long = DEFAULT_IDLE_DELAY_MILLIS,
+  private val maximumDelayMillis: Long = DEFAULT_MAXIMUM_DELAY_MILLIS,
+  private val clock: () -> Long = { System.nanoTime() / 1_000_000L }
+) : AutoCloseable {
+
+  companion object {
+
+    /**
+     * The default time in milliseconds for which pages must stop changing before the
+     * position is saved.
+     */
+
+    const val DEFAULT_IDLE_DELAY_MILLIS = 1_000L
+
+    /**
+     * The default maximum time in milliseconds that a page change may be left unsaved.
+     */
+
+    const val DEFAULT_MAXIMUM_DELAY_MILLIS = 5_000L
+  }
+
+  private val logger =
+    LoggerFactory.getLogger(PdfReaderPositionRecorder::class.java)
+
+  private val lock = Any()
+  private var pageUnsaved: Int? = null
+  private var pageSaved: Int? = null
+  private var unsavedSince = -1L
+  private var saveScheduled: ScheduledFuture<*>? = null
+
+  /**
+   * Record that the reader is now on the given page. The page is saved later.
+   */
+
+  fun pageChanged(page: Int) {
+    synchronized(this.lock) {
+      if (this.executor.isShutdown) {
+        return
+      }
+      if (this.pageUnsaved == null && this.pageSaved == page) {
+        return
+      }
+
+      val now = this.clock.invoke()
+      this.pageUnsaved = page
+      if (this.unsavedSince < 0L) {
+        this.unsavedSince = now
+      }
+
+      val remaining = this.maximumDelayMillis - (now - this.unsavedSince)
+      val delay = Math.max(0L, Math.min(this.idleDelayMillis, remaining))
+      this.saveScheduled?.cancel(false)
+      this.saveScheduled =
+        this.executor.schedule({ this.saveNow() }, delay, TimeUnit.MILLISECONDS)
+    }
+  }
+
+  /**
+   * Save the most recent page without waiting for the idle period. The page is saved on the
+   * executor, so this may be called on the UI thread.
+   */
+
+  fun flush() {
+    synchronized(this.lock) {
+      if (this.pageUnsaved == null || this.executor.isShutdown) {
+        return
+      }
+      this.saveScheduled?.cancel(false)
+      this.saveScheduled =
+        this.executor.schedule({ this.saveNow() }, 0L, TimeUnit.MILLISECONDS)
+    }
+  }
+
+  private fun saveNow() {
+    val page = synchronized(this.lock) {
+      val page = this.pageUnsaved ?: return
+      this.pageUnsaved = null
+      this.unsavedSince = -1L
+      this.saveScheduled = null
+      page
+    }
+
+    try {
+      this.save.invoke(page)
+      synchronized(this.lock) {
+        this.pageSaved = page
+      }
+    } catch (e: Exception) {
+      this.logger.error("could not save reading position {}: ", page, e)
+    }
+  }
+
+  /**
+   * Save the most recent page, if necessary, and shut down the executor once it has been
+   * saved.
+   */
+
+  override fun close() {
+    this.flush()
+    this.executor.shutdown()
+  }
+}